@@ -0,0 +1,121 @@
+package com.espirit.modules.to_be_renamed.batch;
+
+import com.espirit.modules.to_be_renamed.To_be_renamedPOJO;
+import com.espirit.modules.to_be_renamed.util.JsonUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares encoding and decoding of POJOs with {@link To_be_renamedPOJOCodec}, JSON as written and read by the
+ * module's endpoints, and Java serialization of a list, for 10000 items with few or only distinct values.
+ * <p>
+ * The size of each encoding is printed once per trial, e.g.
+ * {@code 10000 items with 100 distinct values: binary 11.7 kB, JSON 269.0 kB, Java serialization 249.1 kB}.
+ * Binary decoding is measured from a heap and from a direct buffer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class To_be_renamedPOJOCodecBenchmark {
+
+    private static final int ITEMS = 10_000;
+
+    @Param({"100", "10000"})
+    public int distinct;
+
+    private List<To_be_renamedPOJO> list;
+    private byte[] binary;
+    private ByteBuffer direct;
+    private String json;
+    private byte[] serialized;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.list = new ArrayList<>(ITEMS);
+        for (int i = 0; i < ITEMS; i++) {
+            this.list.add(new To_be_renamedPOJO("catalog/entry-" + (i * 7919L % this.distinct)));
+        }
+        this.binary = To_be_renamedPOJOCodec.encode(this.list);
+        this.direct = ByteBuffer.allocateDirect(this.binary.length);
+        this.direct.put(this.binary).flip();
+        this.json = encodeJson();
+        this.serialized = encodeJava();
+        System.out.println(String.format(Locale.ROOT, "%d items with %d distinct values: binary %.1f kB, JSON %.1f kB, Java serialization %.1f kB",
+                ITEMS, this.distinct, this.binary.length / 1e3, this.json.getBytes(StandardCharsets.UTF_8).length / 1e3, this.serialized.length / 1e3));
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() {
+        return To_be_renamedPOJOCodec.encode(this.list);
+    }
+
+    @Benchmark
+    public To_be_renamedPOJOBatch decodeBinary() {
+        return To_be_renamedPOJOCodec.decode(ByteBuffer.wrap(this.binary));
+    }
+
+    @Benchmark
+    public To_be_renamedPOJOBatch decodeBinaryDirect() {
+        return To_be_renamedPOJOCodec.decode(this.direct.duplicate());
+    }
+
+    @Benchmark
+    public String encodeJson() {
+        final StringBuilder builder = new StringBuilder(ITEMS * 32).append('[');
+        for (To_be_renamedPOJO object : this.list) {
+            if (builder.length() > 1) {
+                builder.append(',');
+            }
+            builder.append("{\"var\":");
+            JsonUtil.appendQuoted(builder, object.getVar());
+            builder.append('}');
+        }
+        return builder.append(']').toString();
+    }
+
+    @Benchmark
+    public List<To_be_renamedPOJO> decodeJson() {
+        final List<?> items = (List<?>) JsonUtil.parse(this.json);
+        final List<To_be_renamedPOJO> objects = new ArrayList<>(items.size());
+        for (Object item : items) {
+            objects.add(new To_be_renamedPOJO((String) ((Map<?, ?>) item).get("var")));
+        }
+        return objects;
+    }
+
+    @Benchmark
+    public byte[] encodeJava() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(this.list);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public Object decodeJava() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(this.serialized))) {
+            return in.readObject();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.espirit.modules.to_be_renamed.metrics;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures the recording overhead of the metrics, which must stay below 50ns per event, single threaded and under
+ * contention. {@code timedEvent} includes the two {@link System#nanoTime()} calls an instrumented method makes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class To_be_renamedHistogramBenchmark {
+
+    private final To_be_renamedHistogram histogram = new To_be_renamedHistogram("benchmark");
+    private final LongAdder counter = new LongAdder();
+
+    private long value = 12_345;
+
+    @Benchmark
+    public void record() {
+        // vary the value, so different buckets are hit
+        this.histogram.record(this.value++ & 0xFFFFF);
+    }
+
+    @Benchmark
+    public void timedEvent() {
+        this.histogram.recordSince(System.nanoTime());
+    }
+
+    @Benchmark
+    public void counter() {
+        this.counter.increment();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void recordContended() {
+        this.histogram.recordSince(System.nanoTime());
+    }
+}
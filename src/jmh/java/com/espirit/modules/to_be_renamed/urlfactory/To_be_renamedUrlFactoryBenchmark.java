@@ -0,0 +1,113 @@
+package com.espirit.modules.to_be_renamed.urlfactory;
+
+import com.espirit.modules.to_be_renamed.urlfactory.To_be_renamedFakeModel.Shape;
+import de.espirit.firstspirit.access.Language;
+import de.espirit.firstspirit.access.project.TemplateSet;
+import de.espirit.firstspirit.access.store.PageParams;
+import de.espirit.firstspirit.access.store.mediastore.Media;
+import de.espirit.firstspirit.access.store.sitestore.ContentMultiPageParams.ContentPageParams;
+import de.espirit.firstspirit.access.store.sitestore.PageRef;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Measures {@link To_be_renamedUrlFactory#getUrl} for pages, content projections and media over synthetic site trees
+ * of 100k nodes, with and without lowercase and welcome file mode. Run with the GC profiler (configured in
+ * {@code build.gradle}) to get the allocation rate per URL.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class To_be_renamedUrlFactoryBenchmark {
+
+  private static final int NODES = 100_000;
+  private static final int DATASETS = 1_024;
+
+  @Param({"DEEP", "WIDE"})
+  public Shape _shape;
+
+  @Param({"false", "true"})
+  public boolean _lowerCase;
+
+  @Param({"false", "true"})
+  public boolean _welcomeFiles;
+
+  private To_be_renamedFakeModel _model;
+  private To_be_renamedUrlFactory _factory;
+  private TemplateSet _templateSet;
+  private Language _language;
+  private PageParams _firstPage;
+  private ContentPageParams[] _datasets;
+
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    _model = new To_be_renamedFakeModel(_shape, NODES);
+    _templateSet = _model.getHtmlTemplateSet();
+    _language = _model.getLanguage();
+    _firstPage = To_be_renamedFakeModel.firstPage();
+    _datasets = new ContentPageParams[DATASETS];
+    for (int i = 0; i < DATASETS; i++) {
+      _datasets[i] = To_be_renamedFakeModel.datasetPage(i, "Product " + i + ": Special Edition");
+    }
+    final Map<String, String> settings = new HashMap<>();
+    settings.put(To_be_renamedUrlFactory.USELOWERCASE, String.valueOf(_lowerCase));
+    settings.put(To_be_renamedUrlFactory.USEWELCOMEFILENAMES, String.valueOf(_welcomeFiles));
+    _factory = new To_be_renamedUrlFactory();
+    _factory.init(settings, _model.getPathLookup());
+  }
+
+
+  /**
+   * Per thread cursor, so concurrent runs ({@code -t}) walk the nodes independently.
+   */
+  @State(Scope.Thread)
+  public static class Cursor {
+
+    private int _page;
+    private int _projection;
+    private int _dataset;
+    private int _media;
+
+
+    static <T> T next(final List<T> list, final int index) {
+      return list.get(Math.floorMod(index, list.size()));
+    }
+  }
+
+
+  @Benchmark
+  public String pageUrl(final Cursor cursor) {
+    final PageRef pageRef = Cursor.next(_model.getPageRefs(), cursor._page++);
+    return _factory.getUrl(pageRef, _templateSet, _language, _firstPage);
+  }
+
+
+  @Benchmark
+  public String contentProjectionUrl(final Cursor cursor) {
+    final PageRef pageRef = Cursor.next(_model.getContentProjections(), cursor._projection++);
+    final ContentPageParams dataset = _datasets[cursor._dataset++ & (DATASETS - 1)];
+    return _factory.getUrl(pageRef, _templateSet, _language, dataset);
+  }
+
+
+  @Benchmark
+  public String mediaUrl(final Cursor cursor) {
+    final Media media = Cursor.next(_model.getMedia(), cursor._media++);
+    return _factory.getUrl(media, _language, _model.getThumbnail());
+  }
+}
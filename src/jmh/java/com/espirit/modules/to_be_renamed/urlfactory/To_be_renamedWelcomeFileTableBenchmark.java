@@ -0,0 +1,81 @@
+package com.espirit.modules.to_be_renamed.urlfactory;
+
+import com.espirit.modules.to_be_renamed.urlfactory.To_be_renamedUrlFactory.WelcomeFileMode;
+import de.espirit.firstspirit.access.project.TemplateSet;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Compares the precomputed {@link To_be_renamedWelcomeFileTable} with the former per-URL iteration over all template
+ * sets of a project, for every {@link WelcomeFileMode}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class To_be_renamedWelcomeFileTableBenchmark {
+
+  private static final int TEMPLATE_SETS = 8;
+
+  @Param({"DISABLED", "FOR_FIRST_HTML_CHANNEL", "FOR_ALL_HTML_CHANNELS", "FOR_SELECTED_CHANNELS"})
+  public WelcomeFileMode _mode;
+
+  private List<TemplateSet> _templateSets;
+  private To_be_renamedWelcomeFileTable _table;
+  private int _next;
+
+
+  @Setup
+  public void setUp() {
+    _templateSets = new ArrayList<>(TEMPLATE_SETS);
+    for (int i = 0; i < TEMPLATE_SETS; i++) {
+      // a few non-html channels in front, so the first html channel is not the first template set
+      _templateSets.add(To_be_renamedFakeModel.templateSet("channel" + i, i < 3 ? "xml" : "html"));
+    }
+    _table = To_be_renamedWelcomeFileTable.create(_mode, Collections.singleton("channel5"), _templateSets);
+  }
+
+
+  @Benchmark
+  public boolean decisionTable() {
+    return _table.isWelcomeFile(nextTemplateSet());
+  }
+
+
+  @Benchmark
+  public boolean iteration() {
+    final TemplateSet templateSet = nextTemplateSet();
+    switch (_mode) {
+      case DISABLED:
+        return false;
+      case FOR_ALL_HTML_CHANNELS:
+        return true;
+      case FOR_SELECTED_CHANNELS:
+        return Collections.singleton("channel5").contains(templateSet.getUid());
+      default:
+        for (final TemplateSet set : _templateSets) {
+          if ("html".equals(set.getExtension())) {
+            return templateSet.equals(set);
+          }
+        }
+        return false;
+    }
+  }
+
+
+  private TemplateSet nextTemplateSet() {
+    return _templateSets.get(_next++ & (TEMPLATE_SETS - 1));
+  }
+}
@@ -4,15 +4,20 @@ import com.espirit.modules.to_be_renamed.dataaccess.plugin.To_be_renamedDataAcce
 import com.espirit.modules.to_be_renamed.dataaccess.session.To_be_renamedDataAccessSession;
 import com.espirit.modules.to_be_renamed.dataaccess.datastream.To_be_renamedDataStream;
 
+import java.io.Serializable;
+
 /**
  * Plain Old Java Object
  * This object can carry some information about something.
+ * It is serializable, so it can be transferred between the module's service and its clients.
  *
  * @see To_be_renamedDataAccessPlugin
  * @see To_be_renamedDataAccessSession
  * @see To_be_renamedDataStream
  */
-public class To_be_renamedPOJO {
+public class To_be_renamedPOJO implements Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	private final String var;
 
@@ -0,0 +1,347 @@
+package com.espirit.modules.to_be_renamed.batch;
+
+import com.espirit.modules.to_be_renamed.To_be_renamedPOJO;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+
+/**
+ * Compact, read-only list of {@link To_be_renamedPOJO}s, stored column by column instead of one object per item.
+ * <p>
+ * Every field is a column. String columns are dictionary encoded: each distinct value is stored once, and every item
+ * only holds the code of its value, in a {@code byte[]}, {@code char[]} or {@code int[]} depending on the number of
+ * distinct values. A million items with a hundred distinct values take about 1 MB as a batch and 44 MB as a list of
+ * objects with their own strings; if all values are distinct, the batch still saves the objects and references.
+ * <p>
+ * {@link #get(int)} creates a POJO on every call, sharing the string of the dictionary. Code that reads many items
+ * should use a {@link View} instead: a flyweight with the accessors of the POJO, moved from item to item without
+ * allocating. Batches are serializable, so they can be returned by the module's service; they are serialized in the
+ * binary format of {@link To_be_renamedPOJOCodec}.
+ */
+public final class To_be_renamedPOJOBatch extends AbstractList<To_be_renamedPOJO> implements RandomAccess, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final To_be_renamedPOJOBatch EMPTY = new Builder(0).build();
+
+    private final int size;
+    private final String[] varDictionary;
+    // exactly one of the code arrays is set, the narrowest one for the size of the dictionary
+    private final byte[] varBytes;
+    private final char[] varChars;
+    private final int[] varInts;
+
+    // the codes are not validated, varCodes is kept if it has the size and the dictionary needs ints
+    To_be_renamedPOJOBatch(int size, String[] varDictionary, int[] varCodes) {
+        this.size = size;
+        this.varDictionary = varDictionary;
+        if (varDictionary.length <= 1 << Byte.SIZE) {
+            this.varBytes = new byte[size];
+            for (int i = 0; i < size; i++) {
+                this.varBytes[i] = (byte) varCodes[i];
+            }
+            this.varChars = null;
+            this.varInts = null;
+        } else if (varDictionary.length <= 1 << Character.SIZE) {
+            this.varBytes = null;
+            this.varChars = new char[size];
+            for (int i = 0; i < size; i++) {
+                this.varChars[i] = (char) varCodes[i];
+            }
+            this.varInts = null;
+        } else {
+            this.varBytes = null;
+            this.varChars = null;
+            this.varInts = varCodes.length == size ? varCodes : Arrays.copyOf(varCodes, size);
+        }
+    }
+
+    /**
+     * Creates a batch of the objects.
+     *
+     * @param objects the objects
+     * @return the batch
+     */
+    public static To_be_renamedPOJOBatch of(Collection<? extends To_be_renamedPOJO> objects) {
+        if (objects instanceof To_be_renamedPOJOBatch) {
+            return (To_be_renamedPOJOBatch) objects;
+        }
+        if (objects.isEmpty()) {
+            return EMPTY;
+        }
+        final Builder builder = new Builder(objects.size());
+        for (To_be_renamedPOJO object : objects) {
+            builder.add(object);
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return a builder for a batch of unknown size
+     */
+    public static Builder builder() {
+        return new Builder(16);
+    }
+
+    /**
+     * Creates a batch from its columns, e.g. when it is decoded.
+     *
+     * @param varDictionary the distinct values of var
+     * @param varCodes      the index in the dictionary per item, its length is the size of the batch
+     * @return the batch
+     * @throws IllegalArgumentException if a code is not an index of the dictionary
+     */
+    public static To_be_renamedPOJOBatch ofColumns(String[] varDictionary, int[] varCodes) {
+        for (int code : varCodes) {
+            if (code < 0 || code >= varDictionary.length) {
+                throw new IllegalArgumentException("Code " + code + " is not in the dictionary of " + varDictionary.length + " values");
+            }
+        }
+        return new To_be_renamedPOJOBatch(varCodes.length, varDictionary.clone(), varCodes.clone());
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Creates a POJO of an item. Its strings are the ones of the dictionary, only the object itself is new.
+     *
+     * @param index the index of the item
+     * @return a new POJO
+     */
+    @Override
+    public To_be_renamedPOJO get(int index) {
+        return new To_be_renamedPOJO(getVar(index));
+    }
+
+    /**
+     * Gets var of an item without creating a POJO.
+     *
+     * @param index the index of the item
+     * @return the var
+     */
+    public String getVar(int index) {
+        return this.varDictionary[getVarCode(index)];
+    }
+
+    /**
+     * Gets the code of var of an item; items with the same code have equal values.
+     *
+     * @param index the index of the item
+     * @return the index in the dictionary
+     */
+    public int getVarCode(int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + this.size);
+        }
+        if (this.varBytes != null) {
+            return this.varBytes[index] & 0xFF;
+        }
+        if (this.varChars != null) {
+            return this.varChars[index];
+        }
+        return this.varInts[index];
+    }
+
+    /**
+     * @return the number of distinct values of var
+     */
+    public int getVarDictionarySize() {
+        return this.varDictionary.length;
+    }
+
+    /**
+     * @param code a code of var
+     * @return the value of the code
+     */
+    public String getVarDictionaryValue(int code) {
+        return this.varDictionary[code];
+    }
+
+    /**
+     * Creates a view positioned at the first item.
+     *
+     * @return a new view
+     */
+    public View view() {
+        return new View(this);
+    }
+
+    /**
+     * Calls the action for every item with the same view, moved from item to item. The view must not be kept.
+     *
+     * @param action the action
+     */
+    public void forEachView(Consumer<? super View> action) {
+        final View view = new View(this);
+        for (int i = 0; i < this.size; i++) {
+            action.accept(view.moveTo(i));
+        }
+    }
+
+    /**
+     * Finds the first item with the var of a POJO. POJOs have no {@code equals}, so items are compared by var, which
+     * also makes {@link #contains(Object)} work.
+     *
+     * @param o a POJO
+     * @return the index of the first item with its var, or -1
+     */
+    @Override
+    public int indexOf(Object o) {
+        if (!(o instanceof To_be_renamedPOJO)) {
+            return -1;
+        }
+        final String var = ((To_be_renamedPOJO) o).getVar();
+        for (int code = 0; code < this.varDictionary.length; code++) {
+            if (var == null ? this.varDictionary[code] == null : var.equals(this.varDictionary[code])) {
+                for (int i = 0; i < this.size; i++) {
+                    if (getVarCode(i) == code) {
+                        return i;
+                    }
+                }
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private Object writeReplace() {
+        return new SerializedForm(To_be_renamedPOJOCodec.encode(this));
+    }
+
+    private void readObject(ObjectInputStream in) throws InvalidObjectException {
+        throw new InvalidObjectException("Batches are deserialized from their serialized form");
+    }
+
+    /**
+     * Serialized form of a batch, its message of {@link To_be_renamedPOJOCodec}.
+     */
+    private static final class SerializedForm implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final byte[] message;
+
+        SerializedForm(byte[] message) {
+            this.message = message;
+        }
+
+        private Object readResolve() {
+            return To_be_renamedPOJOCodec.decode(ByteBuffer.wrap(this.message));
+        }
+    }
+
+    /**
+     * Flyweight of an item of a batch, with the accessors of {@link To_be_renamedPOJO}. It is moved from item to item,
+     * so it is only valid until it is moved again; use {@link #toPOJO()} to keep an item.
+     */
+    public static final class View {
+
+        private final To_be_renamedPOJOBatch batch;
+        private int index;
+
+        private View(To_be_renamedPOJOBatch batch) {
+            this.batch = batch;
+        }
+
+        /**
+         * @param index the index of the item
+         * @return this view
+         */
+        public View moveTo(int index) {
+            if (index < 0 || index >= this.batch.size) {
+                throw new IndexOutOfBoundsException("Index " + index + ", size " + this.batch.size);
+            }
+            this.index = index;
+            return this;
+        }
+
+        public int getIndex() {
+            return this.index;
+        }
+
+        /**
+         * Gets the item's var.
+         *
+         * @return the var
+         */
+        public String getVar() {
+            return this.batch.getVar(this.index);
+        }
+
+        /**
+         * @return a POJO of the item
+         */
+        public To_be_renamedPOJO toPOJO() {
+            return this.batch.get(this.index);
+        }
+
+        @Override
+        public String toString() {
+            return "View[" + this.index + "]";
+        }
+    }
+
+    /**
+     * Builds a batch item by item, the dictionaries are built on the way.
+     */
+    public static final class Builder {
+
+        private final Map<String, Integer> varCodes = new HashMap<>();
+        private String[] varDictionary;
+        private int[] codes;
+        private int size;
+
+        private Builder(int capacity) {
+            this.codes = new int[Math.max(capacity, 1)];
+            this.varDictionary = new String[16];
+        }
+
+        /**
+         * @param object the next item
+         * @return this builder
+         */
+        public Builder add(To_be_renamedPOJO object) {
+            return add(object.getVar());
+        }
+
+        /**
+         * @param var the var of the next item
+         * @return this builder
+         */
+        public Builder add(String var) {
+            Integer code = this.varCodes.get(var);
+            if (code == null) {
+                code = this.varCodes.size();
+                this.varCodes.put(var, code);
+                if (code == this.varDictionary.length) {
+                    this.varDictionary = Arrays.copyOf(this.varDictionary, code * 2);
+                }
+                this.varDictionary[code] = var;
+            }
+            if (this.size == this.codes.length) {
+                this.codes = Arrays.copyOf(this.codes, this.size * 2);
+            }
+            this.codes[this.size++] = code;
+            return this;
+        }
+
+        /**
+         * @return the batch of the added items
+         */
+        public To_be_renamedPOJOBatch build() {
+            return new To_be_renamedPOJOBatch(this.size, Arrays.copyOf(this.varDictionary, this.varCodes.size()), this.codes);
+        }
+    }
+}
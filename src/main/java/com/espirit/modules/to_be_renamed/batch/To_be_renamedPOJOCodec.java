@@ -0,0 +1,420 @@
+package com.espirit.modules.to_be_renamed.batch;
+
+import com.espirit.modules.to_be_renamed.To_be_renamedPOJO;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Binary format of {@link To_be_renamedPOJO}s and {@link To_be_renamedPOJOBatch}es, for caches on disk or off-heap
+ * and for transfers between server and client. Java serialization of a batch uses it as well.
+ * <pre>
+ * message = magic version schema strings count columns
+ * magic   = 'P' 'B'
+ * version = varint, currently 2
+ * schema  = varint number of fields, per field: varint field id, byte type
+ * strings = varint number of strings, per string: varint length, UTF-8 bytes
+ * count   = varint number of items
+ * columns = per field of the schema: varint byte length of the column, one value per item:
+ *           STRING: varint index in strings + 1, 0 for null
+ *           VARINT: zigzag encoded varint
+ *           other types: defined by later versions
+ * </pre>
+ * Varints are unsigned LEB128, 7 bits per byte, in their shortest form and below 2<sup>63</sup>; readers reject
+ * longer encodings. Every distinct string is written once, so the size grows with the distinct values, not with the
+ * items; a message of a single POJO is a batch of one item.
+ * <p>
+ * The schema makes the format evolvable without a new version: a new field gets a new id, possibly of a new type, and
+ * readers skip the columns of fields or types they do not know by their length and leave fields that are missing in
+ * a message {@code null}. The version only changes if the layout itself changes; readers reject messages of newer
+ * versions. Messages of version 1 have no column lengths, so only fields of the types above can be skipped in them.
+ * <p>
+ * {@link #decode(ByteBuffer)} reads in place from heap, direct and memory mapped buffers, no bytes are copied
+ * before decoding and every distinct string is decoded once.
+ */
+public final class To_be_renamedPOJOCodec {
+
+    public static final int VERSION = 2;
+
+    // the version without column lengths
+    private static final int VERSION_1 = 1;
+
+    static final byte MAGIC_1 = 'P';
+    static final byte MAGIC_2 = 'B';
+
+    static final byte TYPE_STRING = 1;
+    static final byte TYPE_VARINT = 2;
+
+    // field ids are never reused, removed fields keep theirs
+    static final int FIELD_VAR = 1;
+
+    private To_be_renamedPOJOCodec() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Encodes a POJO as a batch of one.
+     *
+     * @param object the object
+     * @return the message
+     */
+    public static byte[] encode(To_be_renamedPOJO object) {
+        return encode(Collections.singletonList(object));
+    }
+
+    /**
+     * Encodes objects as a batch.
+     *
+     * @param objects the objects, a {@link To_be_renamedPOJOBatch} is encoded without building its dictionary again
+     * @return the message
+     */
+    public static byte[] encode(Collection<? extends To_be_renamedPOJO> objects) {
+        return write(To_be_renamedPOJOBatch.of(objects)).toByteArray();
+    }
+
+    /**
+     * Encodes objects as a batch.
+     *
+     * @param objects the objects
+     * @param out     the stream the message is written to
+     * @throws IOException if the stream fails
+     */
+    public static void encode(Collection<? extends To_be_renamedPOJO> objects, OutputStream out) throws IOException {
+        write(To_be_renamedPOJOBatch.of(objects)).writeTo(out);
+    }
+
+    private static Output write(To_be_renamedPOJOBatch batch) {
+        final int dictionarySize = batch.getVarDictionarySize();
+        // the reference of each dictionary code in the string table, 0 for null
+        final int[] references = new int[dictionarySize];
+        int strings = 0;
+        long stringBytes = 0;
+        for (int code = 0; code < dictionarySize; code++) {
+            final String value = batch.getVarDictionaryValue(code);
+            if (value != null) {
+                references[code] = ++strings;
+                stringBytes += value.length();
+            }
+        }
+        final Output out = new Output((int) Math.min(Integer.MAX_VALUE - 16, 16 + stringBytes + strings + batch.size() * 2L));
+        out.writeByte(MAGIC_1);
+        out.writeByte(MAGIC_2);
+        out.writeVarint(VERSION);
+
+        out.writeVarint(1);
+        out.writeVarint(FIELD_VAR);
+        out.writeByte(TYPE_STRING);
+
+        out.writeVarint(strings);
+        for (int code = 0; code < dictionarySize; code++) {
+            final String value = batch.getVarDictionaryValue(code);
+            if (value != null) {
+                out.writeString(value);
+            }
+        }
+
+        out.writeVarint(batch.size());
+        long columnBytes = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            columnBytes += varintSize(references[batch.getVarCode(i)]);
+        }
+        out.writeVarint(columnBytes);
+        for (int i = 0; i < batch.size(); i++) {
+            out.writeVarint(references[batch.getVarCode(i)]);
+        }
+        return out;
+    }
+
+    private static int varintSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * Decodes a message of a single POJO.
+     *
+     * @param buffer the buffer, read from its position, which is moved behind the message
+     * @return the object
+     * @throws IllegalArgumentException if the buffer does not start with a message of one object
+     */
+    public static To_be_renamedPOJO decodeOne(ByteBuffer buffer) {
+        final To_be_renamedPOJOBatch batch = decode(buffer);
+        if (batch.size() != 1) {
+            throw new IllegalArgumentException("Expected one object, found " + batch.size());
+        }
+        return batch.get(0);
+    }
+
+    /**
+     * Decodes a message of a batch.
+     *
+     * @param buffer the buffer, read from its position, which is moved behind the message
+     * @return the batch
+     * @throws IllegalArgumentException if the buffer does not start with a valid message or the message was written
+     *                                  by a newer version
+     */
+    public static To_be_renamedPOJOBatch decode(ByteBuffer buffer) {
+        final Input in = new Input(buffer);
+        if (in.readByte() != MAGIC_1 || in.readByte() != MAGIC_2) {
+            throw new IllegalArgumentException("Not a POJO message");
+        }
+        final int version = in.readInt();
+        if (version > VERSION) {
+            throw new IllegalArgumentException("Message version " + version + " is newer than the supported version " + VERSION);
+        }
+        if (version < VERSION_1) {
+            throw new IllegalArgumentException("Message version " + version + " does not exist");
+        }
+        final boolean columnLengths = version > VERSION_1;
+
+        final int fields = in.readCount();
+        final int[] fieldIds = new int[fields];
+        final byte[] fieldTypes = new byte[fields];
+        for (int field = 0; field < fields; field++) {
+            fieldIds[field] = in.readInt();
+            fieldTypes[field] = in.readByte();
+            if (!columnLengths && fieldTypes[field] != TYPE_STRING && fieldTypes[field] != TYPE_VARINT) {
+                throw new IllegalArgumentException("Unknown type " + fieldTypes[field] + " of field " + fieldIds[field]);
+            }
+        }
+
+        final int stringCount = in.readCount();
+        // one more for null, which has no entry in the table
+        final String[] strings = new String[stringCount + 1];
+        for (int string = 0; string < stringCount; string++) {
+            strings[string] = in.readString();
+        }
+
+        final int size = in.readCount();
+        if (size > 0 && fields == 0) {
+            throw new IllegalArgumentException("Message of " + size + " objects without fields");
+        }
+        int[] varCodes = null;
+        boolean varNull = false;
+        for (int field = 0; field < fields; field++) {
+            final int end = columnLengths ? in.readColumnEnd() : -1;
+            if (fieldIds[field] == FIELD_VAR && fieldTypes[field] == TYPE_STRING) {
+                varCodes = new int[size];
+                varNull = readStringColumn(in, varCodes, stringCount);
+                if (columnLengths && in.position() != end) {
+                    throw new IllegalArgumentException("Column of field " + fieldIds[field] + " does not end at its length");
+                }
+            } else if (columnLengths) {
+                // a field of a newer version, or of a type this version does not read
+                in.skipTo(end);
+            } else {
+                for (int i = 0; i < size; i++) {
+                    in.readVarint();
+                }
+            }
+        }
+        if (varCodes == null) {
+            varCodes = new int[size];
+            Arrays.fill(varCodes, stringCount);
+            varNull = true;
+        }
+        return new To_be_renamedPOJOBatch(size, varNull ? strings : Arrays.copyOf(strings, stringCount), varCodes);
+    }
+
+    // reads the codes of a string column, null is the entry behind the strings; returns whether there is a null
+    private static boolean readStringColumn(Input in, int[] codes, int stringCount) {
+        boolean containsNull = false;
+        for (int i = 0; i < codes.length; i++) {
+            final long reference = in.readVarint();
+            if (reference > stringCount) {
+                throw new IllegalArgumentException("String " + reference + " is not in the table of " + stringCount + " strings");
+            }
+            if (reference == 0) {
+                containsNull = true;
+                codes[i] = stringCount;
+            } else {
+                codes[i] = (int) reference - 1;
+            }
+        }
+        return containsNull;
+    }
+
+    /**
+     * Growable output of a message.
+     */
+    private static final class Output {
+
+        private byte[] bytes;
+        private int length;
+
+        Output(int capacity) {
+            this.bytes = new byte[Math.max(capacity, 16)];
+        }
+
+        void writeByte(int value) {
+            ensure(1);
+            this.bytes[this.length++] = (byte) value;
+        }
+
+        void writeVarint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                this.bytes[this.length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            this.bytes[this.length++] = (byte) value;
+        }
+
+        // UTF-8 without an intermediate byte array, unpaired surrogates become '?' like in String.getBytes
+        void writeString(String value) {
+            final int chars = value.length();
+            int utf8Length = 0;
+            for (int i = 0; i < chars; i++) {
+                final char c = value.charAt(i);
+                if (c < 0x80) {
+                    utf8Length++;
+                } else if (c < 0x800) {
+                    utf8Length += 2;
+                } else if (Character.isHighSurrogate(c) && i + 1 < chars && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    utf8Length += 4;
+                    i++;
+                } else if (Character.isSurrogate(c)) {
+                    utf8Length++;
+                } else {
+                    utf8Length += 3;
+                }
+            }
+            writeVarint(utf8Length);
+            ensure(utf8Length);
+            final byte[] target = this.bytes;
+            int position = this.length;
+            for (int i = 0; i < chars; i++) {
+                final char c = value.charAt(i);
+                if (c < 0x80) {
+                    target[position++] = (byte) c;
+                } else if (c < 0x800) {
+                    target[position++] = (byte) (0xC0 | c >> 6);
+                    target[position++] = (byte) (0x80 | c & 0x3F);
+                } else if (Character.isHighSurrogate(c) && i + 1 < chars && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    final int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    target[position++] = (byte) (0xF0 | codePoint >> 18);
+                    target[position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                    target[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                    target[position++] = (byte) (0x80 | codePoint & 0x3F);
+                } else if (Character.isSurrogate(c)) {
+                    target[position++] = '?';
+                } else {
+                    target[position++] = (byte) (0xE0 | c >> 12);
+                    target[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+                    target[position++] = (byte) (0x80 | c & 0x3F);
+                }
+            }
+            this.length = position;
+        }
+
+        private void ensure(int additional) {
+            if (this.length + additional > this.bytes.length) {
+                this.bytes = Arrays.copyOf(this.bytes, Math.max(this.bytes.length * 2, this.length + additional));
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(this.bytes, this.length);
+        }
+
+        void writeTo(OutputStream out) throws IOException {
+            out.write(this.bytes, 0, this.length);
+        }
+    }
+
+    /**
+     * Reads a message from a buffer in place.
+     */
+    private static final class Input {
+
+        private final ByteBuffer buffer;
+        // for strings of direct buffers, reused
+        private byte[] scratch;
+
+        Input(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        byte readByte() {
+            if (!this.buffer.hasRemaining()) {
+                throw new IllegalArgumentException("Message is truncated");
+            }
+            return this.buffer.get();
+        }
+
+        // values below 2^63 take at most 9 bytes, so a tenth byte is never valid; a last byte of 0 after others is
+        // a longer encoding of a shorter varint, which would give one value several encodings
+        long readVarint() {
+            long value = 0;
+            for (int shift = 0; shift < 63; shift += 7) {
+                final byte b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    if (b == 0 && shift > 0) {
+                        throw new IllegalArgumentException("Varint is not in its shortest form");
+                    }
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Varint exceeds 63 bits");
+        }
+
+        int position() {
+            return this.buffer.position();
+        }
+
+        // the length of a column, as the position behind it
+        int readColumnEnd() {
+            final int length = readCount();
+            return this.buffer.position() + length;
+        }
+
+        void skipTo(int position) {
+            this.buffer.position(position);
+        }
+
+        int readInt() {
+            final long value = readVarint();
+            if (value > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Value " + value + " exceeds an int");
+            }
+            return (int) value;
+        }
+
+        // a count of entries that follow; each takes at least a byte, which bounds the arrays allocated for them
+        int readCount() {
+            final long count = readVarint();
+            if (count > this.buffer.remaining()) {
+                throw new IllegalArgumentException("Count " + count + " exceeds the remaining " + this.buffer.remaining() + " bytes");
+            }
+            return (int) count;
+        }
+
+        String readString() {
+            final int length = readCount();
+            final int position = this.buffer.position();
+            final String value;
+            if (this.buffer.hasArray()) {
+                value = new String(this.buffer.array(), this.buffer.arrayOffset() + position, length, StandardCharsets.UTF_8);
+            } else {
+                if (this.scratch == null || this.scratch.length < length) {
+                    this.scratch = new byte[Math.max(length, 64)];
+                }
+                this.buffer.get(this.scratch, 0, length);
+                this.buffer.position(position);
+                value = new String(this.scratch, 0, length, StandardCharsets.UTF_8);
+            }
+            this.buffer.position(position + length);
+            return value;
+        }
+    }
+}
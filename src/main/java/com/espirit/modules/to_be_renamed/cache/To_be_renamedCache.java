@@ -0,0 +1,277 @@
+package com.espirit.modules.to_be_renamed.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, thread-safe cache with a time to live per entry.
+ * Reads never block: entries live in a {@link ConcurrentHashMap} and hit/miss counters are {@link LongAdder}s.
+ * Once the maximum size is exceeded, a single thread evicts expired entries first and then arbitrary entries until
+ * the cache is at 90% of its maximum size, so the cost of an eviction run is spread over many puts.
+ * Size and time to live can be changed while the cache is in use.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class To_be_renamedCache<K, V> {
+
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private volatile int maximumSize;
+    private volatile long ttlNanos;
+
+    /**
+     * Instantiates a new cache.
+     *
+     * @param maximumSize the maximum number of entries
+     * @param ttl         the time to live of an entry
+     * @param unit        the unit of {@code ttl}
+     */
+    public To_be_renamedCache(int maximumSize, long ttl, TimeUnit unit) {
+        this.maximumSize = maximumSize;
+        this.ttlNanos = unit.toNanos(ttl);
+    }
+
+    /**
+     * Gets a cached value.
+     *
+     * @param key the key
+     * @return the value or {@code null} if it is not cached or expired
+     */
+    public V get(K key) {
+        final Entry<V> entry = this.entries.get(key);
+        if (entry == null) {
+            this.misses.increment();
+            return null;
+        }
+        if (entry.isExpired(System.nanoTime())) {
+            this.entries.remove(key, entry);
+            this.misses.increment();
+            return null;
+        }
+        this.hits.increment();
+        if (!entry.read) {
+            // written once per entry, hits of an entry in use only read the flag
+            entry.read = true;
+        }
+        return entry.value;
+    }
+
+    /**
+     * Gets a cached value without counting a hit or miss, e.g. for maintenance.
+     *
+     * @param key the key
+     * @return the value or {@code null} if it is not cached or expired
+     */
+    public V peek(K key) {
+        final Entry<V> entry = this.entries.get(key);
+        return entry == null || entry.isExpired(System.nanoTime()) ? null : entry.value;
+    }
+
+    /**
+     * Gets all cached values of the provided keys.
+     *
+     * @param keys the keys
+     * @return the cached values by key, missing and expired keys are not contained
+     */
+    public Map<K, V> getAll(Collection<K> keys) {
+        final Map<K, V> result = new HashMap<>(keys.size() * 4 / 3 + 1);
+        for (K key : keys) {
+            final V value = get(key);
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Caches a value.
+     *
+     * @param key   the key
+     * @param value the value
+     */
+    public void put(K key, V value) {
+        this.entries.put(key, new Entry<>(value, System.nanoTime() + this.ttlNanos));
+        if (this.entries.size() > this.maximumSize) {
+            evict();
+        }
+    }
+
+    /**
+     * Caches all provided values.
+     *
+     * @param values the values by key
+     */
+    public void putAll(Map<K, V> values) {
+        final long expiresAt = System.nanoTime() + this.ttlNanos;
+        for (Map.Entry<K, V> value : values.entrySet()) {
+            this.entries.put(value.getKey(), new Entry<>(value.getValue(), expiresAt));
+        }
+        if (this.entries.size() > this.maximumSize) {
+            evict();
+        }
+    }
+
+    /**
+     * Removes a value.
+     *
+     * @param key the key
+     */
+    public void invalidate(K key) {
+        this.entries.remove(key);
+    }
+
+    /**
+     * Removes all values.
+     */
+    public void invalidateAll() {
+        this.entries.clear();
+    }
+
+    /**
+     * Gets the keys of all entries, including expired ones that were not evicted yet.
+     *
+     * @param filter selects the keys to return
+     * @return a snapshot of the matching keys
+     */
+    public List<K> keys(Predicate<? super K> filter) {
+        final List<K> keys = new ArrayList<>();
+        for (K key : this.entries.keySet()) {
+            if (filter.test(key)) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Gets the keys of the live entries, e.g. for maintenance.
+     *
+     * @param filter selects the keys to return
+     * @param inUse  whether to return only entries read by {@link #get(Object)} since they were cached
+     * @return a snapshot of the matching keys
+     */
+    public List<K> liveKeys(Predicate<? super K> filter, boolean inUse) {
+        final long now = System.nanoTime();
+        final List<K> keys = new ArrayList<>();
+        for (Map.Entry<K, Entry<V>> entry : this.entries.entrySet()) {
+            if (!entry.getValue().isExpired(now) && (!inUse || entry.getValue().read) && filter.test(entry.getKey())) {
+                keys.add(entry.getKey());
+            }
+        }
+        return keys;
+    }
+
+    private void evict() {
+        // one evicting thread is enough, all others continue immediately; the evicting thread checks again after
+        // releasing the flag, so entries added by others in the meantime are not left over
+        while (this.entries.size() > this.maximumSize && this.evicting.compareAndSet(false, true)) {
+            try {
+                final long now = System.nanoTime();
+                this.entries.values().removeIf(entry -> {
+                    final boolean expired = entry.isExpired(now);
+                    if (expired) {
+                        this.evictions.increment();
+                    }
+                    return expired;
+                });
+                final int target = this.maximumSize - this.maximumSize / 10;
+                final Iterator<K> keys = this.entries.keySet().iterator();
+                while (this.entries.size() > target && keys.hasNext()) {
+                    keys.next();
+                    keys.remove();
+                    this.evictions.increment();
+                }
+            } finally {
+                this.evicting.set(false);
+            }
+        }
+    }
+
+    /**
+     * Changes the maximum size. A smaller size is enforced immediately by evicting entries.
+     *
+     * @param maximumSize the maximum number of entries
+     */
+    public void setMaximumSize(int maximumSize) {
+        this.maximumSize = maximumSize;
+        if (this.entries.size() > maximumSize) {
+            evict();
+        }
+    }
+
+    /**
+     * Changes the time to live of entries cached from now on; cached entries keep their expiry time.
+     *
+     * @param ttl  the time to live of an entry
+     * @param unit the unit of {@code ttl}
+     */
+    public void setTtl(long ttl, TimeUnit unit) {
+        this.ttlNanos = unit.toNanos(ttl);
+    }
+
+    public long getTtl(TimeUnit unit) {
+        return unit.convert(this.ttlNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public int size() {
+        return this.entries.size();
+    }
+
+    public int getMaximumSize() {
+        return this.maximumSize;
+    }
+
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    public long getEvictions() {
+        return this.evictions.sum();
+    }
+
+    /**
+     * Gets the ratio of hits to all lookups.
+     *
+     * @return the hit ratio between 0 and 1, 0 if there were no lookups yet
+     */
+    public double getHitRatio() {
+        final long hits = getHits();
+        final long total = hits + getMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    private static final class Entry<V> {
+
+        private final V value;
+        private final long expiresAt;
+        private volatile boolean read;
+
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return now - this.expiresAt > 0;
+        }
+    }
+}
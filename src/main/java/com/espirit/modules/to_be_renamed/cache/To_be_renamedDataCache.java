@@ -0,0 +1,517 @@
+package com.espirit.modules.to_be_renamed.cache;
+
+import com.espirit.modules.to_be_renamed.To_be_renamedPOJO;
+import com.espirit.modules.to_be_renamed.connector.To_be_renamedCircuitBreaker;
+import com.espirit.modules.to_be_renamed.connector.To_be_renamedConnector;
+import com.espirit.modules.to_be_renamed.metrics.To_be_renamedMetrics;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+/**
+ * Server side cache of the external data, shared by all clients of the module's service.
+ * It owns one {@link To_be_renamedConnector} per project and caches single objects by identifier as well as the
+ * results of filter queries. Lookups for several identifiers are answered from the cache where possible; all
+ * missing identifiers are fetched with a single bulk call of the connector. Identifiers the connector does not know are
+ * remembered for a short time, and concurrent loads of the same object or query are made once, so neither dead
+ * identifiers nor a burst of requests for a cold query reach the third party API more than once. Every project has a
+ * {@link To_be_renamedCircuitBreaker}, so a failing third party API is not called by every client.
+ */
+public class To_be_renamedDataCache {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 10_000;
+    public static final long DEFAULT_TTL_SECONDS = 600;
+    public static final int DEFAULT_BREAKER_FAILURES = 5;
+    public static final long DEFAULT_BREAKER_COOL_DOWN_SECONDS = 30;
+    // unknown identifiers are cached for at most this long, a new object must not stay invisible for a whole TTL
+    public static final long UNKNOWN_TTL_SECONDS = 30;
+
+    private final LongFunction<To_be_renamedConnector> connectorFactory;
+    private final ConcurrentHashMap<Long, To_be_renamedConnector> connectors = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, To_be_renamedCircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+    private final To_be_renamedCache<String, To_be_renamedPOJO> objects;
+    private final To_be_renamedCache<String, List<To_be_renamedPOJO>> queries;
+    private final To_be_renamedCache<String, Boolean> unknown;
+    // the loads that are running, by key of the object or query; callers that need the same key wait for them
+    private final ConcurrentHashMap<String, CompletableFuture<To_be_renamedPOJO>> loadingObjects = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<List<To_be_renamedPOJO>>> loadingQueries = new ConcurrentHashMap<>();
+    private final AtomicInteger activeLoads = new AtomicInteger();
+    private volatile int breakerFailures = DEFAULT_BREAKER_FAILURES;
+    private volatile long breakerCoolDownSeconds = DEFAULT_BREAKER_COOL_DOWN_SECONDS;
+
+    /**
+     * Instantiates a new data cache with the default size and time to live.
+     *
+     * @param connectorFactory creates the connector of a project, called once per project id
+     */
+    public To_be_renamedDataCache(LongFunction<To_be_renamedConnector> connectorFactory) {
+        this(connectorFactory, DEFAULT_MAXIMUM_SIZE, DEFAULT_TTL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    public To_be_renamedDataCache(LongFunction<To_be_renamedConnector> connectorFactory, int maximumSize, long ttl, TimeUnit unit) {
+        this.connectorFactory = connectorFactory;
+        this.objects = new To_be_renamedCache<>(maximumSize, ttl, unit);
+        this.queries = new To_be_renamedCache<>(querySize(maximumSize), ttl, unit);
+        this.unknown = new To_be_renamedCache<>(maximumSize, unknownTtlSeconds(ttl, unit), TimeUnit.SECONDS);
+    }
+
+    private static long unknownTtlSeconds(long ttl, TimeUnit unit) {
+        return Math.max(1, Math.min(unit.toSeconds(ttl), UNKNOWN_TTL_SECONDS));
+    }
+
+    // query results are larger, keep fewer of them
+    private static int querySize(int maximumSize) {
+        return Math.max(16, maximumSize / 100);
+    }
+
+    /**
+     * Changes size and time to live of the object and query caches while they are in use.
+     *
+     * @param maximumSize the maximum number of cached objects
+     * @param ttl         the time to live of newly cached entries
+     * @param unit        the unit of {@code ttl}
+     */
+    public void resize(int maximumSize, long ttl, TimeUnit unit) {
+        this.objects.setTtl(ttl, unit);
+        this.queries.setTtl(ttl, unit);
+        this.unknown.setTtl(unknownTtlSeconds(ttl, unit), TimeUnit.SECONDS);
+        this.objects.setMaximumSize(maximumSize);
+        this.queries.setMaximumSize(querySize(maximumSize));
+        this.unknown.setMaximumSize(maximumSize);
+    }
+
+    /**
+     * Changes the thresholds of the circuit breakers of all projects, including breakers created later.
+     *
+     * @param failures the number of consecutive failures that opens a breaker
+     * @param coolDown the time until an open breaker lets a trial call through
+     * @param unit     the unit of {@code coolDown}
+     */
+    public void configureCircuitBreakers(int failures, long coolDown, TimeUnit unit) {
+        this.breakerFailures = failures;
+        this.breakerCoolDownSeconds = unit.toSeconds(coolDown);
+        for (To_be_renamedCircuitBreaker circuitBreaker : this.circuitBreakers.values()) {
+            circuitBreaker.configure(failures, coolDown, unit);
+        }
+    }
+
+    /**
+     * Gets the connector of a project, creating it on first use.
+     *
+     * @param projectId the project id
+     * @return the connector
+     */
+    public To_be_renamedConnector getConnector(long projectId) {
+        return this.connectors.computeIfAbsent(projectId, this.connectorFactory::apply);
+    }
+
+    /**
+     * Removes the connector of a project, e.g. after its configuration changed. The next call creates a new one.
+     *
+     * @param projectId the project id
+     */
+    public void removeConnector(long projectId) {
+        this.connectors.remove(projectId);
+    }
+
+    /**
+     * Gets the circuit breaker guarding the connector of a project, creating it on first use.
+     *
+     * @param projectId the project id
+     * @return the circuit breaker
+     */
+    public To_be_renamedCircuitBreaker getCircuitBreaker(long projectId) {
+        return this.circuitBreakers.computeIfAbsent(projectId, id -> {
+            final To_be_renamedCircuitBreaker circuitBreaker = new To_be_renamedCircuitBreaker(this.breakerFailures, this.breakerCoolDownSeconds, TimeUnit.SECONDS);
+            To_be_renamedMetrics.getInstance().gauge("connector.circuitBreaker." + id + ".state", circuitBreaker::getState);
+            return circuitBreaker;
+        });
+    }
+
+    /**
+     * Calls the connector of a project on behalf of the background sync, guarded by the circuit breaker.
+     * Unlike client calls, these calls do not count as active loads.
+     */
+    <T> T callInBackground(long projectId, Function<To_be_renamedConnector, T> call) {
+        return call(projectId, call, false);
+    }
+
+    private <T> T call(long projectId, Function<To_be_renamedConnector, T> call, boolean clientLoad) {
+        final To_be_renamedCircuitBreaker circuitBreaker = getCircuitBreaker(projectId);
+        if (!circuitBreaker.allowRequest()) {
+            throw new IllegalStateException("Third party API of project " + projectId + " is unavailable, circuit breaker is open");
+        }
+        if (clientLoad) {
+            this.activeLoads.incrementAndGet();
+        }
+        try {
+            final T result = call.apply(getConnector(projectId));
+            circuitBreaker.recordSuccess();
+            return result;
+        } catch (RuntimeException e) {
+            circuitBreaker.recordFailure();
+            throw e;
+        } finally {
+            if (clientLoad) {
+                this.activeLoads.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Gets the objects with the provided identifiers; unknown identifiers are skipped.
+     *
+     * @param projectId   the project id
+     * @param identifiers the identifiers
+     * @return the objects in the order of the identifiers
+     */
+    public List<To_be_renamedPOJO> getData(long projectId, Collection<String> identifiers) {
+        if (identifiers.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final Map<String, To_be_renamedPOJO> found = new HashMap<>(identifiers.size() * 4 / 3 + 1);
+        final Set<String> missing = new LinkedHashSet<>();
+        for (String identifier : identifiers) {
+            if (found.containsKey(identifier) || missing.contains(identifier)) {
+                continue;
+            }
+            final String key = key(projectId, identifier);
+            final To_be_renamedPOJO object = this.objects.get(key);
+            if (object != null) {
+                found.put(identifier, object);
+            } else if (this.unknown.peek(key) == null) {
+                missing.add(identifier);
+            }
+        }
+        if (!missing.isEmpty()) {
+            load(projectId, missing, found);
+        }
+        final List<To_be_renamedPOJO> result = new ArrayList<>(identifiers.size());
+        for (String identifier : identifiers) {
+            final To_be_renamedPOJO object = found.get(identifier);
+            if (object != null) {
+                result.add(object);
+            }
+        }
+        return result;
+    }
+
+    // loads the missing objects with one bulk call; objects another caller is already loading are waited for
+    private void load(long projectId, Set<String> missing, Map<String, To_be_renamedPOJO> found) {
+        final Map<String, CompletableFuture<To_be_renamedPOJO>> created = new LinkedHashMap<>();
+        final Map<String, CompletableFuture<To_be_renamedPOJO>> running = new HashMap<>();
+        for (String identifier : missing) {
+            final CompletableFuture<To_be_renamedPOJO> future = new CompletableFuture<>();
+            final CompletableFuture<To_be_renamedPOJO> other = this.loadingObjects.putIfAbsent(key(projectId, identifier), future);
+            if (other != null) {
+                running.put(identifier, other);
+            } else {
+                created.put(identifier, future);
+            }
+        }
+        if (!created.isEmpty()) {
+            try {
+                final List<String> load = new ArrayList<>(created.keySet());
+                final Map<String, To_be_renamedPOJO> loaded = new HashMap<>(load.size() * 4 / 3 + 1);
+                for (To_be_renamedPOJO object : call(projectId, connector -> connector.getSomeData(load), true)) {
+                    loaded.put(object.getVar(), object);
+                    this.objects.put(key(projectId, object.getVar()), object);
+                }
+                for (Map.Entry<String, CompletableFuture<To_be_renamedPOJO>> entry : created.entrySet()) {
+                    final To_be_renamedPOJO object = loaded.get(entry.getKey());
+                    if (object != null) {
+                        found.put(entry.getKey(), object);
+                    } else {
+                        this.unknown.put(key(projectId, entry.getKey()), Boolean.TRUE);
+                    }
+                    entry.getValue().complete(object);
+                }
+            } catch (RuntimeException e) {
+                for (CompletableFuture<To_be_renamedPOJO> future : created.values()) {
+                    future.completeExceptionally(e);
+                }
+                throw e;
+            } finally {
+                for (Map.Entry<String, CompletableFuture<To_be_renamedPOJO>> entry : created.entrySet()) {
+                    this.loadingObjects.remove(key(projectId, entry.getKey()), entry.getValue());
+                }
+            }
+        }
+        for (Map.Entry<String, CompletableFuture<To_be_renamedPOJO>> entry : running.entrySet()) {
+            final To_be_renamedPOJO object = await(entry.getValue());
+            if (object != null) {
+                found.put(entry.getKey(), object);
+            }
+        }
+    }
+
+    /**
+     * Gets the objects matching a filter. If the result is not cached and another caller is already querying the
+     * same filter, its result is used.
+     *
+     * @param projectId the project id
+     * @param filter    the filter or {@code null} for all objects
+     * @return the matching objects
+     */
+    public List<To_be_renamedPOJO> findData(long projectId, String filter) {
+        final String key = key(projectId, filter != null ? filter : "");
+        final List<To_be_renamedPOJO> cached = this.queries.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        final CompletableFuture<List<To_be_renamedPOJO>> created = new CompletableFuture<>();
+        final CompletableFuture<List<To_be_renamedPOJO>> running = this.loadingQueries.putIfAbsent(key, created);
+        if (running != null) {
+            return await(running);
+        }
+        try {
+            final List<To_be_renamedPOJO> result = query(projectId, filter, true);
+            created.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            this.loadingQueries.remove(key, created);
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> load) {
+        try {
+            return load.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the third party API", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new IllegalStateException(e.getCause());
+        }
+    }
+
+    private List<To_be_renamedPOJO> query(long projectId, String filter, boolean clientLoad) {
+        // the query result and the object cache share the objects, so a cached result costs one reference per object
+        final List<To_be_renamedPOJO> result = Collections.unmodifiableList(new ArrayList<>(call(projectId, connector -> connector.getSomeData(filter), clientLoad)));
+        this.queries.put(key(projectId, filter != null ? filter : ""), result);
+        for (To_be_renamedPOJO object : result) {
+            this.objects.put(key(projectId, object.getVar()), object);
+            this.unknown.invalidate(key(projectId, object.getVar()));
+        }
+        return result;
+    }
+
+    /**
+     * Gets the number of connector calls currently made on behalf of clients.
+     * The background sync backs off while this is greater than zero.
+     *
+     * @return the number of running client loads
+     */
+    public int getActiveLoads() {
+        return this.activeLoads.get();
+    }
+
+    /**
+     * Gets the ids of all projects a connector was created for.
+     *
+     * @return the project ids
+     */
+    public Set<Long> getProjectIds() {
+        return Collections.unmodifiableSet(this.connectors.keySet());
+    }
+
+    /**
+     * Replaces cached objects with fresh ones, e.g. fetched by the background sync.
+     *
+     * @param projectId the project id
+     * @param objects   the fresh objects
+     */
+    public void refresh(long projectId, Collection<To_be_renamedPOJO> objects) {
+        final Map<String, To_be_renamedPOJO> values = new HashMap<>(objects.size() * 4 / 3 + 1);
+        for (To_be_renamedPOJO object : objects) {
+            values.put(key(projectId, object.getVar()), object);
+            this.unknown.invalidate(key(projectId, object.getVar()));
+        }
+        this.objects.putAll(values);
+    }
+
+    /**
+     * Replaces only the objects that are cached, so a sync of many objects does not fill the cache with objects no
+     * client asked for. Identifiers cached as unknown are dropped, the object may be new.
+     *
+     * @param projectId the project id
+     * @param objects   the fresh objects
+     * @return the identifiers of the replaced objects
+     */
+    public Set<String> refreshCached(long projectId, Collection<To_be_renamedPOJO> objects) {
+        final Set<String> refreshed = new HashSet<>();
+        for (To_be_renamedPOJO object : objects) {
+            final String key = key(projectId, object.getVar());
+            this.unknown.invalidate(key);
+            if (this.objects.peek(key) != null) {
+                this.objects.put(key, object);
+                refreshed.add(object.getVar());
+            }
+        }
+        return refreshed;
+    }
+
+    /**
+     * Gets the identifiers of all cached objects of a project that have not expired.
+     *
+     * @param projectId the project id
+     * @return the identifiers
+     */
+    public List<String> getCachedIdentifiers(long projectId) {
+        return getIdentifiers(projectId, false);
+    }
+
+    /**
+     * Gets the identifiers of the cached objects of a project that were read since they were cached, i.e. are in use.
+     *
+     * @param projectId the project id
+     * @return the identifiers
+     */
+    public List<String> getReadIdentifiers(long projectId) {
+        return getIdentifiers(projectId, true);
+    }
+
+    private List<String> getIdentifiers(long projectId, boolean inUse) {
+        final String prefix = key(projectId, "");
+        final List<String> identifiers = new ArrayList<>();
+        for (String key : this.objects.liveKeys(key -> key.startsWith(prefix), inUse)) {
+            identifiers.add(key.substring(prefix.length()));
+        }
+        return identifiers;
+    }
+
+    /**
+     * Gets the time to live of newly cached objects.
+     *
+     * @param unit the unit of the result
+     * @return the time to live
+     */
+    public long getTtl(TimeUnit unit) {
+        return this.objects.getTtl(unit);
+    }
+
+    /**
+     * Gets the filters of all cached query results of a project.
+     *
+     * @param projectId the project id
+     * @return the filters, the empty string stands for all objects
+     */
+    public List<String> getCachedFilters(long projectId) {
+        final String prefix = key(projectId, "");
+        final List<String> filters = new ArrayList<>();
+        for (String key : this.queries.keys(key -> key.startsWith(prefix))) {
+            filters.add(key.substring(prefix.length()));
+        }
+        return filters;
+    }
+
+    /**
+     * Runs a query against the connector and replaces its cached result, regardless of whether it is cached.
+     *
+     * @param projectId the project id
+     * @param filter    the filter, the empty string for all objects
+     */
+    public void refreshQuery(long projectId, String filter) {
+        query(projectId, filter, false);
+    }
+
+    /**
+     * Applies change notifications of the third party system: cached objects with a changed identifier are
+     * refetched in one bulk call, and cached query results containing one of them are dropped. If an identifier is
+     * not cached at all, it may belong to a new object, so all query results of the project are dropped.
+     * Applying the same changes twice has the same effect as applying them once.
+     *
+     * @param projectId   the project id
+     * @param identifiers the identifiers of the changed objects
+     * @return the number of refetched objects
+     */
+    public int invalidate(long projectId, Collection<String> identifiers) {
+        final Set<String> changed = new HashSet<>(identifiers);
+        final Set<String> known = new HashSet<>();
+        final List<String> cached = new ArrayList<>();
+        for (String identifier : changed) {
+            if (this.objects.peek(key(projectId, identifier)) != null) {
+                cached.add(identifier);
+                known.add(identifier);
+            }
+            this.objects.invalidate(key(projectId, identifier));
+            // a notification for an unknown identifier announces a new object
+            this.unknown.invalidate(key(projectId, identifier));
+        }
+
+        final List<String> filters = getCachedFilters(projectId);
+        final List<String> affected = new ArrayList<>();
+        for (String filter : filters) {
+            final List<To_be_renamedPOJO> result = this.queries.peek(key(projectId, filter));
+            if (result == null) {
+                continue;
+            }
+            boolean contains = false;
+            for (To_be_renamedPOJO object : result) {
+                if (changed.contains(object.getVar())) {
+                    known.add(object.getVar());
+                    contains = true;
+                }
+            }
+            if (contains) {
+                affected.add(filter);
+            }
+        }
+        for (String filter : known.size() < changed.size() ? filters : affected) {
+            this.queries.invalidate(key(projectId, filter));
+        }
+
+        if (!cached.isEmpty()) {
+            // cached objects are in use, so refetch them right away instead of on the next request
+            refresh(projectId, callInBackground(projectId, connector -> connector.getSomeData(cached)));
+        }
+        return cached.size();
+    }
+
+    /**
+     * Drops all cached data, connectors and circuit breakers.
+     */
+    public void clear() {
+        this.objects.invalidateAll();
+        this.queries.invalidateAll();
+        this.unknown.invalidateAll();
+        this.connectors.clear();
+        for (Long projectId : this.circuitBreakers.keySet()) {
+            To_be_renamedMetrics.getInstance().removeGauge("connector.circuitBreaker." + projectId + ".state");
+        }
+        this.circuitBreakers.clear();
+    }
+
+    public To_be_renamedCache<String, To_be_renamedPOJO> getObjectCache() {
+        return this.objects;
+    }
+
+    public To_be_renamedCache<String, List<To_be_renamedPOJO>> getQueryCache() {
+        return this.queries;
+    }
+
+    public To_be_renamedCache<String, Boolean> getUnknownCache() {
+        return this.unknown;
+    }
+
+    static String key(long projectId, String identifier) {
+        return projectId + ":" + identifier;
+    }
+}
@@ -0,0 +1,218 @@
+package com.espirit.modules.to_be_renamed.cache;
+
+import com.espirit.modules.to_be_renamed.To_be_renamedPOJO;
+import de.espirit.common.base.Logging;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background sync of the {@link To_be_renamedDataCache}.
+ * Each run pulls the objects changed since the last run of a project from the connector and replaces those that are
+ * cached, refetches the other cached objects that were read since they were cached, so entries do not expire while in
+ * use, and re-runs the cached queries so the derived results match the new data. The sync never adds objects to the
+ * cache: the first run of a project does not pull any changes, as every object in use is refetched anyway. Objects
+ * nobody read since the last refetch are left to expire.
+ * <p>
+ * Runs are spread by a random jitter, back off while clients are loading data, and stop after a maximum run time.
+ * The time between two runs is at most half the time to live of the cache, so an object in use is refetched before
+ * it expires. The changes are applied before the deadline is checked, so the time of the last sync advances with
+ * every run, and the refetch of a run that stopped early continues after the last refetched identifier in the next
+ * run.
+ */
+public class To_be_renamedDataSync {
+
+    private static final Class<?> LOGGER = To_be_renamedDataSync.class;
+
+    private static final int CHUNK_SIZE = 200;
+    private static final long BACKOFF_MILLIS = 50;
+    private static final double JITTER = 0.2;
+
+    private final To_be_renamedDataCache cache;
+    private final Collection<Long> projectIds;
+    private final long intervalMillis;
+    private final long maxRuntimeMillis;
+    private final ConcurrentHashMap<Long, Long> lastSync = new ConcurrentHashMap<>();
+    // last identifier refetched per project, if a run stopped before the refetch was done; the identifiers are refetched
+    // in their natural order, so the next run continues after it even if the cache changed in between
+    private final ConcurrentHashMap<Long, String> refetchCursor = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Instantiates a new sync.
+     *
+     * @param cache            the cache to keep in sync
+     * @param projectIds       the projects to sync from the start, in addition to all projects the cache already knows
+     * @param intervalMillis   the mean time between two runs, at most half the time to live of the cache
+     * @param maxRuntimeMillis the maximum time of a single run
+     */
+    public To_be_renamedDataSync(To_be_renamedDataCache cache, Collection<Long> projectIds, long intervalMillis, long maxRuntimeMillis) {
+        this.cache = cache;
+        this.projectIds = new ArrayList<>(projectIds);
+        this.intervalMillis = intervalMillis;
+        this.maxRuntimeMillis = maxRuntimeMillis;
+    }
+
+    /**
+     * Starts the sync. The first run starts after a short jitter.
+     */
+    public synchronized void start() {
+        if (this.scheduler != null) {
+            return;
+        }
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "To_be_renamedDataSync");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        if (getIntervalMillis() < this.intervalMillis) {
+            Logging.logWarning("Background sync interval of " + this.intervalMillis + " ms exceeds half the cache time to live, syncing every "
+                    + getIntervalMillis() + " ms.", LOGGER);
+        }
+        schedule(jitter(Math.min(getIntervalMillis(), 10_000)));
+    }
+
+    /**
+     * Stops the sync and waits for a running run to finish its current chunk.
+     */
+    public void stop() {
+        final ScheduledExecutorService scheduler;
+        synchronized (this) {
+            scheduler = this.scheduler;
+            this.scheduler = null;
+        }
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        try {
+            if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
+                Logging.logWarning("Background sync did not stop within 5 seconds.", LOGGER);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private synchronized void schedule(long delayMillis) {
+        if (this.scheduler != null) {
+            this.scheduler.schedule(this::runAndReschedule, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void runAndReschedule() {
+        try {
+            run(System.currentTimeMillis() + this.maxRuntimeMillis);
+        } catch (InterruptedException e) {
+            return;
+        } catch (Exception e) {
+            Logging.logError("Background sync failed.", e, LOGGER);
+        }
+        // a fixed delay, never a fixed rate: a slow run never causes runs to pile up
+        schedule(jitter(getIntervalMillis()));
+    }
+
+    // the time to live can be changed while the sync is running; the jitter adds at most a fifth to the interval, so
+    // an object read right after its refetch is refetched again before it expires
+    long getIntervalMillis() {
+        return Math.max(1, Math.min(this.intervalMillis, this.cache.getTtl(TimeUnit.MILLISECONDS) / 2));
+    }
+
+    /**
+     * Runs the sync of all projects once.
+     *
+     * @param deadline the time (milliseconds since epoch) to stop at
+     * @return {@code true} if all projects were synced before the deadline
+     * @throws InterruptedException if the sync was stopped
+     */
+    boolean run(long deadline) throws InterruptedException {
+        final Set<Long> projects = new LinkedHashSet<>(this.projectIds);
+        projects.addAll(this.cache.getProjectIds());
+        for (Long projectId : projects) {
+            if (!syncProject(projectId, deadline)) {
+                Logging.logInfo("Background sync reached its maximum run time, continuing in the next run.", LOGGER);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean syncProject(long projectId, long deadline) throws InterruptedException {
+        final long startedAt = System.currentTimeMillis();
+        final Long since = this.lastSync.get(projectId);
+
+        // objects changed since the last run replace the cached ones; this is only a lookup per object, so it is done
+        // completely and the time of the last sync advances even if the run stops below
+        final Set<String> refreshed = new HashSet<>();
+        if (since != null) {
+            final List<To_be_renamedPOJO> changed = this.cache.callInBackground(projectId, connector -> connector.getChangedData(since));
+            refreshed.addAll(this.cache.refreshCached(projectId, changed));
+        }
+        this.lastSync.put(projectId, startedAt);
+
+        // keep the working set warm: refetch the other objects read since they were cached, so they do not expire while
+        // in use; an expired object would be dropped by refreshCached, and an object nobody reads is left to expire
+        final List<String> identifiers = new ArrayList<>(this.cache.getReadIdentifiers(projectId));
+        identifiers.removeAll(refreshed);
+        Collections.sort(identifiers);
+        final String cursor = this.refetchCursor.get(projectId);
+        int start = 0;
+        if (cursor != null) {
+            final int position = Collections.binarySearch(identifiers, cursor);
+            start = position >= 0 ? position + 1 : -position - 1;
+        }
+        for (int i = start; i < identifiers.size(); i += CHUNK_SIZE) {
+            if (!awaitIdle(deadline)) {
+                if (i > 0) {
+                    this.refetchCursor.put(projectId, identifiers.get(i - 1));
+                }
+                return false;
+            }
+            final List<String> chunk = identifiers.subList(i, Math.min(i + CHUNK_SIZE, identifiers.size()));
+            this.cache.refreshCached(projectId, this.cache.callInBackground(projectId, connector -> connector.getSomeData(chunk)));
+        }
+        this.refetchCursor.remove(projectId);
+
+        // rebuild the derived query results
+        for (String filter : this.cache.getCachedFilters(projectId)) {
+            if (!awaitIdle(deadline)) {
+                return false;
+            }
+            this.cache.refreshQuery(projectId, filter);
+        }
+        return true;
+    }
+
+    // backpressure: yield to client loads, returns false once the deadline has passed
+    private boolean awaitIdle(long deadline) throws InterruptedException {
+        while (true) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedException();
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                return false;
+            }
+            if (this.cache.getActiveLoads() == 0) {
+                return true;
+            }
+            Thread.sleep(BACKOFF_MILLIS);
+        }
+    }
+
+    private static long jitter(long millis) {
+        final long range = (long) (millis * JITTER);
+        return Math.max(0, millis + (range > 0 ? ThreadLocalRandom.current().nextLong(-range, range + 1) : 0));
+    }
+}
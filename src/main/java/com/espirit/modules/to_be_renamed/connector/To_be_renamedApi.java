@@ -0,0 +1,43 @@
+package com.espirit.modules.to_be_renamed.connector;
+
+import com.espirit.modules.to_be_renamed.To_be_renamedPOJO;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The read calls of the third party API, see {@link To_be_renamedConnector}. The
+ * connector times every call and counts failures, an implementation only talks to the API; it is created with the
+ * connector timeout of the project's settings and has to apply it to its calls.
+ * <p>
+ * Failures are reported with unchecked exceptions, e.g. an {@link java.io.UncheckedIOException}, like the methods of
+ * the connector.
+ */
+public interface To_be_renamedApi {
+
+    /**
+     * @param filter the filter, empty for all objects
+     * @return all objects matching the filter
+     */
+    List<To_be_renamedPOJO> getSomeData(String filter);
+
+    /**
+     * @param identifiers the identifiers
+     * @return the objects of the identifiers the API knows, in any order
+     */
+    List<To_be_renamedPOJO> getSomeData(Collection<String> identifiers);
+
+    /**
+     * @param filter the filter, empty for all objects
+     * @param offset the index of the first object
+     * @param limit  the maximum number of objects
+     * @return the objects, fewer than {@code limit} only at the end
+     */
+    List<To_be_renamedPOJO> getSomeData(String filter, int offset, int limit);
+
+    /**
+     * @param changedSince milliseconds since epoch, 0 for all objects
+     * @return all objects changed after the timestamp
+     */
+    List<To_be_renamedPOJO> getChangedData(long changedSince);
+}
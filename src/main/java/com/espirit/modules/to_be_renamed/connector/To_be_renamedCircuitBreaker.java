@@ -0,0 +1,81 @@
+package com.espirit.modules.to_be_renamed.connector;
+
+import de.espirit.common.base.Logging;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class To_be_renamedCircuitBreaker {
+
+    //stops calling the third party API after a number of consecutive failures, so a slow or broken API does not block
+    //every client; after a cool down a single trial call decides whether calls are allowed again
+
+    private static final Class<?> LOGGER = To_be_renamedCircuitBreaker.class;
+
+    public static final int CLOSED = 0;
+    public static final int OPEN = 1;
+    public static final int HALF_OPEN = 2;
+
+    private volatile int failureThreshold;
+    private volatile long coolDownNanos;
+
+    private final AtomicInteger state = new AtomicInteger(CLOSED);
+    private final AtomicInteger failures = new AtomicInteger();
+    private volatile long openedAt;
+
+    public To_be_renamedCircuitBreaker() {
+        this(5, 30, TimeUnit.SECONDS);
+    }
+
+    public To_be_renamedCircuitBreaker(int failureThreshold, long coolDown, TimeUnit unit) {
+        this.failureThreshold = failureThreshold;
+        this.coolDownNanos = unit.toNanos(coolDown);
+    }
+
+    //change the thresholds while the breaker is in use, the current state is kept
+    public void configure(int failureThreshold, long coolDown, TimeUnit unit) {
+        this.failureThreshold = failureThreshold;
+        this.coolDownNanos = unit.toNanos(coolDown);
+    }
+
+    public int getFailureThreshold() {
+        return this.failureThreshold;
+    }
+
+    public long getCoolDown(TimeUnit unit) {
+        return unit.convert(this.coolDownNanos, TimeUnit.NANOSECONDS);
+    }
+
+    //true if a call may be made; while open, only one trial call is let through after the cool down
+    public boolean allowRequest() {
+        final int current = this.state.get();
+        if (current == CLOSED) {
+            return true;
+        }
+        if (current == OPEN && System.nanoTime() - this.openedAt >= this.coolDownNanos) {
+            return this.state.compareAndSet(OPEN, HALF_OPEN);
+        }
+        return false;
+    }
+
+    public void recordSuccess() {
+        this.failures.set(0);
+        if (this.state.getAndSet(CLOSED) != CLOSED) {
+            Logging.logInfo("Third party API is available again, circuit breaker closed.", LOGGER);
+        }
+    }
+
+    public void recordFailure() {
+        if (this.state.get() == HALF_OPEN || this.failures.incrementAndGet() >= this.failureThreshold) {
+            this.openedAt = System.nanoTime();
+            if (this.state.getAndSet(OPEN) != OPEN) {
+                Logging.logWarning("Third party API failed repeatedly, circuit breaker opened.", LOGGER);
+            }
+        }
+    }
+
+    //one of CLOSED, OPEN and HALF_OPEN, e.g. for a metrics gauge
+    public int getState() {
+        return this.state.get();
+    }
+}
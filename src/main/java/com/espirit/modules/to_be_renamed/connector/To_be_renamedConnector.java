@@ -1,14 +1,21 @@
 package com.espirit.modules.to_be_renamed.connector;
 
 import com.espirit.modules.to_be_renamed.To_be_renamedPOJO;
-import com.espirit.modules.to_be_renamed.project.To_be_renamedProjectApp;
-import com.espirit.modules.to_be_renamed.project.To_be_renamedProjectConfig;
+import com.espirit.modules.to_be_renamed.metrics.To_be_renamedHistogram;
+import com.espirit.modules.to_be_renamed.metrics.To_be_renamedMetrics;
+import com.espirit.modules.to_be_renamed.project.To_be_renamedProjectSettings;
+import de.espirit.common.base.Logging;
 import de.espirit.firstspirit.agency.SpecialistsBroker;
 
 import java.io.*;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
 
 public class To_be_renamedConnector {
 
@@ -16,24 +23,52 @@ public class To_be_renamedConnector {
 
     private static final Class<?> LOGGER = To_be_renamedConnector.class;
 
-    private static To_be_renamedConnector connector = null;
+    //latency of the third party API calls, see To_be_renamedMetrics
+    private static final To_be_renamedHistogram GET_DATA = To_be_renamedMetrics.getInstance().histogram(To_be_renamedMetrics.CONNECTOR_GET_DATA);
+    private static final To_be_renamedHistogram GET_DATA_BULK = To_be_renamedMetrics.getInstance().histogram(To_be_renamedMetrics.CONNECTOR_GET_DATA_BULK);
+    private static final To_be_renamedHistogram GET_DATA_PAGE = To_be_renamedMetrics.getInstance().histogram(To_be_renamedMetrics.CONNECTOR_GET_DATA_PAGE);
+    private static final To_be_renamedHistogram UPDATE_DATA = To_be_renamedMetrics.getInstance().histogram(To_be_renamedMetrics.CONNECTOR_UPDATE_DATA);
+    private static final To_be_renamedHistogram GET_CHANGED_DATA = To_be_renamedMetrics.getInstance().histogram(To_be_renamedMetrics.CONNECTOR_GET_CHANGED_DATA);
+    private static final LongAdder ERRORS = To_be_renamedMetrics.getInstance().counter(To_be_renamedMetrics.CONNECTOR_ERRORS);
+
+    //calls slower than this are logged
+    private static final long SLOW_CALL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    //one connector per project, replaced only when the settings of its project change
+    static final ConcurrentHashMap<Long, To_be_renamedConnector> CONNECTORS = new ConcurrentHashMap<>();
+
+    //connector with manual values
+    private static volatile To_be_renamedConnector connector = null;
 
     private String var1;
     private String var2;
 
-    //get a connector instance using a service broker to get all information from the project app config panel
+    //the client of the third party API, null for the demo data
+    private To_be_renamedApi api;
+
+    //timeout for the third party API calls, configured in the tuning section of the project app config panel; the
+    //client of the API is created with it, see the constructors
+    private int timeoutMillis = 30_000;
+
+    //version of the project settings this connector was built from, -1 for manual values
+    private long settingsVersion = -1;
+
+    //get the connector instance of the project of a service broker, built from the project app config panel
+    //the instance is replaced when the configuration of its project changes, see To_be_renamedProjectSettings
     public static To_be_renamedConnector getInstance(SpecialistsBroker broker) throws IOException {
 
-        if (connector != null) {
-            return connector;
-        } else {
-            connector = new To_be_renamedConnector(broker);
-            return connector;
+        final To_be_renamedProjectSettings settings = To_be_renamedProjectSettings.get(broker);
+        final To_be_renamedConnector current = CONNECTORS.get(settings.getProjectId());
+        if (current != null && current.settingsVersion >= settings.getVersion()) {
+            return current;
         }
+        //versions only increase, a caller with older settings must not replace the connector of newer ones
+        return CONNECTORS.compute(settings.getProjectId(), (projectId, existing) ->
+                existing != null && existing.settingsVersion >= settings.getVersion() ? existing : new To_be_renamedConnector(settings));
     }
 
     //get a connector instance with manual values
-    public static To_be_renamedConnector getInstance(String var1, String var2) throws IOException {
+    public static synchronized To_be_renamedConnector getInstance(String var1, String var2) throws IOException {
 
         if (connector != null) {
             return connector;
@@ -43,11 +78,27 @@ public class To_be_renamedConnector {
         }
     }
 
+    //get a new, unshared connector instance for the project of the given broker, e.g. to keep one connector per project
+    public static To_be_renamedConnector newInstance(SpecialistsBroker broker) {
+        return new To_be_renamedConnector(To_be_renamedProjectSettings.get(broker));
+    }
+
     //constructor with project app config panel values
-    private To_be_renamedConnector(SpecialistsBroker broker) {
+    private To_be_renamedConnector(To_be_renamedProjectSettings settings) {
+
+        //create the client of the third party API here, with timeoutMillis as the timeout of its calls
+        this(settings, timeoutMillis -> null);
+    }
+
+    //constructor with project app config panel values and a factory of the client of the API, called with the
+    //timeout of the calls, e.g. the stub API of the load tests
+    To_be_renamedConnector(To_be_renamedProjectSettings settings, IntFunction<To_be_renamedApi> api) {
 
-        this.var1 = To_be_renamedProjectConfig.values(broker, To_be_renamedProjectApp.class).getString(To_be_renamedProjectConfig.VAR_1);
-        this.var2 = To_be_renamedProjectConfig.values(broker, To_be_renamedProjectApp.class).getString(To_be_renamedProjectConfig.VAR_2);
+        this.var1 = settings.getVar1();
+        this.var2 = settings.getVar2();
+        this.timeoutMillis = (int) TimeUnit.SECONDS.toMillis(settings.getConnectorTimeout());
+        this.api = api.apply(this.timeoutMillis);
+        this.settingsVersion = settings.getVersion();
 
     }
 
@@ -59,23 +110,137 @@ public class To_be_renamedConnector {
 
     //implement some methods to communicate with some third party API
 
+    //every call is timed, keep the timing when renaming or adding methods
+
+    //the demo methods call the API the connector was created with, e.g. the stub API of the load tests, and return
+    //demo data otherwise
+
     public List<To_be_renamedPOJO> getSomeData(String filterBySomething) {
+        final long start = System.nanoTime();
+        boolean failed = true;
+        try {
+
+            //replace this getSomeData method with meaningful name and an appropriate filter criteria
+
+            List<To_be_renamedPOJO> to_be_renamedList = readSomeData(filterBySomething);
+            failed = false;
+            return to_be_renamedList;
+        } finally {
+            record(GET_DATA, start, failed, "getSomeData");
+        }
+    }
+
+    public List<To_be_renamedPOJO> getSomeData(Collection<String> filterBySomethingMultiple) {
+        final long start = System.nanoTime();
+        boolean failed = true;
+        try {
+
+            //read like the single filter method above for demo purposes
+            //replace this getSomeData method with a meaningful name and some appropriate filter criterias
+
+            final To_be_renamedApi api = this.api;
+            if (api != null) {
+                List<To_be_renamedPOJO> to_be_renamedList = api.getSomeData(filterBySomethingMultiple);
+                failed = false;
+                return to_be_renamedList;
+            }
+
+            List<To_be_renamedPOJO> to_be_renamedList = readSomeData("");
+            failed = false;
+            return to_be_renamedList;
+        } finally {
+            record(GET_DATA_BULK, start, failed, "getSomeData (bulk)");
+        }
+    }
+
+    public List<To_be_renamedPOJO> getSomeData(String filterBySomething, int offset, int limit) {
+        final long start = System.nanoTime();
+        boolean failed = true;
+        try {
+
+            //replace this method with a paged call of the third party API, it is used by bulk operations like the
+            //import of To_be_renamedExecutable and must return an empty list once the offset is past the last object
+
+            final To_be_renamedApi api = this.api;
+            if (api != null) {
+                List<To_be_renamedPOJO> to_be_renamedList = api.getSomeData(filterBySomething, offset, limit);
+                failed = false;
+                return to_be_renamedList;
+            }
+
+            List<To_be_renamedPOJO> all = readSomeData(filterBySomething);
+            List<To_be_renamedPOJO> to_be_renamedList = new ArrayList<To_be_renamedPOJO>(all.subList(Math.min(offset, all.size()), Math.min(offset + limit, all.size())));
+            failed = false;
+            return to_be_renamedList;
+        } finally {
+            record(GET_DATA_PAGE, start, failed, "getSomeData (page)");
+        }
+    }
+
+    public List<To_be_renamedPOJO> getChangedData(long changedSince) {
+        final long start = System.nanoTime();
+        boolean failed = true;
+        try {
+
+            //replace this method with a call of the third party API that returns all objects changed after the given
+            //timestamp (milliseconds since epoch, 0 for all objects), it is used by the service's background sync
+
+            final To_be_renamedApi api = this.api;
+            if (api != null) {
+                List<To_be_renamedPOJO> to_be_renamedList = api.getChangedData(changedSince);
+                failed = false;
+                return to_be_renamedList;
+            }
+
+            List<To_be_renamedPOJO> to_be_renamedList = readSomeData("");
+            failed = false;
+            return to_be_renamedList;
+        } finally {
+            record(GET_CHANGED_DATA, start, failed, "getChangedData");
+        }
+    }
+
+    //the untimed call behind getSomeData(String), so the demo variants of the other methods are timed only once
+    private List<To_be_renamedPOJO> readSomeData(String filterBySomething) {
 
-        //replace this getSomeData method with meaningful name and an appropriate filter criteria
+        final To_be_renamedApi api = this.api;
+        if (api != null) {
+            return api.getSomeData(filterBySomething);
+        }
 
         ArrayList<To_be_renamedPOJO> to_be_renamedList = new ArrayList<To_be_renamedPOJO>();
         To_be_renamedPOJO to_be_renamedItem = new To_be_renamedPOJO(this.var1);
         to_be_renamedList.add(to_be_renamedItem);
-
         return to_be_renamedList;
     }
 
-    public List<To_be_renamedPOJO> getSomeData(Collection<String> filterBySomethingMultiple) {
-
-        //call the single filter method above for demo purposes
-        //replace this getSomeData method with a meaningful name and some appropriate filter criterias
+    public Map<String, String> updateData(Collection<To_be_renamedEdit> edits) throws IOException {
+        final long start = System.nanoTime();
+        boolean failed = true;
+        try {
+
+            //replace this method with a call of the third party API that writes all edits in one request, it is used by
+            //the write-behind queue of the service (To_be_renamedWriteBehindQueue), on the server
+            //return an error message per identifier the API rejected for good, throw an exception if the whole call
+            //failed and should be retried
+
+            //until then the edits are not written: they stay queued and are retried, and are reported as failed once
+            //the queue gives them up, never as written
+            throw new IOException("Writing edits is not implemented, see To_be_renamedConnector.updateData");
+        } finally {
+            record(UPDATE_DATA, start, failed, "updateData");
+        }
+    }
 
-        return getSomeData("");
+    private static void record(To_be_renamedHistogram histogram, long start, boolean failed, String call) {
+        final long duration = System.nanoTime() - start;
+        histogram.record(duration);
+        if (failed) {
+            ERRORS.increment();
+        }
+        if (duration > SLOW_CALL_NANOS) {
+            Logging.logWarning("Slow third party API call " + call + ": " + TimeUnit.NANOSECONDS.toMillis(duration) + "ms", LOGGER);
+        }
     }
 
 }
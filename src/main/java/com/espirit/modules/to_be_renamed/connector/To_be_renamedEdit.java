@@ -0,0 +1,49 @@
+package com.espirit.modules.to_be_renamed.connector;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Changed field values of one object of the third party system, written by
+ * {@link To_be_renamedConnector#updateData(java.util.Collection)}.
+ */
+public class To_be_renamedEdit implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String identifier;
+    private final Map<String, String> fields;
+
+    /**
+     * Instantiates a new edit.
+     *
+     * @param identifier the identifier of the object
+     * @param fields     the new field values by field name
+     */
+    public To_be_renamedEdit(String identifier, Map<String, String> fields) {
+        this.identifier = identifier;
+        this.fields = Collections.unmodifiableMap(new LinkedHashMap<>(fields));
+    }
+
+    public String getIdentifier() {
+        return this.identifier;
+    }
+
+    public Map<String, String> getFields() {
+        return this.fields;
+    }
+
+    /**
+     * Combines this edit with a later edit of the same object, the later values win.
+     *
+     * @param later the later edit
+     * @return the combined edit
+     */
+    public To_be_renamedEdit merge(To_be_renamedEdit later) {
+        final Map<String, String> fields = new LinkedHashMap<>(this.fields);
+        fields.putAll(later.fields);
+        return new To_be_renamedEdit(this.identifier, fields);
+    }
+}
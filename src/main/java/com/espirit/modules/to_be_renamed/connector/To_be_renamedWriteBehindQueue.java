@@ -0,0 +1,491 @@
+package com.espirit.modules.to_be_renamed.connector;
+
+import com.espirit.modules.to_be_renamed.metrics.To_be_renamedMetrics;
+import com.espirit.modules.to_be_renamed.util.JsonUtil;
+import de.espirit.common.base.Logging;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind queue for edits of objects of the third party system. {@link #submit(To_be_renamedEdit)} only appends
+ * the edit to a local journal file and returns, a background thread writes the queued edits in batches with
+ * {@link Sink#write(List)}. The module's service keeps one queue per project on the server, whose sink writes with the
+ * project's current connector (see {@code To_be_renamedService#submitEdit}), so edits are journaled and written on
+ * the server whichever client made them.
+ * <ul>
+ * <li>Edits of the same object that are still queued are combined into one, the later values win.</li>
+ * <li>A failed batch is retried with exponential backoff; after {@code maxAttempts} attempts its edits fail.</li>
+ * <li>Queued edits survive a restart: the journal is replayed when the queue is opened.</li>
+ * <li>The outcome of every edit completes the future returned by {@code submit} and can be polled with
+ * {@link #getOutcome(String)}.</li>
+ * </ul>
+ */
+public class To_be_renamedWriteBehindQueue implements AutoCloseable {
+
+    private static final Class<?> LOGGER = To_be_renamedWriteBehindQueue.class;
+
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 500;
+    public static final int DEFAULT_MAX_BATCH_SIZE = 100;
+    public static final int DEFAULT_MAX_ATTEMPTS = 8;
+
+    private static final long MIN_BACKOFF_MILLIS = 1_000;
+    private static final long MAX_BACKOFF_MILLIS = 60_000;
+    private static final int MAX_OUTCOMES = 10_000;
+    private static final int COMPACT_AFTER_ACKS = 1_000;
+
+    /**
+     * The file name of the journal of a project's queue in the project's data directory.
+     */
+    public static final String JOURNAL_FILE = "write-behind.jsonl";
+
+    private final Path journal;
+    private final Sink sink;
+    private final int maxBatchSize;
+    private final int maxAttempts;
+    private final String gaugeName;
+    private final ScheduledExecutorService scheduler;
+
+    // guarded by this
+    private final LinkedHashMap<String, Pending> pending = new LinkedHashMap<>();
+    private final LinkedHashMap<String, Outcome> outcomes = new LinkedHashMap<String, Outcome>(16, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Outcome> eldest) {
+            return size() > MAX_OUTCOMES;
+        }
+    };
+    private FileChannel channel;
+    private long sequence;
+    private int acksSinceCompaction;
+    private int inFlight;
+
+    private final LongAdder written = To_be_renamedMetrics.getInstance().counter("writeBehind.written");
+    private final LongAdder failed = To_be_renamedMetrics.getInstance().counter("writeBehind.failed");
+    private final LongAdder retries = To_be_renamedMetrics.getInstance().counter("writeBehind.retries");
+    private final LongAdder coalesced = To_be_renamedMetrics.getInstance().counter("writeBehind.coalesced");
+
+    /**
+     * Opens a queue and replays the edits left in its journal.
+     *
+     * @param journal             the journal file
+     * @param sink                writes a batch of edits
+     * @param flushIntervalMillis the time between two flushes
+     * @param maxBatchSize        the maximum number of edits per call of the sink
+     * @param maxAttempts         the number of attempts before the edits of a failing batch are given up
+     * @param gaugeName           the name of the queue depth gauge, see {@link To_be_renamedMetrics}
+     * @throws IOException if the journal cannot be read or written
+     */
+    public To_be_renamedWriteBehindQueue(Path journal, Sink sink, long flushIntervalMillis, int maxBatchSize, int maxAttempts, String gaugeName)
+            throws IOException {
+        this.journal = journal;
+        this.sink = sink;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.gaugeName = gaugeName;
+        synchronized (this) {
+            replay();
+            compact();
+        }
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "To_be_renamedWriteBehindQueue");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        To_be_renamedMetrics.getInstance().gauge(gaugeName, this::getPendingCount);
+    }
+
+    /**
+     * Queues an edit. It is in the journal when this method returns.
+     *
+     * @param edit the edit
+     * @return completes with the outcome once the edit was written or given up
+     * @throws IOException if the journal cannot be written
+     */
+    public synchronized CompletableFuture<Outcome> submit(To_be_renamedEdit edit) throws IOException {
+        if (this.channel == null) {
+            throw new IllegalStateException("The write-behind queue is closed");
+        }
+        final long seq = ++this.sequence;
+        append(editLine(seq, edit), true);
+        final CompletableFuture<Outcome> future = new CompletableFuture<>();
+        enqueue(edit, seq, future);
+        this.outcomes.put(edit.getIdentifier(), new Outcome(edit.getIdentifier(), Status.PENDING, null));
+        return future;
+    }
+
+    /**
+     * Gets the last known outcome of the edits of an object.
+     *
+     * @param identifier the identifier of the object
+     * @return the outcome or {@code null} if the object was not edited since the queue was opened
+     */
+    public synchronized Outcome getOutcome(String identifier) {
+        return this.outcomes.get(identifier);
+    }
+
+    /**
+     * Gets the number of queued objects, including those currently being written.
+     *
+     * @return the queue depth
+     */
+    public synchronized int getPendingCount() {
+        return this.pending.size() + this.inFlight;
+    }
+
+    /**
+     * Writes all edits that are due, batch by batch.
+     */
+    void flush() {
+        List<Pending> batch;
+        while (!(batch = takeBatch()).isEmpty()) {
+            final List<To_be_renamedEdit> edits = new ArrayList<>(batch.size());
+            for (Pending item : batch) {
+                edits.add(item.edit);
+            }
+            Map<String, String> rejected = null;
+            Exception failure = null;
+            try {
+                rejected = this.sink.write(edits);
+            } catch (Exception e) {
+                failure = e;
+            }
+            complete(batch, rejected != null ? rejected : Collections.emptyMap(), failure);
+            if (failure != null) {
+                // the remaining edits are probably due later anyway, do not hammer a failing API
+                return;
+            }
+        }
+    }
+
+    private synchronized List<Pending> takeBatch() {
+        final long now = System.currentTimeMillis();
+        final List<Pending> batch = new ArrayList<>(Math.min(this.maxBatchSize, this.pending.size()));
+        final Iterator<Pending> items = this.pending.values().iterator();
+        while (items.hasNext() && batch.size() < this.maxBatchSize) {
+            final Pending item = items.next();
+            if (item.notBefore <= now) {
+                batch.add(item);
+                items.remove();
+            }
+        }
+        this.inFlight = batch.size();
+        return batch;
+    }
+
+    private void complete(List<Pending> batch, Map<String, String> rejected, Exception failure) {
+        final List<Runnable> notifications = new ArrayList<>(batch.size());
+        synchronized (this) {
+            this.inFlight = 0;
+            if (failure != null) {
+                this.retries.increment();
+            }
+            final long backoff = failure != null ? backoff(batch.get(0).attempts + 1) : 0;
+            for (Pending item : batch) {
+                final String identifier = item.edit.getIdentifier();
+                final Outcome outcome;
+                if (failure == null) {
+                    final String error = rejected.get(identifier);
+                    outcome = new Outcome(identifier, error == null ? Status.WRITTEN : Status.FAILED, error);
+                } else if (item.attempts + 1 >= this.maxAttempts) {
+                    outcome = new Outcome(identifier, Status.FAILED, String.valueOf(failure.getMessage()));
+                } else {
+                    item.attempts++;
+                    item.notBefore = System.currentTimeMillis() + backoff;
+                    requeue(item);
+                    continue;
+                }
+                (outcome.getStatus() == Status.WRITTEN ? this.written : this.failed).increment();
+                ack(item.sequences);
+                // a newer edit of the object may be queued already, its state wins
+                if (!this.pending.containsKey(identifier)) {
+                    this.outcomes.put(identifier, outcome);
+                }
+                for (CompletableFuture<Outcome> future : item.futures) {
+                    notifications.add(() -> future.complete(outcome));
+                }
+            }
+            if (failure != null) {
+                Logging.logWarning("Writing " + batch.size() + " edits failed, retrying in " + backoff + "ms: " + failure.getMessage(), LOGGER);
+            }
+            if (this.acksSinceCompaction >= COMPACT_AFTER_ACKS || this.pending.isEmpty() && this.acksSinceCompaction > 0) {
+                try {
+                    compact();
+                } catch (IOException e) {
+                    Logging.logWarning("Could not compact the write-behind journal " + this.journal, e, LOGGER);
+                }
+            }
+        }
+        // callbacks of the futures run outside the lock
+        for (Runnable notification : notifications) {
+            notification.run();
+        }
+    }
+
+    private static long backoff(int attempt) {
+        final long backoff = Math.min(MAX_BACKOFF_MILLIS, MIN_BACKOFF_MILLIS << Math.min(attempt - 1, 16));
+        // jitter, so the queues of several projects do not retry in lockstep
+        return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+    }
+
+    // guarded by this
+    private void enqueue(To_be_renamedEdit edit, long seq, CompletableFuture<Outcome> future) {
+        final Pending existing = this.pending.get(edit.getIdentifier());
+        if (existing != null) {
+            existing.edit = existing.edit.merge(edit);
+            existing.sequences.add(seq);
+            if (future != null) {
+                existing.futures.add(future);
+            }
+            this.coalesced.increment();
+            return;
+        }
+        final Pending item = new Pending(edit);
+        item.sequences.add(seq);
+        if (future != null) {
+            item.futures.add(future);
+        }
+        this.pending.put(edit.getIdentifier(), item);
+    }
+
+    // guarded by this; a failed edit goes back into the queue, edits queued meanwhile keep precedence
+    private void requeue(Pending item) {
+        final Pending newer = this.pending.get(item.edit.getIdentifier());
+        if (newer == null) {
+            this.pending.put(item.edit.getIdentifier(), item);
+            return;
+        }
+        newer.edit = item.edit.merge(newer.edit);
+        newer.sequences.addAll(0, item.sequences);
+        newer.futures.addAll(0, item.futures);
+        newer.attempts = Math.max(newer.attempts, item.attempts);
+        newer.notBefore = Math.max(newer.notBefore, item.notBefore);
+    }
+
+    // guarded by this
+    private void ack(List<Long> sequences) {
+        final StringBuilder lines = new StringBuilder();
+        for (Long seq : sequences) {
+            lines.append("{\"ack\":").append(seq).append("}\n");
+        }
+        try {
+            // not forced: replaying an acknowledged edit after a crash only writes it once more
+            append(lines.toString(), false);
+        } catch (IOException e) {
+            Logging.logWarning("Could not acknowledge edits in the write-behind journal " + this.journal, e, LOGGER);
+        }
+        this.acksSinceCompaction += sequences.size();
+    }
+
+    // guarded by this
+    private void append(String lines, boolean force) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.wrap(lines.getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            this.channel.write(buffer);
+        }
+        if (force) {
+            this.channel.force(false);
+        }
+    }
+
+    // guarded by this
+    private void replay() throws IOException {
+        if (!Files.exists(this.journal)) {
+            return;
+        }
+        final Map<Long, To_be_renamedEdit> edits = new LinkedHashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(this.journal, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                try {
+                    final Map<?, ?> entry = (Map<?, ?>) JsonUtil.parse(line);
+                    if (entry.get("ack") != null) {
+                        edits.remove(((Number) entry.get("ack")).longValue());
+                        continue;
+                    }
+                    final long seq = ((Number) entry.get("seq")).longValue();
+                    final Map<String, String> fields = new LinkedHashMap<>();
+                    for (Map.Entry<?, ?> field : ((Map<?, ?>) entry.get("fields")).entrySet()) {
+                        fields.put(field.getKey().toString(), field.getValue() != null ? field.getValue().toString() : null);
+                    }
+                    edits.put(seq, new To_be_renamedEdit(entry.get("id").toString(), fields));
+                    this.sequence = Math.max(this.sequence, seq);
+                } catch (RuntimeException e) {
+                    // e.g. the last line of a journal written when the server crashed
+                    Logging.logWarning("Skipping invalid line of the write-behind journal " + this.journal + ": " + line, LOGGER);
+                }
+            }
+        }
+        for (Map.Entry<Long, To_be_renamedEdit> edit : edits.entrySet()) {
+            enqueue(edit.getValue(), edit.getKey(), null);
+            this.outcomes.put(edit.getValue().getIdentifier(), new Outcome(edit.getValue().getIdentifier(), Status.PENDING, null));
+        }
+        if (!edits.isEmpty()) {
+            Logging.logInfo("Replayed " + edits.size() + " queued edits from " + this.journal, LOGGER);
+        }
+    }
+
+    // guarded by this; rewrites the journal with the queued edits only
+    private void compact() throws IOException {
+        final Path directory = this.journal.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        final Path temp = Files.createTempFile(directory, this.journal.getFileName().toString(), ".tmp");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                for (Pending item : this.pending.values()) {
+                    // combined edits are journaled under their latest sequence number
+                    writer.write(editLine(item.sequences.get(item.sequences.size() - 1), item.edit));
+                }
+            }
+            if (this.channel != null) {
+                this.channel.close();
+            }
+            Files.move(temp, this.journal, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        this.channel = FileChannel.open(this.journal, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        for (Pending item : this.pending.values()) {
+            final Long last = item.sequences.get(item.sequences.size() - 1);
+            item.sequences.clear();
+            item.sequences.add(last);
+        }
+        this.acksSinceCompaction = 0;
+    }
+
+    private static String editLine(long seq, To_be_renamedEdit edit) {
+        final StringBuilder line = new StringBuilder(128);
+        line.append("{\"seq\":").append(seq).append(",\"id\":");
+        JsonUtil.appendQuoted(line, edit.getIdentifier());
+        line.append(",\"fields\":{");
+        boolean first = true;
+        for (Map.Entry<String, String> field : edit.getFields().entrySet()) {
+            if (!first) {
+                line.append(',');
+            }
+            first = false;
+            JsonUtil.appendQuoted(line, field.getKey());
+            line.append(':');
+            if (field.getValue() == null) {
+                line.append("null");
+            } else {
+                JsonUtil.appendQuoted(line, field.getValue());
+            }
+        }
+        return line.append("}}\n").toString();
+    }
+
+    /**
+     * Stops the flush thread after a last flush. Edits that could not be written stay in the journal.
+     */
+    @Override
+    public void close() {
+        this.scheduler.shutdown();
+        try {
+            this.scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        To_be_renamedMetrics.getInstance().removeGauge(this.gaugeName);
+        synchronized (this) {
+            try {
+                this.channel.close();
+            } catch (IOException e) {
+                Logging.logWarning("Could not close the write-behind journal " + this.journal, e, LOGGER);
+            }
+            this.channel = null;
+        }
+    }
+
+    /**
+     * Writes a batch of edits.
+     */
+    public interface Sink {
+
+        /**
+         * Writes the edits.
+         *
+         * @param edits the edits, at most one per object
+         * @return an error message per identifier that was rejected for good
+         * @throws Exception if the batch should be retried
+         */
+        Map<String, String> write(List<To_be_renamedEdit> edits) throws Exception;
+    }
+
+    public enum Status {
+        PENDING, WRITTEN, FAILED
+    }
+
+    /**
+     * The outcome of the edits of an object. It is serializable, so it can be transferred from the service to its
+     * clients.
+     */
+    public static final class Outcome implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String identifier;
+        private final Status status;
+        private final String message;
+
+        Outcome(String identifier, Status status, String message) {
+            this.identifier = identifier;
+            this.status = status;
+            this.message = message;
+        }
+
+        public String getIdentifier() {
+            return this.identifier;
+        }
+
+        public Status getStatus() {
+            return this.status;
+        }
+
+        // the error message of a failed edit, otherwise null
+        public String getMessage() {
+            return this.message;
+        }
+    }
+
+    /**
+     * A queued object with its combined edit.
+     */
+    private static final class Pending {
+
+        private final List<Long> sequences = new ArrayList<>(1);
+        private final List<CompletableFuture<Outcome>> futures = new ArrayList<>(1);
+        private To_be_renamedEdit edit;
+        private int attempts;
+        private long notBefore;
+
+        private Pending(To_be_renamedEdit edit) {
+            this.edit = edit;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.espirit.modules.to_be_renamed.dataaccess.datastream;
 
 import com.espirit.modules.to_be_renamed.To_be_renamedPOJO;
+import com.espirit.modules.to_be_renamed.metrics.To_be_renamedHistogram;
+import com.espirit.modules.to_be_renamed.metrics.To_be_renamedMetrics;
 import de.espirit.firstspirit.client.plugin.dataaccess.DataStream;
 
 import java.util.ArrayList;
@@ -28,6 +30,8 @@ public class To_be_renamedDataStream implements DataStream<To_be_renamedPOJO> {
 
 	private static final Class<?> LOGGER = To_be_renamedDataStream.class;
 
+	private static final To_be_renamedHistogram GET_NEXT = To_be_renamedMetrics.getInstance().histogram(To_be_renamedMetrics.DATA_STREAM_GET_NEXT);
+
 	public To_be_renamedDataStream(final List<To_be_renamedPOJO> objects) {
 		this.objects = objects;
 		this.total = this.objects.size();
@@ -45,6 +49,15 @@ public class To_be_renamedDataStream implements DataStream<To_be_renamedPOJO> {
 
 	@Override
 	public List<To_be_renamedPOJO> getNext(int count) {
+		final long start = System.nanoTime();
+		try {
+			return nextPage(count);
+		} finally {
+			GET_NEXT.recordSince(start);
+		}
+	}
+
+	private List<To_be_renamedPOJO> nextPage(int count) {
 
 		List<To_be_renamedPOJO> result = new ArrayList<To_be_renamedPOJO>();
 
@@ -3,6 +3,9 @@ package com.espirit.modules.to_be_renamed.dataaccess.datastream;
 import com.espirit.modules.to_be_renamed.To_be_renamedPOJO;
 import com.espirit.modules.to_be_renamed.connector.To_be_renamedConnector;
 import com.espirit.modules.to_be_renamed.dataaccess.datastream.aspects.To_be_renamedFilterableAspect;
+import com.espirit.modules.to_be_renamed.service.To_be_renamedProjectToken;
+import com.espirit.modules.to_be_renamed.service.To_be_renamedService;
+import com.espirit.modules.to_be_renamed.service.To_be_renamedServiceAccess;
 import com.espirit.modules.to_be_renamed.util.ResourceHandler;
 import de.espirit.common.base.Logging;
 import de.espirit.firstspirit.access.BaseContext;
@@ -34,6 +37,8 @@ public class To_be_renamedDataStreamBuilder implements DataStreamBuilder<To_be_r
     private To_be_renamedFilterableAspect filterableAspect = null;
     private StreamBuilderAspectMap aspects = null;
     private To_be_renamedConnector to_be_renamedConnector = null;
+    private To_be_renamedService to_be_renamedService = null;
+    private To_be_renamedProjectToken project = null;
 
     /**
      * Instantiates a new Builder.
@@ -52,6 +57,9 @@ public class To_be_renamedDataStreamBuilder implements DataStreamBuilder<To_be_r
 
         ResourceHandler resourceHandler = ResourceHandler.load(BUNDLE_NAME, displayLanguage.getLocale());
 
+        this.to_be_renamedService = To_be_renamedServiceAccess.getService(context);
+        this.project = To_be_renamedServiceAccess.getProject(context);
+
         try {
             this.to_be_renamedConnector = to_be_renamedConnector.getInstance(context);
             this.aspects = new StreamBuilderAspectMap();
@@ -82,8 +90,11 @@ public class To_be_renamedDataStreamBuilder implements DataStreamBuilder<To_be_r
     @Override
     public DataStream<To_be_renamedPOJO> createDataStream() {
 
-        //get the actual data from the connector
+        //get the actual data from the service's shared cache, or from the connector if the service is not running
 
+        if (this.to_be_renamedService != null && this.project != null) {
+            return new To_be_renamedDataStream(this.to_be_renamedService.findData(this.project, this.filterableAspect.getSomeData()));
+        }
         return new To_be_renamedDataStream(this.to_be_renamedConnector.getSomeData(this.filterableAspect.getSomeData()));
     }
 
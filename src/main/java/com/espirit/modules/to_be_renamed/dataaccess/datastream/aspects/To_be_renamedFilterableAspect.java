@@ -49,7 +49,7 @@ public class To_be_renamedFilterableAspect implements Filterable {
     @Nullable
     public String getSomeData() {
         String someFilterVariable = null;
-        if (this.someFilterVariable != null) {
+        if (this.someFilterVariable != null && this.filter != null) {
             someFilterVariable = this.filter.get(this.someFilterVariable);
         }
         return !Strings.isEmpty(someFilterVariable) ? someFilterVariable : null;
@@ -2,9 +2,14 @@ package com.espirit.modules.to_be_renamed.dataaccess.plugin.aspects;
 
 import com.espirit.modules.to_be_renamed.To_be_renamedPOJO;
 import com.espirit.modules.to_be_renamed.connector.To_be_renamedConnector;
-import com.espirit.modules.to_be_renamed.project.To_be_renamedProjectApp;
-import com.espirit.modules.to_be_renamed.project.To_be_renamedProjectConfig;
+import com.espirit.modules.to_be_renamed.connector.To_be_renamedEdit;
+import com.espirit.modules.to_be_renamed.connector.To_be_renamedWriteBehindQueue;
+import com.espirit.modules.to_be_renamed.project.To_be_renamedProjectSettings;
+import com.espirit.modules.to_be_renamed.service.To_be_renamedProjectToken;
+import com.espirit.modules.to_be_renamed.service.To_be_renamedService;
+import com.espirit.modules.to_be_renamed.service.To_be_renamedServiceAccess;
 import com.espirit.modules.to_be_renamed.util.FormUtil;
+import com.espirit.modules.to_be_renamed.util.ResourceHandler;
 import de.espirit.common.base.Logging;
 import de.espirit.firstspirit.access.BaseContext;
 import de.espirit.firstspirit.access.Language;
@@ -19,6 +24,8 @@ import de.espirit.firstspirit.webedit.plugin.report.WebeditExecutableReportItem;
 
 import javax.swing.*;
 import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Basic class to handle report icons, i.e. click event, etc.. Please see FirstSpirit API for more information.
@@ -26,6 +33,7 @@ import java.io.IOException;
 public class To_be_renamedPreviewItem implements JavaClientExecutableReportItem<To_be_renamedPOJO>, WebeditExecutableReportItem<To_be_renamedPOJO> {
 
     private static final Class<?> LOGGER = To_be_renamedPreviewItem.class;
+    private static final String BUNDLE_NAME = "to_be_renamed";
 
     @Override
     public boolean isVisible(ReportContext<To_be_renamedPOJO> context) {
@@ -39,7 +47,36 @@ public class To_be_renamedPreviewItem implements JavaClientExecutableReportItem<
 
     @Override
     public String getLabel(ReportContext<To_be_renamedPOJO> context) {
-        return null;
+
+        //show the state of edits that are still queued on the server or could not be written, see
+        //To_be_renamedService#submitEdit
+
+        final Object element = context.getObject();
+        if (!(element instanceof To_be_renamedPOJO)) {
+            return null;
+        }
+        final To_be_renamedService service = To_be_renamedServiceAccess.getService(context);
+        final To_be_renamedProjectToken project = service != null ? To_be_renamedServiceAccess.getProject(context) : null;
+        if (project == null) {
+            return null;
+        }
+        final To_be_renamedWriteBehindQueue.Outcome outcome = service.getEditOutcome(project, ((To_be_renamedPOJO) element).getVar());
+        if (outcome == null || outcome.getStatus() == To_be_renamedWriteBehindQueue.Status.WRITTEN) {
+            return null;
+        }
+
+        final LanguageAgent languageAgent = context.requireSpecialist(LanguageAgent.TYPE);
+        final WebeditUiAgent webEditUiAgent = context.requestSpecialist(WebeditUiAgent.TYPE);
+        Language displayLanguage = languageAgent.getMasterLanguage();
+        if (webEditUiAgent != null) {
+            displayLanguage = webEditUiAgent.getDisplayLanguage();
+        }
+        final ResourceHandler resourceHandler = ResourceHandler.load(BUNDLE_NAME, displayLanguage.getLocale());
+
+        if (outcome.getStatus() == To_be_renamedWriteBehindQueue.Status.PENDING) {
+            return resourceHandler.getString("report.to_be_renamed.editPending");
+        }
+        return resourceHandler.getString("report.to_be_renamed.editFailed", outcome.getMessage());
     }
 
     @Override
@@ -85,8 +122,9 @@ public class To_be_renamedPreviewItem implements JavaClientExecutableReportItem<
             //do something when a report icon is clicked within the Content Creator
             //this shows how to open a form to collect some data using the FormUtil utility class
 
-            final String domComponent = To_be_renamedProjectConfig.values(context, To_be_renamedProjectApp.class).getString(To_be_renamedProjectConfig.DOM_COMPONENT);
-            final String textComponent = To_be_renamedProjectConfig.values(context, To_be_renamedProjectApp.class).getString(To_be_renamedProjectConfig.TEXT_COMPONENT);
+            final To_be_renamedProjectSettings settings = To_be_renamedProjectSettings.get(context);
+            final String domComponent = settings.getDomComponent();
+            final String textComponent = settings.getTextComponent();
 
             final OperationAgent operationAgent = context.requireSpecialist(OperationAgent.TYPE);
             final LanguageAgent languageAgent = context.requireSpecialist(LanguageAgent.TYPE);
@@ -100,11 +138,10 @@ public class To_be_renamedPreviewItem implements JavaClientExecutableReportItem<
                 previewLanguage = webEditUiAgent.getPreviewLanguage();
             }
 
-            final String gomSource = FormUtil.getTo_be_renamedForm(context);
-            final FormsAgent formsAgent = context.requireSpecialist(FormsAgent.TYPE);
-            final Form form = formsAgent.getForm(gomSource);
+            //the parsed form is cached per project, see FormUtil
+            final Form form = FormUtil.getCachedTo_be_renamedForm(context);
 
-            // Pre-populate fields:
+            // Pre-populate fields, the form data is per click since it holds the clicked object's values:
             FormData preFormData = form.createFormData();
 
             String pre_dom = object.getVar();
@@ -127,8 +164,24 @@ public class To_be_renamedPreviewItem implements JavaClientExecutableReportItem<
 
             if (resultFormData != null && to_be_renamedConnector != null) {
 
-                //do something to send the collected data to the third party API using the connector
-                //e.g. edit or remove an entry
+                //the edit is only queued by the service, so the dialog closes at once; the service writes it with the
+                //project's connector in the background, retries it if the third party API fails and getLabel shows
+                //its state until it is written
+
+                final Map<String, String> fields = new LinkedHashMap<>();
+                fields.put(domComponent, toString(resultFormData.get(previewLanguage, domComponent).get()));
+                fields.put(textComponent, toString(resultFormData.get(previewLanguage, textComponent).get()));
+                final To_be_renamedService service = To_be_renamedServiceAccess.getService(context);
+                final To_be_renamedProjectToken project = To_be_renamedServiceAccess.getProject(context);
+                if (service == null || project == null) {
+                    Logging.logError("The edit of " + object.getVar() + " cannot be queued, " + To_be_renamedService.class.getSimpleName() + " is not running.", LOGGER);
+                } else {
+                    try {
+                        service.submitEdit(project, new To_be_renamedEdit(object.getVar(), fields));
+                    } catch (RuntimeException e) {
+                        Logging.logError("Exception while queueing the edit of " + object.getVar() + ".", e, LOGGER);
+                    }
+                }
             }
 
         } else {
@@ -137,4 +190,8 @@ public class To_be_renamedPreviewItem implements JavaClientExecutableReportItem<
 
         }
     }
+
+    private static String toString(Object value) {
+        return value != null ? value.toString() : null;
+    }
 }
\ No newline at end of file
@@ -4,6 +4,11 @@ import com.espirit.modules.to_be_renamed.connector.To_be_renamedConnector;
 import com.espirit.modules.to_be_renamed.dataaccess.datastream.To_be_renamedDataStreamBuilder;
 import com.espirit.modules.to_be_renamed.To_be_renamedPOJO;
 import com.espirit.modules.to_be_renamed.dataaccess.session.aspects.*;
+import com.espirit.modules.to_be_renamed.metrics.To_be_renamedHistogram;
+import com.espirit.modules.to_be_renamed.metrics.To_be_renamedMetrics;
+import com.espirit.modules.to_be_renamed.service.To_be_renamedProjectToken;
+import com.espirit.modules.to_be_renamed.service.To_be_renamedService;
+import com.espirit.modules.to_be_renamed.service.To_be_renamedServiceAccess;
 import de.espirit.common.base.Logging;
 import de.espirit.firstspirit.access.BaseContext;
 import de.espirit.firstspirit.client.plugin.dataaccess.DataAccessSession;
@@ -27,6 +32,8 @@ public class To_be_renamedDataAccessSession implements DataAccessSession<To_be_r
 
 	private static final Class<?> LOGGER = To_be_renamedDataAccessSession.class;
 
+	private static final To_be_renamedHistogram GET_DATA = To_be_renamedMetrics.getInstance().histogram(To_be_renamedMetrics.SESSION_GET_DATA);
+
 	public To_be_renamedDataAccessSession(BaseContext context) {
 		_context = context;
 
@@ -62,6 +69,21 @@ public class To_be_renamedDataAccessSession implements DataAccessSession<To_be_r
 
 	@Override
 	public List<To_be_renamedPOJO> getData(Collection<String> identifierList) {
+		final long start = System.nanoTime();
+		try {
+			return loadData(identifierList);
+		} finally {
+			GET_DATA.recordSince(start);
+		}
+	}
+
+	private List<To_be_renamedPOJO> loadData(Collection<String> identifierList) {
+		//prefer the service, it shares its cache and connectors with all clients
+		To_be_renamedService service = To_be_renamedServiceAccess.getService(_context);
+		To_be_renamedProjectToken project = To_be_renamedServiceAccess.getProject(_context);
+		if (service != null && project != null) {
+			return service.getData(project, identifierList);
+		}
 		try {
 			To_be_renamedConnector to_be_renamedConnector = To_be_renamedConnector.getInstance(_context);
 			return to_be_renamedConnector.getSomeData(identifierList);
@@ -2,11 +2,41 @@ package com.espirit.modules.to_be_renamed.executable;
 
 import com.espirit.moddev.components.annotations.PublicComponent;
 
+import com.espirit.modules.to_be_renamed.connector.To_be_renamedConnector;
+import com.espirit.modules.to_be_renamed.exporter.To_be_renamedJsonLinesExport;
+import com.espirit.modules.to_be_renamed.importer.To_be_renamedImportCheckpoint;
+import com.espirit.modules.to_be_renamed.importer.To_be_renamedImportMapper;
+import com.espirit.modules.to_be_renamed.importer.To_be_renamedImportPipeline;
+import com.espirit.modules.to_be_renamed.project.To_be_renamedProjectSettings;
+import com.espirit.modules.to_be_renamed.service.To_be_renamedProjectToken;
+import com.espirit.modules.to_be_renamed.service.To_be_renamedService;
+import com.espirit.modules.to_be_renamed.service.To_be_renamedServiceAccess;
+import com.espirit.modules.to_be_renamed.sitemap.To_be_renamedSitemapGenerator;
+import com.espirit.modules.to_be_renamed.sitemap.To_be_renamedSitemapWriter;
+import com.espirit.modules.to_be_renamed.urlfactory.To_be_renamedUrlIndex;
+import com.espirit.modules.to_be_renamed.urlfactory.To_be_renamedUrlRegistry;
+import com.espirit.modules.to_be_renamed.util.DataDirUtil;
+import de.espirit.common.base.Logging;
+import de.espirit.common.tools.Strings;
 import de.espirit.firstspirit.access.ClientScriptContext;
+import de.espirit.firstspirit.access.Language;
+import de.espirit.firstspirit.access.project.Project;
+import de.espirit.firstspirit.access.project.TemplateSet;
 import de.espirit.firstspirit.access.script.Executable;
+import de.espirit.firstspirit.access.store.Store;
+import de.espirit.firstspirit.access.store.contentstore.Content2;
+import de.espirit.firstspirit.access.store.contentstore.ContentStoreRoot;
 
+import java.io.IOException;
 import java.io.Writer;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @PublicComponent(name = "To_be_renamedExecutable")
@@ -18,9 +48,19 @@ public class To_be_renamedExecutable implements Executable {
      */
 
     // this executable can be used within beanshell scripts, etc.
+    // the parameter "mode" selects what to do, e.g. mode=sitemap, mode=import, mode=export, mode=resetUrlIndex,
+    // mode=urlCollisions or mode=regenerateApiToken
 
     private static final Class<?> LOGGER = To_be_renamedExecutable.class;
 
+    public static final String PARAM_MODE = "mode";
+    public static final String MODE_SITEMAP = "sitemap";
+    public static final String MODE_IMPORT = "import";
+    public static final String MODE_EXPORT = "export";
+    public static final String MODE_RESET_URL_INDEX = "resetUrlIndex";
+    public static final String MODE_URL_COLLISIONS = "urlCollisions";
+    public static final String MODE_REGENERATE_API_TOKEN = "regenerateApiToken";
+
     @Override
     public Object execute(Map<String, Object> map, Writer writer, Writer writer1) {
 
@@ -28,13 +68,249 @@ public class To_be_renamedExecutable implements Executable {
 
         try {
 
+            final String mode = getString(map, PARAM_MODE, "");
+            if (MODE_SITEMAP.equals(mode)) {
+                return generateSitemap(context, map, writer);
+            }
+            if (MODE_IMPORT.equals(mode)) {
+                return importData(context, map, writer);
+            }
+            if (MODE_EXPORT.equals(mode)) {
+                return exportData(context, map, writer);
+            }
+            if (MODE_RESET_URL_INDEX.equals(mode)) {
+                return resetUrlIndex(context, writer);
+            }
+            if (MODE_URL_COLLISIONS.equals(mode)) {
+                return reportUrlCollisions(context, writer);
+            }
+            if (MODE_REGENERATE_API_TOKEN.equals(mode)) {
+                return regenerateApiToken(context, writer);
+            }
+
             //do something
 
         } catch (Exception ioe) {
 
             //do something, i.e. log error outputs
+            Logging.logError(ioe.getMessage(), ioe, LOGGER);
+            write(writer1, "Error: " + ioe.getMessage());
 
         }
         return null;
     }
+
+    /**
+     * Streams the sitemap of the current project to a directory.
+     * Parameters: outputDir, baseUrl (required), templateSet (default: first html template set), languages (comma
+     * separated abbreviations, default: all), gzip, languagePrefix, threads, uselowercase, usewelcomefilenames.
+     *
+     * @return the number of written URLs
+     */
+    private Long generateSitemap(ClientScriptContext context, Map<String, Object> map, Writer writer) throws IOException {
+        final Project project = context.getProject();
+        final Path outputDir = Paths.get(getString(map, "outputDir", null));
+        final String baseUrl = getString(map, "baseUrl", null);
+        final boolean gzip = Boolean.parseBoolean(getString(map, "gzip", "false"));
+        final boolean languagePrefix = Boolean.parseBoolean(getString(map, "languagePrefix", "false"));
+        final int threads = Integer.parseInt(getString(map, "threads", String.valueOf(To_be_renamedProjectSettings.get(context).getThreads())));
+
+        final Map<String, String> settings = new HashMap<>();
+        settings.put("uselowercase", getString(map, "uselowercase", "false"));
+        settings.put("usewelcomefilenames", getString(map, "usewelcomefilenames", "true"));
+
+        final TemplateSet templateSet = getTemplateSet(project, getString(map, "templateSet", ""));
+        final List<Language> languages = getLanguages(project, getString(map, "languages", ""));
+
+        Files.createDirectories(outputDir);
+        final To_be_renamedSitemapGenerator generator = new To_be_renamedSitemapGenerator(settings, threads);
+        try (To_be_renamedSitemapWriter sitemapWriter = new To_be_renamedSitemapWriter(outputDir, "sitemap", baseUrl, gzip)) {
+            final long written = generator.generate(project, templateSet, languages, baseUrl, languagePrefix, sitemapWriter, writer);
+            write(writer, "sitemap: done, " + written + " URLs in " + sitemapWriter.getFiles().size() + " file(s)");
+            return written;
+        }
+    }
+
+    /**
+     * Imports the objects of the third party system into a content source, see {@link To_be_renamedImportPipeline}.
+     * Parameters: content2 (uid of the content source), keyAttribute (both required), filter, pageSize, batchSize
+     * (objects per transaction), threads (defaults of these three: the project's tuning settings), checkpoint (file,
+     * relative to the project's data directory, see {@link DataDirUtil}; default import-[content2].properties there),
+     * resume (default true, false restarts from the beginning).
+     *
+     * @return the number of processed objects
+     */
+    private Long importData(ClientScriptContext context, Map<String, Object> map, Writer writer) throws IOException {
+        final Project project = context.getProject();
+        final String uid = getString(map, "content2", null);
+        final String keyAttribute = getString(map, "keyAttribute", null);
+        final String filter = getString(map, "filter", "");
+        final To_be_renamedProjectSettings settings = To_be_renamedProjectSettings.get(context);
+        final int pageSize = Integer.parseInt(getString(map, "pageSize", String.valueOf(settings.getPageSize())));
+        final int batchSize = Integer.parseInt(getString(map, "batchSize", String.valueOf(settings.getBatchSize())));
+        final int threads = Integer.parseInt(getString(map, "threads", String.valueOf(settings.getThreads())));
+        // not in the temp directory, which many systems clean on restart, so a checkpoint would be lost with the server
+        final Path checkpointFile = DataDirUtil.getProjectDir(project.getId()).resolve(getString(map, "checkpoint", "import-" + uid + ".properties"));
+        final boolean resume = Boolean.parseBoolean(getString(map, "resume", "true"));
+
+        final Content2 content2 = getContent2(project, uid);
+        final To_be_renamedConnector connector = To_be_renamedConnector.getInstance(context);
+        final To_be_renamedImportCheckpoint checkpoint = To_be_renamedImportCheckpoint.open(checkpointFile, uid + '|' + keyAttribute + '|' + filter, resume);
+        final To_be_renamedImportPipeline pipeline = new To_be_renamedImportPipeline(new To_be_renamedImportMapper(keyAttribute), pageSize, batchSize, threads);
+
+        pipeline.run((offset, limit) -> connector.getSomeData(filter, (int) offset, limit), content2.getSchema().getSession(),
+                content2.getEntityType().getName(), checkpoint, writer);
+        write(writer, "import: done, " + checkpoint.getOffset() + " objects");
+        return checkpoint.getOffset();
+    }
+
+    /**
+     * Exports the objects of the third party system as JSON Lines, see {@link To_be_renamedJsonLinesExport}.
+     * Parameters: file (default: the output writer; relative to the project's data directory, see {@link DataDirUtil}),
+     * gzip (requires file), filter, pageSize (default: project setting),
+     * content2 and keyAttribute (optional, adds the id of the dataset an object was imported to).
+     *
+     * @return the number of exported objects
+     */
+    private Long exportData(ClientScriptContext context, Map<String, Object> map, Writer writer) throws IOException {
+        final Project project = context.getProject();
+        final String file = getString(map, "file", "");
+        final boolean gzip = Boolean.parseBoolean(getString(map, "gzip", "false"));
+        final String filter = getString(map, "filter", "");
+        final int pageSize = Integer.parseInt(getString(map, "pageSize", String.valueOf(To_be_renamedProjectSettings.get(context).getPageSize())));
+        final String uid = getString(map, "content2", "");
+
+        To_be_renamedJsonLinesExport.Usage usage = null;
+        if (!Strings.isEmpty(uid)) {
+            final Content2 content2 = getContent2(project, uid);
+            usage = new To_be_renamedJsonLinesExport.Usage(content2.getSchema().getSession(), content2.getEntityType().getName(), getString(map, "keyAttribute", null));
+        }
+        final To_be_renamedConnector connector = To_be_renamedConnector.getInstance(context);
+        final To_be_renamedJsonLinesExport.Source source = (offset, limit) -> connector.getSomeData(filter, (int) offset, limit);
+        final To_be_renamedJsonLinesExport export = new To_be_renamedJsonLinesExport(pageSize);
+
+        if (Strings.isEmpty(file)) {
+            if (gzip) {
+                throw new IllegalArgumentException("gzip requires the parameter 'file'");
+            }
+            // the records go to the output, so no progress messages in between
+            return export.export(source, usage, writer, null);
+        }
+        // relative to the data directory, not to the working directory of the server
+        final Path exportFile = DataDirUtil.getProjectDir(project.getId()).resolve(file);
+        final long exported = export.export(source, usage, exportFile, gzip, writer);
+        write(writer, "export: done, " + exported + " objects in " + exportFile);
+        return exported;
+    }
+
+    /**
+     * Removes the URLs of the current project from the reverse URL index, see {@link To_be_renamedUrlIndex}. Meant to
+     * run as the first action of a full generation schedule, so URLs of deleted nodes are dropped; delta generations
+     * only update the URLs they build.
+     *
+     * @return the number of URLs left in the index of all projects
+     */
+    private Integer resetUrlIndex(ClientScriptContext context, Writer writer) {
+        final To_be_renamedUrlIndex urlIndex = To_be_renamedUrlIndex.getInstance();
+        urlIndex.clear(context.getProject().getId());
+        write(writer, "resetUrlIndex: done, " + urlIndex.size() + " URLs of other projects left");
+        return urlIndex.size();
+    }
+
+    /**
+     * Reports the URLs the latest generation of the current project built for more than one page or medium, and the
+     * URLs the later ones got instead, see {@link To_be_renamedUrlRegistry}. Meant to run as the last action of a
+     * generation schedule.
+     *
+     * @return the number of collisions, null if the project has not been generated with the url factory since the start
+     * of the server
+     */
+    private Integer reportUrlCollisions(ClientScriptContext context, Writer writer) {
+        final To_be_renamedUrlRegistry registry = To_be_renamedUrlRegistry.getLatest(context.getProject().getId());
+        if (registry == null) {
+            write(writer, "urlCollisions: no generation of this project since the start of the server");
+            return null;
+        }
+        final List<To_be_renamedUrlRegistry.Collision> collisions = registry.reportCollisions();
+        for (To_be_renamedUrlRegistry.Collision collision : collisions) {
+            write(writer, collision.toString());
+        }
+        write(writer, "urlCollisions: " + collisions.size() + " of " + registry.size() + " URLs");
+        return collisions.size();
+    }
+
+    /**
+     * Replaces the API token of the current project, the bearer token of the REST API, see
+     * {@link To_be_renamedService#regenerateApiToken}. The old token is rejected at once; widgets get the new one the
+     * next time they ask for it. The token is not written to the output.
+     *
+     * @return true if the token was replaced
+     */
+    private Boolean regenerateApiToken(ClientScriptContext context, Writer writer) {
+        final To_be_renamedService service = To_be_renamedServiceAccess.getService(context);
+        final To_be_renamedProjectToken project = To_be_renamedServiceAccess.getProject(context);
+        if (service == null || project == null) {
+            write(writer, "regenerateApiToken: the service is not running");
+            return false;
+        }
+        service.regenerateApiToken(project);
+        write(writer, "regenerateApiToken: done, the old token of " + project + " is no longer accepted");
+        return true;
+    }
+
+    private static Content2 getContent2(Project project, String uid) {
+        final ContentStoreRoot contentStore = (ContentStoreRoot) project.getUserService().getStore(Store.Type.CONTENTSTORE, false);
+        final Content2 content2 = contentStore.getContent2ByName(uid);
+        if (content2 == null) {
+            throw new IllegalArgumentException("content source not found: '" + uid + "'");
+        }
+        return content2;
+    }
+
+    private static TemplateSet getTemplateSet(Project project, String uid) {
+        for (TemplateSet templateSet : project.getTemplateSets()) {
+            if (Strings.isEmpty(uid) ? "html".equals(templateSet.getExtension()) : uid.equals(templateSet.getUid())) {
+                return templateSet;
+            }
+        }
+        throw new IllegalArgumentException("template set not found: '" + uid + "'");
+    }
+
+    private static List<Language> getLanguages(Project project, String abbreviations) {
+        if (Strings.isEmpty(abbreviations)) {
+            return project.getLanguages();
+        }
+        final List<String> wanted = Arrays.asList(abbreviations.toUpperCase().split("\\s*,\\s*"));
+        final List<Language> languages = new ArrayList<>();
+        for (Language language : project.getLanguages()) {
+            if (wanted.contains(language.getAbbreviation().toUpperCase())) {
+                languages.add(language);
+            }
+        }
+        return languages;
+    }
+
+    private static String getString(Map<String, Object> map, String key, String defaultValue) {
+        final Object value = map.get(key);
+        if (value == null || Strings.isEmpty(value.toString())) {
+            if (defaultValue == null) {
+                throw new IllegalArgumentException("missing parameter '" + key + "'");
+            }
+            return defaultValue;
+        }
+        return value.toString();
+    }
+
+    private static void write(Writer writer, String message) {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.write(message);
+            writer.write('\n');
+            writer.flush();
+        } catch (IOException ioe) {
+            Logging.logWarning("Could not write executable output: " + ioe.getMessage(), LOGGER);
+        }
+    }
 }
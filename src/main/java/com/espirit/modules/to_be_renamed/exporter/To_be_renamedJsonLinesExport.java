@@ -0,0 +1,240 @@
+package com.espirit.modules.to_be_renamed.exporter;
+
+import com.espirit.modules.to_be_renamed.To_be_renamedPOJO;
+import com.espirit.modules.to_be_renamed.util.JsonUtil;
+import de.espirit.or.Session;
+import de.espirit.or.query.Equal;
+import de.espirit.or.query.Or;
+import de.espirit.or.query.Select;
+import de.espirit.or.schema.Entity;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports the objects of the third party system as JSON Lines, one object per line. The source is read page by page
+ * and every page is written as soon as it arrives while the next one is already being fetched, so at most two pages
+ * are held in memory regardless of the size of the export.
+ * <p>
+ * If a {@link Usage} is given, every line also carries the id of the dataset that holds the object in a content
+ * source ({@code "fsDatasetId"}, {@code null} if the object was not imported), looked up with one query per page.
+ */
+public class To_be_renamedJsonLinesExport {
+
+    private static final Class<?> LOGGER = To_be_renamedJsonLinesExport.class;
+
+    private static final int PROGRESS_INTERVAL = 100_000;
+
+    private final int pageSize;
+
+    /**
+     * Instantiates a new export.
+     *
+     * @param pageSize the number of objects fetched per call of the source
+     */
+    public To_be_renamedJsonLinesExport(int pageSize) {
+        this.pageSize = Math.max(1, pageSize);
+    }
+
+    /**
+     * Exports to a file. The file is written under a temporary name and only replaces an existing file once the
+     * export is complete.
+     *
+     * @param source   the objects to export
+     * @param usage    the dataset lookup, may be {@code null}
+     * @param file     the target file
+     * @param gzip     {@code true} to compress the file
+     * @param progress receives progress messages, may be {@code null}
+     * @return the number of exported objects
+     * @throws IOException if the source fails or the file cannot be written
+     */
+    public long export(Source source, Usage usage, Path file, boolean gzip, Writer progress) throws IOException {
+        final Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        final Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            final long exported;
+            try (OutputStream out = gzip ? new GZIPOutputStream(Files.newOutputStream(temp), 64 * 1024) : Files.newOutputStream(temp);
+                 Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024)) {
+                exported = export(source, usage, writer, progress);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            return exported;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Exports to a writer, the writer is flushed after every page but not closed.
+     *
+     * @param source   the objects to export
+     * @param usage    the dataset lookup, may be {@code null}
+     * @param out      the target
+     * @param progress receives progress messages, may be {@code null}
+     * @return the number of exported objects
+     * @throws IOException if the source fails or the target cannot be written
+     */
+    public long export(Source source, Usage usage, Writer out, Writer progress) throws IOException {
+        final ExecutorService fetcher = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "To_be_renamedJsonLinesExport-fetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final StringBuilder line = new StringBuilder(256);
+        long exported = 0;
+        try {
+            CompletableFuture<List<To_be_renamedPOJO>> next = fetch(fetcher, source, 0);
+            while (true) {
+                final List<To_be_renamedPOJO> page = join(next);
+                // fetch the next page while this one is written
+                next = page.size() < this.pageSize ? null : fetch(fetcher, source, exported + page.size());
+                final Map<String, Object> datasets = usage != null ? usage.lookup(page) : Collections.emptyMap();
+                for (To_be_renamedPOJO object : page) {
+                    line.setLength(0);
+                    appendLine(line, object, usage != null, datasets);
+                    out.append(line);
+                    if (++exported % PROGRESS_INTERVAL == 0) {
+                        progress(progress, "export: " + exported + " objects written");
+                    }
+                }
+                out.flush();
+                if (next == null) {
+                    break;
+                }
+            }
+        } finally {
+            fetcher.shutdownNow();
+        }
+        progress(progress, "export: " + exported + " objects written");
+        return exported;
+    }
+
+    // keep in sync with the fields of To_be_renamedPOJO
+    private static void appendLine(StringBuilder line, To_be_renamedPOJO object, boolean withUsage, Map<String, Object> datasets) {
+        line.append("{\"var\":");
+        appendValue(line, object.getVar());
+        if (withUsage) {
+            line.append(",\"fsDatasetId\":");
+            appendValue(line, object.getVar() != null ? datasets.get(object.getVar()) : null);
+        }
+        line.append("}\n");
+    }
+
+    private static void appendValue(StringBuilder line, Object value) {
+        if (value == null) {
+            line.append("null");
+        } else if (value instanceof Number || value instanceof Boolean) {
+            line.append(value);
+        } else {
+            JsonUtil.appendQuoted(line, value.toString());
+        }
+    }
+
+    private CompletableFuture<List<To_be_renamedPOJO>> fetch(ExecutorService fetcher, Source source, long offset) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return source.fetch(offset, this.pageSize);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, fetcher);
+    }
+
+    private static List<To_be_renamedPOJO> join(CompletableFuture<List<To_be_renamedPOJO>> page) throws IOException {
+        try {
+            return page.join();
+        } catch (CompletionException e) {
+            final Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException("reading the export source failed: " + cause.getMessage(), cause);
+        }
+    }
+
+    private static void progress(Writer progress, String message) throws IOException {
+        if (progress != null) {
+            progress.write(message);
+            progress.write('\n');
+            progress.flush();
+        }
+    }
+
+    /**
+     * Reads the objects to export, e.g. {@code (offset, limit) -> connector.getSomeData(filter, (int) offset, limit)}.
+     */
+    public interface Source {
+
+        /**
+         * Reads a page of objects.
+         *
+         * @param offset the index of the first object
+         * @param limit  the maximum number of objects
+         * @return the objects, fewer than {@code limit} only at the end of the source
+         * @throws Exception if reading fails
+         */
+        List<To_be_renamedPOJO> fetch(long offset, int limit) throws Exception;
+    }
+
+    /**
+     * Finds the datasets of a content source that hold exported objects, matched by a key attribute that contains
+     * the object's var (see {@code To_be_renamedImportMapper}).
+     */
+    public static class Usage {
+
+        private final Session session;
+        private final String entityType;
+        private final String keyAttribute;
+
+        /**
+         * Instantiates a new usage lookup.
+         *
+         * @param session      the session of the content source's schema
+         * @param entityType   the name of the content source's entity type
+         * @param keyAttribute the attribute holding the object's var
+         */
+        public Usage(Session session, String entityType, String keyAttribute) {
+            this.session = session;
+            this.entityType = entityType;
+            this.keyAttribute = keyAttribute;
+        }
+
+        Map<String, Object> lookup(List<To_be_renamedPOJO> page) {
+            final Or keys = new Or();
+            int count = 0;
+            for (To_be_renamedPOJO object : page) {
+                if (object.getVar() != null) {
+                    keys.add(new Equal(this.keyAttribute, object.getVar()));
+                    count++;
+                }
+            }
+            if (count == 0) {
+                return Collections.emptyMap();
+            }
+            final Select select = this.session.createSelect(this.entityType);
+            select.setConstraint(keys);
+            final Map<String, Object> datasets = new HashMap<>(count * 4 / 3 + 1);
+            for (Entity entity : this.session.executeQuery(select)) {
+                final Object key = entity.getValue(this.keyAttribute);
+                if (key != null) {
+                    datasets.put(key.toString(), entity.getKeyValue());
+                }
+            }
+            return datasets;
+        }
+    }
+}
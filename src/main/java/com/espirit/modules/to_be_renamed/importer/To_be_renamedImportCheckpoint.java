@@ -0,0 +1,121 @@
+package com.espirit.modules.to_be_renamed.importer;
+
+import de.espirit.common.base.Logging;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * Progress of an import that was committed to the content source, stored as a properties file. The file is written
+ * after every committed batch and replaced atomically, so after a crash it always describes a committed state and
+ * the import can continue at {@link #getOffset()}.
+ */
+public class To_be_renamedImportCheckpoint {
+
+    private static final Class<?> LOGGER = To_be_renamedImportCheckpoint.class;
+
+    private final Path file;
+    private final String source;
+    private long offset;
+    private long created;
+    private long updated;
+    private long skipped;
+
+    private To_be_renamedImportCheckpoint(Path file, String source) {
+        this.file = file;
+        this.source = source;
+    }
+
+    /**
+     * Opens the checkpoint of an import.
+     *
+     * @param file   the checkpoint file
+     * @param source describes the import (e.g. content source and filter), a checkpoint of another import is ignored
+     * @param resume {@code false} to start from the beginning regardless of an existing checkpoint
+     * @return the checkpoint
+     * @throws IOException if an existing checkpoint file cannot be read
+     */
+    public static To_be_renamedImportCheckpoint open(Path file, String source, boolean resume) throws IOException {
+        final To_be_renamedImportCheckpoint checkpoint = new To_be_renamedImportCheckpoint(file, source);
+        if (!resume || !Files.exists(file)) {
+            return checkpoint;
+        }
+        final Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        }
+        if (!source.equals(properties.getProperty("source"))) {
+            Logging.logWarning("Ignoring checkpoint " + file + " of another import: " + properties.getProperty("source"), LOGGER);
+            return checkpoint;
+        }
+        checkpoint.offset = Long.parseLong(properties.getProperty("offset", "0"));
+        checkpoint.created = Long.parseLong(properties.getProperty("created", "0"));
+        checkpoint.updated = Long.parseLong(properties.getProperty("updated", "0"));
+        checkpoint.skipped = Long.parseLong(properties.getProperty("skipped", "0"));
+        return checkpoint;
+    }
+
+    /**
+     * Records a committed batch and writes the checkpoint file.
+     *
+     * @param offset  the source offset following the last object of the batch
+     * @param created the number of datasets created by the batch
+     * @param updated the number of datasets updated by the batch
+     * @param skipped the number of objects skipped by the batch
+     * @throws IOException if the file cannot be written
+     */
+    void commit(long offset, long created, long updated, long skipped) throws IOException {
+        this.offset = offset;
+        this.created += created;
+        this.updated += updated;
+        this.skipped += skipped;
+
+        final Properties properties = new Properties();
+        properties.setProperty("source", this.source);
+        properties.setProperty("offset", String.valueOf(this.offset));
+        properties.setProperty("created", String.valueOf(this.created));
+        properties.setProperty("updated", String.valueOf(this.updated));
+        properties.setProperty("skipped", String.valueOf(this.skipped));
+        final Path directory = this.file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        final Path temp = Files.createTempFile(directory, this.file.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                properties.store(out, null);
+            }
+            Files.move(temp, this.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Deletes the checkpoint file once the import is complete.
+     *
+     * @throws IOException if the file cannot be deleted
+     */
+    void delete() throws IOException {
+        Files.deleteIfExists(this.file);
+    }
+
+    public long getOffset() {
+        return this.offset;
+    }
+
+    public long getCreated() {
+        return this.created;
+    }
+
+    public long getUpdated() {
+        return this.updated;
+    }
+
+    public long getSkipped() {
+        return this.skipped;
+    }
+}
@@ -0,0 +1,38 @@
+package com.espirit.modules.to_be_renamed.importer;
+
+import com.espirit.modules.to_be_renamed.To_be_renamedPOJO;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class To_be_renamedImportMapper {
+
+    //maps the objects of the third party system to attribute values of a FirstSpirit content source
+    //it is called concurrently by the import pipeline, so keep it free of shared mutable state and FirstSpirit calls
+
+    private static final Class<?> LOGGER = To_be_renamedImportMapper.class;
+
+    private final String keyAttribute;
+
+    public To_be_renamedImportMapper(String keyAttribute) {
+        this.keyAttribute = keyAttribute;
+    }
+
+    //name of the attribute that identifies an imported dataset, it must be filled by map
+    public String getKeyAttribute() {
+        return this.keyAttribute;
+    }
+
+    //return the attribute values of the dataset for the given object, or null to skip the object
+    public Map<String, Object> map(To_be_renamedPOJO object) {
+
+        //replace with the mapping of the real fields, e.g. values.put("title", object.getTitle())
+
+        if (object.getVar() == null) {
+            return null;
+        }
+        final Map<String, Object> values = new LinkedHashMap<>();
+        values.put(this.keyAttribute, object.getVar());
+        return values;
+    }
+}
@@ -0,0 +1,305 @@
+package com.espirit.modules.to_be_renamed.importer;
+
+import com.espirit.modules.to_be_renamed.To_be_renamedPOJO;
+import de.espirit.common.base.Logging;
+import de.espirit.or.Session;
+import de.espirit.or.query.Equal;
+import de.espirit.or.query.Or;
+import de.espirit.or.query.Select;
+import de.espirit.or.schema.Entity;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Imports the objects of the third party system into a content source in three stages:
+ * <ol>
+ * <li>a fetch thread reads the source page by page,</li>
+ * <li>a thread pool maps the pages to attribute values with a {@link To_be_renamedImportMapper},</li>
+ * <li>the calling thread writes the values in batches of {@code batchSize} objects, one transaction per batch.</li>
+ * </ol>
+ * At most {@code 2 * threads} pages are in flight, so memory usage does not depend on the size of the import. The
+ * writer consumes the pages in source order; datasets are matched by the mapper's key attribute, created if missing
+ * and updated otherwise, so a batch that is repeated after a crash does not create duplicates. After each commit the
+ * {@link To_be_renamedImportCheckpoint} is updated and a progress line is written.
+ */
+public class To_be_renamedImportPipeline {
+
+    private static final Class<?> LOGGER = To_be_renamedImportPipeline.class;
+
+    private static final Page END = new Page(-1, null);
+
+    private final To_be_renamedImportMapper mapper;
+    private final int pageSize;
+    private final int batchSize;
+    private final int threads;
+
+    /**
+     * Instantiates a new import pipeline.
+     *
+     * @param mapper    maps the objects to attribute values
+     * @param pageSize  the number of objects fetched per call of the source
+     * @param batchSize the number of objects written per transaction
+     * @param threads   the number of mapping threads
+     */
+    public To_be_renamedImportPipeline(To_be_renamedImportMapper mapper, int pageSize, int batchSize, int threads) {
+        this.mapper = mapper;
+        this.pageSize = Math.max(1, pageSize);
+        this.batchSize = Math.max(1, batchSize);
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Runs the import, starting at the offset of the checkpoint.
+     *
+     * @param source     the objects to import
+     * @param session    the session of the content source's schema
+     * @param entityType the name of the content source's entity type
+     * @param checkpoint the checkpoint, it is deleted once the import is complete
+     * @param progress   receives progress messages, may be {@code null}
+     * @return the checkpoint with the totals of the import
+     * @throws IOException if the source, the content source or the checkpoint fails
+     */
+    public To_be_renamedImportCheckpoint run(Source source, Session session, String entityType, To_be_renamedImportCheckpoint checkpoint,
+                                             Writer progress) throws IOException {
+        final long start = System.nanoTime();
+        final long startOffset = checkpoint.getOffset();
+        if (startOffset > 0) {
+            progress(progress, "import: resuming at offset " + startOffset);
+        }
+
+        final BlockingQueue<Page> pages = new ArrayBlockingQueue<>(2 * this.threads);
+        final ExecutorService mappers = Executors.newFixedThreadPool(this.threads, runnable -> {
+            final Thread thread = new Thread(runnable, "To_be_renamedImportPipeline-map");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final Thread fetcher = new Thread(() -> fetch(source, startOffset, pages, mappers), "To_be_renamedImportPipeline-fetch");
+        fetcher.setDaemon(true);
+        fetcher.start();
+
+        final Batch batch = new Batch(this.batchSize);
+        try {
+            Page page;
+            while ((page = take(pages)) != END) {
+                final List<Map<String, Object>> rows = join(page.rows);
+                for (int i = 0; i < rows.size(); i++) {
+                    batch.add(rows.get(i), page.offset + i + 1);
+                    if (batch.size() == this.batchSize) {
+                        write(batch, session, entityType, checkpoint);
+                        progress(progress, checkpoint, startOffset, start);
+                    }
+                }
+            }
+            if (batch.size() > 0) {
+                write(batch, session, entityType, checkpoint);
+                progress(progress, checkpoint, startOffset, start);
+            }
+            checkpoint.delete();
+            return checkpoint;
+        } finally {
+            fetcher.interrupt();
+            mappers.shutdownNow();
+        }
+    }
+
+    private void fetch(Source source, long startOffset, BlockingQueue<Page> pages, ExecutorService mappers) {
+        long offset = startOffset;
+        try {
+            while (true) {
+                final List<To_be_renamedPOJO> objects = source.fetch(offset, this.pageSize);
+                if (!objects.isEmpty()) {
+                    pages.put(new Page(offset, CompletableFuture.supplyAsync(() -> map(objects), mappers)));
+                    offset += objects.size();
+                }
+                if (objects.size() < this.pageSize) {
+                    break;
+                }
+            }
+            pages.put(END);
+        } catch (InterruptedException e) {
+            // the writer gave up
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // hand the failure to the writer, which stops at this page
+            final CompletableFuture<List<Map<String, Object>>> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            try {
+                pages.put(new Page(offset, failed));
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private List<Map<String, Object>> map(List<To_be_renamedPOJO> objects) {
+        final List<Map<String, Object>> rows = new ArrayList<>(objects.size());
+        for (To_be_renamedPOJO object : objects) {
+            final Map<String, Object> values = this.mapper.map(object);
+            if (values != null && values.get(this.mapper.getKeyAttribute()) == null) {
+                Logging.logWarning("Skipping " + object.getVar() + ": no value for key attribute " + this.mapper.getKeyAttribute(), LOGGER);
+                rows.add(null);
+            } else {
+                rows.add(values);
+            }
+        }
+        return rows;
+    }
+
+    private void write(Batch batch, Session session, String entityType, To_be_renamedImportCheckpoint checkpoint) throws IOException {
+        final String keyAttribute = this.mapper.getKeyAttribute();
+        long created = 0;
+        long updated = 0;
+        try {
+            final Map<Object, Entity> existing = findExisting(batch, session, entityType, keyAttribute);
+            for (Map<String, Object> values : batch.rows) {
+                final Object key = values.get(keyAttribute);
+                Entity entity = existing.get(key);
+                if (entity == null) {
+                    entity = session.createEntity(entityType);
+                    // later rows of the same batch with this key update the new entity
+                    existing.put(key, entity);
+                    created++;
+                } else {
+                    updated++;
+                }
+                for (Map.Entry<String, Object> value : values.entrySet()) {
+                    entity.setValue(value.getKey(), value.getValue());
+                }
+            }
+            session.commit();
+        } catch (RuntimeException e) {
+            session.rollback();
+            throw new IOException("import failed after offset " + checkpoint.getOffset() + ": " + e.getMessage(), e);
+        }
+        checkpoint.commit(batch.offset, created, updated, batch.skipped);
+        batch.clear();
+    }
+
+    // one query per batch instead of one per object
+    private static Map<Object, Entity> findExisting(Batch batch, Session session, String entityType, String keyAttribute) {
+        final Map<Object, Entity> existing = new HashMap<>(batch.rows.size() * 4 / 3 + 1);
+        if (batch.rows.isEmpty()) {
+            return existing;
+        }
+        final Or keys = new Or();
+        for (Map<String, Object> values : batch.rows) {
+            keys.add(new Equal(keyAttribute, values.get(keyAttribute)));
+        }
+        final Select select = session.createSelect(entityType);
+        select.setConstraint(keys);
+        for (Entity entity : session.executeQuery(select)) {
+            existing.put(entity.getValue(keyAttribute), entity);
+        }
+        return existing;
+    }
+
+    private static Page take(BlockingQueue<Page> pages) throws IOException {
+        try {
+            return pages.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("import interrupted", e);
+        }
+    }
+
+    private static List<Map<String, Object>> join(CompletableFuture<List<Map<String, Object>>> rows) throws IOException {
+        try {
+            return rows.join();
+        } catch (CompletionException e) {
+            final Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException("reading the import source failed: " + cause.getMessage(), cause);
+        }
+    }
+
+    private static void progress(Writer progress, To_be_renamedImportCheckpoint checkpoint, long startOffset, long start) throws IOException {
+        final long millis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        progress(progress, "import: " + checkpoint.getOffset() + " objects processed (" + checkpoint.getCreated() + " created, "
+                + checkpoint.getUpdated() + " updated, " + checkpoint.getSkipped() + " skipped), "
+                + (checkpoint.getOffset() - startOffset) * 1000 / millis + " objects/s");
+    }
+
+    private static void progress(Writer progress, String message) throws IOException {
+        if (progress != null) {
+            progress.write(message);
+            progress.write('\n');
+            progress.flush();
+        }
+    }
+
+    /**
+     * Reads the objects to import, e.g. {@code (offset, limit) -> connector.getSomeData(filter, (int) offset, limit)}.
+     */
+    public interface Source {
+
+        /**
+         * Reads a page of objects.
+         *
+         * @param offset the index of the first object
+         * @param limit  the maximum number of objects
+         * @return the objects, fewer than {@code limit} only at the end of the source
+         * @throws Exception if reading fails
+         */
+        List<To_be_renamedPOJO> fetch(long offset, int limit) throws Exception;
+    }
+
+    /**
+     * A page of mapped rows and the source offset of its first object.
+     */
+    private static final class Page {
+
+        private final long offset;
+        private final CompletableFuture<List<Map<String, Object>>> rows;
+
+        private Page(long offset, CompletableFuture<List<Map<String, Object>>> rows) {
+            this.offset = offset;
+            this.rows = rows;
+        }
+    }
+
+    /**
+     * The rows of the current transaction.
+     */
+    private static final class Batch {
+
+        private final List<Map<String, Object>> rows;
+        private long offset;
+        private long skipped;
+        private int size;
+
+        private Batch(int batchSize) {
+            this.rows = new ArrayList<>(batchSize);
+        }
+
+        private void add(Map<String, Object> values, long offset) {
+            if (values != null) {
+                this.rows.add(values);
+            } else {
+                this.skipped++;
+            }
+            this.offset = offset;
+            this.size++;
+        }
+
+        private int size() {
+            return this.size;
+        }
+
+        private void clear() {
+            this.rows.clear();
+            this.skipped = 0;
+            this.size = 0;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.espirit.modules.to_be_renamed.job;
+
+/**
+ * Work run in the background by the {@link To_be_renamedJobManager}.
+ * <p>
+ * A job reports its progress to the {@link To_be_renamedJobProgress} it is called with, and should call
+ * {@link To_be_renamedJobProgress#checkCancelled()} between units of work, so it stops soon after it was cancelled.
+ */
+@FunctionalInterface
+public interface To_be_renamedJob {
+
+    /**
+     * Runs the job.
+     *
+     * @param progress the progress of this job
+     * @throws Exception if the job failed; its message is shown to the editor
+     */
+    void run(To_be_renamedJobProgress progress) throws Exception;
+}
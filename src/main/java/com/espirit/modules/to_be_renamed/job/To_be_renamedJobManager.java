@@ -0,0 +1,260 @@
+package com.espirit.modules.to_be_renamed.job;
+
+import com.espirit.modules.to_be_renamed.metrics.To_be_renamedMetrics;
+import de.espirit.common.base.Logging;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs long running jobs, e.g. triggered from the Content Creator, in the background of the service, so the request
+ * that submitted a job returns at once and its progress is polled with {@link #getStatus(String)}.
+ * <ul>
+ * <li>Jobs run on a bounded pool with a bounded queue; a submission is rejected when the queue is full.</li>
+ * <li>Only one job per key is queued or running at a time: submitting a key again returns the active job.</li>
+ * <li>{@link #cancel(String)} removes a queued job and stops a running one at its next
+ * {@link To_be_renamedJobProgress#checkCancelled()}.</li>
+ * <li>Finished jobs are kept for a while, so their outcome can still be polled.</li>
+ * </ul>
+ */
+public class To_be_renamedJobManager {
+
+    private static final Class<?> LOGGER = To_be_renamedJobManager.class;
+
+    private static final long RETENTION_MILLIS = TimeUnit.MINUTES.toMillis(30);
+    private static final int MAX_FINISHED = 1_000;
+
+    private final ThreadPoolExecutor executor;
+
+    // guarded by this
+    private final LinkedHashMap<String, Entry> jobs = new LinkedHashMap<>();
+    private final Map<String, Entry> latest = new HashMap<>();
+
+    /**
+     * Instantiates a new job manager.
+     *
+     * @param threads       the number of jobs running at the same time
+     * @param queueCapacity the number of jobs waiting for a thread
+     */
+    public To_be_renamedJobManager(int threads, int queueCapacity) {
+        final AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 1, TimeUnit.MINUTES, new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            final Thread thread = new Thread(runnable, "To_be_renamedJob-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Submits a job, unless a job with the same key is queued or running.
+     *
+     * @param key a key identifying the work, e.g. the project and the kind of job
+     * @param job the job
+     * @return the status of the new job, or of the active job with the same key
+     * @throws IllegalStateException if too many jobs are waiting
+     */
+    public synchronized To_be_renamedJobStatus submit(String key, To_be_renamedJob job) {
+        prune();
+        final Entry active = this.latest.get(key);
+        if (active != null && !active.state.isFinished()) {
+            Logging.logDebug("Job " + key + " is already active: " + active.id, LOGGER);
+            return active.status();
+        }
+        final Entry entry = new Entry(UUID.randomUUID().toString(), key, job);
+        try {
+            this.executor.execute(entry.task);
+        } catch (RejectedExecutionException e) {
+            throw new IllegalStateException("Too many jobs are waiting, please try again later", e);
+        }
+        this.jobs.put(entry.id, entry);
+        this.latest.put(key, entry);
+        Logging.logInfo("Submitted job " + entry.id + " (" + key + ")", LOGGER);
+        return entry.status();
+    }
+
+    /**
+     * Gets the status of a job.
+     *
+     * @param id the id of the job
+     * @return the status or {@code null} if the job is unknown, e.g. because it finished long ago
+     */
+    public synchronized To_be_renamedJobStatus getStatus(String id) {
+        final Entry entry = this.jobs.get(id);
+        return entry != null ? entry.status() : null;
+    }
+
+    /**
+     * Gets the status of the last job submitted with a key.
+     *
+     * @param key the key
+     * @return the status or {@code null} if there is no job with this key
+     */
+    public synchronized To_be_renamedJobStatus getLatest(String key) {
+        final Entry entry = this.latest.get(key);
+        return entry != null ? entry.status() : null;
+    }
+
+    /**
+     * Cancels a job. A queued job is cancelled at once, a running job when it next checks for cancellation.
+     *
+     * @param id the id of the job
+     * @return the status of the job or {@code null} if the job is unknown
+     */
+    public synchronized To_be_renamedJobStatus cancel(String id) {
+        final Entry entry = this.jobs.get(id);
+        if (entry == null || entry.state.isFinished()) {
+            return entry != null ? entry.status() : null;
+        }
+        entry.progress.cancel();
+        if (entry.state == To_be_renamedJobStatus.State.QUEUED) {
+            entry.task.cancel(false);
+            // frees its slot in the queue
+            this.executor.remove(entry.task);
+            entry.finish(To_be_renamedJobStatus.State.CANCELLED, null);
+        } else {
+            entry.task.cancel(true);
+        }
+        Logging.logInfo("Cancelled job " + entry.id + " (" + entry.key + ")", LOGGER);
+        return entry.status();
+    }
+
+    /**
+     * Gets the number of queued and running jobs.
+     *
+     * @return the number of active jobs
+     */
+    public synchronized int getActiveCount() {
+        int active = 0;
+        for (Entry entry : this.jobs.values()) {
+            if (!entry.state.isFinished()) {
+                active++;
+            }
+        }
+        return active;
+    }
+
+    /**
+     * Cancels all jobs and waits a few seconds for running jobs to stop.
+     */
+    public void shutdown() {
+        synchronized (this) {
+            for (Entry entry : this.jobs.values()) {
+                entry.progress.cancel();
+                if (entry.state == To_be_renamedJobStatus.State.QUEUED) {
+                    entry.finish(To_be_renamedJobStatus.State.CANCELLED, null);
+                }
+            }
+        }
+        this.executor.shutdownNow();
+        try {
+            if (!this.executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                Logging.logWarning("Jobs did not stop within 5 seconds.", LOGGER);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // guarded by this; drops finished jobs after the retention time, the oldest first if there are too many
+    private void prune() {
+        final long expired = System.currentTimeMillis() - RETENTION_MILLIS;
+        int finished = 0;
+        for (Entry entry : this.jobs.values()) {
+            if (entry.state.isFinished()) {
+                finished++;
+            }
+        }
+        final Iterator<Entry> entries = this.jobs.values().iterator();
+        while (entries.hasNext()) {
+            final Entry entry = entries.next();
+            if (entry.state.isFinished() && (entry.finished < expired || finished > MAX_FINISHED)) {
+                entries.remove();
+                this.latest.remove(entry.key, entry);
+                finished--;
+            }
+        }
+    }
+
+    private void run(Entry entry) {
+        synchronized (this) {
+            if (entry.state != To_be_renamedJobStatus.State.QUEUED) {
+                return;
+            }
+            entry.state = To_be_renamedJobStatus.State.RUNNING;
+        }
+        final long start = System.nanoTime();
+        To_be_renamedJobStatus.State state;
+        String message = null;
+        try {
+            entry.job.run(entry.progress);
+            state = entry.progress.isCancelled() ? To_be_renamedJobStatus.State.CANCELLED : To_be_renamedJobStatus.State.DONE;
+        } catch (CancellationException | InterruptedException e) {
+            state = To_be_renamedJobStatus.State.CANCELLED;
+        } catch (Exception e) {
+            if (entry.progress.isCancelled()) {
+                // e.g. an I/O call that failed because the thread was interrupted
+                state = To_be_renamedJobStatus.State.CANCELLED;
+            } else {
+                state = To_be_renamedJobStatus.State.FAILED;
+                message = e.getMessage() != null ? e.getMessage() : e.toString();
+                Logging.logError("Job " + entry.id + " (" + entry.key + ") failed.", e, LOGGER);
+            }
+        }
+        synchronized (this) {
+            entry.finish(state, message);
+        }
+        To_be_renamedMetrics.getInstance().counter("jobs." + state.name().toLowerCase()).increment();
+        Logging.logInfo("Job " + entry.id + " (" + entry.key + ") finished: " + state + " after "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms", LOGGER);
+        // a cancel(true) that raced with the end of the job must not leak into the next job of this thread
+        Thread.interrupted();
+    }
+
+    /**
+     * A submitted job.
+     */
+    private final class Entry {
+
+        private final String id;
+        private final String key;
+        private final To_be_renamedJob job;
+        private final To_be_renamedJobProgress progress = new To_be_renamedJobProgress();
+        private final FutureTask<Void> task;
+        private final long submitted = System.currentTimeMillis();
+        // written under the manager's lock, read by status() without it
+        private volatile To_be_renamedJobStatus.State state = To_be_renamedJobStatus.State.QUEUED;
+        private volatile String message;
+        private volatile long finished;
+
+        private Entry(String id, String key, To_be_renamedJob job) {
+            this.id = id;
+            this.key = key;
+            this.job = job;
+            this.task = new FutureTask<>(() -> To_be_renamedJobManager.this.run(this), null);
+        }
+
+        private void finish(To_be_renamedJobStatus.State state, String message) {
+            this.state = state;
+            this.message = message;
+            this.finished = System.currentTimeMillis();
+        }
+
+        private To_be_renamedJobStatus status() {
+            final String message = this.message != null ? this.message : this.progress.getMessage();
+            return new To_be_renamedJobStatus(this.id, this.key, this.state, this.progress.getDone(), this.progress.getTotal(), message,
+                    this.submitted, this.finished);
+        }
+    }
+}
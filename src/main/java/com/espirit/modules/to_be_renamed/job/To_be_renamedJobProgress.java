@@ -0,0 +1,71 @@
+package com.espirit.modules.to_be_renamed.job;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Progress of a running job, written by the job and read by {@link To_be_renamedJobManager#getStatus(String)}.
+ */
+public final class To_be_renamedJobProgress {
+
+    private volatile long done;
+    private volatile long total;
+    private volatile String message;
+    private volatile boolean cancelled;
+
+    To_be_renamedJobProgress() {
+    }
+
+    /**
+     * Sets the total amount of work, e.g. the number of objects to process.
+     *
+     * @param total the total
+     */
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    /**
+     * Adds to the work done.
+     *
+     * @param amount the amount of work done since the last call
+     */
+    public void advance(long amount) {
+        // only the job's own thread writes
+        this.done += amount;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    /**
+     * Stops the job if it was cancelled.
+     *
+     * @throws CancellationException if the job was cancelled
+     */
+    public void checkCancelled() {
+        if (this.cancelled || Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Cancelled");
+        }
+    }
+
+    void cancel() {
+        this.cancelled = true;
+    }
+
+    long getDone() {
+        return this.done;
+    }
+
+    long getTotal() {
+        return this.total;
+    }
+
+    String getMessage() {
+        return this.message;
+    }
+}
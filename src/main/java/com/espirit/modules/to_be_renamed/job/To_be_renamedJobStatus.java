@@ -0,0 +1,106 @@
+package com.espirit.modules.to_be_renamed.job;
+
+import java.io.Serializable;
+
+/**
+ * Immutable snapshot of the state of a job, see {@link To_be_renamedJobManager#getStatus(String)}.
+ * It is serializable, so it can be transferred between the module's service and its clients.
+ */
+public final class To_be_renamedJobStatus implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum State {
+        QUEUED, RUNNING, DONE, FAILED, CANCELLED;
+
+        public boolean isFinished() {
+            return this == DONE || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    private final String id;
+    private final String key;
+    private final State state;
+    private final long done;
+    private final long total;
+    private final String message;
+    private final long submitted;
+    private final long finished;
+
+    To_be_renamedJobStatus(String id, String key, State state, long done, long total, String message, long submitted, long finished) {
+        this.id = id;
+        this.key = key;
+        this.state = state;
+        this.done = done;
+        this.total = total;
+        this.message = message;
+        this.submitted = submitted;
+        this.finished = finished;
+    }
+
+    public String getId() {
+        return this.id;
+    }
+
+    /**
+     * Gets the key of the job. Only one job per key is queued or running at a time.
+     *
+     * @return the key
+     */
+    public String getKey() {
+        return this.key;
+    }
+
+    public State getState() {
+        return this.state;
+    }
+
+    public long getDone() {
+        return this.done;
+    }
+
+    /**
+     * Gets the total amount of work.
+     *
+     * @return the total or 0 if it is not known (yet)
+     */
+    public long getTotal() {
+        return this.total;
+    }
+
+    /**
+     * Gets the progress of the job.
+     *
+     * @return the percentage of the work done, or -1 if the total is not known
+     */
+    public int getPercent() {
+        if (this.state == State.DONE) {
+            return 100;
+        }
+        return this.total > 0 ? (int) Math.min(100, this.done * 100 / this.total) : -1;
+    }
+
+    /**
+     * Gets the last message of the job, the error message if it failed.
+     *
+     * @return the message or {@code null}
+     */
+    public String getMessage() {
+        return this.message;
+    }
+
+    // milliseconds since epoch
+    public long getSubmitted() {
+        return this.submitted;
+    }
+
+    // milliseconds since epoch, 0 while the job is not finished
+    public long getFinished() {
+        return this.finished;
+    }
+
+    @Override
+    public String toString() {
+        return "Job " + this.id + " (" + this.key + "): " + this.state + " " + this.done + "/" + this.total + (this.message != null ? ", " + this.message : "");
+    }
+}
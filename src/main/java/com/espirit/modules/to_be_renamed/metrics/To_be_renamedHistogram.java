@@ -0,0 +1,166 @@
+package com.espirit.modules.to_be_renamed.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free latency histogram with fixed, log-linear buckets.
+ * Values below 8 get a bucket each; above, every power of two is split into four buckets, so a percentile is at
+ * most 25% above the true value. Recording is a few {@link LongAdder} increments without allocation or locking.
+ */
+public class To_be_renamedHistogram {
+
+    private static final int LINEAR = 8;
+    private static final int SUB_BUCKETS = 4;
+    // 2^40 ns are more than 18 minutes, larger values go to the last bucket
+    private static final int MAX_EXPONENT = 40;
+    static final int BUCKETS = LINEAR + (MAX_EXPONENT - 3) * SUB_BUCKETS;
+
+    private final String name;
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    To_be_renamedHistogram(String name) {
+        this.name = name;
+        for (int i = 0; i < BUCKETS; i++) {
+            this.buckets[i] = new LongAdder();
+        }
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Records a value, usually a duration in nanoseconds.
+     *
+     * @param value the value, negative values are recorded as 0
+     */
+    public void record(long value) {
+        final long v = Math.max(0, value);
+        this.buckets[bucket(v)].increment();
+        this.sum.add(v);
+        this.max.accumulate(v);
+    }
+
+    /**
+     * Records the time elapsed since {@code startNanos}.
+     *
+     * @param startNanos the start as returned by {@link System#nanoTime()}
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Takes a snapshot. Concurrent recordings may or may not be contained, but nothing is locked.
+     *
+     * @return the snapshot
+     */
+    public Snapshot snapshot() {
+        final long[] counts = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = this.buckets[i].sum();
+            count += counts[i];
+        }
+        return new Snapshot(counts, count, this.sum.sum(), this.max.get());
+    }
+
+    static int bucket(long value) {
+        if (value < LINEAR) {
+            return (int) value;
+        }
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent >= MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        final int subBucket = (int) (value >>> (exponent - 2)) & (SUB_BUCKETS - 1);
+        return LINEAR + (exponent - 3) * SUB_BUCKETS + subBucket;
+    }
+
+    // the largest value of a bucket
+    static long upperBound(int bucket) {
+        if (bucket < LINEAR) {
+            return bucket;
+        }
+        final int exponent = (bucket - LINEAR) / SUB_BUCKETS + 3;
+        final int subBucket = (bucket - LINEAR) % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + subBucket + 1) << (exponent - 2)) - 1;
+    }
+
+    /**
+     * An immutable view of a histogram.
+     */
+    public static final class Snapshot {
+
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        Snapshot(long[] counts, long count, long sum, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return this.count;
+        }
+
+        public long getSum() {
+            return this.sum;
+        }
+
+        public long getMax() {
+            return this.max;
+        }
+
+        public double getMean() {
+            return this.count == 0 ? 0 : (double) this.sum / this.count;
+        }
+
+        /**
+         * Gets a percentile.
+         *
+         * @param quantile the quantile between 0 and 1, e.g. 0.99
+         * @return the upper bound of the bucket containing the quantile, never more than the maximum
+         */
+        public long getPercentile(double quantile) {
+            if (this.count == 0) {
+                return 0;
+            }
+            final long rank = Math.max(1, (long) Math.ceil(quantile * this.count));
+            long seen = 0;
+            for (int i = 0; i < this.counts.length; i++) {
+                seen += this.counts[i];
+                if (seen >= rank) {
+                    return Math.min(upperBound(i), this.max);
+                }
+            }
+            return this.max;
+        }
+
+        /**
+         * Gets the number of values less than or equal to a bound, e.g. for cumulative Prometheus buckets.
+         *
+         * @param bound the bound
+         * @return the number of values in all buckets whose upper bound is not above {@code bound}
+         */
+        public long getCountAtOrBelow(long bound) {
+            long result = 0;
+            for (int i = 0; i < this.counts.length && upperBound(i) <= bound; i++) {
+                result += this.counts[i];
+            }
+            return result;
+        }
+
+        public double getPercentileMillis(double quantile) {
+            return getPercentile(quantile) / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+    }
+}
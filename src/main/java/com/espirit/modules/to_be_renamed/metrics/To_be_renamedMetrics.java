@@ -0,0 +1,95 @@
+package com.espirit.modules.to_be_renamed.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Registry of the module's metrics: counters, latency histograms and gauges.
+ * Instrumented classes look up their metrics once and keep them in static fields, so recording never touches the
+ * registry. Metrics are created on first lookup and live as long as the class loader of the module.
+ */
+public final class To_be_renamedMetrics {
+
+    private static final Class<?> LOGGER = To_be_renamedMetrics.class;
+
+    public static final String CONNECTOR_GET_DATA = "connector.getSomeData";
+    public static final String CONNECTOR_GET_DATA_BULK = "connector.getSomeData.bulk";
+    public static final String CONNECTOR_GET_DATA_PAGE = "connector.getSomeData.page";
+    public static final String CONNECTOR_UPDATE_DATA = "connector.updateData";
+    public static final String CONNECTOR_GET_CHANGED_DATA = "connector.getChangedData";
+    public static final String CONNECTOR_ERRORS = "connector.errors";
+    public static final String DATA_STREAM_GET_NEXT = "dataStream.getNext";
+    public static final String SESSION_GET_DATA = "dataAccessSession.getData";
+    public static final String URL_FACTORY_PAGE = "urlFactory.getUrl.page";
+    public static final String URL_FACTORY_MEDIA = "urlFactory.getUrl.media";
+    public static final String REST_REQUEST = "rest.request";
+
+    private static final To_be_renamedMetrics INSTANCE = new To_be_renamedMetrics();
+
+    private final ConcurrentHashMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, To_be_renamedHistogram> histograms = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, DoubleSupplier> gauges = new ConcurrentHashMap<>();
+
+    private To_be_renamedMetrics() {
+    }
+
+    public static To_be_renamedMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Gets or creates a counter.
+     *
+     * @param name the name
+     * @return the counter
+     */
+    public LongAdder counter(String name) {
+        return this.counters.computeIfAbsent(name, key -> new LongAdder());
+    }
+
+    /**
+     * Gets or creates a histogram.
+     *
+     * @param name the name
+     * @return the histogram
+     */
+    public To_be_renamedHistogram histogram(String name) {
+        return this.histograms.computeIfAbsent(name, To_be_renamedHistogram::new);
+    }
+
+    /**
+     * Registers a gauge, replacing a gauge of the same name. The supplier is called whenever the metrics are read,
+     * so it must be cheap and must not lock.
+     *
+     * @param name     the name
+     * @param supplier the supplier of the current value
+     */
+    public void gauge(String name, DoubleSupplier supplier) {
+        this.gauges.put(name, supplier);
+    }
+
+    /**
+     * Removes a gauge, e.g. when the object it reads is discarded.
+     *
+     * @param name the name
+     */
+    public void removeGauge(String name) {
+        this.gauges.remove(name);
+    }
+
+    public Map<String, LongAdder> getCounters() {
+        return Collections.unmodifiableMap(new TreeMap<>(this.counters));
+    }
+
+    public Map<String, To_be_renamedHistogram> getHistograms() {
+        return Collections.unmodifiableMap(new TreeMap<>(this.histograms));
+    }
+
+    public Map<String, DoubleSupplier> getGauges() {
+        return Collections.unmodifiableMap(new TreeMap<>(this.gauges));
+    }
+}
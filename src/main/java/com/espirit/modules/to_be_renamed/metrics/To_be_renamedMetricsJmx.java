@@ -0,0 +1,138 @@
+package com.espirit.modules.to_be_renamed.metrics;
+
+import de.espirit.common.base.Logging;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Exposes {@link To_be_renamedMetrics} as one read-only JMX MBean.
+ * Every counter and gauge is an attribute; every histogram contributes the attributes {@code <name>.count},
+ * {@code .sum}, {@code .mean}, {@code .p50}, {@code .p95}, {@code .p99} and {@code .max}, durations in nanoseconds.
+ * The attributes are computed when read, so metrics created after registration show up as well.
+ */
+public class To_be_renamedMetricsJmx implements DynamicMBean {
+
+    private static final Class<?> LOGGER = To_be_renamedMetricsJmx.class;
+
+    public static final String OBJECT_NAME = "com.espirit.modules.to_be_renamed:type=Metrics";
+
+    private final To_be_renamedMetrics metrics;
+
+    public To_be_renamedMetricsJmx(To_be_renamedMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server, replacing an earlier registration, e.g. of a previous
+     * version of the module.
+     */
+    public static void register() {
+        try {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(new To_be_renamedMetricsJmx(To_be_renamedMetrics.getInstance()), name);
+        } catch (Exception e) {
+            Logging.logWarning("Could not register metrics MBean " + OBJECT_NAME, e, LOGGER);
+        }
+    }
+
+    /**
+     * Removes the registration of the metrics from the platform MBean server.
+     */
+    public static void unregister() {
+        try {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (Exception e) {
+            Logging.logWarning("Could not unregister metrics MBean " + OBJECT_NAME, e, LOGGER);
+        }
+    }
+
+    private Map<String, Object> values() {
+        final Map<String, Object> values = new LinkedHashMap<>();
+        for (Map.Entry<String, LongAdder> counter : this.metrics.getCounters().entrySet()) {
+            values.put(counter.getKey(), counter.getValue().sum());
+        }
+        for (Map.Entry<String, DoubleSupplier> gauge : this.metrics.getGauges().entrySet()) {
+            values.put(gauge.getKey(), gauge.getValue().getAsDouble());
+        }
+        for (Map.Entry<String, To_be_renamedHistogram> histogram : this.metrics.getHistograms().entrySet()) {
+            final To_be_renamedHistogram.Snapshot snapshot = histogram.getValue().snapshot();
+            final String name = histogram.getKey();
+            values.put(name + ".count", snapshot.getCount());
+            values.put(name + ".sum", snapshot.getSum());
+            values.put(name + ".mean", snapshot.getMean());
+            values.put(name + ".p50", snapshot.getPercentile(0.5));
+            values.put(name + ".p95", snapshot.getPercentile(0.95));
+            values.put(name + ".p99", snapshot.getPercentile(0.99));
+            values.put(name + ".max", snapshot.getMax());
+        }
+        return values;
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        final Object value = values().get(attribute);
+        if (value == null) {
+            throw new AttributeNotFoundException(attribute);
+        }
+        return value;
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        final Map<String, Object> values = values();
+        final AttributeList result = new AttributeList();
+        for (String attribute : attributes) {
+            final Object value = values.get(attribute);
+            if (value != null) {
+                result.add(new Attribute(attribute, value));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Metrics are read-only: " + attribute.getName());
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) {
+        throw new UnsupportedOperationException(actionName);
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        final List<MBeanAttributeInfo> attributes = new ArrayList<>();
+        for (Map.Entry<String, Object> value : values().entrySet()) {
+            attributes.add(new MBeanAttributeInfo(value.getKey(), value.getValue().getClass().getName(), value.getKey(), true, false, false));
+        }
+        return new MBeanInfo(getClass().getName(), "To_be_renamed module metrics", attributes.toArray(new MBeanAttributeInfo[0]), null, null, null);
+    }
+}
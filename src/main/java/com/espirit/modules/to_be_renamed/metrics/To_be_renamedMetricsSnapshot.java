@@ -0,0 +1,276 @@
+package com.espirit.modules.to_be_renamed.metrics;
+
+import com.espirit.modules.to_be_renamed.util.JsonUtil;
+
+import javax.management.Attribute;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * The values of all metrics at one point in time, rendered in Prometheus text or JSON format.
+ * Taking a snapshot only reads counters; it never locks the structures the instrumented code writes to.
+ */
+public final class To_be_renamedMetricsSnapshot {
+
+    private static final String PROMETHEUS_PREFIX = "to_be_renamed_";
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+    private final Map<String, Long> counters;
+    private final Map<String, Double> gauges;
+    private final Map<String, Summary> histograms;
+
+    private To_be_renamedMetricsSnapshot(Map<String, Long> counters, Map<String, Double> gauges, Map<String, Summary> histograms) {
+        this.counters = Collections.unmodifiableMap(counters);
+        this.gauges = Collections.unmodifiableMap(gauges);
+        this.histograms = Collections.unmodifiableMap(histograms);
+    }
+
+    /**
+     * Takes a snapshot of a registry.
+     *
+     * @param metrics the registry
+     * @return the snapshot
+     */
+    public static To_be_renamedMetricsSnapshot of(To_be_renamedMetrics metrics) {
+        final Map<String, Long> counters = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> counter : metrics.getCounters().entrySet()) {
+            counters.put(counter.getKey(), counter.getValue().sum());
+        }
+        final Map<String, Double> gauges = new TreeMap<>();
+        for (Map.Entry<String, DoubleSupplier> gauge : metrics.getGauges().entrySet()) {
+            gauges.put(gauge.getKey(), gauge.getValue().getAsDouble());
+        }
+        final Map<String, Summary> histograms = new TreeMap<>();
+        for (Map.Entry<String, To_be_renamedHistogram> histogram : metrics.getHistograms().entrySet()) {
+            final To_be_renamedHistogram.Snapshot snapshot = histogram.getValue().snapshot();
+            histograms.put(histogram.getKey(), new Summary(snapshot.getCount(), snapshot.getSum(), snapshot.getMax(),
+                    snapshot.getPercentile(0.5), snapshot.getPercentile(0.95), snapshot.getPercentile(0.99)));
+        }
+        return new To_be_renamedMetricsSnapshot(counters, gauges, histograms);
+    }
+
+    /**
+     * Takes a snapshot of the metrics MBean, see {@link To_be_renamedMetricsJmx}. Web apps use this to read the
+     * metrics of the service, whose registry lives in a different class loader.
+     *
+     * @param server the MBean server
+     * @return the snapshot, or {@code null} if the MBean is not registered
+     * @throws JMException if the MBean could not be read
+     */
+    public static To_be_renamedMetricsSnapshot of(MBeanServer server) throws JMException {
+        final ObjectName name = new ObjectName(To_be_renamedMetricsJmx.OBJECT_NAME);
+        if (!server.isRegistered(name)) {
+            return null;
+        }
+        final MBeanAttributeInfo[] infos = server.getMBeanInfo(name).getAttributes();
+        final String[] attributeNames = new String[infos.length];
+        for (int i = 0; i < infos.length; i++) {
+            attributeNames[i] = infos[i].getName();
+        }
+        final Map<String, Object> values = new HashMap<>();
+        for (Object attribute : server.getAttributes(name, attributeNames)) {
+            values.put(((Attribute) attribute).getName(), ((Attribute) attribute).getValue());
+        }
+
+        final Map<String, Summary> histograms = new TreeMap<>();
+        for (String attribute : new ArrayList<>(values.keySet())) {
+            if (attribute.endsWith(".p99")) {
+                final String histogram = attribute.substring(0, attribute.length() - ".p99".length());
+                histograms.put(histogram, new Summary(number(values.remove(histogram + ".count")), number(values.remove(histogram + ".sum")),
+                        number(values.remove(histogram + ".max")), number(values.remove(histogram + ".p50")),
+                        number(values.remove(histogram + ".p95")), number(values.get(attribute))));
+            }
+        }
+        final Map<String, Long> counters = new TreeMap<>();
+        final Map<String, Double> gauges = new TreeMap<>();
+        for (Map.Entry<String, Object> value : values.entrySet()) {
+            final String attribute = value.getKey();
+            if (attribute.endsWith(".p99") || attribute.endsWith(".mean") && histograms.containsKey(attribute.substring(0, attribute.length() - ".mean".length()))) {
+                continue;
+            }
+            if (value.getValue() instanceof Long) {
+                counters.put(attribute, (Long) value.getValue());
+            } else if (value.getValue() instanceof Number) {
+                gauges.put(attribute, ((Number) value.getValue()).doubleValue());
+            }
+        }
+        return new To_be_renamedMetricsSnapshot(counters, gauges, histograms);
+    }
+
+    private static long number(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0;
+    }
+
+    /**
+     * Combines two snapshots; metrics of this snapshot win over metrics of the same name in the other one.
+     *
+     * @param other the other snapshot
+     * @return the combined snapshot
+     */
+    public To_be_renamedMetricsSnapshot merge(To_be_renamedMetricsSnapshot other) {
+        final Map<String, Long> counters = new TreeMap<>(other.counters);
+        counters.putAll(this.counters);
+        final Map<String, Double> gauges = new TreeMap<>(other.gauges);
+        gauges.putAll(this.gauges);
+        final Map<String, Summary> histograms = new TreeMap<>(other.histograms);
+        histograms.putAll(this.histograms);
+        return new To_be_renamedMetricsSnapshot(counters, gauges, histograms);
+    }
+
+    public Map<String, Long> getCounters() {
+        return this.counters;
+    }
+
+    public Map<String, Double> getGauges() {
+        return this.gauges;
+    }
+
+    public Map<String, Summary> getHistograms() {
+        return this.histograms;
+    }
+
+    /**
+     * Writes the snapshot in the Prometheus text exposition format (version 0.0.4).
+     * Counters end in {@code _total}, histograms are summaries in seconds with the quantiles 0.5, 0.95 and 0.99.
+     *
+     * @param writer the writer
+     * @throws IOException if writing fails
+     */
+    public void writePrometheus(Writer writer) throws IOException {
+        for (Map.Entry<String, Long> counter : this.counters.entrySet()) {
+            final String name = prometheusName(counter.getKey()) + "_total";
+            writer.write("# TYPE " + name + " counter\n");
+            writer.write(name + ' ' + counter.getValue() + '\n');
+        }
+        for (Map.Entry<String, Double> gauge : this.gauges.entrySet()) {
+            final String name = prometheusName(gauge.getKey());
+            writer.write("# TYPE " + name + " gauge\n");
+            writer.write(name + ' ' + prometheusValue(gauge.getValue()) + '\n');
+        }
+        for (Map.Entry<String, Summary> histogram : this.histograms.entrySet()) {
+            final String name = prometheusName(histogram.getKey()) + "_seconds";
+            final Summary summary = histogram.getValue();
+            writer.write("# TYPE " + name + " summary\n");
+            writer.write(name + "{quantile=\"0.5\"} " + seconds(summary.p50) + '\n');
+            writer.write(name + "{quantile=\"0.95\"} " + seconds(summary.p95) + '\n');
+            writer.write(name + "{quantile=\"0.99\"} " + seconds(summary.p99) + '\n');
+            writer.write(name + "_sum " + seconds(summary.sum) + '\n');
+            writer.write(name + "_count " + summary.count + '\n');
+            writer.write("# TYPE " + name + "_max gauge\n");
+            writer.write(name + "_max " + seconds(summary.max) + '\n');
+        }
+    }
+
+    /**
+     * Writes the snapshot as one JSON object with the members {@code counters}, {@code gauges} and
+     * {@code histograms}; histogram values are in nanoseconds.
+     *
+     * @param writer the writer
+     * @throws IOException if writing fails
+     */
+    public void writeJson(Writer writer) throws IOException {
+        writer.write("{\"counters\":{");
+        String separator = "";
+        for (Map.Entry<String, Long> counter : this.counters.entrySet()) {
+            writer.write(separator + JsonUtil.quote(counter.getKey()) + ':' + counter.getValue());
+            separator = ",";
+        }
+        writer.write("},\"gauges\":{");
+        separator = "";
+        for (Map.Entry<String, Double> gauge : this.gauges.entrySet()) {
+            final double value = gauge.getValue();
+            writer.write(separator + JsonUtil.quote(gauge.getKey()) + ':' + (Double.isNaN(value) || Double.isInfinite(value) ? "null" : String.valueOf(value)));
+            separator = ",";
+        }
+        writer.write("},\"histograms\":{");
+        separator = "";
+        for (Map.Entry<String, Summary> histogram : this.histograms.entrySet()) {
+            final Summary summary = histogram.getValue();
+            writer.write(separator + JsonUtil.quote(histogram.getKey()) + ":{\"count\":" + summary.count + ",\"sum\":" + summary.sum
+                    + ",\"max\":" + summary.max + ",\"p50\":" + summary.p50 + ",\"p95\":" + summary.p95 + ",\"p99\":" + summary.p99 + '}');
+            separator = ",";
+        }
+        writer.write("}}");
+    }
+
+    static String prometheusName(String name) {
+        final StringBuilder result = new StringBuilder(PROMETHEUS_PREFIX.length() + name.length());
+        result.append(PROMETHEUS_PREFIX);
+        for (int i = 0; i < name.length(); i++) {
+            final char c = name.charAt(i);
+            result.append(c < 128 && Character.isLetterOrDigit(c) ? c : '_');
+        }
+        return result.toString();
+    }
+
+    private static String prometheusValue(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+        return value == Math.rint(value) && Math.abs(value) < 1e15 ? String.valueOf((long) value) : String.valueOf(value);
+    }
+
+    private static String seconds(long nanos) {
+        return String.valueOf(nanos / NANOS_PER_SECOND);
+    }
+
+    /**
+     * The values of one histogram, durations in nanoseconds.
+     */
+    public static final class Summary {
+
+        private final long count;
+        private final long sum;
+        private final long max;
+        private final long p50;
+        private final long p95;
+        private final long p99;
+
+        Summary(long count, long sum, long max, long p50, long p95, long p99) {
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+            this.p50 = p50;
+            this.p95 = p95;
+            this.p99 = p99;
+        }
+
+        public long getCount() {
+            return this.count;
+        }
+
+        public long getSum() {
+            return this.sum;
+        }
+
+        public long getMax() {
+            return this.max;
+        }
+
+        public long getP50() {
+            return this.p50;
+        }
+
+        public long getP95() {
+            return this.p95;
+        }
+
+        public long getP99() {
+            return this.p99;
+        }
+    }
+}
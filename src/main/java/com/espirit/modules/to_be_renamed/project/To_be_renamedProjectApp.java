@@ -11,9 +11,12 @@ public class To_be_renamedProjectApp implements ProjectApp {
 
     // several hooks defined by the ProjectApp interface
 
+    private ProjectEnvironment projectEnvironment;
+
     @Override
     public void init(ProjectAppDescriptor projectAppDescriptor, ProjectEnvironment projectEnvironment) {
         // Do something when the project app is loaded
+        this.projectEnvironment = projectEnvironment;
     }
 
     @Override
@@ -29,5 +32,8 @@ public class To_be_renamedProjectApp implements ProjectApp {
     @Override
     public void updated(String s) {
         // Do something when updating the project app
+
+        // the configuration may have new defaults, replace the cached settings, see To_be_renamedProjectSettings
+        To_be_renamedProjectSettings.refresh(this.projectEnvironment.getBroker());
     }
 }
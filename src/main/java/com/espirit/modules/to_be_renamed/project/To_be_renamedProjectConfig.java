@@ -2,6 +2,7 @@ package com.espirit.modules.to_be_renamed.project;
 
 import com.espirit.ps.psci.genericconfiguration.ExecuteAction;
 import com.espirit.ps.psci.genericconfiguration.GenericConfigPanel;
+import de.espirit.common.base.Logging;
 import de.espirit.firstspirit.module.ProjectEnvironment;
 import java.util.Locale;
 import java.util.ResourceBundle;
@@ -18,6 +19,12 @@ public class To_be_renamedProjectConfig extends GenericConfigPanel<ProjectEnviro
 
     public static final String DOM_COMPONENT = "domComponent";
     public static final String TEXT_COMPONENT = "textComponent";
+    public static final String INDEX_COMPONENT = "indexComponent";
+
+    public static final String PAGE_SIZE = "pageSize";
+    public static final String BATCH_SIZE = "batchSize";
+    public static final String THREADS = "threads";
+    public static final String CONNECTOR_TIMEOUT = "connectorTimeout";
 
 
 
@@ -43,6 +50,33 @@ public class To_be_renamedProjectConfig extends GenericConfigPanel<ProjectEnviro
         builder().text(resourceBundle.getString("projectConfig.to_be_renamed.var1Label"), VAR_1, "to_be_renamed value", resourceBundle.getString("projectConfig.to_be_renamed.var1Tooltip"))
                 .password(resourceBundle.getString("projectConfig.to_be_renamed.var2Label"), VAR_2, "to_be_renamed secret", resourceBundle.getString("projectConfig.to_be_renamed.var2Tooltip"))
                 .hiddenString(DOM_COMPONENT, "sc_dom")
-                .hiddenString(TEXT_COMPONENT, "sc_text");
+                .hiddenString(TEXT_COMPONENT, "sc_text")
+                .hiddenString(INDEX_COMPONENT, "st_to_be_renamed")
+                //tuning section, picked up by the project's components as soon as the panel is stored
+                .label(resourceBundle.getString("projectConfig.to_be_renamed.tuningLabel"))
+                .text(resourceBundle.getString("projectConfig.to_be_renamed.pageSizeLabel"), PAGE_SIZE, "1000", resourceBundle.getString("projectConfig.to_be_renamed.pageSizeTooltip"))
+                .text(resourceBundle.getString("projectConfig.to_be_renamed.batchSizeLabel"), BATCH_SIZE, "500", resourceBundle.getString("projectConfig.to_be_renamed.batchSizeTooltip"))
+                .text(resourceBundle.getString("projectConfig.to_be_renamed.threadsLabel"), THREADS, "", resourceBundle.getString("projectConfig.to_be_renamed.threadsTooltip"))
+                .text(resourceBundle.getString("projectConfig.to_be_renamed.connectorTimeoutLabel"), CONNECTOR_TIMEOUT, "30", resourceBundle.getString("projectConfig.to_be_renamed.connectorTimeoutTooltip"))
+                .label(resourceBundle.getString("projectConfig.to_be_renamed.effectiveLabel") + " " + getEffectiveTuning());
+    }
+
+    //the values the components use, they differ from the configured ones if those are invalid or out of range
+    private String getEffectiveTuning() {
+        try {
+            return To_be_renamedProjectSettings.get(getEnvironment().getBroker()).describeTuning();
+        } catch (Exception e) {
+            Logging.logWarning("Could not read the effective project settings.", e, LOGGER);
+            return "-";
+        }
+    }
+
+    @Override
+    public void store() {
+        super.store();
+
+        //replace the cached settings, so all components of the project pick up the new values
+
+        To_be_renamedProjectSettings.refresh(getEnvironment().getBroker());
     }
 }
\ No newline at end of file
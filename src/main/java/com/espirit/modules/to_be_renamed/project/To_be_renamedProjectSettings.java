@@ -0,0 +1,274 @@
+package com.espirit.modules.to_be_renamed.project;
+
+import com.espirit.modules.to_be_renamed.util.ConfigUtil;
+import com.espirit.ps.psci.genericconfiguration.Values;
+import de.espirit.common.base.Logging;
+import de.espirit.firstspirit.agency.ProjectAgent;
+import de.espirit.firstspirit.agency.SpecialistsBroker;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Immutable snapshot of the project app configuration of one project, see {@link To_be_renamedProjectConfig}.
+ * <p>
+ * Snapshots are cached per project, so {@link #get(SpecialistsBroker)} does not read the configuration again. A
+ * snapshot is replaced when the config panel is saved, when the project app is updated and, as a safety net for
+ * changes made in another JVM, when it is older than a minute. Every replacement with different values gets a new,
+ * higher {@link #getVersion() version}; components compare it with the version they were built from to decide whether
+ * dependent state has to be rebuilt, or register a listener with {@link #addListener(Consumer)}.
+ */
+public final class To_be_renamedProjectSettings {
+
+    private static final Class<?> LOGGER = To_be_renamedProjectSettings.class;
+
+    private static final long REVALIDATE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private static final ConcurrentHashMap<Long, To_be_renamedProjectSettings> SETTINGS = new ConcurrentHashMap<>();
+    private static final List<Consumer<To_be_renamedProjectSettings>> LISTENERS = new CopyOnWriteArrayList<>();
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
+    private final long projectId;
+    private final long version;
+    private final long loaded;
+    // set by a caller instead of read from the project, see set(long, Values)
+    private final boolean fixed;
+    private final String var1;
+    private final String var2;
+    private final String domComponent;
+    private final String textComponent;
+    private final String indexComponent;
+    private final int pageSize;
+    private final int batchSize;
+    private final int threads;
+    private final int connectorTimeout;
+    // derived on first use, see getAccessToken
+    private volatile String accessToken;
+
+    private To_be_renamedProjectSettings(long projectId, long version, Values values, boolean fixed) {
+        this.projectId = projectId;
+        this.version = version;
+        this.loaded = System.nanoTime();
+        this.fixed = fixed;
+        this.var1 = values.getString(To_be_renamedProjectConfig.VAR_1);
+        this.var2 = values.getString(To_be_renamedProjectConfig.VAR_2);
+        this.domComponent = values.getString(To_be_renamedProjectConfig.DOM_COMPONENT);
+        this.textComponent = values.getString(To_be_renamedProjectConfig.TEXT_COMPONENT);
+        this.indexComponent = values.getString(To_be_renamedProjectConfig.INDEX_COMPONENT);
+        this.pageSize = ConfigUtil.getInt(values, To_be_renamedProjectConfig.PAGE_SIZE, 1000, 1, 100_000);
+        this.batchSize = ConfigUtil.getInt(values, To_be_renamedProjectConfig.BATCH_SIZE, 500, 1, 50_000);
+        this.threads = ConfigUtil.getInt(values, To_be_renamedProjectConfig.THREADS, Runtime.getRuntime().availableProcessors(), 1, 256);
+        this.connectorTimeout = ConfigUtil.getInt(values, To_be_renamedProjectConfig.CONNECTOR_TIMEOUT, 30, 1, 3600);
+    }
+
+    /**
+     * Gets the current settings of the broker's project.
+     *
+     * @param broker a broker of the project
+     * @return the settings
+     */
+    public static To_be_renamedProjectSettings get(SpecialistsBroker broker) {
+        final long projectId = broker.requireSpecialist(ProjectAgent.TYPE).getId();
+        final To_be_renamedProjectSettings settings = SETTINGS.get(projectId);
+        if (settings != null && (settings.fixed || System.nanoTime() - settings.loaded < REVALIDATE_NANOS)) {
+            return settings;
+        }
+        return refresh(broker);
+    }
+
+    /**
+     * Reads the configuration of the broker's project again. Listeners are notified if the values changed.
+     *
+     * @param broker a broker of the project
+     * @return the current settings
+     */
+    public static To_be_renamedProjectSettings refresh(SpecialistsBroker broker) {
+        final long projectId = broker.requireSpecialist(ProjectAgent.TYPE).getId();
+        return update(projectId, To_be_renamedProjectConfig.values(broker, To_be_renamedProjectApp.class), false);
+    }
+
+    /**
+     * Replaces the settings of a project with fixed values, e.g. in tests and load tests that have no project app
+     * configuration. They are not read from the project again until {@link #refresh(SpecialistsBroker)} is called.
+     * Listeners are notified if the values changed.
+     *
+     * @param projectId the id of the project
+     * @param values    the values
+     * @return the current settings
+     */
+    public static To_be_renamedProjectSettings set(long projectId, Values values) {
+        return update(projectId, values, true);
+    }
+
+    private static To_be_renamedProjectSettings update(long projectId, Values values, boolean fixed) {
+        final boolean[] changed = new boolean[1];
+        final To_be_renamedProjectSettings settings = SETTINGS.compute(projectId, (id, current) -> {
+            final To_be_renamedProjectSettings loaded = new To_be_renamedProjectSettings(id, current != null ? current.version : 0, values, fixed);
+            if (current != null && current.sameValues(loaded)) {
+                // keep the version, only the revalidation time moves on
+                return loaded;
+            }
+            changed[0] = true;
+            return new To_be_renamedProjectSettings(id, VERSIONS.incrementAndGet(), values, fixed);
+        });
+        if (changed[0]) {
+            for (Consumer<To_be_renamedProjectSettings> listener : LISTENERS) {
+                try {
+                    listener.accept(settings);
+                } catch (RuntimeException e) {
+                    Logging.logWarning("Settings listener failed for project " + projectId, e, LOGGER);
+                }
+            }
+        }
+        return settings;
+    }
+
+    /**
+     * Gets the current settings of a project if they are cached and need no revalidation, e.g. to check a caller
+     * without resolving a broker of the project.
+     *
+     * @param projectId the id of the project
+     * @return the settings, or {@code null}
+     */
+    public static To_be_renamedProjectSettings peek(long projectId) {
+        final To_be_renamedProjectSettings settings = SETTINGS.get(projectId);
+        return settings != null && (settings.fixed || System.nanoTime() - settings.loaded < REVALIDATE_NANOS) ? settings : null;
+    }
+
+    /**
+     * Registers a listener that is called with the new settings whenever the settings of a project change.
+     *
+     * @param listener the listener
+     */
+    public static void addListener(Consumer<To_be_renamedProjectSettings> listener) {
+        LISTENERS.add(listener);
+    }
+
+    /**
+     * Removes a listener.
+     *
+     * @param listener the listener
+     */
+    public static void removeListener(Consumer<To_be_renamedProjectSettings> listener) {
+        LISTENERS.remove(listener);
+    }
+
+    private boolean sameValues(To_be_renamedProjectSettings other) {
+        return Objects.equals(this.var1, other.var1) && Objects.equals(this.var2, other.var2)
+                && Objects.equals(this.domComponent, other.domComponent) && Objects.equals(this.textComponent, other.textComponent)
+                && Objects.equals(this.indexComponent, other.indexComponent)
+                && this.pageSize == other.pageSize && this.batchSize == other.batchSize && this.threads == other.threads
+                && this.connectorTimeout == other.connectorTimeout;
+    }
+
+    public long getProjectId() {
+        return this.projectId;
+    }
+
+    /**
+     * Gets the version of these settings. Versions are unique across projects and increase with every change.
+     *
+     * @return the version
+     */
+    public long getVersion() {
+        return this.version;
+    }
+
+    public String getVar1() {
+        return this.var1;
+    }
+
+    public String getVar2() {
+        return this.var2;
+    }
+
+    public String getDomComponent() {
+        return this.domComponent;
+    }
+
+    public String getTextComponent() {
+        return this.textComponent;
+    }
+
+    /**
+     * Gets the name of the FS_INDEX component of the sections that reference objects of the third party system.
+     *
+     * @return the component name
+     */
+    public String getIndexComponent() {
+        return this.indexComponent;
+    }
+
+    /**
+     * Gets the number of objects fetched per call of the connector by bulk operations.
+     *
+     * @return the page size
+     */
+    public int getPageSize() {
+        return this.pageSize;
+    }
+
+    /**
+     * Gets the number of datasets written per transaction by the import.
+     *
+     * @return the batch size
+     */
+    public int getBatchSize() {
+        return this.batchSize;
+    }
+
+    /**
+     * Gets the number of worker threads of bulk operations.
+     *
+     * @return the number of threads
+     */
+    public int getThreads() {
+        return this.threads;
+    }
+
+    /**
+     * Gets the timeout of the third party API calls.
+     *
+     * @return the timeout in seconds
+     */
+    public int getConnectorTimeout() {
+        return this.connectorTimeout;
+    }
+
+    /**
+     * Gets a token that proves access to the project's configuration. It is derived from the project id and the
+     * connection values, so only callers that can read the configuration through a broker of the project, and thereby
+     * the credentials of the third party system, can present it. It changes with the connection values.
+     *
+     * @return the token
+     */
+    public String getAccessToken() {
+        String token = this.accessToken;
+        if (token == null) {
+            try {
+                final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                digest.update((this.projectId + "\n" + this.var1 + "\n" + this.var2).getBytes(StandardCharsets.UTF_8));
+                token = Base64.getUrlEncoder().withoutPadding().encodeToString(digest.digest());
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+            this.accessToken = token;
+        }
+        return token;
+    }
+
+    // the validated tuning values, shown in the config panel next to the configured ones
+    String describeTuning() {
+        return To_be_renamedProjectConfig.PAGE_SIZE + "=" + this.pageSize + ", " + To_be_renamedProjectConfig.BATCH_SIZE + "=" + this.batchSize
+                + ", " + To_be_renamedProjectConfig.THREADS + "=" + this.threads + ", " + To_be_renamedProjectConfig.CONNECTOR_TIMEOUT + "=" + this.connectorTimeout;
+    }
+}
@@ -0,0 +1,99 @@
+package com.espirit.modules.to_be_renamed.service;
+
+import com.espirit.modules.to_be_renamed.util.DataDirUtil;
+import de.espirit.common.base.Logging;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+
+final class To_be_renamedApiTokens {
+
+  // The API tokens of the projects, the bearer tokens of the REST API (see To_be_renamedRestServlet). A token is 32
+  // random bytes, generated when it is first requested and kept in the project's data directory (see DataDirUtil), so
+  // it survives restarts. It is not derived from the connection values of the project: a browser that holds it learns
+  // nothing about the credentials of the third party system, and regenerating it invalidates the old token at once.
+
+  private static final Class<?> LOGGER = To_be_renamedApiTokens.class;
+
+  static final String FILE_NAME = "api-token";
+  private static final int TOKEN_BYTES = 32;
+  private static final SecureRandom RANDOM = new SecureRandom();
+
+  private final ConcurrentHashMap<Long, String> tokens = new ConcurrentHashMap<>();
+
+  // Get the token of a project, it is generated on first use
+  synchronized String get(long projectId) throws IOException {
+    final String token = read(projectId);
+    return token != null ? token : regenerate(projectId);
+  }
+
+  // Replace the token of a project with a new random one
+  synchronized String regenerate(long projectId) throws IOException {
+    final byte[] bytes = new byte[TOKEN_BYTES];
+    RANDOM.nextBytes(bytes);
+    final String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    write(getFile(projectId), token);
+    tokens.put(projectId, token);
+    Logging.logInfo("Generated a new API token for project " + projectId, LOGGER);
+    return token;
+  }
+
+  // Check a token in constant time; a project without a token accepts none, no token is generated here
+  boolean matches(long projectId, String token) {
+    final String expected;
+    try {
+      expected = read(projectId);
+    } catch (IOException e) {
+      Logging.logWarning("Could not read the API token of project " + projectId, e, LOGGER);
+      return false;
+    }
+    return expected != null && MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private @Nullable String read(long projectId) throws IOException {
+    final String cached = tokens.get(projectId);
+    if (cached != null) {
+      return cached;
+    }
+    final Path file = getFile(projectId);
+    if (!Files.isRegularFile(file)) {
+      return null;
+    }
+    final String token = new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim();
+    if (token.isEmpty()) {
+      return null;
+    }
+    tokens.put(projectId, token);
+    return token;
+  }
+
+  // written under a temporary name, readable by the owner only where the file system supports it
+  private static void write(Path file, String token) throws IOException {
+    Files.createDirectories(file.getParent());
+    final Path temp = Files.createTempFile(file.getParent(), FILE_NAME, ".tmp");
+    try {
+      try {
+        Files.setPosixFilePermissions(temp, PosixFilePermissions.fromString("rw-------"));
+      } catch (UnsupportedOperationException e) {
+        // not a POSIX file system
+      }
+      Files.write(temp, token.getBytes(StandardCharsets.UTF_8));
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  private static Path getFile(long projectId) {
+    return DataDirUtil.getProjectDir(projectId).resolve(FILE_NAME);
+  }
+}
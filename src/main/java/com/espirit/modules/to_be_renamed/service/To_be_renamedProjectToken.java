@@ -0,0 +1,62 @@
+package com.espirit.modules.to_be_renamed.service;
+
+import com.espirit.modules.to_be_renamed.project.To_be_renamedProjectSettings;
+import de.espirit.firstspirit.agency.ProjectAgent;
+import de.espirit.firstspirit.agency.SpecialistsBroker;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+public final class To_be_renamedProjectToken implements Serializable {
+
+  // The project a client acts for, passed to the service instead of a bare project id. It is created from the client's
+  // own broker and carries the access token of the project's settings (see To_be_renamedProjectSettings#getAccessToken),
+  // which the service checks against the configuration of the project, so a client of one project cannot read the
+  // data of another project with that project's credentials.
+
+  private static final long serialVersionUID = 1L;
+
+  private final long projectId;
+  private final String token;
+
+  To_be_renamedProjectToken(final long projectId, final String token) {
+    this.projectId = projectId;
+    this.token = token;
+  }
+
+  // Get the token of the broker's project, or null if the broker is not bound to a project
+  public static @Nullable To_be_renamedProjectToken of(final SpecialistsBroker broker) {
+    final ProjectAgent projectAgent = broker.requestSpecialist(ProjectAgent.TYPE);
+    if (projectAgent == null) {
+      return null;
+    }
+    return new To_be_renamedProjectToken(projectAgent.getId(), To_be_renamedProjectSettings.get(broker).getAccessToken());
+  }
+
+  public long getProjectId() {
+    return projectId;
+  }
+
+  // constant time, the token is a secret
+  boolean matches(final String accessToken) {
+    return MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), accessToken.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Override public boolean equals(final Object o) {
+    if (!(o instanceof To_be_renamedProjectToken)) {
+      return false;
+    }
+    final To_be_renamedProjectToken other = (To_be_renamedProjectToken) o;
+    return projectId == other.projectId && token.equals(other.token);
+  }
+
+  @Override public int hashCode() {
+    return Long.hashCode(projectId) * 31 + token.hashCode();
+  }
+
+  @Override public String toString() {
+    return "project " + projectId;
+  }
+}
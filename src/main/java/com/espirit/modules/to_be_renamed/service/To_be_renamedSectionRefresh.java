@@ -0,0 +1,182 @@
+package com.espirit.modules.to_be_renamed.service;
+
+import com.espirit.modules.to_be_renamed.To_be_renamedPOJO;
+import com.espirit.modules.to_be_renamed.cache.To_be_renamedDataCache;
+import com.espirit.modules.to_be_renamed.connector.To_be_renamedConnector;
+import com.espirit.modules.to_be_renamed.job.To_be_renamedJob;
+import com.espirit.modules.to_be_renamed.job.To_be_renamedJobProgress;
+import com.espirit.modules.to_be_renamed.project.To_be_renamedProjectSettings;
+import de.espirit.common.base.Logging;
+import de.espirit.firstspirit.access.Language;
+import de.espirit.firstspirit.access.editor.value.Index;
+import de.espirit.firstspirit.access.store.IDProvider;
+import de.espirit.firstspirit.access.store.Store;
+import de.espirit.firstspirit.access.store.pagestore.Page;
+import de.espirit.firstspirit.access.store.pagestore.Section;
+import de.espirit.firstspirit.agency.LanguageAgent;
+import de.espirit.firstspirit.agency.SpecialistsBroker;
+import de.espirit.firstspirit.agency.StoreAgent;
+import de.espirit.firstspirit.forms.FormData;
+import de.espirit.firstspirit.forms.FormField;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+final class To_be_renamedSectionRefresh implements To_be_renamedJob {
+
+  // Refreshes all references to the third party system in a section and its child sections, the job behind the
+  // inline edit menu entry (see To_be_renamedExecutableInlineEditItem). It runs on the service's job manager with a
+  // broker of the project, so it does not use the editor's request after the click returned: the identifiers of all
+  // sections are resolved with one bulk call of the connector and the result is written with one save of the page.
+
+  // References the connector does not return are kept: a missing object may only be unavailable for a moment, and the
+  // connector has no way to report an object as deleted; they are counted and logged, so an editor can check them.
+
+  private static final Class<?> LOGGER = To_be_renamedSectionRefresh.class;
+
+  private final SpecialistsBroker broker;
+  private final To_be_renamedDataCache cache;
+  private final long projectId;
+  private final long sectionId;
+  private final String language;
+
+  private To_be_renamedSectionRefresh(final SpecialistsBroker broker, final To_be_renamedDataCache cache, final long projectId,
+      final long sectionId, final String language) {
+    this.broker = broker;
+    this.cache = cache;
+    this.projectId = projectId;
+    this.sectionId = sectionId;
+    this.language = language;
+  }
+
+  // Create the job of a job type of To_be_renamedService#refreshSectionJob
+  static To_be_renamedSectionRefresh of(final String type, final SpecialistsBroker broker, final To_be_renamedDataCache cache,
+      final long projectId) {
+    final String[] parts = type.split(":", 3);
+    if (parts.length != 3 || !To_be_renamedService.JOB_REFRESH_SECTION.equals(parts[0]) || parts[2].isEmpty()) {
+      throw new IllegalArgumentException("Invalid job type: " + type);
+    }
+    try {
+      return new To_be_renamedSectionRefresh(broker, cache, projectId, Long.parseLong(parts[1]), parts[2]);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid job type: " + type, e);
+    }
+  }
+
+  @Override public void run(final To_be_renamedJobProgress progress) throws Exception {
+    final IDProvider element = broker.requireSpecialist(StoreAgent.TYPE).getStore(Store.Type.PAGESTORE).getStoreElement(sectionId);
+    if (!(element instanceof Section)) {
+      throw new IllegalArgumentException("Section " + sectionId + " does not exist");
+    }
+    final Section<?> section = (Section<?>) element;
+    final Language language = getLanguage();
+    final String component = To_be_renamedProjectSettings.get(broker).getIndexComponent();
+
+    final List<Section<?>> sections = new ArrayList<>();
+    sections.add(section);
+    for (Section<?> child : section.getChildren(Section.class, true)) {
+      sections.add(child);
+    }
+
+    // collect the identifiers of all sections first, so they are resolved with a single call
+    final Set<String> identifiers = new LinkedHashSet<>();
+    int references = 0;
+    for (Section<?> current : sections) {
+      final Index index = getIndex(current.getFormData(), component, language);
+      if (index != null) {
+        for (Index.Record record : index) {
+          identifiers.add(record.getIdentifier());
+          references++;
+        }
+      }
+    }
+    progress.setTotal(references);
+    if (identifiers.isEmpty()) {
+      return;
+    }
+    progress.checkCancelled();
+
+    final List<To_be_renamedPOJO> objects = To_be_renamedConnector.getInstance(broker).getSomeData(identifiers);
+    final Set<String> found = new HashSet<>();
+    for (To_be_renamedPOJO object : objects) {
+      found.add(object.getVar());
+    }
+    // new records read their values through the data access session, so it must not serve stale objects
+    cache.refresh(projectId, objects);
+    progress.checkCancelled();
+
+    // sections are saved with their page, so all changes are written with one save
+    final IDProvider lockTarget = getPage(section);
+    lockTarget.setLock(true, true);
+    try {
+      final Set<String> unresolved = new LinkedHashSet<>();
+      for (Section<?> current : sections) {
+        // read again under the lock, the section may have changed while the references were resolved
+        final FormData formData = current.getFormData();
+        final Index index = getIndex(formData, component, language);
+        if (index == null || index.isEmpty()) {
+          continue;
+        }
+        final List<Index.Record> records = new ArrayList<>();
+        for (Index.Record record : index) {
+          records.add(record);
+        }
+        index.clear();
+        for (Index.Record record : records) {
+          if (found.contains(record.getIdentifier())) {
+            index.add(index.create(record.getIdentifier()));
+            progress.advance(1);
+          } else if (identifiers.contains(record.getIdentifier())) {
+            // not returned by the connector, kept as it is
+            index.add(record);
+            unresolved.add(record.getIdentifier());
+          } else {
+            // added after the references were collected, it is refreshed next time
+            index.add(record);
+          }
+        }
+        formData.get(language, component).set(index);
+        current.setFormData(formData);
+      }
+      lockTarget.save("Refreshed " + references + " references of section " + section.getUid() + ", " + unresolved.size() + " not found", true);
+      Logging.logInfo("Refreshed " + references + " references of section " + sectionId + " of project " + projectId + " with one call", LOGGER);
+      if (!unresolved.isEmpty()) {
+        Logging.logWarning("References of section " + sectionId + " not found by the connector, kept: " + unresolved, LOGGER);
+      }
+    } finally {
+      lockTarget.setLock(false, true);
+    }
+  }
+
+  private Language getLanguage() {
+    for (Language candidate : broker.requireSpecialist(LanguageAgent.TYPE).getLanguages()) {
+      if (candidate.getAbbreviation().equals(language)) {
+        return candidate;
+      }
+    }
+    throw new IllegalArgumentException("Unknown language: " + language);
+  }
+
+  // the value of the FS_INDEX component, null if the section has no such component
+  private static Index getIndex(final FormData formData, final String component, final Language language) {
+    try {
+      final FormField<?> field = formData.get(language, component);
+      final Object value = field.get();
+      return value instanceof Index ? (Index) value : null;
+    } catch (NoSuchElementException e) {
+      return null;
+    }
+  }
+
+  private static IDProvider getPage(final Section<?> section) {
+    IDProvider node = section;
+    while (node != null && !(node instanceof Page)) {
+      node = node.getParent();
+    }
+    return node != null ? node : section;
+  }
+}
@@ -1,12 +1,93 @@
 package com.espirit.modules.to_be_renamed.service;
 
+import com.espirit.modules.to_be_renamed.To_be_renamedPOJO;
+import com.espirit.modules.to_be_renamed.connector.To_be_renamedEdit;
+import com.espirit.modules.to_be_renamed.connector.To_be_renamedWriteBehindQueue;
+import com.espirit.modules.to_be_renamed.job.To_be_renamedJobStatus;
+import com.espirit.modules.to_be_renamed.urlfactory.To_be_renamedUrlIndexEntry;
 import de.espirit.firstspirit.module.Service;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
 public interface To_be_renamedService extends Service {
 
   // An interface to identify the service and to implement your own service functionality
 
+  // Job type: refetch all cached objects and query results of a project from the external system
+  public static final String JOB_SYNC = "sync";
+
+  // Job type: refresh the references of a section and its child sections, the type of a section is refreshSectionJob
+  public static final String JOB_REFRESH_SECTION = "refreshSection";
+
+  // Get the job type that refreshes the references of a section in a language, given by its abbreviation
+  public static String refreshSectionJob(long sectionId, String language) {
+    return JOB_REFRESH_SECTION + ":" + sectionId + ":" + language;
+  }
+
   // A predefined custom method to be implemented by the service
   public void someCustomMethod();
 
+  // Methods with data of a project take the project as a To_be_renamedProjectToken, created from the caller's broker
+  // with To_be_renamedServiceAccess#getProject; they throw a SecurityException if the token does not match the
+  // project's configuration
+
+  // Resolve a URL path produced by the module's url factory back to the node, language, template set and page params
+  // it was produced for, or null if the path is unknown
+  public To_be_renamedUrlIndexEntry lookupUrl(To_be_renamedProjectToken project, String path);
+
+  // Get the objects with the given identifiers from the external system, served from the shared server side cache
+  // where possible; unknown identifiers are skipped, the order of the identifiers is kept
+  public List<To_be_renamedPOJO> getData(To_be_renamedProjectToken project, Collection<String> identifiers);
+
+  // Get the objects matching the given filter (null for all objects), served from the shared server side cache
+  // where possible
+  public List<To_be_renamedPOJO> findData(To_be_renamedProjectToken project, String filter);
+
+  // Apply change notifications of the external system: cached objects with the given identifiers are refetched and
+  // cached query results that may contain them are dropped
+  public void invalidateData(To_be_renamedProjectToken project, Collection<String> identifiers);
+
+  // Replace cached objects with fresh ones the caller just fetched from the external system
+  public void refreshData(To_be_renamedProjectToken project, Collection<To_be_renamedPOJO> objects);
+
+  // Queue an edit of an object of the external system and return its outcome at once, usually pending; the service
+  // journals the edit in the project's data directory and writes the queued edits of the project in batches with the
+  // project's connector, retrying them if the external system fails
+  public To_be_renamedWriteBehindQueue.Outcome submitEdit(To_be_renamedProjectToken project, To_be_renamedEdit edit);
+
+  // Get the outcome of the edits of an object queued with submitEdit, or null if the object was not edited since the
+  // service started
+  public To_be_renamedWriteBehindQueue.Outcome getEditOutcome(To_be_renamedProjectToken project, String identifier);
+
+  // Get the API token of a project, the bearer token of the REST API of the web app (see To_be_renamedRestServlet),
+  // e.g. to hand it to a Content Creator widget; it is random, generated on first use and independent of the project's
+  // connection values
+  public String getApiToken(To_be_renamedProjectToken project);
+
+  // Replace the API token of a project with a new random one and return it, the old token is rejected at once
+  public String regenerateApiToken(To_be_renamedProjectToken project);
+
+  // Read the service configuration again and apply it to the running service without a restart
+  public void applyConfiguration();
+
+  // Get the validated values the running service actually uses, by configuration key
+  public Map<String, String> getEffectiveConfiguration();
+
+  // Start a job of the given type (e.g. JOB_SYNC) for a project in the background and return at once; if the same job
+  // of the project is already queued or running, its status is returned instead of starting another one
+  public To_be_renamedJobStatus submitJob(To_be_renamedProjectToken project, String type);
+
+  // Get the status of a job of the project to poll its progress, or null if the job is unknown; throws a
+  // SecurityException if the job belongs to another project
+  public To_be_renamedJobStatus getJobStatus(To_be_renamedProjectToken project, String jobId);
+
+  // Get the status of the last job of the given type of a project, or null if there is none
+  public To_be_renamedJobStatus getLatestJob(To_be_renamedProjectToken project, String type);
+
+  // Cancel a queued or running job of the project and return its status, or null if the job is unknown; throws a
+  // SecurityException if the job belongs to another project
+  public To_be_renamedJobStatus cancelJob(To_be_renamedProjectToken project, String jobId);
+
 }
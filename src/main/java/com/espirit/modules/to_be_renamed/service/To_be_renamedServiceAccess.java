@@ -0,0 +1,41 @@
+package com.espirit.modules.to_be_renamed.service;
+
+import de.espirit.common.base.Logging;
+import de.espirit.firstspirit.agency.ServicesAgent;
+import de.espirit.firstspirit.agency.SpecialistsBroker;
+import org.jetbrains.annotations.Nullable;
+
+public final class To_be_renamedServiceAccess {
+
+  // Helper for clients (data access session, data stream builder, ...) to reach the service and thereby the shared
+  // server side cache. Clients fall back to their own connector if the service is not running.
+
+  private static final Class<?> LOGGER = To_be_renamedServiceAccess.class;
+
+  private To_be_renamedServiceAccess() {
+  }
+
+  // Get the service if it is running, null otherwise
+  public static @Nullable To_be_renamedService getService(final SpecialistsBroker broker) {
+    try {
+      final ServicesAgent servicesAgent = broker.requestSpecialist(ServicesAgent.TYPE);
+      if (servicesAgent != null && servicesAgent.isRunning(To_be_renamedService.class)) {
+        return servicesAgent.getServiceInterface(To_be_renamedService.class);
+      }
+    } catch (Exception e) {
+      Logging.logWarning("Could not access " + To_be_renamedServiceImpl.SERVICE_NAME + ", using the connector directly.", e, LOGGER);
+    }
+    return null;
+  }
+
+  // Get the project to pass to the service, resolved from the caller's broker, or null if the broker is not bound to a
+  // project or its configuration cannot be read
+  public static @Nullable To_be_renamedProjectToken getProject(final SpecialistsBroker broker) {
+    try {
+      return To_be_renamedProjectToken.of(broker);
+    } catch (Exception e) {
+      Logging.logWarning("Could not read the project configuration, using the connector directly.", e, LOGGER);
+      return null;
+    }
+  }
+}
@@ -2,8 +2,10 @@ package com.espirit.modules.to_be_renamed.service;
 
 import com.espirit.ps.psci.genericconfiguration.ExecuteAction;
 import com.espirit.ps.psci.genericconfiguration.GenericConfigPanel;
+import de.espirit.common.base.Logging;
 import de.espirit.firstspirit.module.ServerEnvironment;
 import java.util.Locale;
+import java.util.Map;
 import java.util.ResourceBundle;
 
 public class To_be_renamedServiceConfig extends GenericConfigPanel<ServerEnvironment>
@@ -17,6 +19,17 @@ public class To_be_renamedServiceConfig extends GenericConfigPanel<ServerEnviron
     public static final String VAR_1 = "var1";
     public static final String VAR_2 = "var2";
 
+    public static final String URL_INDEX_DIR = "urlIndexDir";
+
+    public static final String SYNC_INTERVAL = "syncInterval";
+    public static final String SYNC_MAX_RUNTIME = "syncMaxRuntime";
+    public static final String SYNC_PROJECTS = "syncProjects";
+
+    public static final String CACHE_MAX_SIZE = "cacheMaxSize";
+    public static final String CACHE_TTL = "cacheTtl";
+    public static final String BREAKER_FAILURES = "breakerFailures";
+    public static final String BREAKER_COOL_DOWN = "breakerCoolDown";
+
     public static final String DOM_COMPONENT = "domComponent";
     public static final String TEXT_COMPONENT = "textComponent";
 
@@ -42,7 +55,46 @@ public class To_be_renamedServiceConfig extends GenericConfigPanel<ServerEnviron
 
 
         builder().text(resourceBundle.getString("serviceConfig.to_be_renamed.var1Label"), VAR_1, "to_be_renamed value", resourceBundle.getString("serviceConfig.to_be_renamed.var1Tooltip"))
-            .password(resourceBundle.getString("serviceConfig.to_be_renamed.var2Label"), VAR_2, "to_be_renamed secret", resourceBundle.getString("serviceConfig.to_be_renamed.var2Tooltip"));
+            .password(resourceBundle.getString("serviceConfig.to_be_renamed.var2Label"), VAR_2, "to_be_renamed secret", resourceBundle.getString("serviceConfig.to_be_renamed.var2Tooltip"))
+            .text(resourceBundle.getString("serviceConfig.to_be_renamed.urlIndexDirLabel"), URL_INDEX_DIR, "", resourceBundle.getString("serviceConfig.to_be_renamed.urlIndexDirTooltip"))
+            .text(resourceBundle.getString("serviceConfig.to_be_renamed.syncIntervalLabel"), SYNC_INTERVAL, "15", resourceBundle.getString("serviceConfig.to_be_renamed.syncIntervalTooltip"))
+            .text(resourceBundle.getString("serviceConfig.to_be_renamed.syncMaxRuntimeLabel"), SYNC_MAX_RUNTIME, "120", resourceBundle.getString("serviceConfig.to_be_renamed.syncMaxRuntimeTooltip"))
+            .text(resourceBundle.getString("serviceConfig.to_be_renamed.syncProjectsLabel"), SYNC_PROJECTS, "", resourceBundle.getString("serviceConfig.to_be_renamed.syncProjectsTooltip"))
+            //tuning section, applied to the running service when the panel is stored
+            .label(resourceBundle.getString("serviceConfig.to_be_renamed.tuningLabel"))
+            .text(resourceBundle.getString("serviceConfig.to_be_renamed.cacheMaxSizeLabel"), CACHE_MAX_SIZE, "10000", resourceBundle.getString("serviceConfig.to_be_renamed.cacheMaxSizeTooltip"))
+            .text(resourceBundle.getString("serviceConfig.to_be_renamed.cacheTtlLabel"), CACHE_TTL, "600", resourceBundle.getString("serviceConfig.to_be_renamed.cacheTtlTooltip"))
+            .text(resourceBundle.getString("serviceConfig.to_be_renamed.breakerFailuresLabel"), BREAKER_FAILURES, "5", resourceBundle.getString("serviceConfig.to_be_renamed.breakerFailuresTooltip"))
+            .text(resourceBundle.getString("serviceConfig.to_be_renamed.breakerCoolDownLabel"), BREAKER_COOL_DOWN, "30", resourceBundle.getString("serviceConfig.to_be_renamed.breakerCoolDownTooltip"))
+            .label(resourceBundle.getString("serviceConfig.to_be_renamed.effectiveLabel") + " " + getEffectiveConfiguration());
+    }
+
+    @Override
+    public void store() {
+        super.store();
+
+        //apply the new values to the running service, no restart needed
+
+        final To_be_renamedService service = To_be_renamedServiceAccess.getService(getEnvironment().getBroker());
+        if (service != null) {
+            service.applyConfiguration();
+        }
+    }
+
+    //the values the running service uses, they differ from the configured ones if those are invalid or out of range
+    private String getEffectiveConfiguration() {
+        try {
+            final To_be_renamedService service = To_be_renamedServiceAccess.getService(getEnvironment().getBroker());
+            if (service != null) {
+                final Map<String, String> effective = service.getEffectiveConfiguration();
+                if (!effective.isEmpty()) {
+                    return effective.toString();
+                }
+            }
+        } catch (Exception e) {
+            Logging.logWarning("Could not get the effective configuration of the service.", e, LOGGER);
+        }
+        return "-";
     }
 
 }
@@ -0,0 +1,95 @@
+package com.espirit.modules.to_be_renamed.service;
+
+import com.espirit.modules.to_be_renamed.To_be_renamedPOJO;
+import de.espirit.common.base.Logging;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class To_be_renamedServiceControl implements To_be_renamedServiceControlMBean {
+
+  public static final String OBJECT_NAME = "com.espirit.modules.to_be_renamed:type=Service";
+
+  // the field names of an object, see toFields
+  public static final String FIELD_VAR = "var";
+
+  private static final Class<?> LOGGER = To_be_renamedServiceControl.class;
+
+  // the MBean is reachable by everybody who can reach the platform MBean server, also through remote JMX: reads
+  // require the project's API token, see To_be_renamedServiceControlMBean
+  private final To_be_renamedServiceImpl service;
+
+  public To_be_renamedServiceControl(To_be_renamedServiceImpl service) {
+    this.service = service;
+  }
+
+  // Register the service with the platform MBean server, replacing an earlier registration
+  public static void register(To_be_renamedServiceImpl service) {
+    try {
+      final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      final ObjectName name = new ObjectName(OBJECT_NAME);
+      if (server.isRegistered(name)) {
+        server.unregisterMBean(name);
+      }
+      server.registerMBean(new To_be_renamedServiceControl(service), name);
+    } catch (Exception e) {
+      Logging.logWarning("Could not register service MBean " + OBJECT_NAME, e, LOGGER);
+    }
+  }
+
+  public static void unregister() {
+    try {
+      final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      final ObjectName name = new ObjectName(OBJECT_NAME);
+      if (server.isRegistered(name)) {
+        server.unregisterMBean(name);
+      }
+    } catch (Exception e) {
+      Logging.logWarning("Could not unregister service MBean " + OBJECT_NAME, e, LOGGER);
+    }
+  }
+
+  @Override public void invalidateData(long projectId, String[] identifiers) {
+    service.invalidateData(projectId, Arrays.asList(identifiers));
+  }
+
+  @Override public List<Map<String, String>> findData(long projectId, String apiToken, String filter) {
+    requireApiToken(projectId, apiToken);
+    return toFields(service.findData(projectId, filter));
+  }
+
+  @Override public List<Map<String, String>> getData(long projectId, String apiToken, String[] identifiers) {
+    requireApiToken(projectId, apiToken);
+    return toFields(service.getData(projectId, Arrays.asList(identifiers)));
+  }
+
+  private void requireApiToken(long projectId, String apiToken) {
+    if (!isAuthorized(projectId, apiToken)) {
+      Logging.logWarning("Rejected an MBean call with an invalid API token for project " + projectId, LOGGER);
+      throw new SecurityException("Not authorized for project " + projectId);
+    }
+  }
+
+  // add a field here when To_be_renamedPOJO gets one; the identifier of an object is its var
+  private static List<Map<String, String>> toFields(List<To_be_renamedPOJO> objects) {
+    final List<Map<String, String>> result = new ArrayList<>(objects.size());
+    for (To_be_renamedPOJO object : objects) {
+      result.add(Collections.singletonMap(FIELD_VAR, object.getVar()));
+    }
+    return result;
+  }
+
+  @Override public boolean isAuthorized(long projectId, String apiToken) {
+    return apiToken != null && service.isApiToken(projectId, apiToken);
+  }
+
+  @Override public boolean isRunning() {
+    return service.isRunning();
+  }
+}
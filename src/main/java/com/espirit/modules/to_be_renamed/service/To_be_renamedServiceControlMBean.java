@@ -0,0 +1,33 @@
+package com.espirit.modules.to_be_renamed.service;
+
+import java.util.List;
+import java.util.Map;
+
+public interface To_be_renamedServiceControlMBean {
+
+  // Management interface of the service, registered with the platform MBean server while the service is running.
+  // Web apps of the module use it to reach the service, because they run in their own class loader. The MBean server
+  // is also reachable from outside the JVM if remote JMX is enabled, so the operations that return data require the
+  // API token of the project (see To_be_renamedService#getApiToken) and throw a SecurityException otherwise.
+
+  // Apply change notifications of the external system, see To_be_renamedService#invalidateData. Not checked, the
+  // webhook has no project token: whoever reaches the MBean server can make the service drop and refetch cached
+  // objects of any project, which costs calls of the third party API but reveals no data. Secure remote JMX with
+  // authentication if it is enabled.
+  public void invalidateData(long projectId, String[] identifiers);
+
+  // Get the objects matching the filter (null for all objects) from the service's cache, see
+  // To_be_renamedService#findData; objects are returned as maps of field name to value, plain JDK types that can
+  // cross the class loaders
+  public List<Map<String, String>> findData(long projectId, String apiToken, String filter);
+
+  // Get the objects with the given identifiers as field maps, see To_be_renamedService#getData
+  public List<Map<String, String>> getData(long projectId, String apiToken, String[] identifiers);
+
+  // Whether the token is the API token of the project (see To_be_renamedService#getApiToken), for web apps that answer
+  // requests of clients without a FirstSpirit session
+  public boolean isAuthorized(long projectId, String apiToken);
+
+  public boolean isRunning();
+
+}
@@ -1,22 +1,95 @@
 package com.espirit.modules.to_be_renamed.service;
 
 import com.espirit.moddev.components.annotations.ServiceComponent;
+import com.espirit.modules.to_be_renamed.To_be_renamedPOJO;
+import com.espirit.modules.to_be_renamed.cache.To_be_renamedDataCache;
+import com.espirit.modules.to_be_renamed.cache.To_be_renamedDataSync;
+import com.espirit.modules.to_be_renamed.cache.To_be_renamedCache;
+import com.espirit.modules.to_be_renamed.connector.To_be_renamedConnector;
+import com.espirit.modules.to_be_renamed.connector.To_be_renamedEdit;
+import com.espirit.modules.to_be_renamed.connector.To_be_renamedWriteBehindQueue;
+import com.espirit.modules.to_be_renamed.job.To_be_renamedJob;
+import com.espirit.modules.to_be_renamed.job.To_be_renamedJobManager;
+import com.espirit.modules.to_be_renamed.job.To_be_renamedJobProgress;
+import com.espirit.modules.to_be_renamed.job.To_be_renamedJobStatus;
+import com.espirit.modules.to_be_renamed.metrics.To_be_renamedMetrics;
+import com.espirit.modules.to_be_renamed.metrics.To_be_renamedMetricsJmx;
+import com.espirit.modules.to_be_renamed.project.To_be_renamedProjectSettings;
+import com.espirit.modules.to_be_renamed.urlfactory.To_be_renamedUrlIndex;
+import com.espirit.modules.to_be_renamed.urlfactory.To_be_renamedUrlIndexEntry;
+import com.espirit.modules.to_be_renamed.util.ConfigUtil;
+import com.espirit.modules.to_be_renamed.util.DataDirUtil;
+import de.espirit.common.base.Logging;
+import de.espirit.common.tools.Strings;
+import com.espirit.ps.psci.genericconfiguration.Values;
+import de.espirit.firstspirit.agency.BrokerAgent;
+import de.espirit.firstspirit.agency.ProjectAgent;
+import de.espirit.firstspirit.agency.SpecialistsBroker;
 import de.espirit.firstspirit.module.ServerEnvironment;
 import de.espirit.firstspirit.module.ServiceProxy;
 import de.espirit.firstspirit.module.descriptor.ComponentDescriptor;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
 @ServiceComponent(name = To_be_renamedServiceImpl.SERVICE_NAME, displayName = "To_be_renamed Service", configurable = To_be_renamedServiceConfig.class)
 public class To_be_renamedServiceImpl implements To_be_renamedService {
 
   public static final String SERVICE_NAME = "To_be_renamedService";
 
+  private static final Class<?> LOGGER = To_be_renamedServiceImpl.class;
+
+  private static final String URL_INDEX_FILE = "to_be_renamed-url-index.bin";
+  // the index changes during generations, it is saved every minute it changed, so a crash loses at most a minute
+  private static final long URL_INDEX_SAVE_INTERVAL_SECONDS = 60;
+
+  // jobs of all projects share a small pool, so a burst of clicks cannot starve the server
+  private static final int JOB_THREADS = 2;
+  private static final int JOB_QUEUE_CAPACITY = 50;
+  private static final int JOB_CHUNK_SIZE = 200;
+
   private boolean running = false;
   private boolean initWithoutError = false;
 
+  private ServerEnvironment serverEnvironment;
+  private Path urlIndexFile;
+  private ScheduledExecutorService urlIndexSaver;
+  private volatile To_be_renamedDataCache dataCache;
+  private To_be_renamedDataSync dataSync;
+  private volatile To_be_renamedJobManager jobManager;
+  private volatile Map<String, String> effectiveConfiguration = Collections.emptyMap();
+  private final To_be_renamedApiTokens apiTokens = new To_be_renamedApiTokens();
+  // one write-behind queue per project, journaled and written on the server whichever client submitted the edits
+  private final ConcurrentHashMap<Long, To_be_renamedWriteBehindQueue> writeBehindQueues = new ConcurrentHashMap<>();
+
+  // a project's connector is rebuilt from the new values when its configuration changes
+  private final Consumer<To_be_renamedProjectSettings> settingsListener = settings -> {
+    final To_be_renamedDataCache cache = dataCache;
+    if (cache != null) {
+      cache.removeConnector(settings.getProjectId());
+    }
+  };
+
   @Override public void init(ComponentDescriptor componentDescriptor, ServerEnvironment serverEnvironment) {
     // Do something when the service is initialized
 
+    this.serverEnvironment = serverEnvironment;
     initWithoutError = true;
   }
 
@@ -35,6 +108,41 @@ public class To_be_renamedServiceImpl implements To_be_renamedService {
   @Override public void start() {
     // Do something when the service is started
 
+    urlIndexFile = getUrlIndexFile();
+    try {
+      To_be_renamedUrlIndex.getInstance().load(urlIndexFile);
+    } catch (IOException ioe) {
+      Logging.logError("Could not load URL index from " + urlIndexFile, ioe, LOGGER);
+    }
+    urlIndexSaver = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      final Thread thread = new Thread(runnable, "To_be_renamedUrlIndexSaver");
+      thread.setDaemon(true);
+      thread.setPriority(Thread.MIN_PRIORITY);
+      return thread;
+    });
+    urlIndexSaver.scheduleWithFixedDelay(this::saveUrlIndex, URL_INDEX_SAVE_INTERVAL_SECONDS, URL_INDEX_SAVE_INTERVAL_SECONDS, TimeUnit.SECONDS);
+
+    // one cache and one connector per project for all clients of the service
+    dataCache = new To_be_renamedDataCache(this::createConnector);
+    To_be_renamedProjectSettings.addListener(settingsListener);
+    applyConfiguration();
+    jobManager = new To_be_renamedJobManager(JOB_THREADS, JOB_QUEUE_CAPACITY);
+    openWriteBehindQueues();
+
+    registerCacheGauges("cache.objects", dataCache.getObjectCache());
+    registerCacheGauges("cache.queries", dataCache.getQueryCache());
+    registerCacheGauges("cache.unknown", dataCache.getUnknownCache());
+    To_be_renamedMetrics.getInstance().gauge("cache.activeLoads", () -> {
+      final To_be_renamedDataCache cache = dataCache;
+      return cache != null ? cache.getActiveLoads() : 0;
+    });
+    To_be_renamedMetrics.getInstance().gauge("jobs.active", () -> {
+      final To_be_renamedJobManager manager = jobManager;
+      return manager != null ? manager.getActiveCount() : 0;
+    });
+    To_be_renamedMetricsJmx.register();
+    To_be_renamedServiceControl.register(this);
+
     running = initWithoutError;
   }
 
@@ -42,6 +150,224 @@ public class To_be_renamedServiceImpl implements To_be_renamedService {
     // Do something when the service is stopped
 
     running = false;
+
+    To_be_renamedMetricsJmx.unregister();
+    To_be_renamedServiceControl.unregister();
+    To_be_renamedProjectSettings.removeListener(settingsListener);
+    if (urlIndexSaver != null) {
+      urlIndexSaver.shutdown();
+      try {
+        urlIndexSaver.awaitTermination(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      urlIndexSaver = null;
+    }
+    saveUrlIndex();
+
+    if (jobManager != null) {
+      jobManager.shutdown();
+      jobManager = null;
+    }
+
+    // a last flush while the connectors are still there, edits that could not be written stay in the journals
+    for (To_be_renamedWriteBehindQueue queue : writeBehindQueues.values()) {
+      queue.close();
+    }
+    writeBehindQueues.clear();
+
+    synchronized (this) {
+      if (dataSync != null) {
+        dataSync.stop();
+        dataSync = null;
+      }
+      effectiveConfiguration = Collections.emptyMap();
+    }
+    if (dataCache != null) {
+      dataCache.clear();
+      dataCache = null;
+    }
+  }
+
+  // gauges only read counters of the cache, they never lock it
+  private static void registerCacheGauges(String prefix, To_be_renamedCache<?, ?> cache) {
+    final To_be_renamedMetrics metrics = To_be_renamedMetrics.getInstance();
+    metrics.gauge(prefix + ".size", cache::size);
+    metrics.gauge(prefix + ".maximumSize", cache::getMaximumSize);
+    metrics.gauge(prefix + ".hits", cache::getHits);
+    metrics.gauge(prefix + ".misses", cache::getMisses);
+    metrics.gauge(prefix + ".evictions", cache::getEvictions);
+    metrics.gauge(prefix + ".hitRatio", cache::getHitRatio);
+  }
+
+  // reads the service configuration and applies it to the running cache, circuit breakers and sync; called on start
+  // and whenever the config panel is stored, see To_be_renamedServiceConfig
+  @Override public synchronized void applyConfiguration() {
+    final To_be_renamedDataCache cache = dataCache;
+    if (cache == null) {
+      return;
+    }
+    Values values = null;
+    try {
+      values = To_be_renamedServiceConfig.values(serverEnvironment.getBroker(), To_be_renamedServiceImpl.class);
+    } catch (Exception e) {
+      Logging.logWarning("Could not read service configuration, using defaults.", e, LOGGER);
+    }
+    final int cacheMaxSize = ConfigUtil.getInt(values, To_be_renamedServiceConfig.CACHE_MAX_SIZE, To_be_renamedDataCache.DEFAULT_MAXIMUM_SIZE, 100, 10_000_000);
+    final long cacheTtlSeconds = ConfigUtil.getLong(values, To_be_renamedServiceConfig.CACHE_TTL, To_be_renamedDataCache.DEFAULT_TTL_SECONDS, 1, TimeUnit.DAYS.toSeconds(1));
+    final int breakerFailures = ConfigUtil.getInt(values, To_be_renamedServiceConfig.BREAKER_FAILURES, To_be_renamedDataCache.DEFAULT_BREAKER_FAILURES, 1, 1000);
+    final long breakerCoolDownSeconds = ConfigUtil.getLong(values, To_be_renamedServiceConfig.BREAKER_COOL_DOWN, To_be_renamedDataCache.DEFAULT_BREAKER_COOL_DOWN_SECONDS, 1, 3600);
+    final long intervalMinutes = ConfigUtil.getLong(values, To_be_renamedServiceConfig.SYNC_INTERVAL, 15, 0, TimeUnit.DAYS.toMinutes(1));
+    final long maxRuntimeSeconds = ConfigUtil.getLong(values, To_be_renamedServiceConfig.SYNC_MAX_RUNTIME, 120, 1, TimeUnit.HOURS.toSeconds(1));
+    final String projectNames = values != null ? values.getString(To_be_renamedServiceConfig.SYNC_PROJECTS) : null;
+
+    // both caches and breakers are safe to reconfigure under load, running lookups are not affected
+    cache.resize(cacheMaxSize, cacheTtlSeconds, TimeUnit.SECONDS);
+    cache.configureCircuitBreakers(breakerFailures, breakerCoolDownSeconds, TimeUnit.SECONDS);
+
+    final Map<String, String> effective = new LinkedHashMap<>();
+    effective.put(To_be_renamedServiceConfig.CACHE_MAX_SIZE, String.valueOf(cacheMaxSize));
+    effective.put(To_be_renamedServiceConfig.CACHE_TTL, String.valueOf(cacheTtlSeconds));
+    effective.put(To_be_renamedServiceConfig.BREAKER_FAILURES, String.valueOf(breakerFailures));
+    effective.put(To_be_renamedServiceConfig.BREAKER_COOL_DOWN, String.valueOf(breakerCoolDownSeconds));
+    effective.put(To_be_renamedServiceConfig.SYNC_INTERVAL, String.valueOf(intervalMinutes));
+    effective.put(To_be_renamedServiceConfig.SYNC_MAX_RUNTIME, String.valueOf(maxRuntimeSeconds));
+    effective.put(To_be_renamedServiceConfig.SYNC_PROJECTS, Strings.isEmpty(projectNames) ? "" : projectNames);
+
+    // the sync is only restarted if its settings changed, so storing the panel does not restart a running sync
+    final Map<String, String> previous = effectiveConfiguration;
+    final boolean syncChanged = !effective.get(To_be_renamedServiceConfig.SYNC_INTERVAL).equals(previous.get(To_be_renamedServiceConfig.SYNC_INTERVAL))
+        || !effective.get(To_be_renamedServiceConfig.SYNC_MAX_RUNTIME).equals(previous.get(To_be_renamedServiceConfig.SYNC_MAX_RUNTIME))
+        || !effective.get(To_be_renamedServiceConfig.SYNC_PROJECTS).equals(previous.get(To_be_renamedServiceConfig.SYNC_PROJECTS));
+    effectiveConfiguration = Collections.unmodifiableMap(effective);
+    if (syncChanged) {
+      restartDataSync(cache, intervalMinutes, maxRuntimeSeconds, projectNames);
+    }
+    Logging.logInfo("Effective configuration: " + effective, LOGGER);
+  }
+
+  @Override public Map<String, String> getEffectiveConfiguration() {
+    return new LinkedHashMap<>(effectiveConfiguration);
+  }
+
+  private void restartDataSync(To_be_renamedDataCache cache, long intervalMinutes, long maxRuntimeSeconds, @Nullable String projectNames) {
+    if (dataSync != null) {
+      dataSync.stop();
+      dataSync = null;
+    }
+    if (intervalMinutes <= 0) {
+      Logging.logInfo("Background sync is disabled.", LOGGER);
+      return;
+    }
+    final List<Long> projectIds = new ArrayList<>();
+    if (!Strings.isEmpty(projectNames)) {
+      try {
+        final BrokerAgent brokerAgent = serverEnvironment.getBroker().requireSpecialist(BrokerAgent.TYPE);
+        for (String projectName : projectNames.split("\\s*,\\s*")) {
+          final SpecialistsBroker broker = brokerAgent.getBrokerByProjectName(projectName.trim());
+          if (broker != null) {
+            projectIds.add(broker.requireSpecialist(ProjectAgent.TYPE).getId());
+          } else {
+            Logging.logWarning("Unknown project to sync: " + projectName, LOGGER);
+          }
+        }
+      } catch (Exception e) {
+        Logging.logWarning("Could not resolve the projects to sync.", e, LOGGER);
+      }
+    }
+    dataSync = new To_be_renamedDataSync(cache, projectIds, TimeUnit.MINUTES.toMillis(intervalMinutes), TimeUnit.SECONDS.toMillis(maxRuntimeSeconds));
+    dataSync.start();
+  }
+
+  private To_be_renamedConnector createConnector(long projectId) {
+    return To_be_renamedConnector.newInstance(getProjectBroker(projectId));
+  }
+
+  private SpecialistsBroker getProjectBroker(long projectId) {
+    final SpecialistsBroker broker = serverEnvironment.getBroker().requireSpecialist(BrokerAgent.TYPE).getBrokerByProjectId(projectId);
+    if (broker == null) {
+      throw new IllegalArgumentException("Unknown project: " + projectId);
+    }
+    return broker;
+  }
+
+  private To_be_renamedDataCache requireDataCache() {
+    final To_be_renamedDataCache cache = dataCache;
+    if (cache == null) {
+      throw new IllegalStateException(SERVICE_NAME + " is not running");
+    }
+    return cache;
+  }
+
+  private To_be_renamedJobManager requireJobManager() {
+    final To_be_renamedJobManager manager = jobManager;
+    if (manager == null) {
+      throw new IllegalStateException(SERVICE_NAME + " is not running");
+    }
+    return manager;
+  }
+
+  private static String jobKey(long projectId, String type) {
+    return projectId + ":" + type;
+  }
+
+  private To_be_renamedJob createJob(long projectId, String type) {
+    if (JOB_SYNC.equals(type)) {
+      final To_be_renamedDataCache cache = requireDataCache();
+      return progress -> syncProject(cache, projectId, progress);
+    }
+    if (type.startsWith(JOB_REFRESH_SECTION + ":")) {
+      return To_be_renamedSectionRefresh.of(type, getProjectBroker(projectId), requireDataCache(), projectId);
+    }
+    throw new IllegalArgumentException("Unknown job type: " + type);
+  }
+
+  // refetches the cached objects of a project chunk by chunk, then its cached query results
+  private static void syncProject(To_be_renamedDataCache cache, long projectId, To_be_renamedJobProgress progress) {
+    final List<String> identifiers = cache.getCachedIdentifiers(projectId);
+    final List<String> filters = cache.getCachedFilters(projectId);
+    progress.setTotal(identifiers.size() + filters.size());
+    progress.setMessage("Refreshing " + identifiers.size() + " objects");
+    for (int i = 0; i < identifiers.size(); i += JOB_CHUNK_SIZE) {
+      progress.checkCancelled();
+      final List<String> chunk = identifiers.subList(i, Math.min(identifiers.size(), i + JOB_CHUNK_SIZE));
+      cache.invalidate(projectId, chunk);
+      progress.advance(chunk.size());
+    }
+    progress.setMessage("Refreshing " + filters.size() + " queries");
+    for (String filter : filters) {
+      progress.checkCancelled();
+      cache.refreshQuery(projectId, filter);
+      progress.advance(1);
+    }
+    progress.setMessage(null);
+  }
+
+  // the configured directory or the data directory of the module, see DataDirUtil
+  private Path getUrlIndexFile() {
+    String directory = null;
+    try {
+      directory = To_be_renamedServiceConfig.values(serverEnvironment.getBroker(), To_be_renamedServiceImpl.class).getString(To_be_renamedServiceConfig.URL_INDEX_DIR);
+    } catch (Exception e) {
+      Logging.logWarning("Could not read URL index directory from service configuration, using default.", e, LOGGER);
+    }
+    if (Strings.isEmpty(directory)) {
+      return DataDirUtil.getModuleDir().resolve(URL_INDEX_FILE);
+    }
+    return Paths.get(directory, URL_INDEX_FILE);
+  }
+
+  // synchronized, so the scheduled save and the save on stop never write the file at the same time
+  private synchronized void saveUrlIndex() {
+    final To_be_renamedUrlIndex urlIndex = To_be_renamedUrlIndex.getInstance();
+    if (urlIndexFile == null || !urlIndex.isDirty()) {
+      return;
+    }
+    try {
+      urlIndex.save(urlIndexFile);
+    } catch (IOException ioe) {
+      Logging.logError("Could not save URL index to " + urlIndexFile, ioe, LOGGER);
+    }
   }
 
   @Override public boolean isRunning() {
@@ -53,10 +379,181 @@ public class To_be_renamedServiceImpl implements To_be_renamedService {
   }
 
   @Override public @Nullable Class<? extends ServiceProxy<To_be_renamedService>> getProxyClass() {
-    return null;
+    return To_be_renamedServiceProxy.class;
   }
 
   @Override public void someCustomMethod() {
     // Do something when the custom method from the service interface is called
   }
+
+  @Override public @Nullable To_be_renamedUrlIndexEntry lookupUrl(To_be_renamedProjectToken project, String path) {
+    return To_be_renamedUrlIndex.getInstance().lookup(requireProject(project), path);
+  }
+
+  @Override public List<To_be_renamedPOJO> getData(To_be_renamedProjectToken project, Collection<String> identifiers) {
+    return getData(requireProject(project), identifiers);
+  }
+
+  @Override public List<To_be_renamedPOJO> findData(To_be_renamedProjectToken project, String filter) {
+    return findData(requireProject(project), filter);
+  }
+
+  @Override public void invalidateData(To_be_renamedProjectToken project, Collection<String> identifiers) {
+    invalidateData(requireProject(project), identifiers);
+  }
+
+  @Override public void refreshData(To_be_renamedProjectToken project, Collection<To_be_renamedPOJO> objects) {
+    requireDataCache().refresh(requireProject(project), objects);
+  }
+
+  @Override public To_be_renamedWriteBehindQueue.Outcome submitEdit(To_be_renamedProjectToken project, To_be_renamedEdit edit) {
+    final long projectId = requireProject(project);
+    try {
+      final To_be_renamedWriteBehindQueue queue = requireWriteBehindQueue(projectId);
+      queue.submit(edit);
+      return queue.getOutcome(edit.getIdentifier());
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not queue the edit of " + edit.getIdentifier() + " for " + project, e);
+    }
+  }
+
+  @Override public @Nullable To_be_renamedWriteBehindQueue.Outcome getEditOutcome(To_be_renamedProjectToken project, String identifier) {
+    // asked for every row of a report, so it never opens a queue
+    final To_be_renamedWriteBehindQueue queue = writeBehindQueues.get(requireProject(project));
+    return queue != null ? queue.getOutcome(identifier) : null;
+  }
+
+  // every flush writes with the project's current connector of the cache, so a changed configuration is used for the
+  // edits still queued
+  private To_be_renamedWriteBehindQueue requireWriteBehindQueue(long projectId) throws IOException {
+    requireDataCache();
+    final To_be_renamedWriteBehindQueue queue = writeBehindQueues.get(projectId);
+    if (queue != null) {
+      return queue;
+    }
+    try {
+      return writeBehindQueues.computeIfAbsent(projectId, id -> {
+        try {
+          final Path journal = DataDirUtil.getProjectDir(id).resolve(To_be_renamedWriteBehindQueue.JOURNAL_FILE);
+          final To_be_renamedWriteBehindQueue.Sink sink = edits -> requireDataCache().getConnector(id).updateData(edits);
+          return new To_be_renamedWriteBehindQueue(journal, sink, To_be_renamedWriteBehindQueue.DEFAULT_FLUSH_INTERVAL_MILLIS,
+              To_be_renamedWriteBehindQueue.DEFAULT_MAX_BATCH_SIZE, To_be_renamedWriteBehindQueue.DEFAULT_MAX_ATTEMPTS, "writeBehind." + id + ".pending");
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  // the queues with edits left in their journals are opened on start, so the edits are written without waiting for
+  // the next edit of the project
+  private void openWriteBehindQueues() {
+    final Path moduleDir = DataDirUtil.getModuleDir();
+    if (!Files.isDirectory(moduleDir)) {
+      return;
+    }
+    try (DirectoryStream<Path> directories = Files.newDirectoryStream(moduleDir, "project-*")) {
+      for (Path directory : directories) {
+        if (!Files.exists(directory.resolve(To_be_renamedWriteBehindQueue.JOURNAL_FILE))) {
+          continue;
+        }
+        try {
+          requireWriteBehindQueue(Long.parseLong(directory.getFileName().toString().substring("project-".length())));
+        } catch (NumberFormatException e) {
+          Logging.logWarning("Skipping the directory " + directory + ", it is not the directory of a project.", LOGGER);
+        } catch (IOException e) {
+          Logging.logError("Could not open the write-behind queue in " + directory, e, LOGGER);
+        }
+      }
+    } catch (IOException e) {
+      Logging.logError("Could not open the write-behind queues in " + moduleDir, e, LOGGER);
+    }
+  }
+
+  @Override public String getApiToken(To_be_renamedProjectToken project) {
+    final long projectId = requireProject(project);
+    try {
+      return apiTokens.get(projectId);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not read the API token of " + project, e);
+    }
+  }
+
+  @Override public String regenerateApiToken(To_be_renamedProjectToken project) {
+    final long projectId = requireProject(project);
+    try {
+      return apiTokens.regenerate(projectId);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not write the API token of " + project, e);
+    }
+  }
+
+  @Override public To_be_renamedJobStatus submitJob(To_be_renamedProjectToken project, String type) {
+    final long projectId = requireProject(project);
+    return requireJobManager().submit(jobKey(projectId, type), createJob(projectId, type));
+  }
+
+  @Override public @Nullable To_be_renamedJobStatus getJobStatus(To_be_renamedProjectToken project, String jobId) {
+    return requireJobOf(project, requireJobManager().getStatus(jobId));
+  }
+
+  @Override public @Nullable To_be_renamedJobStatus getLatestJob(To_be_renamedProjectToken project, String type) {
+    return requireJobManager().getLatest(jobKey(requireProject(project), type));
+  }
+
+  @Override public @Nullable To_be_renamedJobStatus cancelJob(To_be_renamedProjectToken project, String jobId) {
+    final To_be_renamedJobManager manager = requireJobManager();
+    if (requireJobOf(project, manager.getStatus(jobId)) == null) {
+      return null;
+    }
+    return manager.cancel(jobId);
+  }
+
+  // a job id alone does not authorize, the job has to be one of the caller's project
+  private @Nullable To_be_renamedJobStatus requireJobOf(To_be_renamedProjectToken project, @Nullable To_be_renamedJobStatus status) {
+    final long projectId = requireProject(project);
+    if (status != null && !status.getKey().startsWith(jobKey(projectId, ""))) {
+      Logging.logWarning("Rejected access to job " + status.getId() + " of another project for " + project, LOGGER);
+      throw new SecurityException("Not authorized for job " + status.getId());
+    }
+    return status;
+  }
+
+  // the unchecked variants for callers in the server's JVM, see To_be_renamedServiceControl
+
+  List<To_be_renamedPOJO> getData(long projectId, Collection<String> identifiers) {
+    return requireDataCache().getData(projectId, identifiers);
+  }
+
+  List<To_be_renamedPOJO> findData(long projectId, String filter) {
+    return requireDataCache().findData(projectId, filter);
+  }
+
+  void invalidateData(long projectId, Collection<String> identifiers) {
+    requireDataCache().invalidate(projectId, identifiers);
+  }
+
+  // whether the token is the API token of the project, see getApiToken; projects without one accept none
+  boolean isApiToken(long projectId, String apiToken) {
+    return apiTokens.matches(projectId, apiToken);
+  }
+
+  // checks the caller's token against the project's configuration, read again once in case it just changed, and
+  // returns the project id
+  private long requireProject(To_be_renamedProjectToken project) {
+    final long projectId = project.getProjectId();
+    To_be_renamedProjectSettings settings = To_be_renamedProjectSettings.peek(projectId);
+    if (settings != null && project.matches(settings.getAccessToken())) {
+      return projectId;
+    }
+    final SpecialistsBroker broker = getProjectBroker(projectId);
+    settings = To_be_renamedProjectSettings.get(broker);
+    if (!project.matches(settings.getAccessToken()) && !project.matches(To_be_renamedProjectSettings.refresh(broker).getAccessToken())) {
+      Logging.logWarning("Rejected a call with an invalid token for " + project, LOGGER);
+      throw new SecurityException("Not authorized for " + project);
+    }
+    return projectId;
+  }
 }
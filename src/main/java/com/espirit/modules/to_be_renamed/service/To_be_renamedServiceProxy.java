@@ -0,0 +1,264 @@
+package com.espirit.modules.to_be_renamed.service;
+
+import com.espirit.modules.to_be_renamed.To_be_renamedPOJO;
+import com.espirit.modules.to_be_renamed.connector.To_be_renamedEdit;
+import com.espirit.modules.to_be_renamed.connector.To_be_renamedWriteBehindQueue;
+import com.espirit.modules.to_be_renamed.job.To_be_renamedJobStatus;
+import com.espirit.modules.to_be_renamed.urlfactory.To_be_renamedUrlIndexEntry;
+import de.espirit.firstspirit.module.ServerEnvironment;
+import de.espirit.firstspirit.module.ServiceProxy;
+import de.espirit.firstspirit.module.descriptor.ComponentDescriptor;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class To_be_renamedServiceProxy implements ServiceProxy<To_be_renamedService> {
+
+  // Client side proxy of the service. Calls of getData with the same project token that arrive within a short window are
+  // coalesced into one call of the service, so many concurrent small lookups (e.g. while rendering a page with
+  // several data access references) cost a single round trip instead of one per lookup. The caller that opens a
+  // batch waits for the window to close and then calls the service on its own thread, so a slow call only delays the
+  // callers of its own batch.
+
+  private static final Class<?> LOGGER = To_be_renamedServiceProxy.class;
+
+  static final long BATCH_WINDOW_MILLIS = 5;
+  static final int MAX_BATCH_SIZE = 500;
+
+  @Override public To_be_renamedService getProxy(final To_be_renamedService service) {
+    return new BatchingService(service);
+  }
+
+
+  static final class BatchingService implements To_be_renamedService {
+
+    private final To_be_renamedService _service;
+    // by token, not by project id, so a caller cannot join the batch of another caller's valid token
+    private final ConcurrentHashMap<To_be_renamedProjectToken, Batch> _batches = new ConcurrentHashMap<>();
+
+    BatchingService(final To_be_renamedService service) {
+      _service = service;
+    }
+
+    @Override public List<To_be_renamedPOJO> getData(final To_be_renamedProjectToken project, final Collection<String> identifiers) {
+      if (identifiers.isEmpty()) {
+        return new ArrayList<>();
+      }
+      if (identifiers.size() >= MAX_BATCH_SIZE) {
+        return _service.getData(project, identifiers);
+      }
+      final Batch[] created = new Batch[1];
+      Batch batch;
+      while (true) {
+        batch = _batches.computeIfAbsent(project, key -> created[0] = new Batch(key));
+        if (batch.add(identifiers)) {
+          break;
+        }
+        // the batch is closed or full, start a new one
+        _batches.remove(project, batch);
+      }
+      if (batch.isFull()) {
+        flush(batch);
+      } else if (batch == created[0]) {
+        // this caller opened the batch, it flushes it when the window closes unless a full batch was flushed already
+        batch.awaitWindow(BATCH_WINDOW_MILLIS);
+        flush(batch);
+      }
+      final Map<String, To_be_renamedPOJO> objects;
+      try {
+        objects = batch.result.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while waiting for " + To_be_renamedServiceImpl.SERVICE_NAME, e);
+      } catch (ExecutionException e) {
+        final Throwable cause = e.getCause();
+        throw cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+      }
+      final List<To_be_renamedPOJO> result = new ArrayList<>(identifiers.size());
+      for (final String identifier : identifiers) {
+        final To_be_renamedPOJO object = objects.get(identifier);
+        if (object != null) {
+          result.add(object);
+        }
+      }
+      return result;
+    }
+
+    private void flush(final Batch batch) {
+      final List<String> identifiers = batch.close();
+      if (identifiers == null) {
+        return;
+      }
+      _batches.remove(batch.project, batch);
+      try {
+        final Map<String, To_be_renamedPOJO> objects = new HashMap<>(identifiers.size() * 4 / 3 + 1);
+        for (final To_be_renamedPOJO object : _service.getData(batch.project, identifiers)) {
+          objects.put(object.getVar(), object);
+        }
+        batch.result.complete(objects);
+      } catch (RuntimeException e) {
+        batch.result.completeExceptionally(e);
+      }
+    }
+
+    @Override public List<To_be_renamedPOJO> findData(final To_be_renamedProjectToken project, final String filter) {
+      return _service.findData(project, filter);
+    }
+
+    @Override public void invalidateData(final To_be_renamedProjectToken project, final Collection<String> identifiers) {
+      _service.invalidateData(project, identifiers);
+    }
+
+    @Override public void refreshData(final To_be_renamedProjectToken project, final Collection<To_be_renamedPOJO> objects) {
+      _service.refreshData(project, objects);
+    }
+
+    @Override public void applyConfiguration() {
+      _service.applyConfiguration();
+    }
+
+    @Override public Map<String, String> getEffectiveConfiguration() {
+      return _service.getEffectiveConfiguration();
+    }
+
+    @Override public To_be_renamedJobStatus submitJob(final To_be_renamedProjectToken project, final String type) {
+      return _service.submitJob(project, type);
+    }
+
+    @Override public @Nullable To_be_renamedJobStatus getJobStatus(final To_be_renamedProjectToken project, final String jobId) {
+      return _service.getJobStatus(project, jobId);
+    }
+
+    @Override public @Nullable To_be_renamedJobStatus getLatestJob(final To_be_renamedProjectToken project, final String type) {
+      return _service.getLatestJob(project, type);
+    }
+
+    @Override public @Nullable To_be_renamedJobStatus cancelJob(final To_be_renamedProjectToken project, final String jobId) {
+      return _service.cancelJob(project, jobId);
+    }
+
+    @Override public @Nullable To_be_renamedUrlIndexEntry lookupUrl(final To_be_renamedProjectToken project, final String path) {
+      return _service.lookupUrl(project, path);
+    }
+
+    @Override public To_be_renamedWriteBehindQueue.Outcome submitEdit(final To_be_renamedProjectToken project, final To_be_renamedEdit edit) {
+      return _service.submitEdit(project, edit);
+    }
+
+    @Override public @Nullable To_be_renamedWriteBehindQueue.Outcome getEditOutcome(final To_be_renamedProjectToken project, final String identifier) {
+      return _service.getEditOutcome(project, identifier);
+    }
+
+    @Override public String getApiToken(final To_be_renamedProjectToken project) {
+      return _service.getApiToken(project);
+    }
+
+    @Override public String regenerateApiToken(final To_be_renamedProjectToken project) {
+      return _service.regenerateApiToken(project);
+    }
+
+    @Override public void someCustomMethod() {
+      _service.someCustomMethod();
+    }
+
+    @Override public void init(final ComponentDescriptor componentDescriptor, final ServerEnvironment serverEnvironment) {
+      _service.init(componentDescriptor, serverEnvironment);
+    }
+
+    @Override public void installed() {
+      _service.installed();
+    }
+
+    @Override public void uninstalling() {
+      _service.uninstalling();
+    }
+
+    @Override public void updated(final String s) {
+      _service.updated(s);
+    }
+
+    @Override public void start() {
+      _service.start();
+    }
+
+    @Override public void stop() {
+      _service.stop();
+    }
+
+    @Override public boolean isRunning() {
+      return _service.isRunning();
+    }
+
+    @Override public @Nullable Class<? extends To_be_renamedService> getServiceInterface() {
+      return _service.getServiceInterface();
+    }
+
+    @Override public @Nullable Class<? extends ServiceProxy<To_be_renamedService>> getProxyClass() {
+      return _service.getProxyClass();
+    }
+  }
+
+
+  /**
+   * Identifiers of one project token collected within one batch window.
+   */
+  static final class Batch {
+
+    final To_be_renamedProjectToken project;
+    final CompletableFuture<Map<String, To_be_renamedPOJO>> result = new CompletableFuture<>();
+
+    private final Set<String> _identifiers = new LinkedHashSet<>();
+    private boolean _closed;
+
+    Batch(final To_be_renamedProjectToken project) {
+      this.project = project;
+    }
+
+    synchronized boolean add(final Collection<String> identifiers) {
+      if (_closed || _identifiers.size() + identifiers.size() > MAX_BATCH_SIZE) {
+        return false;
+      }
+      _identifiers.addAll(identifiers);
+      return true;
+    }
+
+    synchronized boolean isFull() {
+      return _identifiers.size() >= MAX_BATCH_SIZE;
+    }
+
+    // waits until the window has passed or the batch was closed by another caller
+    synchronized void awaitWindow(final long millis) {
+      final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+      long remaining;
+      while (!_closed && (remaining = deadline - System.nanoTime()) > 0) {
+        try {
+          TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        } catch (InterruptedException e) {
+          // flush at once, the interrupt is kept for the caller
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+
+    // returns the collected identifiers, or null if the batch was already closed
+    synchronized @Nullable List<String> close() {
+      if (_closed) {
+        return null;
+      }
+      _closed = true;
+      notifyAll();
+      return new ArrayList<>(_identifiers);
+    }
+  }
+}
@@ -0,0 +1,201 @@
+package com.espirit.modules.to_be_renamed.sitemap;
+
+import com.espirit.modules.to_be_renamed.urlfactory.To_be_renamedUrlFactory;
+import de.espirit.common.base.Logging;
+import de.espirit.firstspirit.access.Language;
+import de.espirit.firstspirit.access.project.Project;
+import de.espirit.firstspirit.access.project.TemplateSet;
+import de.espirit.firstspirit.access.store.IDProvider;
+import de.espirit.firstspirit.access.store.PageParams;
+import de.espirit.firstspirit.access.store.Store;
+import de.espirit.firstspirit.access.store.sitestore.PageRef;
+import de.espirit.firstspirit.generate.PathLookup;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generates the sitemap of a project by walking the Site Store and computing the URL of every page reference in
+ * parallel through the {@link To_be_renamedUrlFactory}. Page references are processed in chunks: the URLs of a chunk
+ * are computed concurrently and then handed to the {@link To_be_renamedSitemapWriter} in Site Store order, so the
+ * output is deterministic and memory usage is bounded by the chunk size.
+ * <p>
+ * The url factory runs {@link To_be_renamedUrlFactory#STANDALONE standalone}, so the sitemap does not change the URL
+ * index or the collision report of the project's generations. User defined paths of folders are only known to a
+ * generation: without a {@link PathLookup} the paths are built from the folder names, which only matches the generated
+ * pages if the project does not use user defined paths.
+ */
+public class To_be_renamedSitemapGenerator {
+
+    private static final Class<?> LOGGER = To_be_renamedSitemapGenerator.class;
+
+    private static final int DEFAULT_CHUNK_SIZE = 2_000;
+
+    private final To_be_renamedUrlFactory urlFactory = new To_be_renamedUrlFactory();
+    private final int threads;
+    private final int chunkSize;
+
+    /**
+     * Instantiates a new sitemap generator whose paths are built from the folder names.
+     *
+     * @param settings url factory settings, e.g. {@code uselowercase} and {@code usewelcomefilenames}
+     * @param threads  number of threads used to compute URLs
+     */
+    public To_be_renamedSitemapGenerator(Map<String, String> settings, int threads) {
+        this(settings, new RootPathLookup(), threads, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Instantiates a new sitemap generator.
+     *
+     * @param settings   url factory settings, e.g. {@code uselowercase} and {@code usewelcomefilenames}
+     * @param pathLookup the user defined paths of folders, must map the store root to "/"
+     * @param threads    number of threads used to compute URLs
+     */
+    public To_be_renamedSitemapGenerator(Map<String, String> settings, PathLookup pathLookup, int threads) {
+        this(settings, pathLookup, threads, DEFAULT_CHUNK_SIZE);
+    }
+
+    To_be_renamedSitemapGenerator(Map<String, String> settings, PathLookup pathLookup, int threads, int chunkSize) {
+        final Map<String, String> standalone = new HashMap<>(settings);
+        standalone.put(To_be_renamedUrlFactory.STANDALONE, "true");
+        this.urlFactory.init(standalone, pathLookup);
+        this.threads = Math.max(1, threads);
+        this.chunkSize = Math.max(this.threads, chunkSize);
+    }
+
+    /**
+     * Writes the URLs of all page references of the project in the provided languages.
+     *
+     * @param project        the project
+     * @param templateSet    the template set the URLs are generated for
+     * @param languages      the languages, each language is written as a whole in the given order
+     * @param baseUrl        the URL prefix of all pages, e.g. {@code https://www.example.com}
+     * @param languagePrefix {@code true} if the generated pages of each language live in a directory named after its abbreviation
+     * @param sitemapWriter  the writer receiving the URLs
+     * @param progress       receives progress messages, may be {@code null}
+     * @return the number of written URLs
+     * @throws IOException if writing fails
+     */
+    public long generate(Project project, TemplateSet templateSet, List<Language> languages, String baseUrl, boolean languagePrefix,
+                         To_be_renamedSitemapWriter sitemapWriter, Writer progress) throws IOException {
+        final String base = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        final Store siteStore = project.getUserService().getStore(Store.Type.SITESTORE, false);
+        final ExecutorService executor = Executors.newFixedThreadPool(this.threads);
+        long written = 0;
+        try {
+            for (Language language : languages) {
+                final String prefix = languagePrefix ? base + '/' + language.getAbbreviation().toLowerCase() : base;
+                final List<PageRef> chunk = new ArrayList<>(this.chunkSize);
+                for (PageRef pageRef : siteStore.getChildren(PageRef.class, true)) {
+                    chunk.add(pageRef);
+                    if (chunk.size() == this.chunkSize) {
+                        written += writeChunk(executor, chunk, templateSet, language, prefix, sitemapWriter);
+                        chunk.clear();
+                        progress(progress, written);
+                    }
+                }
+                written += writeChunk(executor, chunk, templateSet, language, prefix, sitemapWriter);
+                progress(progress, written);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return written;
+    }
+
+    private int writeChunk(ExecutorService executor, List<PageRef> chunk, TemplateSet templateSet, Language language, String prefix,
+                           To_be_renamedSitemapWriter sitemapWriter) throws IOException {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        final String[] urls = new String[chunk.size()];
+        final int sliceSize = (chunk.size() + this.threads - 1) / this.threads;
+        final List<Future<?>> futures = new ArrayList<>(this.threads);
+        for (int start = 0; start < chunk.size(); start += sliceSize) {
+            final int from = start;
+            final int to = Math.min(chunk.size(), start + sliceSize);
+            futures.add(executor.submit(() -> {
+                for (int i = from; i < to; i++) {
+                    urls[i] = getUrl(chunk.get(i), templateSet, language);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("sitemap generation interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IOException(e.getCause());
+            }
+        }
+        int written = 0;
+        for (String url : urls) {
+            if (url != null) {
+                sitemapWriter.add(prefix + url);
+                written++;
+            }
+        }
+        return written;
+    }
+
+    private String getUrl(PageRef pageRef, TemplateSet templateSet, Language language) {
+        try {
+            return this.urlFactory.getUrl(pageRef, templateSet, language, FirstPageParams.INSTANCE);
+        } catch (RuntimeException e) {
+            Logging.logWarning("Skipping " + pageRef.getUid() + " (id=" + pageRef.getId() + "): " + e.getMessage(), LOGGER);
+            return null;
+        }
+    }
+
+    private static void progress(Writer progress, long written) throws IOException {
+        if (progress != null) {
+            progress.write("sitemap: " + written + " URLs written\n");
+            progress.flush();
+        }
+    }
+
+    /**
+     * Path lookup without user defined paths: only the store root maps to "/".
+     */
+    private static final class RootPathLookup implements PathLookup {
+
+        @Override
+        public String lookupPath(IDProvider node, Language language, TemplateSet templateSet) {
+            return node.getParent() == null ? "/" : null;
+        }
+    }
+
+    /**
+     * Page params of the first (and only) page of a page reference without content projection.
+     */
+    private static final class FirstPageParams implements PageParams {
+
+        private static final FirstPageParams INSTANCE = new FirstPageParams();
+
+        @Override
+        public int getIndex() {
+            return 0;
+        }
+
+        @Override
+        public int getSize() {
+            return 1;
+        }
+
+        @Override
+        public String getPageSuffix() {
+            return "";
+        }
+    }
+}
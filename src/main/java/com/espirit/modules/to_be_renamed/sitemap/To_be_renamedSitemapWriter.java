@@ -0,0 +1,253 @@
+package com.espirit.modules.to_be_renamed.sitemap;
+
+import de.espirit.common.base.Logging;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams sitemap XML files (see <a href="https://www.sitemaps.org/protocol.html">sitemaps.org</a>) to a directory.
+ * URLs are written as they are added, so memory usage does not depend on the number of URLs. A new
+ * {@code urlset} file is started whenever the protocol limits of 50,000 URLs or 50 MB (uncompressed) per file would be
+ * exceeded, and {@link #close()} writes a {@code sitemapindex} file referencing all written files. Locations are
+ * percent-encoded as the protocol requires, e.g. {@code /de/über uns.html} is written as
+ * {@code /de/%C3%BCber%20uns.html}; characters that are already escaped are kept.
+ *
+ * Instances are not thread-safe.
+ */
+public class To_be_renamedSitemapWriter implements Closeable {
+
+    private static final Class<?> LOGGER = To_be_renamedSitemapWriter.class;
+
+    public static final int MAX_URLS_PER_FILE = 50_000;
+    public static final long MAX_BYTES_PER_FILE = 50L * 1024 * 1024;
+
+    private static final String NAMESPACE = "http://www.sitemaps.org/schemas/sitemap/0.9";
+    // reserve for the closing urlset tag and the end of the document
+    private static final int CLOSING_BYTES = 32;
+    // unreserved and reserved characters of RFC 3986, everything else is percent-encoded
+    private static final String ALLOWED = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-._~:/?#[]@!$&'()*+,;=";
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private final Path directory;
+    private final String baseName;
+    private final String baseUrl;
+    private final boolean gzip;
+    private final int maxUrlsPerFile;
+    private final long maxBytesPerFile;
+    private final XMLOutputFactory xmlOutputFactory = XMLOutputFactory.newInstance();
+    private final List<String> files = new ArrayList<>();
+
+    private CountingOutputStream countingStream;
+    private XMLStreamWriter xml;
+    private int urlsInFile;
+    private long totalUrls;
+
+    /**
+     * Instantiates a new sitemap writer using the protocol limits.
+     *
+     * @param directory the output directory
+     * @param baseName  the base name of the written files, e.g. {@code sitemap}
+     * @param baseUrl   the absolute URL the output directory is published at, used for the sitemap index
+     * @param gzip      {@code true} to gzip every written file
+     */
+    public To_be_renamedSitemapWriter(Path directory, String baseName, String baseUrl, boolean gzip) {
+        this(directory, baseName, baseUrl, gzip, MAX_URLS_PER_FILE, MAX_BYTES_PER_FILE);
+    }
+
+    To_be_renamedSitemapWriter(Path directory, String baseName, String baseUrl, boolean gzip, int maxUrlsPerFile, long maxBytesPerFile) {
+        this.directory = directory;
+        this.baseName = baseName;
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl : baseUrl + '/';
+        this.gzip = gzip;
+        this.maxUrlsPerFile = maxUrlsPerFile;
+        this.maxBytesPerFile = maxBytesPerFile;
+    }
+
+    /**
+     * Adds a single URL.
+     *
+     * @param location the absolute URL of the page
+     * @throws IOException if writing fails
+     */
+    public void add(String location) throws IOException {
+        location = encode(location);
+        try {
+            // estimate the size of the entry: tags plus location, escaping might add a few bytes
+            final long entryBytes = location.length() * 3L + 24;
+            if (this.xml == null || this.urlsInFile >= this.maxUrlsPerFile
+                    || this.countingStream.count + entryBytes + CLOSING_BYTES > this.maxBytesPerFile) {
+                startFile();
+            }
+            this.xml.writeStartElement("url");
+            this.xml.writeStartElement("loc");
+            this.xml.writeCharacters(location);
+            this.xml.writeEndElement();
+            this.xml.writeEndElement();
+            // flush the xml writer, so the byte count of the underlying stream is accurate
+            this.xml.flush();
+            this.urlsInFile++;
+            this.totalUrls++;
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Percent-encodes all characters of a URL that are neither unreserved nor reserved (RFC 3986) as UTF-8 bytes. A
+     * percent sign followed by two hex digits is an escaped character and kept as it is.
+     *
+     * @param location the URL
+     * @return the encoded URL, the same instance if nothing needs to be encoded
+     */
+    static String encode(String location) {
+        int i = 0;
+        while (i < location.length() && isAllowed(location, i)) {
+            i++;
+        }
+        if (i == location.length()) {
+            return location;
+        }
+        final StringBuilder encoded = new StringBuilder(location.length() + 16).append(location, 0, i);
+        while (i < location.length()) {
+            if (isAllowed(location, i)) {
+                encoded.append(location.charAt(i++));
+                continue;
+            }
+            final int codePoint = location.codePointAt(i);
+            i += Character.charCount(codePoint);
+            for (byte b : new String(Character.toChars(codePoint)).getBytes(StandardCharsets.UTF_8)) {
+                encoded.append('%').append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+            }
+        }
+        return encoded.toString();
+    }
+
+    private static boolean isAllowed(String location, int i) {
+        final char c = location.charAt(i);
+        if (c == '%') {
+            return i + 2 < location.length() && Character.digit(location.charAt(i + 1), 16) >= 0 && Character.digit(location.charAt(i + 2), 16) >= 0;
+        }
+        return c < 128 && ALLOWED.indexOf(c) >= 0;
+    }
+
+    private void startFile() throws IOException, XMLStreamException {
+        finishFile();
+        final String fileName = this.baseName + '-' + (this.files.size() + 1) + (this.gzip ? ".xml.gz" : ".xml");
+        this.files.add(fileName);
+        this.countingStream = openCounting(this.directory.resolve(fileName));
+        this.xml = this.xmlOutputFactory.createXMLStreamWriter(this.countingStream, "UTF-8");
+        this.xml.writeStartDocument("UTF-8", "1.0");
+        this.xml.writeStartElement("urlset");
+        this.xml.writeDefaultNamespace(NAMESPACE);
+        this.urlsInFile = 0;
+    }
+
+    private void finishFile() throws IOException, XMLStreamException {
+        if (this.xml != null) {
+            this.xml.writeEndElement();
+            this.xml.writeEndDocument();
+            this.xml.close();
+            this.countingStream.close();
+            this.xml = null;
+            this.countingStream = null;
+        }
+    }
+
+    private CountingOutputStream openCounting(Path file) throws IOException {
+        OutputStream out = Files.newOutputStream(file);
+        if (this.gzip) {
+            out = new GZIPOutputStream(out, 64 * 1024);
+        }
+        return new CountingOutputStream(new BufferedOutputStream(out, 64 * 1024));
+    }
+
+    /**
+     * Finishes the current file and writes the sitemap index.
+     *
+     * @throws IOException if writing fails
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            finishFile();
+            final String indexName = this.baseName + (this.gzip ? ".xml.gz" : ".xml");
+            try (CountingOutputStream out = openCounting(this.directory.resolve(indexName))) {
+                final XMLStreamWriter index = this.xmlOutputFactory.createXMLStreamWriter(out, "UTF-8");
+                index.writeStartDocument("UTF-8", "1.0");
+                index.writeStartElement("sitemapindex");
+                index.writeDefaultNamespace(NAMESPACE);
+                for (String file : this.files) {
+                    index.writeStartElement("sitemap");
+                    index.writeStartElement("loc");
+                    index.writeCharacters(encode(this.baseUrl + file));
+                    index.writeEndElement();
+                    index.writeEndElement();
+                }
+                index.writeEndElement();
+                index.writeEndDocument();
+                index.close();
+            }
+            Logging.logInfo("Wrote " + this.totalUrls + " URLs to " + this.files.size() + " sitemap file(s) in " + this.directory, LOGGER);
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Gets the names of all sitemap files written so far, without the index.
+     *
+     * @return the file names
+     */
+    public List<String> getFiles() {
+        return Collections.unmodifiableList(this.files);
+    }
+
+    /**
+     * Gets the number of URLs written so far.
+     *
+     * @return the number of URLs
+     */
+    public long getTotalUrls() {
+        return this.totalUrls;
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            this.out.write(b);
+            this.count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            this.out.write(b, off, len);
+            this.count += len;
+        }
+
+        @Override
+        public void flush() {
+            // the xml writer is flushed after every URL to keep the count accurate, do not flush the file buffers each time
+        }
+    }
+}
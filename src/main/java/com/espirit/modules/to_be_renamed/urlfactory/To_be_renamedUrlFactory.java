@@ -1,6 +1,8 @@
 package com.espirit.modules.to_be_renamed.urlfactory;
 
 import com.espirit.moddev.components.annotations.UrlFactoryComponent;
+import com.espirit.modules.to_be_renamed.metrics.To_be_renamedHistogram;
+import com.espirit.modules.to_be_renamed.metrics.To_be_renamedMetrics;
 import de.espirit.common.io.IoError;
 import de.espirit.common.tools.Strings;
 import de.espirit.firstspirit.access.Language;
@@ -27,16 +29,18 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import static java.util.Objects.requireNonNull;
-
 
 /**
  * Search engine-optimized path factory. The base name of a node is produced from the language dependent display name
@@ -49,11 +53,25 @@ public class To_be_renamedUrlFactory implements UrlFactory {
 
   protected static final String USELOWERCASE = "uselowercase";
   protected static final String USEWELCOMEFILENAMES = "usewelcomefilenames";
+  /**
+   * Setting for factories used outside of a generation, e.g. by the sitemap generator: URLs are neither written to the
+   * {@link To_be_renamedUrlIndex} nor reported as the latest generation by the {@link To_be_renamedUrlRegistry}.
+   * Collisions are still resolved, within the factory's own registry.
+   */
+  public static final String STANDALONE = "standalone";
+
+  private static final To_be_renamedHistogram PAGE_URLS = To_be_renamedMetrics.getInstance().histogram(To_be_renamedMetrics.URL_FACTORY_PAGE);
+  private static final To_be_renamedHistogram MEDIA_URLS = To_be_renamedMetrics.getInstance().histogram(To_be_renamedMetrics.URL_FACTORY_MEDIA);
 
   private PathLookup _pathLookup;
   private WelcomeFileMode _welcomeFileMode;
   private boolean _lowerCase;
+  private boolean _standalone;
   private Set<String> _channelsWithWelcomeFiles;
+  private final ConcurrentMap<Long, To_be_renamedWelcomeFileTable> _welcomeFileTables = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, Map<String, String>> _siblingOwners = new ConcurrentHashMap<>();
+  private volatile To_be_renamedUrlRegistry _urlRegistry = new To_be_renamedUrlRegistry();
+  private final To_be_renamedUrlIndex _urlIndex = To_be_renamedUrlIndex.getInstance();
 
 
   /**
@@ -77,6 +95,11 @@ public class To_be_renamedUrlFactory implements UrlFactory {
       _welcomeFileMode = WelcomeFileMode.DISABLED;
     }
     _lowerCase = booleanValue(settings.get(USELOWERCASE), false);
+    _standalone = booleanValue(settings.get(STANDALONE), false);
+    _welcomeFileTables.clear();
+    // a factory may be reused for the next generation: URLs, collisions and reservations are only valid for one
+    _siblingOwners.clear();
+    _urlRegistry = new To_be_renamedUrlRegistry();
   }
 
   private Set<String> getChannelsWithWelcomeFiles(final String useWelcomFilenames) {
@@ -117,6 +140,15 @@ public class To_be_renamedUrlFactory implements UrlFactory {
   }
 
 
+  /**
+   * @return The registry of all URLs produced by this factory during the current generation, which starts with
+   * {@link #init}.
+   */
+  public final To_be_renamedUrlRegistry getUrlRegistry() {
+    return _urlRegistry;
+  }
+
+
   /**
    * Build the URL for a content-producing store element.
    * @param contentProducer A store element.
@@ -128,6 +160,7 @@ public class To_be_renamedUrlFactory implements UrlFactory {
   @Override
   @NotNull
   public String getUrl(@NotNull final ContentProducer contentProducer, @NotNull final TemplateSet templateSet, @NotNull final Language language, @NotNull final PageParams pageParams) {
+    final long start = System.nanoTime();
     final String name = getName(contentProducer, templateSet, language, pageParams);
     String extension = contentProducer.getExtension(templateSet);
     int len = name.length();
@@ -143,7 +176,19 @@ public class To_be_renamedUrlFactory implements UrlFactory {
       buffer.append('.');
       buffer.append(extension);
     }
-    return buffer.toString();
+    final String preferredOwner = isFirstPage(pageParams) ? getPreferredOwner(contentProducer, templateSet, language, buffer, len) : null;
+    final To_be_renamedUrlRegistry urlRegistry = _urlRegistry;
+    final String url = urlRegistry.claim(buffer.toString(), getOwnerKey(contentProducer, language, templateSet, pageParams), preferredOwner);
+    if (!_standalone) {
+      final long projectId = contentProducer.getProject().getId();
+      urlRegistry.bind(projectId);
+      // replaces the owner of a URL that moved to a different node
+      final String pageSuffix = pageParams.getPageSuffix();
+      _urlIndex.put(projectId, url, new To_be_renamedUrlIndexEntry(contentProducer.getElementType(), contentProducer.getId(), language.getAbbreviation(),
+          templateSet.getUid(), null, pageParams.getIndex(), pageSuffix.isEmpty() ? null : pageSuffix));
+    }
+    PAGE_URLS.recordSince(start);
+    return url;
   }
 
 
@@ -157,6 +202,7 @@ public class To_be_renamedUrlFactory implements UrlFactory {
   @Override
   @NotNull
   public String getUrl(@NotNull final Media node, @NotNull final Language language, @Nullable final Resolution resolution) {
+    final long start = System.nanoTime();
     String name = getName(node, language);
     name = adjustCase(name);
     String resolutionString = null;
@@ -184,7 +230,126 @@ public class To_be_renamedUrlFactory implements UrlFactory {
       buffer.append('.');
       buffer.append(extension);
     }
-    return buffer.toString();
+    final To_be_renamedUrlRegistry urlRegistry = _urlRegistry;
+    final String url = urlRegistry.claim(buffer.toString(), getOwnerKey(node, language, resolution));
+    if (!_standalone) {
+      final long projectId = node.getProject().getId();
+      urlRegistry.bind(projectId);
+      _urlIndex.put(projectId, url, new To_be_renamedUrlIndexEntry(node.getElementType(), node.getId(), node.isLanguageDependent() ? language.getAbbreviation() : null,
+          null, resolutionString != null ? resolution.getUid() : null, 0, null));
+    }
+    MEDIA_URLS.recordSince(start);
+    return url;
+  }
+
+
+  /**
+   * Build the key identifying the owner of a URL produced for a content-producing store element. Two calls for the
+   * same node, language, template set and page params yield the same key, so they never count as a collision.
+   */
+  static String getOwnerKey(final ContentProducer contentProducer, final Language language, final TemplateSet templateSet, final PageParams pageParams) {
+    return getOwnerKey(contentProducer, language, templateSet, pageParams.getIndex(), pageParams.getPageSuffix());
+  }
+
+
+  private static String getOwnerKey(final ContentProducer contentProducer, final Language language, final TemplateSet templateSet, final int pageIndex,
+      final String pageSuffix) {
+    return contentProducer.getElementType() + ':' + contentProducer.getId() + ':' + language.getAbbreviation() + ':' + templateSet.getUid()
+        + ':' + pageIndex + ':' + pageSuffix;
+  }
+
+
+  private static boolean isFirstPage(final PageParams pageParams) {
+    return pageParams.getIndex() == 0 && !(pageParams instanceof ContentPageParams) && pageParams.getPageSuffix().isEmpty();
+  }
+
+
+  /**
+   * Get the owner the URL of the first page of a content producer is reserved for, if a sibling builds the same URL:
+   * the generated one with the lowest node id, so the generation order does not decide which page keeps the URL.
+   *
+   * @param contentProducer The content producer.
+   * @param templateSet The target template set.
+   * @param language The target language.
+   * @param url The URL built so far, ending with the file name of the content producer.
+   * @param nameLength The length of the file name including the extension.
+   * @return The owner key of the preferred sibling, or {@code null} if no sibling builds the same file name.
+   */
+  @Nullable
+  private String getPreferredOwner(final ContentProducer contentProducer, final TemplateSet templateSet, final Language language, final CharSequence url,
+      final int nameLength) {
+    final IDProvider parent = getParentNotNull(contentProducer);
+    final boolean release = parent.getStore().isRelease();
+    final String tableKey = parent.getId() + ":" + language.getAbbreviation() + ':' + templateSet.getUid() + ':' + release;
+    Map<String, String> owners = _siblingOwners.get(tableKey);
+    if (owners == null) {
+      owners = _siblingOwners.computeIfAbsent(tableKey, key -> getCollidingSiblings(parent, templateSet, language, release));
+    }
+    return owners.isEmpty() ? null : owners.get(url.subSequence(url.length() - nameLength, url.length()).toString());
+  }
+
+
+  /**
+   * Build the file names of the first pages of all generated content producers in a folder and map each file name
+   * built more than once to the owner key of the sibling with the lowest node id. Built once per folder, language and
+   * template set and generation.
+   */
+  private Map<String, String> getCollidingSiblings(final IDProvider parent, final TemplateSet templateSet, final Language language,
+      final boolean release) {
+    final Map<String, ContentProducer> lowest = new HashMap<>();
+    final Set<String> colliding = new HashSet<>();
+    for (final IDProvider child : parent.getChildren(IDProvider.class, false)) {
+      // content projections are named by their datasets
+      if (!(child instanceof ContentProducer) || (child instanceof PageRef && ((PageRef) child).getContent2Params() != null)
+          || !isGenerated(child, release)) {
+        continue;
+      }
+      final ContentProducer sibling = (ContentProducer) child;
+      final String fileName = getFileName(sibling, templateSet, language);
+      final ContentProducer known = lowest.get(fileName);
+      if (known != null) {
+        colliding.add(fileName);
+      }
+      if (known == null || sibling.getId() < known.getId()) {
+        lowest.put(fileName, sibling);
+      }
+    }
+    if (colliding.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    final Map<String, String> owners = new HashMap<>();
+    for (final String fileName : colliding) {
+      owners.put(fileName, getOwnerKey(lowest.get(fileName), language, templateSet, 0, ""));
+    }
+    return owners;
+  }
+
+
+  /**
+   * Whether a sibling is generated together with the content producers of its folder: a generation of the release
+   * state skips nodes that have never been released, so they do not reserve a URL. Siblings that are only left out of
+   * a partial generation keep their reservation, their file of the last full generation still uses the URL.
+   */
+  private static boolean isGenerated(final IDProvider sibling, final boolean release) {
+    return !release || sibling.getReleaseStatus() != IDProvider.NEVER_RELEASED;
+  }
+
+
+  private String getFileName(final ContentProducer contentProducer, final TemplateSet templateSet, final Language language) {
+    final String name = getFirstPageName(contentProducer, templateSet, language);
+    final String extension = contentProducer.getExtension(templateSet);
+    return extension.isEmpty() ? name : name + '.' + adjustCase(extension);
+  }
+
+
+  /**
+   * Build the key identifying the owner of a URL produced for a Media Store element. Language independent media
+   * are generated once for all languages, so the language is only part of the key for language dependent media.
+   */
+  static String getOwnerKey(final Media node, final Language language, @Nullable final Resolution resolution) {
+    final String languageKey = node.isLanguageDependent() ? language.getAbbreviation() : "*";
+    final String resolutionKey = resolution != null ? resolution.getUid() : "";
+    return node.getElementType() + ':' + node.getId() + ':' + languageKey + ':' + resolutionKey;
   }
 
 
@@ -231,11 +396,12 @@ public class To_be_renamedUrlFactory implements UrlFactory {
         }
       }
     }
-    if ((getWelcomeFileMode() != WelcomeFileMode.DISABLED) && (pageParams.getIndex() == 0) && !(pageParams instanceof ContentPageParams)) {
-      final SiteStoreFolder folder = (SiteStoreFolder) contentProducer.getParent();
-      if ((folder != null) && contentProducer.equals(folder.getStartNode()) && createIndexFile(templateSet, contentProducer.getProject())) {
-        return "index";
-      }
+    if ((pageParams.getIndex() == 0) && !(pageParams instanceof ContentPageParams) && pageParams.getPageSuffix().isEmpty()) {
+      return getFirstPageName(contentProducer, templateSet, language);
+    }
+    if ((_welcomeFileMode != WelcomeFileMode.DISABLED) && (pageParams.getIndex() == 0) && !(pageParams instanceof ContentPageParams)
+        && isStartNode(contentProducer) && createIndexFile(templateSet, contentProducer.getProject())) {
+      return "index";
     }
     String name = getName(contentProducer, language);
     final String pageSuffix = pageParams.getPageSuffix();
@@ -246,6 +412,24 @@ public class To_be_renamedUrlFactory implements UrlFactory {
   }
 
 
+  /**
+   * The name of the first page of a content producer without content projection: "index" for the start node of a
+   * folder if welcome files are enabled, the display name otherwise.
+   */
+  private String getFirstPageName(final ContentProducer contentProducer, final TemplateSet templateSet, final Language language) {
+    if ((_welcomeFileMode != WelcomeFileMode.DISABLED) && isStartNode(contentProducer) && createIndexFile(templateSet, contentProducer.getProject())) {
+      return "index";
+    }
+    return adjustCase(getName(contentProducer, language));
+  }
+
+
+  private static boolean isStartNode(final ContentProducer contentProducer) {
+    final IDProvider parent = contentProducer.getParent();
+    return parent instanceof SiteStoreFolder && contentProducer.equals(((SiteStoreFolder) parent).getStartNode());
+  }
+
+
   /**
    * Get the name part for the specified target node and entity. This implementation tries to resolve the given
    * {@code varName} for the given {@code entity}.
@@ -285,20 +469,24 @@ public class To_be_renamedUrlFactory implements UrlFactory {
 
 
   private boolean createIndexFile(final TemplateSet templateSet, final Project project) {
-    if (getWelcomeFileMode() == WelcomeFileMode.FOR_ALL_HTML_CHANNELS) {
-      return true;
-    }
-    if (getWelcomeFileMode() == WelcomeFileMode.FOR_SELECTED_CHANNELS) {
-      return requireNonNull(_channelsWithWelcomeFiles, "ChannelsWithWelcomeFiles not initialized")
-          .contains(templateSet.getUid());  // _channelsWithWelcomeFiles must be initialized in this case
-    }
-    // assumption: we have WelcomeFileMode.FOR_FIRST_HTML_CHANNEL
-    for (final TemplateSet set : project.getTemplateSets()) {
-      if ("html".equals(set.getExtension())) {
-        return templateSet.equals(set);
-      }
+    return getWelcomeFileTable(project).isWelcomeFile(templateSet);
+  }
+
+
+  /**
+   * Get the welcome file decision table of the provided project, building it on first use. Template sets are read
+   * once per project and generation: a table lives for one generation, {@link #init(Map, PathLookup)} drops all tables
+   * when the factory is initialized for the next one, so changed template sets are picked up by the next generation.
+   * Template sets changed during a generation are not seen before it ends.
+   */
+  final To_be_renamedWelcomeFileTable getWelcomeFileTable(final Project project) {
+    final long projectId = project.getId();
+    To_be_renamedWelcomeFileTable table = _welcomeFileTables.get(projectId);
+    if (table == null) {
+      table = _welcomeFileTables.computeIfAbsent(projectId,
+          id -> To_be_renamedWelcomeFileTable.create(_welcomeFileMode, _channelsWithWelcomeFiles, project.getTemplateSets()));
     }
-    return false; // should not be reached
+    return table;
   }
 
 
@@ -499,7 +687,7 @@ public class To_be_renamedUrlFactory implements UrlFactory {
 
 
   private String adjustCase(final String value) {
-    if (isLowerCaseMode()) {
+    if (_lowerCase) {
       return value.toLowerCase(Locale.ENGLISH);
     }
     return value;
@@ -0,0 +1,290 @@
+package com.espirit.modules.to_be_renamed.urlfactory;
+
+import com.espirit.modules.to_be_renamed.util.VarInts;
+import de.espirit.common.base.Logging;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Reverse index mapping URLs produced by the {@link To_be_renamedUrlFactory} back to the node, language, template set
+ * and page params they were produced for. The index is filled incrementally while URLs are generated, the owner of a
+ * URL that moved to a different node is replaced, and a full generation starts with an empty index of its project
+ * (see {@link #clear(long)}). It can be persisted to and loaded from a compact binary file (see {@link #save(Path)}).
+ *
+ * File format (all counts and indices are {@link VarInts varints}):
+ * <pre>
+ *   int magic, byte version,
+ *   string table: count, UTF strings (index 0 is reserved for {@code null}),
+ *   project count, per project: project id, entry count, per entry (sorted by URL):
+ *     shared prefix length with the previous URL, UTF remainder,
+ *     element type, node id, language, template set, resolution, page index, page suffix
+ * </pre>
+ */
+public class To_be_renamedUrlIndex {
+
+  private static final Class<?> LOGGER = To_be_renamedUrlIndex.class;
+
+  private static final int MAGIC = 0x54425549; // "TBUI"
+  private static final int VERSION = 1;
+
+  private static final To_be_renamedUrlIndex INSTANCE = new To_be_renamedUrlIndex();
+
+  private final ConcurrentMap<Long, ConcurrentMap<String, To_be_renamedUrlIndexEntry>> _projects = new ConcurrentHashMap<>();
+  private final AtomicLong _changes = new AtomicLong();
+  private volatile long _savedChanges;
+
+
+  /**
+   * @return The index shared by all url factories and the module's service within this VM.
+   */
+  public static To_be_renamedUrlIndex getInstance() {
+    return INSTANCE;
+  }
+
+
+  To_be_renamedUrlIndex() {
+  }
+
+
+  /**
+   * Record the owner of the provided URL. Later calls for the same URL replace earlier ones, an unchanged owner is
+   * only compared, so generating an unchanged project does not write to the index.
+   */
+  public void put(final long projectId, @NotNull final String url, @NotNull final To_be_renamedUrlIndexEntry entry) {
+    final ConcurrentMap<String, To_be_renamedUrlIndexEntry> urls = project(projectId);
+    if (entry.equals(urls.get(url))) {
+      return;
+    }
+    final To_be_renamedUrlIndexEntry previous = urls.put(url, entry);
+    if (!entry.equals(previous)) {
+      _changes.incrementAndGet();
+    }
+  }
+
+
+  /**
+   * @return {@code true} if an entry for the provided URL is already known.
+   */
+  public boolean contains(final long projectId, @NotNull final String url) {
+    final Map<String, To_be_renamedUrlIndexEntry> urls = _projects.get(projectId);
+    return urls != null && urls.containsKey(url);
+  }
+
+
+
+  /**
+   * Resolve a URL path back to the node it was produced for. Query string and fragment are ignored.
+   *
+   * @param projectId The project the URL belongs to.
+   * @param path The URL path, e.g. {@code /de/products/index.html}.
+   * @return The matching entry or {@code null} if the path is unknown.
+   */
+  @Nullable
+  public To_be_renamedUrlIndexEntry lookup(final long projectId, @NotNull final String path) {
+    final Map<String, To_be_renamedUrlIndexEntry> urls = _projects.get(projectId);
+    if (urls == null) {
+      return null;
+    }
+    return urls.get(normalize(path));
+  }
+
+
+  static String normalize(final String path) {
+    int end = path.length();
+    final int query = path.indexOf('?');
+    if (query >= 0) {
+      end = query;
+    }
+    final int fragment = path.indexOf('#');
+    if (fragment >= 0 && fragment < end) {
+      end = fragment;
+    }
+    return end == path.length() ? path : path.substring(0, end);
+  }
+
+
+  public int size() {
+    int size = 0;
+    for (final Map<String, To_be_renamedUrlIndexEntry> urls : _projects.values()) {
+      size += urls.size();
+    }
+    return size;
+  }
+
+
+  /**
+   * @return {@code true} if the index changed since it was last loaded or successfully saved.
+   */
+  public boolean isDirty() {
+    return _changes.get() != _savedChanges;
+  }
+
+
+  /**
+   * Remove all entries of the provided project, e.g. before a full generation, so URLs of deleted or moved nodes do
+   * not resolve any longer.
+   */
+  public void clear(final long projectId) {
+    if (_projects.remove(projectId) != null) {
+      _changes.incrementAndGet();
+    }
+  }
+
+
+  private ConcurrentMap<String, To_be_renamedUrlIndexEntry> project(final long projectId) {
+    return _projects.computeIfAbsent(projectId, id -> new ConcurrentHashMap<>());
+  }
+
+
+  /**
+   * Write the index to the provided file. The file is written to a temporary sibling first and then moved into
+   * place, so readers never see a partially written index. The index is only marked as saved if the file was written,
+   * and stays dirty if it changed while it was written.
+   */
+  public void save(@NotNull final Path file) throws IOException {
+    final long changes = _changes.get();
+    final Map<String, Integer> strings = new HashMap<>();
+    final List<String> table = new ArrayList<>();
+    table.add(null);
+    final Map<Long, TreeMap<String, To_be_renamedUrlIndexEntry>> snapshot = new HashMap<>();
+    for (final Map.Entry<Long, ConcurrentMap<String, To_be_renamedUrlIndexEntry>> project : _projects.entrySet()) {
+      final TreeMap<String, To_be_renamedUrlIndexEntry> entries = new TreeMap<>(project.getValue());
+      snapshot.put(project.getKey(), entries);
+      for (final To_be_renamedUrlIndexEntry entry : entries.values()) {
+        intern(entry.getElementType(), strings, table);
+        intern(entry.getLanguage(), strings, table);
+        intern(entry.getTemplateSet(), strings, table);
+        intern(entry.getResolution(), strings, table);
+        intern(entry.getPageSuffix(), strings, table);
+      }
+    }
+    if (file.getParent() != null) {
+      Files.createDirectories(file.getParent());
+    }
+    final Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 64 * 1024))) {
+      out.writeInt(MAGIC);
+      out.writeByte(VERSION);
+      VarInts.writeInt(out, table.size() - 1);
+      for (int i = 1; i < table.size(); i++) {
+        out.writeUTF(table.get(i));
+      }
+      VarInts.writeInt(out, snapshot.size());
+      for (final Map.Entry<Long, TreeMap<String, To_be_renamedUrlIndexEntry>> project : snapshot.entrySet()) {
+        VarInts.writeLong(out, project.getKey());
+        VarInts.writeInt(out, project.getValue().size());
+        String previous = "";
+        for (final Map.Entry<String, To_be_renamedUrlIndexEntry> urlEntry : project.getValue().entrySet()) {
+          final String url = urlEntry.getKey();
+          final To_be_renamedUrlIndexEntry entry = urlEntry.getValue();
+          final int shared = sharedPrefix(previous, url);
+          VarInts.writeInt(out, shared);
+          out.writeUTF(url.substring(shared));
+          VarInts.writeInt(out, strings.get(entry.getElementType()));
+          VarInts.writeLong(out, entry.getNodeId());
+          VarInts.writeInt(out, index(entry.getLanguage(), strings));
+          VarInts.writeInt(out, index(entry.getTemplateSet(), strings));
+          VarInts.writeInt(out, index(entry.getResolution(), strings));
+          VarInts.writeInt(out, entry.getPageIndex());
+          VarInts.writeInt(out, index(entry.getPageSuffix(), strings));
+          previous = url;
+        }
+      }
+    }
+    Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    _savedChanges = changes;
+  }
+
+
+  /**
+   * Replace the contents of this index with the contents of the provided file. A missing file leaves the index
+   * empty.
+   */
+  public void load(@NotNull final Path file) throws IOException {
+    if (!Files.isRegularFile(file)) {
+      Logging.logInfo("No URL index found at " + file, LOGGER);
+      return;
+    }
+    final ConcurrentMap<Long, ConcurrentMap<String, To_be_renamedUrlIndexEntry>> projects = new ConcurrentHashMap<>();
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024))) {
+      if (in.readInt() != MAGIC) {
+        throw new IOException("not a URL index: " + file);
+      }
+      final int version = in.readUnsignedByte();
+      if (version != VERSION) {
+        throw new IOException("unsupported URL index version " + version + ": " + file);
+      }
+      final String[] table = new String[VarInts.readInt(in) + 1];
+      for (int i = 1; i < table.length; i++) {
+        table[i] = in.readUTF();
+      }
+      final int projectCount = VarInts.readInt(in);
+      for (int p = 0; p < projectCount; p++) {
+        final long projectId = VarInts.readLong(in);
+        final int count = VarInts.readInt(in);
+        final ConcurrentMap<String, To_be_renamedUrlIndexEntry> entries = new ConcurrentHashMap<>(Math.max(16, count * 4 / 3 + 1));
+        String previous = "";
+        for (int i = 0; i < count; i++) {
+          final int shared = VarInts.readInt(in);
+          final String url = previous.substring(0, shared) + in.readUTF();
+          final String elementType = table[VarInts.readInt(in)];
+          final long nodeId = VarInts.readLong(in);
+          final String language = table[VarInts.readInt(in)];
+          final String templateSet = table[VarInts.readInt(in)];
+          final String resolution = table[VarInts.readInt(in)];
+          final int pageIndex = VarInts.readInt(in);
+          final String pageSuffix = table[VarInts.readInt(in)];
+          entries.put(url, new To_be_renamedUrlIndexEntry(elementType, nodeId, language, templateSet, resolution, pageIndex, pageSuffix));
+          previous = url;
+        }
+        projects.put(projectId, entries);
+      }
+    }
+    _projects.clear();
+    _projects.putAll(projects);
+    _savedChanges = _changes.get();
+    Logging.logInfo("Loaded " + size() + " URLs from " + file, LOGGER);
+  }
+
+
+  private static void intern(@Nullable final String value, final Map<String, Integer> strings, final List<String> table) {
+    if (value != null && !strings.containsKey(value)) {
+      strings.put(value, table.size());
+      table.add(value);
+    }
+  }
+
+
+  private static int index(@Nullable final String value, final Map<String, Integer> strings) {
+    return value == null ? 0 : strings.get(value);
+  }
+
+
+  private static int sharedPrefix(final String a, final String b) {
+    final int max = Math.min(a.length(), b.length());
+    int i = 0;
+    while (i < max && a.charAt(i) == b.charAt(i)) {
+      i++;
+    }
+    return i;
+  }
+}
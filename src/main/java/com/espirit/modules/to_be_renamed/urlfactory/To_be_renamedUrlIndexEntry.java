@@ -0,0 +1,115 @@
+package com.espirit.modules.to_be_renamed.urlfactory;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+
+/**
+ * The node, language, template set and page params a URL was produced for by the {@link To_be_renamedUrlFactory}.
+ * Instances are immutable and serializable, so they can be handed out to clients by the module's service.
+ */
+public final class To_be_renamedUrlIndexEntry implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String _elementType;
+  private final long _nodeId;
+  private final String _language;
+  private final String _templateSet;
+  private final String _resolution;
+  private final int _pageIndex;
+  private final String _pageSuffix;
+
+
+  To_be_renamedUrlIndexEntry(final String elementType, final long nodeId, @Nullable final String language, @Nullable final String templateSet,
+                             @Nullable final String resolution, final int pageIndex, @Nullable final String pageSuffix) {
+    _elementType = elementType;
+    _nodeId = nodeId;
+    _language = language;
+    _templateSet = templateSet;
+    _resolution = resolution;
+    _pageIndex = pageIndex;
+    _pageSuffix = pageSuffix;
+  }
+
+
+  /**
+   * @return The element type of the node, e.g. {@code PageRef} or {@code Media}.
+   */
+  public String getElementType() {
+    return _elementType;
+  }
+
+
+  public long getNodeId() {
+    return _nodeId;
+  }
+
+
+  /**
+   * @return The language abbreviation or {@code null} for language independent media.
+   */
+  @Nullable
+  public String getLanguage() {
+    return _language;
+  }
+
+
+  /**
+   * @return The template set uid or {@code null} for media.
+   */
+  @Nullable
+  public String getTemplateSet() {
+    return _templateSet;
+  }
+
+
+  /**
+   * @return The resolution uid or {@code null} for anything but pictures.
+   */
+  @Nullable
+  public String getResolution() {
+    return _resolution;
+  }
+
+
+  public int getPageIndex() {
+    return _pageIndex;
+  }
+
+
+  @Nullable
+  public String getPageSuffix() {
+    return _pageSuffix;
+  }
+
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof To_be_renamedUrlIndexEntry)) {
+      return false;
+    }
+    final To_be_renamedUrlIndexEntry other = (To_be_renamedUrlIndexEntry) o;
+    return _nodeId == other._nodeId && _pageIndex == other._pageIndex && _elementType.equals(other._elementType)
+        && Objects.equals(_language, other._language) && Objects.equals(_templateSet, other._templateSet)
+        && Objects.equals(_resolution, other._resolution) && Objects.equals(_pageSuffix, other._pageSuffix);
+  }
+
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(_elementType, _nodeId, _language, _templateSet, _resolution, _pageIndex, _pageSuffix);
+  }
+
+
+  @Override
+  public String toString() {
+    return _elementType + ", id=" + _nodeId + ", language=" + _language + ", templateSet=" + _templateSet + ", resolution=" + _resolution
+        + ", page=" + _pageIndex + (_pageSuffix != null ? " (" + _pageSuffix + ')' : "");
+  }
+}
@@ -0,0 +1,264 @@
+package com.espirit.modules.to_be_renamed.urlfactory;
+
+import de.espirit.common.base.Logging;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Generation scoped registry of all URLs produced by a {@link To_be_renamedUrlFactory}. Every URL is claimed by the
+ * owner it was built for (see {@link To_be_renamedUrlFactory#getOwnerKey}). If a URL belongs to a different owner,
+ * e.g. because two display names only differ in punctuation removed by
+ * {@link To_be_renamedUrlFactory#cleanup(String, de.espirit.firstspirit.access.Language) cleanup(...)}, a suffix is
+ * inserted in front of the extension instead of silently overwriting the other file.
+ *
+ * Which owner keeps the URL does not depend on the order of the generation threads if the factory knows the
+ * colliding owners in advance: it passes the preferred owner (the generated sibling with the lowest node id) with the
+ * claim, and the URL is reserved for that owner. Other collisions are resolved first come, first served. The suffix
+ * only depends on the owner: its node id, or if that is taken as well, the node id and a digest of the owner key.
+ *
+ * The registry of the latest generation of a project is kept (see {@link #getLatest(long)}), so its collisions can be
+ * reported once the generation has finished, e.g. by a schedule script action with {@code mode=urlCollisions}.
+ *
+ * All operations are backed by {@link ConcurrentHashMap}s, so claiming a URL is O(1) and does not serialize the
+ * generation threads.
+ */
+public class To_be_renamedUrlRegistry {
+
+  private static final Class<?> LOGGER = To_be_renamedUrlRegistry.class;
+
+  private static final ConcurrentMap<Long, To_be_renamedUrlRegistry> LATEST = new ConcurrentHashMap<>();
+
+  private final ConcurrentMap<String, String> _ownerByUrl = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, String> _urlByOwner = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, Collision> _collisions = new ConcurrentHashMap<>();
+  private final AtomicInteger _size = new AtomicInteger();
+  private volatile long _projectId = -1;
+
+
+  /**
+   * @return The registry of the latest generation of the provided project in this VM, or {@code null} if no URL of
+   * the project has been generated since the start.
+   */
+  @Nullable
+  public static To_be_renamedUrlRegistry getLatest(final long projectId) {
+    return LATEST.get(projectId);
+  }
+
+
+  /**
+   * Make this registry the latest one of the provided project, called by the url factory for every URL.
+   */
+  void bind(final long projectId) {
+    if (_projectId != projectId) {
+      _projectId = projectId;
+      LATEST.put(projectId, this);
+    }
+  }
+
+
+  /**
+   * Claim the provided URL for the provided owner.
+   *
+   * @param url The URL built by the url factory.
+   * @param ownerKey A key identifying node, language, template set and page params the URL was built for.
+   * @return The URL to use for this owner: either the provided {@code url} or a de-duplicated variant of it.
+   */
+  @NotNull
+  public String claim(@NotNull final String url, @NotNull final String ownerKey) {
+    return claim(url, ownerKey, null);
+  }
+
+
+  /**
+   * Claim the provided URL for the provided owner, if it is not reserved for a different preferred owner.
+   *
+   * @param url The URL built by the url factory.
+   * @param ownerKey A key identifying node, language, template set and page params the URL was built for.
+   * @param preferredOwnerKey The owner the URL is reserved for, if the factory knows that several owners build it;
+   * {@code null} if no collision is known.
+   * @return The URL to use for this owner: either the provided {@code url} or a de-duplicated variant of it.
+   */
+  @NotNull
+  public String claim(@NotNull final String url, @NotNull final String ownerKey, @Nullable final String preferredOwnerKey) {
+    final String known = _urlByOwner.get(ownerKey);
+    if (known != null) {
+      return known;
+    }
+    final String claimant = preferredOwnerKey != null ? preferredOwnerKey : ownerKey;
+    final String previous = _ownerByUrl.putIfAbsent(url, claimant);
+    final String owner = previous != null ? previous : claimant;
+    if (owner.equals(ownerKey)) {
+      return remember(ownerKey, url);
+    }
+    String candidate = insertSuffix(url, getNodeId(ownerKey));
+    if (!claimCandidate(candidate, ownerKey)) {
+      final String suffix = getNodeId(ownerKey) + '-' + digest(ownerKey);
+      candidate = insertSuffix(url, suffix);
+      // a digest collision as well, only the counter is order dependent
+      for (int attempt = 2; !claimCandidate(candidate, ownerKey); attempt++) {
+        candidate = insertSuffix(url, suffix + '-' + attempt);
+      }
+    }
+    _collisions.putIfAbsent(ownerKey, new Collision(url, owner, ownerKey, candidate));
+    Logging.logWarning("URL collision: '" + url + "' is used by '" + owner + "', '" + ownerKey + "' now uses '" + candidate + "'", LOGGER);
+    return remember(ownerKey, candidate);
+  }
+
+
+  private boolean claimCandidate(final String candidate, final String ownerKey) {
+    final String owner = _ownerByUrl.putIfAbsent(candidate, ownerKey);
+    return owner == null || owner.equals(ownerKey);
+  }
+
+
+  /**
+   * The node id of an owner key, {@code type:id:...}, unique within a project.
+   */
+  static String getNodeId(final String ownerKey) {
+    final int start = ownerKey.indexOf(':') + 1;
+    final int end = ownerKey.indexOf(':', start);
+    return end > start ? ownerKey.substring(start, end) : ownerKey.substring(start);
+  }
+
+
+  /**
+   * The first 32 bits of the SHA-256 digest of the owner key, in hex.
+   */
+  static String digest(final String ownerKey) {
+    try {
+      final byte[] digest = MessageDigest.getInstance("SHA-256").digest(ownerKey.getBytes(StandardCharsets.UTF_8));
+      final StringBuilder hex = new StringBuilder(8);
+      for (int i = 0; i < 4; i++) {
+        hex.append(Character.forDigit((digest[i] >> 4) & 0xF, 16)).append(Character.forDigit(digest[i] & 0xF, 16));
+      }
+      return hex.toString();
+    } catch (final NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+
+  private String remember(final String ownerKey, final String url) {
+    final String previous = _urlByOwner.putIfAbsent(ownerKey, url);
+    if (previous != null) {
+      return previous;
+    }
+    _size.incrementAndGet();
+    return url;
+  }
+
+
+  /**
+   * Insert the suffix in front of the extension of the last path segment, e.g. {@code /a/b.html} becomes
+   * {@code /a/b-suffix.html}.
+   */
+  static String insertSuffix(final String url, final String suffix) {
+    final int slash = url.lastIndexOf('/');
+    final int dot = url.lastIndexOf('.');
+    if (dot > slash) {
+      return url.substring(0, dot) + '-' + suffix + url.substring(dot);
+    }
+    return url + '-' + suffix;
+  }
+
+
+  /**
+   * @return The number of distinct owners that claimed a URL during this generation.
+   */
+  public int size() {
+    return _size.get();
+  }
+
+
+  /**
+   * @return All collisions detected so far, ordered by the originally requested URL.
+   */
+  @NotNull
+  public List<Collision> getCollisions() {
+    final List<Collision> result = new ArrayList<>(_collisions.values());
+    result.sort(Comparator.comparing(Collision::getUrl).thenComparing(Collision::getOwnerKey));
+    return Collections.unmodifiableList(result);
+  }
+
+
+  /**
+   * Log a summary of all collisions detected during this generation. Should be called once the generation has
+   * finished, e.g. from a schedule script action following the generate action.
+   *
+   * @return The collisions.
+   */
+  @NotNull
+  public List<Collision> reportCollisions() {
+    final List<Collision> collisions = getCollisions();
+    if (collisions.isEmpty()) {
+      Logging.logInfo("No URL collisions among " + size() + " generated URLs.", LOGGER);
+      return collisions;
+    }
+    final StringBuilder report = new StringBuilder(64 * (collisions.size() + 1));
+    report.append(collisions.size()).append(" URL collision(s) among ").append(size()).append(" generated URLs:");
+    for (final Collision collision : collisions) {
+      report.append("\n  ").append(collision);
+    }
+    Logging.logWarning(report.toString(), LOGGER);
+    return collisions;
+  }
+
+
+  /**
+   * A single detected collision.
+   */
+  public static final class Collision {
+
+    private final String _url;
+    private final String _firstOwnerKey;
+    private final String _ownerKey;
+    private final String _resolvedUrl;
+
+
+    Collision(final String url, final String firstOwnerKey, final String ownerKey, final String resolvedUrl) {
+      _url = url;
+      _firstOwnerKey = firstOwnerKey;
+      _ownerKey = ownerKey;
+      _resolvedUrl = resolvedUrl;
+    }
+
+
+    public String getUrl() {
+      return _url;
+    }
+
+
+    public String getFirstOwnerKey() {
+      return _firstOwnerKey;
+    }
+
+
+    public String getOwnerKey() {
+      return _ownerKey;
+    }
+
+
+    public String getResolvedUrl() {
+      return _resolvedUrl;
+    }
+
+
+    @Override
+    public String toString() {
+      return _url + " (" + _firstOwnerKey + ") <- " + _ownerKey + " => " + _resolvedUrl;
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package com.espirit.modules.to_be_renamed.urlfactory;
+
+import com.espirit.modules.to_be_renamed.urlfactory.To_be_renamedUrlFactory.WelcomeFileMode;
+import de.espirit.firstspirit.access.project.TemplateSet;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+
+/**
+ * Immutable, precomputed decision table telling for which template sets of a project the start node of a Site Store
+ * folder is named "index". Built once per project and generation by the {@link To_be_renamedUrlFactory}, so deciding
+ * about a welcome file is a single hash lookup instead of an iteration over all template sets of the project.
+ */
+final class To_be_renamedWelcomeFileTable {
+
+  private final WelcomeFileMode _mode;
+  private final Set<String> _welcomeFileTemplateSets;
+
+
+  private To_be_renamedWelcomeFileTable(final WelcomeFileMode mode, final Set<String> welcomeFileTemplateSets) {
+    _mode = mode;
+    _welcomeFileTemplateSets = welcomeFileTemplateSets;
+  }
+
+
+  /**
+   * Build the table for one project.
+   *
+   * @param mode The configured welcome file mode.
+   * @param channelsWithWelcomeFiles Template set uids, only used for {@link WelcomeFileMode#FOR_SELECTED_CHANNELS}.
+   * @param templateSets All template sets of the project, in project order.
+   * @return The decision table.
+   */
+  @NotNull
+  static To_be_renamedWelcomeFileTable create(@NotNull final WelcomeFileMode mode, @Nullable final Set<String> channelsWithWelcomeFiles,
+                                              @NotNull final Collection<? extends TemplateSet> templateSets) {
+    switch (mode) {
+      case FOR_FIRST_HTML_CHANNEL:
+        for (final TemplateSet set : templateSets) {
+          if ("html".equals(set.getExtension())) {
+            return new To_be_renamedWelcomeFileTable(mode, Collections.singleton(set.getUid()));
+          }
+        }
+        return new To_be_renamedWelcomeFileTable(mode, Collections.emptySet());
+      case FOR_SELECTED_CHANNELS:
+        // channelsWithWelcomeFiles must be initialized in this case
+        final Set<String> channels = requireNonNull(channelsWithWelcomeFiles, "ChannelsWithWelcomeFiles not initialized");
+        return new To_be_renamedWelcomeFileTable(mode, Collections.unmodifiableSet(new HashSet<>(channels)));
+      default:
+        return new To_be_renamedWelcomeFileTable(mode, Collections.emptySet());
+    }
+  }
+
+
+  /**
+   * @param templateSet The target template set.
+   * @return {@code true} if start nodes are named "index" for the provided template set.
+   */
+  boolean isWelcomeFile(@NotNull final TemplateSet templateSet) {
+    switch (_mode) {
+      case DISABLED:
+        return false;
+      case FOR_ALL_HTML_CHANNELS:
+        return true;
+      default:
+        return _welcomeFileTemplateSets.contains(templateSet.getUid());
+    }
+  }
+
+
+  WelcomeFileMode getMode() {
+    return _mode;
+  }
+}
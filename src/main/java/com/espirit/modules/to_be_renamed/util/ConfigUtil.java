@@ -0,0 +1,39 @@
+package com.espirit.modules.to_be_renamed.util;
+
+import com.espirit.ps.psci.genericconfiguration.Values;
+import de.espirit.common.base.Logging;
+import de.espirit.common.tools.Strings;
+
+public class ConfigUtil {
+
+    // validation of the numeric tuning values of the config panels: an empty or invalid value falls back to the
+    // default, a value out of range is clamped, so a typo in a config panel never stops a component
+
+    private static final Class<?> LOGGER = ConfigUtil.class;
+
+    public static long getLong(Values values, String key, long defaultValue, long min, long max) {
+
+        final String value = values != null ? values.getString(key) : null;
+        if (Strings.isEmpty(value)) {
+            return defaultValue;
+        }
+        final long parsed;
+        try {
+            parsed = Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            Logging.logWarning("Invalid value '" + value + "' of " + key + ", using " + defaultValue, LOGGER);
+            return defaultValue;
+        }
+        if (parsed < min || parsed > max) {
+            final long clamped = Math.max(min, Math.min(max, parsed));
+            Logging.logWarning("Value " + parsed + " of " + key + " is out of range [" + min + ", " + max + "], using " + clamped, LOGGER);
+            return clamped;
+        }
+        return parsed;
+    }
+
+    public static int getInt(Values values, String key, int defaultValue, int min, int max) {
+        return (int) getLong(values, key, defaultValue, min, max);
+    }
+
+}
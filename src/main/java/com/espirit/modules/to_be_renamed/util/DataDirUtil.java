@@ -0,0 +1,30 @@
+package com.espirit.modules.to_be_renamed.util;
+
+import de.espirit.common.tools.Strings;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class DataDirUtil {
+
+    // the directory of the files the module keeps across restarts, e.g. the write-behind journals, import checkpoints
+    // and the URL index: the system property to_be_renamed.dataDir, by default data/to_be_renamed below the working
+    // directory of the server; never the temporary directory, which many systems clean on restart
+
+    public static final String DATA_DIR_PROPERTY = "to_be_renamed.dataDir";
+
+    public static Path getModuleDir() {
+
+        final String directory = System.getProperty(DATA_DIR_PROPERTY);
+        if (!Strings.isEmpty(directory)) {
+            return Paths.get(directory);
+        }
+        return Paths.get(System.getProperty("user.dir"), "data", "to_be_renamed");
+    }
+
+    // the files of a project are kept apart, so a project can be removed or restored on its own
+    public static Path getProjectDir(long projectId) {
+        return getModuleDir().resolve("project-" + projectId);
+    }
+
+}
@@ -1,8 +1,13 @@
 package com.espirit.modules.to_be_renamed.util;
 
-import com.espirit.modules.to_be_renamed.project.To_be_renamedProjectApp;
-import com.espirit.modules.to_be_renamed.project.To_be_renamedProjectConfig;
+import com.espirit.modules.to_be_renamed.project.To_be_renamedProjectSettings;
+import de.espirit.common.base.Logging;
 import de.espirit.firstspirit.access.BaseContext;
+import de.espirit.firstspirit.agency.FormsAgent;
+import de.espirit.firstspirit.forms.Form;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class FormUtil {
 
@@ -11,44 +16,88 @@ public class FormUtil {
 
     private static final Class<?> LOGGER = FormUtil.class;
 
+    // the GOM source of the form, %1$s is replaced by the name of the DOM component, %2$s by the name of the text component
+    private static final String FORM_TEMPLATE = "<CMS_MODULE>"
+            + "<CMS_INPUT_DOM name=\"%1$s\" hFill=\"yes\" list=\"no\" bold=\"no\" italic=\"no\">"
+            + "<FORMATS>"
+            + "<TEMPLATE name=\"p\"/>"
+            + "</FORMATS>"
+            + "<LANGINFOS>"
+            + "<LANGINFO lang=\"*\" label=\"DOM-Text\"/>"
+            + "</LANGINFOS>"
+            + "<LINKEDITORS>"
+            + "<LINKEDITOR name=\"\"/>"
+            + "</LINKEDITORS>"
+            + "</CMS_INPUT_DOM>"
+            + "<CMS_INPUT_TEXT name=\"%2$s\" hFill=\"yes\">"
+            + "<LANGINFOS>"
+            + "<LANGINFO lang=\"*\" label=\"Simple-Text\"/>"
+            + "</LANGINFOS>"
+            + "</CMS_INPUT_TEXT>"
+            + "</CMS_MODULE>";
+
+    // parsed forms per project id, see getCachedTo_be_renamedForm; one entry per project, replaced when the form changes
+    private static final ConcurrentHashMap<Long, CachedForm> FORMS = new ConcurrentHashMap<>();
+
     public static String getTo_be_renamedForm(BaseContext context) {
 
         try {
 
-            final String domComponent = To_be_renamedProjectConfig.values(context, To_be_renamedProjectApp.class).getString(To_be_renamedProjectConfig.DOM_COMPONENT);
-            final String textComponent = To_be_renamedProjectConfig.values(context, To_be_renamedProjectApp.class).getString(To_be_renamedProjectConfig.TEXT_COMPONENT);
+            final To_be_renamedProjectSettings settings = To_be_renamedProjectSettings.get(context);
+            return getTo_be_renamedForm(settings.getDomComponent(), settings.getTextComponent());
 
-            final StringBuilder formBuilder = new StringBuilder();
+        } catch (Exception e) {
 
-            formBuilder.append("<CMS_MODULE>");
+            //do something, i.e. log error outputs
 
-            formBuilder.append("<CMS_INPUT_DOM name=\"" + domComponent +"\" hFill=\"yes\" list=\"no\" bold=\"no\" italic=\"no\">");
-            formBuilder.append("<FORMATS>");
-            formBuilder.append("<TEMPLATE name=\"p\"/>");
-            formBuilder.append("</FORMATS>");
-            formBuilder.append("<LANGINFOS>");
-            formBuilder.append("<LANGINFO lang=\"*\" label=\"DOM-Text\"/>");
-            formBuilder.append("</LANGINFOS>");
-            formBuilder.append("<LINKEDITORS>");
-            formBuilder.append("<LINKEDITOR name=\"\"/>");
-            formBuilder.append("</LINKEDITORS>");
-            formBuilder.append("</CMS_INPUT_DOM>");
+            return null;
+        }
+    }
 
-            formBuilder.append("<CMS_INPUT_TEXT name=\"" + textComponent + "\" hFill=\"yes\">");
-            formBuilder.append("<LANGINFOS>");
-            formBuilder.append("<LANGINFO lang=\"*\" label=\"Simple-Text\"/>");
-            formBuilder.append("</LANGINFOS>");
-            formBuilder.append("</CMS_INPUT_TEXT>");
+    public static String getTo_be_renamedForm(String domComponent, String textComponent) {
+        return String.format(FORM_TEMPLATE, domComponent, textComponent);
+    }
 
-            formBuilder.append("</CMS_MODULE>");
+    // get the parsed form of the context's project; it is built once per project and only rebuilt when the names of
+    // the form's components change, so parsing the GOM source is not part of every click. The cache is keyed by the
+    // project id and not by the context: a context is created per click, and the form only depends on the project's
+    // settings
+    public static Form getCachedTo_be_renamedForm(BaseContext context) {
 
-            return formBuilder.toString();
+        final To_be_renamedProjectSettings settings = To_be_renamedProjectSettings.get(context);
+        final CachedForm cached = FORMS.get(settings.getProjectId());
+        if (cached != null && cached.version == settings.getVersion()) {
+            return cached.form;
+        }
+        if (cached != null && cached.isFor(settings)) {
+            // another setting changed, the form is still valid
+            FORMS.put(settings.getProjectId(), new CachedForm(settings, cached.form));
+            return cached.form;
+        }
 
-        } catch (Exception e) {
+        Logging.logDebug("Building form of project " + settings.getProjectId() + " (settings version " + settings.getVersion() + ")", LOGGER);
+        final String gomSource = getTo_be_renamedForm(settings.getDomComponent(), settings.getTextComponent());
+        final Form form = context.requireSpecialist(FormsAgent.TYPE).getForm(gomSource);
+        FORMS.put(settings.getProjectId(), new CachedForm(settings, form));
+        return form;
+    }
 
-            //do something, i.e. log error outputs
+    private static final class CachedForm {
 
-            return null;
+        private final long version;
+        private final String domComponent;
+        private final String textComponent;
+        private final Form form;
+
+        private CachedForm(To_be_renamedProjectSettings settings, Form form) {
+            this.version = settings.getVersion();
+            this.domComponent = settings.getDomComponent();
+            this.textComponent = settings.getTextComponent();
+            this.form = form;
+        }
+
+        private boolean isFor(To_be_renamedProjectSettings settings) {
+            return Objects.equals(this.domComponent, settings.getDomComponent()) && Objects.equals(this.textComponent, settings.getTextComponent());
         }
     }
 
@@ -0,0 +1,262 @@
+package com.espirit.modules.to_be_renamed.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal JSON support for the module's HTTP endpoints, which run in web apps without a JSON library.
+ * {@link #parse(String)} returns {@link Map}, {@link List}, {@link String}, {@link Number} (a {@link Long} if
+ * integral, otherwise a {@link Double}), {@link Boolean} or {@code null}.
+ */
+public final class JsonUtil {
+
+    private static final Class<?> LOGGER = JsonUtil.class;
+
+    private final String text;
+    private int position;
+
+    private JsonUtil(String text) {
+        this.text = text;
+    }
+
+    /**
+     * Parses a JSON document.
+     *
+     * @param text the document
+     * @return the parsed value
+     * @throws IllegalArgumentException if the document is not valid JSON
+     */
+    public static Object parse(String text) {
+        final JsonUtil parser = new JsonUtil(text);
+        final Object value = parser.readValue();
+        parser.skipWhitespace();
+        if (parser.position != text.length()) {
+            throw parser.error("unexpected content");
+        }
+        return value;
+    }
+
+    /**
+     * Quotes and escapes a string.
+     *
+     * @param value the string
+     * @return the JSON string literal
+     */
+    public static String quote(String value) {
+        final StringBuilder result = new StringBuilder(value.length() + 2);
+        appendQuoted(result, value);
+        return result.toString();
+    }
+
+    /**
+     * Appends a quoted and escaped string.
+     *
+     * @param target the target
+     * @param value  the string
+     */
+    public static void appendQuoted(StringBuilder target, String value) {
+        target.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    target.append("\\\"");
+                    break;
+                case '\\':
+                    target.append("\\\\");
+                    break;
+                case '\n':
+                    target.append("\\n");
+                    break;
+                case '\r':
+                    target.append("\\r");
+                    break;
+                case '\t':
+                    target.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+                        target.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        target.append(c);
+                    }
+            }
+        }
+        target.append('"');
+    }
+
+    private Object readValue() {
+        skipWhitespace();
+        if (this.position >= this.text.length()) {
+            throw error("unexpected end");
+        }
+        final char c = this.text.charAt(this.position);
+        switch (c) {
+            case '{':
+                return readObject();
+            case '[':
+                return readArray();
+            case '"':
+                return readString();
+            case 't':
+                return readLiteral("true", Boolean.TRUE);
+            case 'f':
+                return readLiteral("false", Boolean.FALSE);
+            case 'n':
+                return readLiteral("null", null);
+            default:
+                return readNumber();
+        }
+    }
+
+    private Map<String, Object> readObject() {
+        final Map<String, Object> result = new LinkedHashMap<>();
+        this.position++;
+        skipWhitespace();
+        if (peek() == '}') {
+            this.position++;
+            return result;
+        }
+        while (true) {
+            skipWhitespace();
+            if (peek() != '"') {
+                throw error("expected a member name");
+            }
+            final String name = readString();
+            skipWhitespace();
+            expect(':');
+            result.put(name, readValue());
+            skipWhitespace();
+            if (peek() == ',') {
+                this.position++;
+            } else {
+                expect('}');
+                return result;
+            }
+        }
+    }
+
+    private List<Object> readArray() {
+        final List<Object> result = new ArrayList<>();
+        this.position++;
+        skipWhitespace();
+        if (peek() == ']') {
+            this.position++;
+            return result;
+        }
+        while (true) {
+            result.add(readValue());
+            skipWhitespace();
+            if (peek() == ',') {
+                this.position++;
+            } else {
+                expect(']');
+                return result;
+            }
+        }
+    }
+
+    private String readString() {
+        final StringBuilder result = new StringBuilder();
+        this.position++;
+        while (true) {
+            if (this.position >= this.text.length()) {
+                throw error("unterminated string");
+            }
+            final char c = this.text.charAt(this.position++);
+            if (c == '"') {
+                return result.toString();
+            }
+            if (c != '\\') {
+                result.append(c);
+                continue;
+            }
+            if (this.position >= this.text.length()) {
+                throw error("unterminated escape");
+            }
+            final char escaped = this.text.charAt(this.position++);
+            switch (escaped) {
+                case 'b':
+                    result.append('\b');
+                    break;
+                case 'f':
+                    result.append('\f');
+                    break;
+                case 'n':
+                    result.append('\n');
+                    break;
+                case 'r':
+                    result.append('\r');
+                    break;
+                case 't':
+                    result.append('\t');
+                    break;
+                case 'u':
+                    if (this.position + 4 > this.text.length()) {
+                        throw error("invalid unicode escape");
+                    }
+                    try {
+                        result.append((char) Integer.parseInt(this.text.substring(this.position, this.position + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("invalid unicode escape");
+                    }
+                    this.position += 4;
+                    break;
+                default:
+                    result.append(escaped);
+            }
+        }
+    }
+
+    private Object readLiteral(String literal, Object value) {
+        if (!this.text.startsWith(literal, this.position)) {
+            throw error("unexpected character");
+        }
+        this.position += literal.length();
+        return value;
+    }
+
+    private Number readNumber() {
+        final int start = this.position;
+        boolean integral = true;
+        while (this.position < this.text.length()) {
+            final char c = this.text.charAt(this.position);
+            if (c == '.' || c == 'e' || c == 'E') {
+                integral = false;
+            } else if (!(c == '-' || c == '+' || c >= '0' && c <= '9')) {
+                break;
+            }
+            this.position++;
+        }
+        final String number = this.text.substring(start, this.position);
+        try {
+            return integral ? (Number) Long.parseLong(number) : (Number) Double.parseDouble(number);
+        } catch (NumberFormatException e) {
+            this.position = start;
+            throw error("invalid number");
+        }
+    }
+
+    private void skipWhitespace() {
+        while (this.position < this.text.length() && Character.isWhitespace(this.text.charAt(this.position))) {
+            this.position++;
+        }
+    }
+
+    private char peek() {
+        return this.position < this.text.length() ? this.text.charAt(this.position) : 0;
+    }
+
+    private void expect(char c) {
+        if (peek() != c) {
+            throw error("expected '" + c + "'");
+        }
+        this.position++;
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("Invalid JSON at position " + this.position + ": " + message);
+    }
+}
@@ -0,0 +1,79 @@
+package com.espirit.modules.to_be_renamed.util;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Utility class to read and write unsigned variable length integers (7 bits per byte, most significant bit set on
+ * all but the last byte). Small values, which are the common case for counts and table indices, take a single byte.
+ */
+public class VarInts {
+
+	private VarInts() {
+		throw new IllegalStateException("Utility class");
+	}
+
+	/**
+	 * Writes a non-negative int.
+	 *
+	 * @param out   the output
+	 * @param value the value, must not be negative
+	 * @throws IOException if writing fails
+	 */
+	public static void writeInt(final DataOutput out, final int value) throws IOException {
+		writeLong(out, value);
+	}
+
+	/**
+	 * Writes a non-negative long.
+	 *
+	 * @param out   the output
+	 * @param value the value, must not be negative
+	 * @throws IOException if writing fails
+	 */
+	public static void writeLong(final DataOutput out, long value) throws IOException {
+		if (value < 0) {
+			throw new IllegalArgumentException("negative value: " + value);
+		}
+		while ((value & ~0x7FL) != 0) {
+			out.writeByte((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.writeByte((int) value);
+	}
+
+	/**
+	 * Reads an int written by {@link #writeInt(DataOutput, int)}.
+	 *
+	 * @param in the input
+	 * @return the value
+	 * @throws IOException if reading fails or the value is malformed
+	 */
+	public static int readInt(final DataInput in) throws IOException {
+		final long value = readLong(in);
+		if (value > Integer.MAX_VALUE) {
+			throw new IOException("varint out of int range: " + value);
+		}
+		return (int) value;
+	}
+
+	/**
+	 * Reads a long written by {@link #writeLong(DataOutput, long)}.
+	 *
+	 * @param in the input
+	 * @return the value
+	 * @throws IOException if reading fails or the value is malformed
+	 */
+	public static long readLong(final DataInput in) throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			final int b = in.readUnsignedByte();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("malformed varint");
+	}
+}
@@ -0,0 +1,92 @@
+package com.espirit.modules.to_be_renamed.web;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Serves the module's static web assets from memory, see {@link To_be_renamedAssets}.
+ * <p>
+ * Content hashed URLs never change their content, so they are cached by browsers for a year without revalidation
+ * ({@code Cache-Control: immutable}); repeat editor sessions do not request them at all. Plain URLs are revalidated on
+ * every use. Both carry an ETag and are answered with 304 if it matches {@code If-None-Match}. Clients that accept
+ * gzip get the variant compressed at build time, if there is one.
+ */
+public class To_be_renamedAssetServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    static final String REVALIDATE = "no-cache";
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        final String path = request.getPathInfo() != null ? request.getPathInfo().substring(1) : "";
+        final To_be_renamedAssets.Asset asset = To_be_renamedAssets.find(path);
+        if (asset == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        final boolean gzip = asset.gzipped != null && acceptsGzip(request);
+        // the variants are different representations, so they need different strong ETags
+        final String etag = '"' + asset.hash + (gzip ? "-gz" : "") + '"';
+
+        response.setHeader("Cache-Control", path.equals(asset.path) ? REVALIDATE : IMMUTABLE);
+        response.setHeader("ETag", etag);
+        if (asset.gzipped != null) {
+            response.setHeader("Vary", "Accept-Encoding");
+        }
+        if (matches(request.getHeader("If-None-Match"), asset.hash)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        final String contentType = getServletContext().getMimeType(asset.path);
+        response.setContentType(contentType != null ? contentType : "application/octet-stream");
+        final byte[] body = gzip ? asset.gzipped : asset.content;
+        if (gzip) {
+            response.setHeader("Content-Encoding", "gzip");
+        }
+        response.setContentLength(body.length);
+        try (OutputStream out = response.getOutputStream()) {
+            out.write(body);
+        }
+    }
+
+    static boolean acceptsGzip(HttpServletRequest request) {
+        final String acceptEncoding = request.getHeader("Accept-Encoding");
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            final String[] parts = coding.trim().split(";");
+            if ("gzip".equalsIgnoreCase(parts[0].trim())) {
+                return parts.length < 2 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    // weak comparison: either variant's ETag, with or without W/, or * matches
+    static boolean matches(String ifNoneMatch, String hash) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            String value = tag.trim();
+            if (value.equals("*")) {
+                return true;
+            }
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals('"' + hash + '"') || value.equals('"' + hash + "-gz\"")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,140 @@
+package com.espirit.modules.to_be_renamed.web;
+
+import de.espirit.common.base.Logging;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * The module's static web assets with content hashed URLs, served by {@link To_be_renamedAssetServlet}.
+ * <p>
+ * The build task {@code precompressWebAssets} copies the web resources next to this class into {@code assets/},
+ * adds gzip variants of compressible files and writes {@code assets/manifest.properties}, which maps the path of each
+ * asset to its path with the content hash, e.g. {@code icons/icon.png=icons/icon.3f2a1b9c0d12.png}. All assets are
+ * read into memory on first use.
+ * <p>
+ * Without the manifest, e.g. when the classes are run from an IDE, {@link #url(String)} returns the plain path
+ * served by the web app's {@code WebResource}.
+ */
+public final class To_be_renamedAssets {
+
+    private static final Class<?> LOGGER = To_be_renamedAssets.class;
+
+    static final String SERVLET_PATH = "assets/";
+    private static final String MANIFEST = "assets/manifest.properties";
+
+    // by hashed and by plain path
+    private final Map<String, Asset> assets;
+    private final Map<String, String> urls;
+
+    private To_be_renamedAssets(Map<String, Asset> assets, Map<String, String> urls) {
+        this.assets = assets;
+        this.urls = urls;
+    }
+
+    private static final class Holder {
+        private static final To_be_renamedAssets INSTANCE = load();
+    }
+
+    /**
+     * Gets the URL of an asset, relative to the root of the web app.
+     *
+     * @param path the path of the asset, e.g. {@code icons/icon.png}
+     * @return the content hashed URL, or the path if the asset is not in the manifest
+     */
+    public static String url(String path) {
+        final String url = Holder.INSTANCE.urls.get(path);
+        return url != null ? url : path;
+    }
+
+    /**
+     * Gets an asset by the path the servlet was requested with.
+     *
+     * @param path the hashed or plain path
+     * @return the asset or {@code null} if it does not exist
+     */
+    static Asset find(String path) {
+        return Holder.INSTANCE.assets.get(path);
+    }
+
+    private static To_be_renamedAssets load() {
+        final Properties manifest = new Properties();
+        try (InputStream in = To_be_renamedAssets.class.getResourceAsStream(MANIFEST)) {
+            if (in == null) {
+                Logging.logInfo("No asset manifest found, serving assets without content hashes.", LOGGER);
+                return new To_be_renamedAssets(Collections.emptyMap(), Collections.emptyMap());
+            }
+            manifest.load(in);
+        } catch (IOException e) {
+            Logging.logWarning("Could not read the asset manifest.", e, LOGGER);
+            return new To_be_renamedAssets(Collections.emptyMap(), Collections.emptyMap());
+        }
+
+        final Map<String, Asset> assets = new HashMap<>();
+        final Map<String, String> urls = new HashMap<>();
+        for (String path : manifest.stringPropertyNames()) {
+            final String hashedPath = manifest.getProperty(path);
+            try {
+                final byte[] content = read("assets/" + path);
+                if (content == null) {
+                    Logging.logWarning("Asset " + path + " is missing.", LOGGER);
+                    continue;
+                }
+                final byte[] gzipped = read("assets/" + path + ".gz");
+                final Asset asset = new Asset(path, hash(path, hashedPath), content, gzipped);
+                assets.put(path, asset);
+                assets.put(hashedPath, asset);
+                urls.put(path, SERVLET_PATH + hashedPath);
+            } catch (IOException e) {
+                Logging.logWarning("Could not read asset " + path, e, LOGGER);
+            }
+        }
+        Logging.logInfo("Loaded " + urls.size() + " web assets.", LOGGER);
+        return new To_be_renamedAssets(Collections.unmodifiableMap(assets), Collections.unmodifiableMap(urls));
+    }
+
+    // icons/icon.3f2a1b9c0d12.png -> 3f2a1b9c0d12
+    private static String hash(String path, String hashedPath) {
+        final int start = path.lastIndexOf('.') > path.lastIndexOf('/') ? path.lastIndexOf('.') : path.length();
+        return hashedPath.substring(start + 1, hashedPath.length() - (path.length() - start));
+    }
+
+    private static byte[] read(String resource) throws IOException {
+        try (InputStream in = To_be_renamedAssets.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                return null;
+            }
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * An asset held in memory.
+     */
+    static final class Asset {
+
+        final String path;
+        final String hash;
+        final byte[] content;
+        // null if the build did not compress the asset, e.g. because it is an image
+        final byte[] gzipped;
+
+        Asset(String path, String hash, byte[] content, byte[] gzipped) {
+            this.path = path;
+            this.hash = hash;
+            this.content = content;
+            this.gzipped = gzipped;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.espirit.modules.to_be_renamed.web;
+
+import com.espirit.modules.to_be_renamed.metrics.To_be_renamedMetrics;
+import de.espirit.common.base.Logging;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects change notifications per project and hands them to a {@link Sink} once per window, with duplicates
+ * removed. A burst of notifications for the same objects therefore costs one invalidation per object and window.
+ * Failed hand-overs are retried in the next window; since invalidation is idempotent, retries are harmless.
+ */
+public class To_be_renamedChangeCoalescer implements AutoCloseable {
+
+    private static final Class<?> LOGGER = To_be_renamedChangeCoalescer.class;
+
+    private final Sink sink;
+    private final int maxBatchSize;
+    private final int maxPending;
+    private final ConcurrentHashMap<Long, Set<String>> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final ScheduledExecutorService scheduler;
+
+    private final LongAdder received = To_be_renamedMetrics.getInstance().counter("webhook.notifications");
+    private final LongAdder duplicates = To_be_renamedMetrics.getInstance().counter("webhook.duplicates");
+    private final LongAdder failures = To_be_renamedMetrics.getInstance().counter("webhook.failures");
+
+    /**
+     * Instantiates a new coalescer and starts its flush thread.
+     *
+     * @param sink         receives the coalesced changes
+     * @param windowMillis the time between two flushes
+     * @param maxBatchSize the maximum number of identifiers per call of the sink
+     * @param maxPending   the maximum number of pending identifiers, further notifications are rejected
+     */
+    public To_be_renamedChangeCoalescer(Sink sink, long windowMillis, int maxBatchSize, int maxPending) {
+        this.sink = sink;
+        this.maxBatchSize = maxBatchSize;
+        this.maxPending = maxPending;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "To_be_renamedChangeCoalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.scheduleWithFixedDelay(this::flush, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+        To_be_renamedMetrics.getInstance().gauge("webhook.pending", this.pendingCount::get);
+    }
+
+    /**
+     * Adds changed identifiers of a project.
+     *
+     * @param projectId   the project id
+     * @param identifiers the identifiers
+     * @return {@code false} if the notifications were rejected because too many are pending
+     */
+    public boolean add(long projectId, Collection<String> identifiers) {
+        if (this.pendingCount.get() + identifiers.size() > this.maxPending) {
+            return false;
+        }
+        this.received.add(identifiers.size());
+        this.pending.compute(projectId, (id, set) -> {
+            final Set<String> result = set != null ? set : new HashSet<>();
+            final int before = result.size();
+            result.addAll(identifiers);
+            final int added = result.size() - before;
+            this.pendingCount.addAndGet(added);
+            this.duplicates.add(identifiers.size() - added);
+            return result;
+        });
+        return true;
+    }
+
+    /**
+     * Gets the number of identifiers waiting for the next flush.
+     *
+     * @return the number of pending identifiers
+     */
+    public int getPendingCount() {
+        return this.pendingCount.get();
+    }
+
+    /**
+     * Hands all pending changes to the sink.
+     */
+    void flush() {
+        for (Long projectId : this.pending.keySet()) {
+            // remove is atomic with respect to compute in add, so no notification is lost
+            final Set<String> identifiers = this.pending.remove(projectId);
+            if (identifiers == null) {
+                continue;
+            }
+            this.pendingCount.addAndGet(-identifiers.size());
+            final List<String> all = new ArrayList<>(identifiers);
+            for (int i = 0; i < all.size(); i += this.maxBatchSize) {
+                final List<String> batch = all.subList(i, Math.min(i + this.maxBatchSize, all.size()));
+                try {
+                    this.sink.invalidate(projectId, batch);
+                } catch (Exception e) {
+                    this.failures.increment();
+                    Logging.logWarning("Could not apply " + batch.size() + " change notifications of project " + projectId + ", retrying.", e, LOGGER);
+                    retry(projectId, all.subList(i, all.size()));
+                    break;
+                }
+            }
+        }
+    }
+
+    private void retry(long projectId, Collection<String> identifiers) {
+        this.pending.compute(projectId, (id, set) -> {
+            final Set<String> result = set != null ? set : new HashSet<>();
+            final int before = result.size();
+            result.addAll(identifiers);
+            this.pendingCount.addAndGet(result.size() - before);
+            return result;
+        });
+    }
+
+    /**
+     * Stops the flush thread after a last flush.
+     */
+    @Override
+    public void close() {
+        this.scheduler.shutdown();
+        try {
+            this.scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        To_be_renamedMetrics.getInstance().removeGauge("webhook.pending");
+    }
+
+    /**
+     * Receives coalesced changes.
+     */
+    public interface Sink {
+
+        void invalidate(long projectId, Collection<String> identifiers) throws Exception;
+    }
+}
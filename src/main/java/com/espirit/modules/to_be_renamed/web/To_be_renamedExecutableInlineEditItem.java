@@ -1,5 +1,16 @@
 package com.espirit.modules.to_be_renamed.web;
 
+import com.espirit.modules.to_be_renamed.job.To_be_renamedJobStatus;
+import com.espirit.modules.to_be_renamed.service.To_be_renamedProjectToken;
+import com.espirit.modules.to_be_renamed.service.To_be_renamedService;
+import com.espirit.modules.to_be_renamed.service.To_be_renamedServiceAccess;
+import com.espirit.modules.to_be_renamed.util.ResourceHandler;
+import de.espirit.common.base.Logging;
+import de.espirit.firstspirit.access.Language;
+import de.espirit.firstspirit.access.store.IDProvider;
+import de.espirit.firstspirit.access.store.pagestore.Section;
+import de.espirit.firstspirit.agency.LanguageAgent;
+import de.espirit.firstspirit.webedit.WebeditUiAgent;
 import de.espirit.firstspirit.webedit.plugin.inlineedit.ExecutableInlineEditItem;
 import de.espirit.firstspirit.webedit.plugin.inlineedit.InlineEditContext;
 
@@ -8,14 +19,40 @@ public class To_be_renamedExecutableInlineEditItem implements ExecutableInlineEd
     // a button that shows up inside the inline edit action menu of an element inside the ContentCreator
     // can be used to trigger something
 
+    // here it refreshes all references to the third party system in a section and its child sections: the refresh is
+    // a job of the module's service (see To_be_renamedService#refreshSectionJob), which runs it in the background with
+    // a broker of the project, so the editor can go on working; the label shows the progress and the result of the
+    // last refresh of the section
+
+    private static final Class<?> LOGGER = To_be_renamedExecutableInlineEditItem.class;
+
+    private static final String BUNDLE_NAME = "to_be_renamed";
+
     To_be_renamedExecutableInlineEditItem() {}
 
     public String getLabel(final InlineEditContext context) {
-        return "To_be_renamed";
+
+        final ResourceHandler resourceHandler = ResourceHandler.load(BUNDLE_NAME, getDisplayLanguage(context).getLocale());
+
+        final To_be_renamedJobStatus status = getLatestRefresh(context);
+        if (status != null) {
+            switch (status.getState()) {
+                case QUEUED:
+                case RUNNING:
+                    return resourceHandler.getString("inlineEdit.to_be_renamed.refreshing", status.getTotal());
+                case DONE:
+                    return resourceHandler.getString("inlineEdit.to_be_renamed.refreshed", status.getDone(), status.getTotal() - status.getDone());
+                case FAILED:
+                    return resourceHandler.getString("inlineEdit.to_be_renamed.failed", status.getMessage());
+                default:
+                    break;
+            }
+        }
+        return resourceHandler.getString("inlineEdit.to_be_renamed.refresh");
     }
 
     public String getIconPath(final InlineEditContext context) {
-        return "icons/icon.png";
+        return To_be_renamedAssets.url("icons/icon.png");
     }
 
     public boolean isVisible(final InlineEditContext context) {
@@ -23,20 +60,68 @@ public class To_be_renamedExecutableInlineEditItem implements ExecutableInlineEd
         // some logic to decide if the button should be shown can be implemented here
         // e.g. check if the current element is a section of some kind
 
-        return true;
+        return context.getElement() instanceof Section;
     }
 
     public boolean isEnabled(final InlineEditContext context) {
 
         // some logic to decide if the button should be enabled can be implemented here
 
-        return true;
+        final To_be_renamedJobStatus status = getLatestRefresh(context);
+        return status == null || status.getState().isFinished();
     }
 
     public void execute(final InlineEditContext context) {
 
         // do something
 
+        final IDProvider element = context.getElement();
+        if (!(element instanceof Section)) {
+            return;
+        }
+        final To_be_renamedService service = To_be_renamedServiceAccess.getService(context);
+        final To_be_renamedProjectToken project = To_be_renamedServiceAccess.getProject(context);
+        if (service == null || project == null) {
+            Logging.logWarning("Could not start the refresh of section " + element.getId() + ": the service is not available", LOGGER);
+            return;
+        }
+        try {
+            // the service runs one refresh per section of a project at a time, a second click returns the running one
+            service.submitJob(project, jobType(context, element));
+        } catch (RuntimeException e) {
+            Logging.logWarning("Could not start the refresh of section " + element.getId() + ": " + e.getMessage(), LOGGER);
+        }
+    }
+
+    // the status of the last refresh of the element, null if there is none or the service is not available
+    private static To_be_renamedJobStatus getLatestRefresh(InlineEditContext context) {
+        final IDProvider element = context.getElement();
+        if (!(element instanceof Section)) {
+            return null;
+        }
+        final To_be_renamedService service = To_be_renamedServiceAccess.getService(context);
+        final To_be_renamedProjectToken project = To_be_renamedServiceAccess.getProject(context);
+        if (service == null || project == null) {
+            return null;
+        }
+        try {
+            return service.getLatestJob(project, jobType(context, element));
+        } catch (RuntimeException e) {
+            Logging.logDebug("Could not get the refresh of section " + element.getId() + ": " + e.getMessage(), LOGGER);
+            return null;
+        }
+    }
+
+    private static String jobType(InlineEditContext context, IDProvider element) {
+        return To_be_renamedService.refreshSectionJob(element.getId(), context.getLanguage().getAbbreviation());
+    }
+
+    private static Language getDisplayLanguage(InlineEditContext context) {
+        final WebeditUiAgent webEditUiAgent = context.requestSpecialist(WebeditUiAgent.TYPE);
+        if (webEditUiAgent != null) {
+            return webEditUiAgent.getDisplayLanguage();
+        }
+        return context.requireSpecialist(LanguageAgent.TYPE).getMasterLanguage();
     }
 
-}
\ No newline at end of file
+}
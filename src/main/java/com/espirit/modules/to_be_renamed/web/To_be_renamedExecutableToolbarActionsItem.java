@@ -1,6 +1,11 @@
 package com.espirit.modules.to_be_renamed.web;
 
+import com.espirit.modules.to_be_renamed.job.To_be_renamedJobStatus;
+import com.espirit.modules.to_be_renamed.service.To_be_renamedProjectToken;
+import com.espirit.modules.to_be_renamed.service.To_be_renamedService;
+import com.espirit.modules.to_be_renamed.service.To_be_renamedServiceAccess;
 import com.espirit.modules.to_be_renamed.util.ResourceHandler;
+import de.espirit.common.base.Logging;
 import de.espirit.firstspirit.access.Language;
 import de.espirit.firstspirit.agency.LanguageAgent;
 import de.espirit.firstspirit.client.plugin.toolbar.ToolbarContext;
@@ -9,12 +14,19 @@ import de.espirit.firstspirit.webedit.plugin.toolbar.ExecutableToolbarActionsIte
 
 public class To_be_renamedExecutableToolbarActionsItem implements ExecutableToolbarActionsItem {
 
+    private static final Class<?> LOGGER = To_be_renamedExecutableToolbarActionsItem.class;
+
     private final String BUNDLE_NAME = "to_be_renamed";
     private final String ICON_PATH = "icons/icon.png";
 
     // a button that shows up inside the toolbar action menu of the ContentCreator
     // can be used to trigger something
 
+    // the action runs as a job of the service (see To_be_renamedService#submitJob), so execute returns at once;
+    // the label is read whenever the menu is opened and shows the progress of the running job; clicking the button
+    // while the job is active only returns that job, it is cancelled with To_be_renamedExecutableToolbarCancelItem
+    static final String JOB_TYPE = To_be_renamedService.JOB_SYNC;
+
     @Override
     public String getLabel(ToolbarContext toolbarContext) {
 
@@ -32,13 +44,32 @@ public class To_be_renamedExecutableToolbarActionsItem implements ExecutableTool
 
         String returnValue = resourceHandler.getString("toolbar.to_be_renamed.action");
 
+        final To_be_renamedJobStatus status = getLatestJob(toolbarContext);
+        if (status != null) {
+            switch (status.getState()) {
+                case QUEUED:
+                    returnValue = resourceHandler.getString("toolbar.to_be_renamed.jobQueued");
+                    break;
+                case RUNNING:
+                    returnValue = status.getPercent() >= 0
+                            ? resourceHandler.getString("toolbar.to_be_renamed.jobRunning", status.getPercent())
+                            : resourceHandler.getString("toolbar.to_be_renamed.jobStarted");
+                    break;
+                case FAILED:
+                    returnValue = resourceHandler.getString("toolbar.to_be_renamed.jobFailed", returnValue, status.getMessage());
+                    break;
+                default:
+                    break;
+            }
+        }
+
 
         return returnValue;
     }
 
     @Override
     public String getIconPath(ToolbarContext toolbarContext) {
-        return ICON_PATH;
+        return To_be_renamedAssets.url(ICON_PATH);
     }
 
     @Override
@@ -63,5 +94,35 @@ public class To_be_renamedExecutableToolbarActionsItem implements ExecutableTool
 
         // do something
 
+        final To_be_renamedService service = To_be_renamedServiceAccess.getService(toolbarContext);
+        if (service == null) {
+            Logging.logWarning("Service is not running, cannot start the action.", LOGGER);
+            return;
+        }
+        final To_be_renamedProjectToken project = To_be_renamedServiceAccess.getProject(toolbarContext);
+        if (project == null) {
+            return;
+        }
+        try {
+            // the service runs one job per type and project, so a second click or another editor does not start it twice
+            service.submitJob(project, JOB_TYPE);
+        } catch (RuntimeException e) {
+            Logging.logError("Could not start the action.", e, LOGGER);
+        }
+    }
+
+    // the last job of the project, null if there is none or the service is not running
+    static To_be_renamedJobStatus getLatestJob(ToolbarContext toolbarContext) {
+        final To_be_renamedService service = To_be_renamedServiceAccess.getService(toolbarContext);
+        final To_be_renamedProjectToken project = To_be_renamedServiceAccess.getProject(toolbarContext);
+        if (service == null || project == null) {
+            return null;
+        }
+        try {
+            return service.getLatestJob(project, JOB_TYPE);
+        } catch (RuntimeException e) {
+            Logging.logWarning("Could not get the status of the action.", e, LOGGER);
+            return null;
+        }
     }
 }
\ No newline at end of file
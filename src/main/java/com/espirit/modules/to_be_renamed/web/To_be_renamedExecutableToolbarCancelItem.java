@@ -0,0 +1,67 @@
+package com.espirit.modules.to_be_renamed.web;
+
+import com.espirit.modules.to_be_renamed.job.To_be_renamedJobStatus;
+import com.espirit.modules.to_be_renamed.service.To_be_renamedProjectToken;
+import com.espirit.modules.to_be_renamed.service.To_be_renamedService;
+import com.espirit.modules.to_be_renamed.service.To_be_renamedServiceAccess;
+import com.espirit.modules.to_be_renamed.util.ResourceHandler;
+import de.espirit.common.base.Logging;
+import de.espirit.firstspirit.access.Language;
+import de.espirit.firstspirit.agency.LanguageAgent;
+import de.espirit.firstspirit.client.plugin.toolbar.ToolbarContext;
+import de.espirit.firstspirit.webedit.WebeditUiAgent;
+import de.espirit.firstspirit.webedit.plugin.toolbar.ExecutableToolbarActionsItem;
+
+public class To_be_renamedExecutableToolbarCancelItem implements ExecutableToolbarActionsItem {
+
+    private static final Class<?> LOGGER = To_be_renamedExecutableToolbarCancelItem.class;
+
+    private final String BUNDLE_NAME = "to_be_renamed";
+    private final String ICON_PATH = "icons/icon.png";
+
+    // a button next to To_be_renamedExecutableToolbarActionsItem that cancels its job; it is only shown while the job
+    // is queued or running, so a job is never cancelled by clicking the button that started it
+
+    @Override
+    public String getLabel(ToolbarContext toolbarContext) {
+
+        final LanguageAgent languageAgent = toolbarContext.requireSpecialist(LanguageAgent.TYPE);
+        final WebeditUiAgent webEditUiAgent = toolbarContext.requestSpecialist(WebeditUiAgent.TYPE);
+        Language displayLanguage = languageAgent.getMasterLanguage();
+        if (webEditUiAgent != null) {
+            displayLanguage = webEditUiAgent.getDisplayLanguage();
+        }
+        return ResourceHandler.load(BUNDLE_NAME, displayLanguage.getLocale()).getString("toolbar.to_be_renamed.cancel");
+    }
+
+    @Override
+    public String getIconPath(ToolbarContext toolbarContext) {
+        return To_be_renamedAssets.url(ICON_PATH);
+    }
+
+    @Override
+    public boolean isVisible(ToolbarContext toolbarContext) {
+        final To_be_renamedJobStatus status = To_be_renamedExecutableToolbarActionsItem.getLatestJob(toolbarContext);
+        return status != null && !status.getState().isFinished();
+    }
+
+    @Override
+    public boolean isEnabled(ToolbarContext toolbarContext) {
+        return true;
+    }
+
+    @Override
+    public void execute(ToolbarContext toolbarContext) {
+        final To_be_renamedService service = To_be_renamedServiceAccess.getService(toolbarContext);
+        final To_be_renamedProjectToken project = To_be_renamedServiceAccess.getProject(toolbarContext);
+        final To_be_renamedJobStatus status = To_be_renamedExecutableToolbarActionsItem.getLatestJob(toolbarContext);
+        if (service == null || project == null || status == null || status.getState().isFinished()) {
+            return;
+        }
+        try {
+            service.cancelJob(project, status.getId());
+        } catch (RuntimeException e) {
+            Logging.logError("Could not cancel the action.", e, LOGGER);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.espirit.modules.to_be_renamed.web;
+
+import com.espirit.modules.to_be_renamed.metrics.To_be_renamedMetrics;
+import com.espirit.modules.to_be_renamed.metrics.To_be_renamedMetricsSnapshot;
+import de.espirit.common.base.Logging;
+import de.espirit.common.tools.Strings;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Serves the module's metrics for monitoring, see {@link To_be_renamedMetrics}.
+ * The Prometheus text format is the default; {@code ?format=json} or an {@code Accept: application/json} header
+ * selects JSON. The metrics of the service are read through JMX, because the web app has its own class loader,
+ * and combined with the metrics recorded inside the web app.
+ * <p>
+ * Init parameter: {@code token}, required as {@code Authorization: Bearer <token>}, e.g. the {@code bearer_token} of a
+ * Prometheus scrape config. The metrics cover all projects, so without a token the servlet is disabled and responds
+ * with 503.
+ */
+public class To_be_renamedMetricsServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Class<?> LOGGER = To_be_renamedMetricsServlet.class;
+
+    static final String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    static final String JSON_CONTENT_TYPE = "application/json; charset=utf-8";
+
+    private byte[] token;
+
+    @Override
+    public void init() throws ServletException {
+        final String token = getInitParameter("token");
+        this.token = Strings.isEmpty(token) ? null : token.getBytes(StandardCharsets.UTF_8);
+        if (this.token == null) {
+            Logging.logError("No token configured, the metrics are disabled. Set the init parameter 'token' in web.xml", LOGGER);
+        }
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (this.token == null) {
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Metrics are disabled, no token configured");
+            return;
+        }
+        if (!isAuthorized(request)) {
+            response.setHeader("WWW-Authenticate", "Bearer");
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+        final To_be_renamedMetricsSnapshot snapshot = snapshot();
+
+        response.setHeader("Cache-Control", "no-store");
+        response.setCharacterEncoding("UTF-8");
+        if (isJson(request)) {
+            response.setContentType(JSON_CONTENT_TYPE);
+            try (Writer writer = response.getWriter()) {
+                snapshot.writeJson(writer);
+            }
+        } else {
+            response.setContentType(PROMETHEUS_CONTENT_TYPE);
+            try (Writer writer = response.getWriter()) {
+                snapshot.writePrometheus(writer);
+            }
+        }
+    }
+
+    private boolean isAuthorized(HttpServletRequest request) {
+        final String provided = To_be_renamedRestServlet.getBearerToken(request);
+        return provided != null && MessageDigest.isEqual(this.token, provided.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static boolean isJson(HttpServletRequest request) {
+        final String format = request.getParameter("format");
+        if (format != null) {
+            return "json".equalsIgnoreCase(format);
+        }
+        final String accept = request.getHeader("Accept");
+        return accept != null && accept.contains("application/json");
+    }
+
+    private static To_be_renamedMetricsSnapshot snapshot() {
+        final To_be_renamedMetricsSnapshot local = To_be_renamedMetricsSnapshot.of(To_be_renamedMetrics.getInstance());
+        try {
+            final To_be_renamedMetricsSnapshot service = To_be_renamedMetricsSnapshot.of(ManagementFactory.getPlatformMBeanServer());
+            return service != null ? service.merge(local) : local;
+        } catch (Exception e) {
+            Logging.logWarning("Could not read the service metrics through JMX.", e, LOGGER);
+            return local;
+        }
+    }
+}
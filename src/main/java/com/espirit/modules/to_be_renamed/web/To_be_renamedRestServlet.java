@@ -0,0 +1,398 @@
+package com.espirit.modules.to_be_renamed.web;
+
+import com.espirit.modules.to_be_renamed.cache.To_be_renamedCache;
+import com.espirit.modules.to_be_renamed.metrics.To_be_renamedHistogram;
+import com.espirit.modules.to_be_renamed.metrics.To_be_renamedMetrics;
+import com.espirit.modules.to_be_renamed.service.To_be_renamedServiceControl;
+import com.espirit.modules.to_be_renamed.util.JsonUtil;
+import de.espirit.common.base.Logging;
+import de.espirit.common.tools.Strings;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Read-only REST facade of the external data for the Content Creator and preview widgets, backed by the service's
+ * shared cache, so browser side features do not add traffic to the third party API.
+ * <ul>
+ * <li>{@code GET <web app>/api/projects/{projectId}/objects?filter=&offset=0&limit=50&fields=var} returns
+ * {@code {"offset":0,"limit":50,"total":123,"items":[{"var":"..."}]}}</li>
+ * <li>{@code GET <web app>/api/projects/{projectId}/objects/{id}} returns a single object or 404</li>
+ * </ul>
+ * Every request has to carry the API token of the project in the header {@code Authorization: Bearer <token>}, see
+ * {@code To_be_renamedService#getApiToken}; it is checked by the service before any cached response is served, so a
+ * client only reads the project it holds the token of. Requests without a token are answered with 401,
+ * requests with the token of another project or of an unknown project with 403.
+ * Rendered responses are cached for {@code maxAgeSeconds}, identical requests arriving while a response is rendered
+ * wait for that one instead of calling the service again, and all pages of a filter share one call. Responses carry
+ * an ETag of their content and are answered with 304 if it matches {@code If-None-Match}; large responses are
+ * gzipped for clients that accept it.
+ * <p>
+ * Init parameters: {@code maxAgeSeconds} (default 5), {@code cacheSize} (default 10000 responses),
+ * {@code maxLimit} (default 1000).
+ */
+public class To_be_renamedRestServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Class<?> LOGGER = To_be_renamedRestServlet.class;
+
+    static final String JSON_CONTENT_TYPE = "application/json; charset=utf-8";
+    private static final String BEARER = "Bearer ";
+    private static final int DEFAULT_LIMIT = 50;
+    private static final int GZIP_MIN_BYTES = 1024;
+    private static final long LOAD_TIMEOUT_SECONDS = 30;
+
+    private static final To_be_renamedHistogram REQUESTS = To_be_renamedMetrics.getInstance().histogram(To_be_renamedMetrics.REST_REQUEST);
+
+    private final transient Source source;
+    private transient To_be_renamedCache<String, List<Map<String, String>>> lists;
+    private transient To_be_renamedCache<String, Response> responses;
+    private final transient ConcurrentHashMap<String, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+    private long maxAgeSeconds;
+    private int maxLimit;
+
+    public To_be_renamedRestServlet() {
+        this(new JmxSource());
+    }
+
+    To_be_renamedRestServlet(Source source) {
+        this.source = source;
+    }
+
+    @Override
+    public void init() throws ServletException {
+        this.maxAgeSeconds = getLong("maxAgeSeconds", 5);
+        this.maxLimit = (int) getLong("maxLimit", 1000);
+        final int cacheSize = (int) getLong("cacheSize", 10_000);
+        this.lists = new To_be_renamedCache<>(Math.max(100, cacheSize / 10), this.maxAgeSeconds, TimeUnit.SECONDS);
+        this.responses = new To_be_renamedCache<>(cacheSize, this.maxAgeSeconds, TimeUnit.SECONDS);
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        final long start = System.nanoTime();
+        try {
+            handle(request, response);
+        } finally {
+            REQUESTS.recordSince(start);
+        }
+    }
+
+    private void handle(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        // /projects/{projectId}/objects[/{id}]
+        final String path = request.getPathInfo() != null ? request.getPathInfo() : "";
+        final String[] segments = path.split("/", 5);
+        if (segments.length < 4 || !segments[0].isEmpty() || !"projects".equals(segments[1]) || !"objects".equals(segments[3])
+                || segments.length == 5 && segments[4].isEmpty()) {
+            sendError(response, HttpServletResponse.SC_NOT_FOUND, "Unknown resource");
+            return;
+        }
+
+        final Response result;
+        try {
+            final long projectId = Long.parseLong(segments[2]);
+            final String token = getBearerToken(request);
+            if (token == null || !this.source.isAuthorized(projectId, token)) {
+                response.setHeader("WWW-Authenticate", "Bearer");
+                sendError(response, token == null ? HttpServletResponse.SC_UNAUTHORIZED : HttpServletResponse.SC_FORBIDDEN,
+                        token == null ? "Missing API token" : "Not authorized for project " + projectId);
+                return;
+            }
+            final Set<String> fields = parseFields(request.getParameter("fields"));
+            if (segments.length == 5) {
+                result = getObject(projectId, token, segments[4], fields);
+            } else {
+                final String filter = Strings.isEmpty(request.getParameter("filter")) ? "" : request.getParameter("filter");
+                final int offset = parseInt(request.getParameter("offset"), 0, 0, Integer.MAX_VALUE, "offset");
+                final int limit = parseInt(request.getParameter("limit"), DEFAULT_LIMIT, 1, this.maxLimit, "limit");
+                result = getPage(projectId, token, filter, offset, limit, fields);
+            }
+        } catch (IllegalArgumentException e) {
+            sendError(response, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        } catch (Exception e) {
+            Logging.logWarning("Could not load data for " + path, e, LOGGER);
+            response.setHeader("Retry-After", "5");
+            sendError(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Data is not available");
+            return;
+        }
+        if (result == null) {
+            sendError(response, HttpServletResponse.SC_NOT_FOUND, "Unknown object");
+            return;
+        }
+        write(request, response, result);
+    }
+
+    // the token of the request, the service checks it again for the calls that are not served from the cache
+    private Response getPage(long projectId, String token, String filter, int offset, int limit, Set<String> fields) throws Exception {
+        final String key = projectId + "\n" + filter + "\n" + offset + "\n" + limit + "\n" + fields;
+        return load(this.responses, "page\n" + key, () -> {
+            final List<Map<String, String>> objects = load(this.lists, "list\n" + projectId + "\n" + filter,
+                    () -> this.source.find(projectId, token, filter.isEmpty() ? null : filter));
+            final StringBuilder json = new StringBuilder(128 + Math.min(limit, objects.size()) * 64);
+            json.append("{\"offset\":").append(offset).append(",\"limit\":").append(limit).append(",\"total\":").append(objects.size());
+            json.append(",\"items\":[");
+            for (int i = offset; i < Math.min(objects.size(), offset + (long) limit); i++) {
+                if (i > offset) {
+                    json.append(',');
+                }
+                appendObject(json, objects.get(i), fields);
+            }
+            return new Response(json.append("]}").toString());
+        });
+    }
+
+    private Response getObject(long projectId, String token, String identifier, Set<String> fields) throws Exception {
+        final Response response = load(this.responses, "object\n" + projectId + "\n" + identifier + "\n" + fields, () -> {
+            final List<Map<String, String>> objects = this.source.get(projectId, token, Collections.singletonList(identifier));
+            if (objects.isEmpty()) {
+                return Response.NOT_FOUND;
+            }
+            final StringBuilder json = new StringBuilder(128);
+            appendObject(json, objects.get(0), fields);
+            return new Response(json.toString());
+        });
+        return response != Response.NOT_FOUND ? response : null;
+    }
+
+    // a cached value, or the value of a load that is already running for the key, or a new load
+    @SuppressWarnings("unchecked")
+    private <V> V load(To_be_renamedCache<String, V> cache, String key, Callable<V> loader) throws Exception {
+        final V cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        final CompletableFuture<Object> created = new CompletableFuture<>();
+        final CompletableFuture<Object> running = this.loading.putIfAbsent(key, created);
+        if (running != null) {
+            try {
+                return (V) running.get(LOAD_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            } catch (TimeoutException e) {
+                throw new IllegalStateException("Timed out waiting for " + key.replace('\n', ' '), e);
+            }
+        }
+        try {
+            final V value = loader.call();
+            cache.put(key, value);
+            created.complete(value);
+            return value;
+        } catch (Exception e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            this.loading.remove(key, created);
+        }
+    }
+
+    private static void appendObject(StringBuilder json, Map<String, String> object, Set<String> fields) {
+        json.append('{');
+        boolean first = true;
+        for (Map.Entry<String, String> field : object.entrySet()) {
+            if (fields != null && !fields.contains(field.getKey())) {
+                continue;
+            }
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            JsonUtil.appendQuoted(json, field.getKey());
+            json.append(':');
+            if (field.getValue() == null) {
+                json.append("null");
+            } else {
+                JsonUtil.appendQuoted(json, field.getValue());
+            }
+        }
+        json.append('}');
+    }
+
+    private void write(HttpServletRequest request, HttpServletResponse response, Response result) throws IOException {
+        final boolean gzip = result.body.length >= GZIP_MIN_BYTES && To_be_renamedAssetServlet.acceptsGzip(request);
+        response.setHeader("Cache-Control", "private, max-age=" + this.maxAgeSeconds);
+        response.setHeader("ETag", '"' + result.hash + (gzip ? "-gz" : "") + '"');
+        response.setHeader("Vary", "Accept-Encoding");
+        if (To_be_renamedAssetServlet.matches(request.getHeader("If-None-Match"), result.hash)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setContentType(JSON_CONTENT_TYPE);
+        final byte[] body = gzip ? result.gzipped() : result.body;
+        if (gzip) {
+            response.setHeader("Content-Encoding", "gzip");
+        }
+        response.setContentLength(body.length);
+        try (OutputStream out = response.getOutputStream()) {
+            out.write(body);
+        }
+    }
+
+    private static void sendError(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.setHeader("Cache-Control", "no-store");
+        response.setContentType(JSON_CONTENT_TYPE);
+        response.getWriter().write("{\"error\":" + JsonUtil.quote(message) + "}");
+    }
+
+    // the token of an Authorization header of the bearer scheme, null if there is none
+    static String getBearerToken(HttpServletRequest request) {
+        final String authorization = request.getHeader("Authorization");
+        if (authorization == null || !authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            return null;
+        }
+        final String token = authorization.substring(BEARER.length()).trim();
+        return token.isEmpty() ? null : token;
+    }
+
+    // null for all fields
+    private static Set<String> parseFields(String fields) {
+        if (Strings.isEmpty(fields)) {
+            return null;
+        }
+        final Set<String> result = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            if (!field.trim().isEmpty()) {
+                result.add(field.trim());
+            }
+        }
+        return result;
+    }
+
+    private static int parseInt(String value, int defaultValue, int min, int max, String name) {
+        if (Strings.isEmpty(value)) {
+            return defaultValue;
+        }
+        final int parsed;
+        try {
+            parsed = Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+        if (parsed < min || parsed > max) {
+            throw new IllegalArgumentException(name + " must be between " + min + " and " + max);
+        }
+        return parsed;
+    }
+
+    private long getLong(String name, long defaultValue) {
+        final String value = getInitParameter(name);
+        if (Strings.isEmpty(value)) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            Logging.logWarning("Invalid init parameter " + name + "='" + value + "', using " + defaultValue, LOGGER);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Reads the objects of the external system as field maps, see {@link To_be_renamedServiceControl}.
+     */
+    interface Source {
+
+        List<Map<String, String>> find(long projectId, String apiToken, String filter) throws Exception;
+
+        List<Map<String, String>> get(long projectId, String apiToken, List<String> identifiers) throws Exception;
+
+        boolean isAuthorized(long projectId, String accessToken) throws Exception;
+    }
+
+    // the service lives in another class loader, it is reached through its MBean
+    private static final class JmxSource implements Source {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public List<Map<String, String>> find(long projectId, String apiToken, String filter) throws Exception {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            return (List<Map<String, String>>) server.invoke(new ObjectName(To_be_renamedServiceControl.OBJECT_NAME), "findData",
+                    new Object[]{projectId, apiToken, filter}, new String[]{long.class.getName(), String.class.getName(), String.class.getName()});
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public List<Map<String, String>> get(long projectId, String apiToken, List<String> identifiers) throws Exception {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            return (List<Map<String, String>>) server.invoke(new ObjectName(To_be_renamedServiceControl.OBJECT_NAME), "getData",
+                    new Object[]{projectId, apiToken, identifiers.toArray(new String[0])},
+                    new String[]{long.class.getName(), String.class.getName(), String[].class.getName()});
+        }
+
+        @Override
+        public boolean isAuthorized(long projectId, String accessToken) throws Exception {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            return (Boolean) server.invoke(new ObjectName(To_be_renamedServiceControl.OBJECT_NAME), "isAuthorized",
+                    new Object[]{projectId, accessToken}, new String[]{long.class.getName(), String.class.getName()});
+        }
+    }
+
+    /**
+     * A rendered response body with its ETag; the gzipped body is created on first use.
+     */
+    private static final class Response {
+
+        static final Response NOT_FOUND = new Response("");
+
+        final byte[] body;
+        final String hash;
+        private volatile byte[] gzipped;
+
+        Response(String json) {
+            this.body = json.getBytes(StandardCharsets.UTF_8);
+            this.hash = hash(this.body);
+        }
+
+        byte[] gzipped() throws IOException {
+            byte[] result = this.gzipped;
+            if (result == null) {
+                final ByteArrayOutputStream out = new ByteArrayOutputStream(this.body.length / 4 + 64);
+                try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                    gzip.write(this.body);
+                }
+                result = out.toByteArray();
+                // a race only compresses twice
+                this.gzipped = result;
+            }
+            return result;
+        }
+
+        private static String hash(byte[] body) {
+            try {
+                final byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+                final StringBuilder hex = new StringBuilder(24);
+                for (int i = 0; i < 12; i++) {
+                    hex.append(Character.forDigit((digest[i] >> 4) & 0xf, 16)).append(Character.forDigit(digest[i] & 0xf, 16));
+                }
+                return hex.toString();
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -19,7 +19,8 @@ public class To_be_renamedWebeditToolbarActionsItemsPlugin implements WebeditToo
     @Override
     public Collection<? extends WebeditToolbarItem> getItems() {
         return Arrays.asList(
-                new To_be_renamedExecutableToolbarActionsItem()
+                new To_be_renamedExecutableToolbarActionsItem(),
+                new To_be_renamedExecutableToolbarCancelItem()
         );
     }
 
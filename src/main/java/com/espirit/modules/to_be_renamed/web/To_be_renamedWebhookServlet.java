@@ -0,0 +1,202 @@
+package com.espirit.modules.to_be_renamed.web;
+
+import com.espirit.modules.to_be_renamed.service.To_be_renamedServiceControl;
+import com.espirit.modules.to_be_renamed.util.JsonUtil;
+import de.espirit.common.base.Logging;
+import de.espirit.common.tools.Strings;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Receives change notifications of the third party system and invalidates the affected entries of the service's
+ * cache, see {@link To_be_renamedChangeCoalescer}. Accepts a POST with a JSON object or an array of objects of the
+ * form {@code {"projectId": 42, "ids": ["a", "b"]}} ({@code "id"} for a single object); the project id may also be
+ * given as request parameter. Responds with 202 once the notifications are queued.
+ * <p>
+ * Init parameters: {@code secret} (required in the {@code X-Webhook-Secret} header), {@code windowMillis}
+ * (default 1000), {@code maxBatchSize} (default 1000) and {@code maxPending} (default 100000). Without a secret the
+ * servlet is disabled and responds with 503, since anyone could otherwise flush the cache and cause calls to the
+ * third party system.
+ */
+public class To_be_renamedWebhookServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Class<?> LOGGER = To_be_renamedWebhookServlet.class;
+
+    static final String SECRET_HEADER = "X-Webhook-Secret";
+    private static final int MAX_BODY_BYTES = 4 * 1024 * 1024;
+
+    private final transient To_be_renamedChangeCoalescer.Sink sink;
+    private transient To_be_renamedChangeCoalescer coalescer;
+    private byte[] secret;
+
+    public To_be_renamedWebhookServlet() {
+        this(To_be_renamedWebhookServlet::invalidateThroughJmx);
+    }
+
+    To_be_renamedWebhookServlet(To_be_renamedChangeCoalescer.Sink sink) {
+        this.sink = sink;
+    }
+
+    @Override
+    public void init() throws ServletException {
+        final String secret = getInitParameter("secret");
+        this.secret = Strings.isEmpty(secret) ? null : secret.getBytes(StandardCharsets.UTF_8);
+        if (this.secret == null) {
+            Logging.logError("No secret configured, the webhook is disabled. Set the init parameter 'secret' in web.xml", LOGGER);
+        }
+        this.coalescer = new To_be_renamedChangeCoalescer(this.sink, getLong("windowMillis", 1000), (int) getLong("maxBatchSize", 1000), (int) getLong("maxPending", 100_000));
+    }
+
+    @Override
+    public void destroy() {
+        if (this.coalescer != null) {
+            this.coalescer.close();
+        }
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (this.secret == null) {
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Webhook is disabled, no secret configured");
+            return;
+        }
+        if (!isAuthorized(request)) {
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+        final Map<Long, List<String>> changes;
+        try {
+            changes = parse(readBody(request), request.getParameter("projectId"));
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        } catch (BodyTooLargeException e) {
+            response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+            return;
+        }
+
+        int accepted = 0;
+        for (Map.Entry<Long, List<String>> change : changes.entrySet()) {
+            if (!this.coalescer.add(change.getKey(), change.getValue())) {
+                // backpressure: the sender retries later, notifications accepted so far are kept
+                response.setHeader("Retry-After", "5");
+                response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                return;
+            }
+            accepted += change.getValue().size();
+        }
+        response.setStatus(HttpServletResponse.SC_ACCEPTED);
+        response.setContentType("application/json; charset=utf-8");
+        response.getWriter().write("{\"accepted\":" + accepted + "}");
+    }
+
+    private boolean isAuthorized(HttpServletRequest request) {
+        final String provided = request.getHeader(SECRET_HEADER);
+        return provided != null && MessageDigest.isEqual(this.secret, provided.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Map<Long, List<String>> parse(String body, String defaultProjectId) {
+        final Object json = JsonUtil.parse(body);
+        final Collection<?> notifications = json instanceof List ? (List<?>) json : Collections.singletonList(json);
+        final Map<Long, List<String>> changes = new HashMap<>();
+        for (Object notification : notifications) {
+            if (!(notification instanceof Map)) {
+                throw new IllegalArgumentException("A notification must be a JSON object");
+            }
+            final Map<?, ?> members = (Map<?, ?>) notification;
+            final long projectId = getProjectId(members.get("projectId"), defaultProjectId);
+            final List<String> identifiers = changes.computeIfAbsent(projectId, id -> new ArrayList<>());
+            if (members.get("id") != null) {
+                identifiers.add(members.get("id").toString());
+            }
+            if (members.get("ids") instanceof List) {
+                for (Object identifier : (List<?>) members.get("ids")) {
+                    if (identifier != null) {
+                        identifiers.add(identifier.toString());
+                    }
+                }
+            } else if (members.get("ids") != null) {
+                throw new IllegalArgumentException("\"ids\" must be an array");
+            }
+        }
+        return changes;
+    }
+
+    private static long getProjectId(Object value, String defaultProjectId) {
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        final String projectId = value != null ? value.toString() : defaultProjectId;
+        if (Strings.isEmpty(projectId)) {
+            throw new IllegalArgumentException("Missing projectId");
+        }
+        try {
+            return Long.parseLong(projectId.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid projectId: " + projectId);
+        }
+    }
+
+    private static String readBody(HttpServletRequest request) throws IOException, BodyTooLargeException {
+        if (request.getContentLengthLong() > MAX_BODY_BYTES) {
+            throw new BodyTooLargeException();
+        }
+        final ByteArrayOutputStream body = new ByteArrayOutputStream(Math.max(256, (int) request.getContentLengthLong()));
+        final byte[] buffer = new byte[8192];
+        try (InputStream in = request.getInputStream()) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                if (body.size() + read > MAX_BODY_BYTES) {
+                    throw new BodyTooLargeException();
+                }
+                body.write(buffer, 0, read);
+            }
+        }
+        return new String(body.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private long getLong(String name, long defaultValue) {
+        final String value = getInitParameter(name);
+        if (Strings.isEmpty(value)) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            Logging.logWarning("Invalid init parameter " + name + "='" + value + "', using " + defaultValue, LOGGER);
+            return defaultValue;
+        }
+    }
+
+    // the service lives in another class loader, it is reached through its MBean
+    private static void invalidateThroughJmx(long projectId, Collection<String> identifiers) throws Exception {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        server.invoke(new ObjectName(To_be_renamedServiceControl.OBJECT_NAME), "invalidateData",
+                new Object[]{projectId, identifiers.toArray(new String[0])},
+                new String[]{long.class.getName(), String[].class.getName()});
+    }
+
+    private static final class BodyTooLargeException extends Exception {
+
+        private static final long serialVersionUID = 1L;
+    }
+}
@@ -1,32 +1,134 @@
 package com.espirit.modules.to_be_renamed;
 
+import com.espirit.modules.to_be_renamed.dataaccess.datastream.To_be_renamedDataStreamBuilder;
+import com.espirit.modules.to_be_renamed.dataaccess.session.To_be_renamedDataAccessSessionBuilder;
+import com.espirit.modules.to_be_renamed.dataaccess.session.To_be_renamedDataSnippetProvider;
+import com.espirit.modules.to_be_renamed.dataaccess.session.aspects.To_be_renamedTransferHandlingAspect;
+import com.espirit.modules.to_be_renamed.dataaccess.session.aspects.To_be_renamedTransferSupplyingAspect;
+import com.espirit.modules.to_be_renamed.fake.To_be_renamedFakeContext;
+import com.espirit.modules.to_be_renamed.service.To_be_renamedService;
+import com.espirit.modules.to_be_renamed.util.To_be_renamedIcons;
+import de.espirit.firstspirit.access.BaseContext;
+import de.espirit.firstspirit.agency.TransferType;
+import de.espirit.firstspirit.client.plugin.dataaccess.DataAccessSession;
+import de.espirit.firstspirit.client.plugin.dataaccess.DataStream;
+import de.espirit.firstspirit.client.plugin.dataaccess.aspects.transfer.HandlerHost;
+import de.espirit.firstspirit.client.plugin.dataaccess.aspects.transfer.SupplierHost;
+import de.espirit.firstspirit.client.search.SegmentProvider;
 import org.junit.Assert;
+import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
 /*
 
-This is were your jUnit tests should be
+The components of the module working together on a fake FirstSpirit context, see To_be_renamedFakeContext: a report
+lists the objects of the service, the session resolves them by identifier, drag and drop registers its transfer types
+and the ContentCreator gets its icons by URL
 
 */
 
+public class To_be_renamedIntegrationTest {
 
+    private static final Map<String, To_be_renamedPOJO> OBJECTS = new LinkedHashMap<>();
+
+    private static To_be_renamedFakeContext fake;
+    private static BaseContext context;
+
+    @BeforeClass
+    public static void setUp() {
+        for (int i = 0; i < 75; i++) {
+            OBJECTS.put("object-" + i, new To_be_renamedPOJO("object-" + i));
+        }
+        final To_be_renamedService service = To_be_renamedFakeContext.fake(To_be_renamedService.class, (method, args) -> {
+            switch (method.getName()) {
+                case "findData":
+                    return new ArrayList<>(OBJECTS.values());
+                case "getData":
+                    final List<To_be_renamedPOJO> result = new ArrayList<>();
+                    for (Object identifier : (Collection<?>) args[1]) {
+                        final To_be_renamedPOJO object = OBJECTS.get(identifier);
+                        if (object != null) {
+                            result.add(object);
+                        }
+                    }
+                    return result;
+                default:
+                    return To_be_renamedFakeContext.unsupported(method);
+            }
+        });
+        fake = new To_be_renamedFakeContext(2301).languages(Locale.GERMAN, Locale.ENGLISH).env(BaseContext.Env.WEBEDIT).service(service);
+        context = fake.build();
+    }
 
-public class To_be_renamedIntegrationTest {
     @Test
-    public void testmock() {
+    public void testReportToSession() throws Exception {
+        final DataAccessSession<To_be_renamedPOJO> session = new To_be_renamedDataAccessSessionBuilder().createSession(context);
+        final DataStream<To_be_renamedPOJO> stream = new To_be_renamedDataStreamBuilder(context).createDataStream();
 
-        try {
+        // every object of the report is found again by its identifier, as when an editor picks it
+        int read = 0;
+        while (stream.hasNext()) {
+            for (To_be_renamedPOJO object : stream.getNext(30)) {
+                final String identifier = session.getIdentifier(object);
+                Assert.assertSame(object, session.getData(identifier));
+                read++;
+            }
+        }
+        Assert.assertEquals(OBJECTS.size(), read);
+    }
 
-            //some appropriate tests
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testTransferHandling() {
+        final Map<TransferType<?>, HandlerHost.Handler<?, To_be_renamedPOJO>> handlers = new LinkedHashMap<>();
+        final HandlerHost<To_be_renamedPOJO> host = To_be_renamedFakeContext.fake(HandlerHost.class, (method, args) -> {
+            handlers.put((TransferType<?>) args[0], (HandlerHost.Handler<?, To_be_renamedPOJO>) args[1]);
+            return null;
+        });
+        new To_be_renamedTransferHandlingAspect(context).registerHandlers(host);
 
-            //return this if successful
-            Assert.assertTrue(true);
+        Assert.assertEquals(1, handlers.size());
+        final TransferType<?> type = handlers.keySet().iterator().next();
+        Assert.assertEquals(To_be_renamedPOJO.class, fake.getTransferClass(type));
+        final List<To_be_renamedPOJO> dropped = Collections.singletonList(OBJECTS.get("object-1"));
+        Assert.assertEquals(dropped, ((HandlerHost.Handler<To_be_renamedPOJO, To_be_renamedPOJO>) handlers.get(type)).handle(dropped));
+    }
 
-        }
-        catch (Exception e) {
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testTransferSupplying() {
+        final Map<Class<?>, SupplierHost.Supplier<To_be_renamedPOJO, ?>> suppliers = new LinkedHashMap<>();
+        final SupplierHost<To_be_renamedPOJO> host = To_be_renamedFakeContext.fake(SupplierHost.class, (method, args) -> {
+            suppliers.put(fake.getTransferClass((TransferType<?>) args[0]), (SupplierHost.Supplier<To_be_renamedPOJO, ?>) args[1]);
+            return null;
+        });
+        new To_be_renamedTransferSupplyingAspect(context).registerSuppliers(host);
 
-            //do something, i.e. log error outputs
+        Assert.assertEquals(3, suppliers.size());
+        final To_be_renamedPOJO object = OBJECTS.get("object-2");
+        Assert.assertEquals(Collections.singletonList(object), suppliers.get(To_be_renamedPOJO.class).supply(object));
+        Assert.assertEquals(Collections.singletonList("object-2"), suppliers.get(String.class).supply(object));
+        Assert.assertEquals(1, suppliers.get(SegmentProvider.class).supply(object).size());
+    }
 
-        }
+    @Test
+    public void testIconsAndSnippets() {
+        // the ContentCreator loads the icons by URL, relative to the web app
+        Assert.assertEquals("icons/icon.png", fake.getImageSource(To_be_renamedIcons.getActive(context)));
+        Assert.assertTrue(fake.getLogged().isEmpty());
+
+        final To_be_renamedDataSnippetProvider snippets = new To_be_renamedDataSnippetProvider(context);
+        final To_be_renamedPOJO object = OBJECTS.get("object-3");
+        Assert.assertNull(snippets.getIcon(object));
+        Assert.assertEquals("object-3", snippets.getHeader(object, fake.getMasterLanguage()));
+        Assert.assertEquals("object-3", snippets.getExtract(object, fake.getMasterLanguage()));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,97 @@
+package com.espirit.modules.to_be_renamed.batch;
+
+import com.espirit.modules.to_be_renamed.To_be_renamedPOJO;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+
+Messages of the POJO codec: round trips from heap and direct buffers, columns of unknown fields and types are skipped
+by their length, and malformed varints are rejected instead of decoding to negative or ambiguous values
+
+*/
+
+public class To_be_renamedPOJOCodecTest {
+
+    @Test
+    public void testRoundTrip() {
+        final List<To_be_renamedPOJO> objects = Arrays.asList(new To_be_renamedPOJO("a"), new To_be_renamedPOJO(null), new To_be_renamedPOJO("a"),
+                new To_be_renamedPOJO("ü"));
+        final byte[] message = To_be_renamedPOJOCodec.encode(objects);
+        final ByteBuffer direct = ByteBuffer.allocateDirect(message.length);
+        direct.put(message).flip();
+        for (ByteBuffer buffer : new ByteBuffer[]{ByteBuffer.wrap(message), direct}) {
+            final To_be_renamedPOJOBatch batch = To_be_renamedPOJOCodec.decode(buffer);
+            Assert.assertEquals(4, batch.size());
+            Assert.assertEquals("a", batch.getVar(0));
+            Assert.assertNull(batch.getVar(1));
+            Assert.assertEquals(batch.getVarCode(0), batch.getVarCode(2));
+            Assert.assertEquals("ü", batch.getVar(3));
+            Assert.assertFalse(buffer.hasRemaining());
+        }
+    }
+
+    @Test
+    public void testUnknownFieldsAreSkipped() {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write('P');
+        out.write('B');
+        out.write(To_be_renamedPOJOCodec.VERSION);
+        // a field of a type this version does not know, then var
+        out.write(2);
+        out.write(7);
+        out.write(42);
+        out.write(To_be_renamedPOJOCodec.FIELD_VAR);
+        out.write(To_be_renamedPOJOCodec.TYPE_STRING);
+        out.write(1);
+        out.write(1);
+        out.write('x');
+        out.write(2);
+        out.write(3);
+        out.write(0xFF);
+        out.write(0xFF);
+        out.write(0xFF);
+        out.write(2);
+        out.write(1);
+        out.write(0);
+
+        final To_be_renamedPOJOBatch batch = To_be_renamedPOJOCodec.decode(ByteBuffer.wrap(out.toByteArray()));
+        Assert.assertEquals(2, batch.size());
+        Assert.assertEquals("x", batch.getVar(0));
+        Assert.assertNull(batch.getVar(1));
+    }
+
+    @Test
+    public void testVersion1() {
+        // no column lengths
+        final byte[] message = {'P', 'B', 1, 1, To_be_renamedPOJOCodec.FIELD_VAR, To_be_renamedPOJOCodec.TYPE_STRING, 1, 1, 'x', 1, 1};
+        Assert.assertEquals("x", To_be_renamedPOJOCodec.decodeOne(ByteBuffer.wrap(message)).getVar());
+    }
+
+    @Test
+    public void testMalformedVarints() {
+        // the item count as ten bytes, which decodes to a negative long
+        assertRejected(new byte[]{'P', 'B', 2, 0, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF,
+                (byte) 0xFF, (byte) 0xFF, 0x01});
+        // the version 2 in two bytes
+        assertRejected(new byte[]{'P', 'B', (byte) 0x82, 0x00, 0, 0, 0});
+        // a reference behind the string table
+        assertRejected(new byte[]{'P', 'B', 2, 1, To_be_renamedPOJOCodec.FIELD_VAR, To_be_renamedPOJOCodec.TYPE_STRING, 0, 1, 1, 1});
+        // a column longer than the message
+        assertRejected(new byte[]{'P', 'B', 2, 1, To_be_renamedPOJOCodec.FIELD_VAR, To_be_renamedPOJOCodec.TYPE_STRING, 0, 1, 9, 0});
+    }
+
+    private static void assertRejected(byte[] message) {
+        try {
+            To_be_renamedPOJOCodec.decode(ByteBuffer.wrap(message));
+            Assert.fail("Decoded " + Arrays.toString(message));
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+}
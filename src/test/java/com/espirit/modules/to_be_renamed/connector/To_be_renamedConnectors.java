@@ -0,0 +1,34 @@
+package com.espirit.modules.to_be_renamed.connector;
+
+import com.espirit.modules.to_be_renamed.project.To_be_renamedProjectSettings;
+import de.espirit.firstspirit.agency.SpecialistsBroker;
+
+import java.util.function.IntFunction;
+
+/**
+ * Replaces the connector of a project in tests, e.g. with one that calls the stub API of the load tests.
+ */
+public final class To_be_renamedConnectors {
+
+    private To_be_renamedConnectors() {
+    }
+
+    /**
+     * Makes {@link To_be_renamedConnector#getInstance(SpecialistsBroker)} return a connector calling the given API for
+     * the broker's project, until {@link #uninstall(long)} or a change of the project's settings.
+     *
+     * @param broker a broker of the project
+     * @param api    creates the API with the connector timeout of the project's settings in milliseconds
+     */
+    public static void install(SpecialistsBroker broker, IntFunction<To_be_renamedApi> api) {
+        final To_be_renamedProjectSettings settings = To_be_renamedProjectSettings.get(broker);
+        To_be_renamedConnector.CONNECTORS.put(settings.getProjectId(), new To_be_renamedConnector(settings, api));
+    }
+
+    /**
+     * @param projectId the project whose connector is built from its settings again on next use
+     */
+    public static void uninstall(long projectId) {
+        To_be_renamedConnector.CONNECTORS.remove(projectId);
+    }
+}
@@ -0,0 +1,115 @@
+package com.espirit.modules.to_be_renamed.dataaccess.datastream;
+
+import com.espirit.modules.to_be_renamed.To_be_renamedPOJO;
+import com.espirit.modules.to_be_renamed.fake.To_be_renamedBudget;
+import com.espirit.modules.to_be_renamed.fake.To_be_renamedFakeContext;
+import com.espirit.modules.to_be_renamed.project.To_be_renamedProjectConfig;
+import com.espirit.modules.to_be_renamed.service.To_be_renamedService;
+import de.espirit.firstspirit.access.BaseContext;
+import de.espirit.firstspirit.client.plugin.dataaccess.DataStream;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+
+Correctness, latency and allocation budgets of opening a report: the builder is created and the stream is read page by
+page, for every report an editor opens and every filter change
+
+*/
+
+public class To_be_renamedDataStreamBuilderTest {
+
+    private static final List<To_be_renamedPOJO> OBJECTS = new ArrayList<>();
+    private static final AtomicInteger findCalls = new AtomicInteger();
+    private static final List<String> filters = Collections.synchronizedList(new ArrayList<>());
+
+    private static BaseContext withService;
+    private static BaseContext withoutService;
+
+    @BeforeClass
+    public static void setUp() {
+        for (int i = 0; i < 120; i++) {
+            OBJECTS.add(new To_be_renamedPOJO("object-" + i));
+        }
+        final To_be_renamedService service = To_be_renamedFakeContext.fake(To_be_renamedService.class, (method, args) -> {
+            if ("findData".equals(method.getName())) {
+                findCalls.incrementAndGet();
+                filters.add((String) args[1]);
+                // the service returns its cached, unmodifiable list
+                return Collections.unmodifiableList(OBJECTS);
+            }
+            return To_be_renamedFakeContext.unsupported(method);
+        });
+        withService = new To_be_renamedFakeContext(2101).languages(Locale.GERMAN, Locale.ENGLISH).service(service).build();
+        withoutService = new To_be_renamedFakeContext(2102).config(To_be_renamedProjectConfig.VAR_1, "demo").build();
+    }
+
+    @Test
+    public void testStreamPages() throws Exception {
+        findCalls.set(0);
+        filters.clear();
+        final DataStream<To_be_renamedPOJO> stream = new To_be_renamedDataStreamBuilder(withService).createDataStream();
+
+        Assert.assertEquals(120, stream.getTotal());
+        Assert.assertTrue(stream.hasNext());
+        final List<To_be_renamedPOJO> first = stream.getNext(50);
+        final List<To_be_renamedPOJO> second = stream.getNext(50);
+        final List<To_be_renamedPOJO> third = stream.getNext(50);
+        Assert.assertEquals(50, first.size());
+        Assert.assertEquals("object-0", first.get(0).getVar());
+        Assert.assertEquals("object-50", second.get(0).getVar());
+        Assert.assertEquals(20, third.size());
+        Assert.assertEquals("object-119", third.get(19).getVar());
+        Assert.assertFalse(stream.hasNext());
+        Assert.assertTrue(stream.getNext(50).isEmpty());
+        stream.close();
+
+        // without a filter set by the report, the service is asked for all objects, once
+        Assert.assertEquals(1, findCalls.get());
+        Assert.assertEquals(Collections.singletonList(null), filters);
+    }
+
+    @Test
+    public void testEmptyStream() throws Exception {
+        final DataStream<To_be_renamedPOJO> stream = new To_be_renamedDataStream(Collections.emptyList());
+        Assert.assertEquals(0, stream.getTotal());
+        Assert.assertFalse(stream.hasNext());
+        Assert.assertTrue(stream.getNext(50).isEmpty());
+    }
+
+    @Test
+    public void testWithoutService() throws Exception {
+        final DataStream<To_be_renamedPOJO> stream = new To_be_renamedDataStreamBuilder(withoutService).createDataStream();
+        Assert.assertEquals(1, stream.getTotal());
+        Assert.assertEquals("demo", stream.getNext(10).get(0).getVar());
+    }
+
+    @Test
+    public void testBuilderBudget() throws Exception {
+        // the builder loads the resource bundle of the display language, which the JDK caches
+        To_be_renamedBudget.of("new builder").maxMicros(15).maxBytes(1_500)
+                .check(() -> new To_be_renamedDataStreamBuilder(withService));
+    }
+
+    @Test
+    public void testStreamBudget() throws Exception {
+        final To_be_renamedDataStreamBuilder builder = new To_be_renamedDataStreamBuilder(withService);
+        // the stream wraps the service's list and copies the pages; the end of the list is detected by an
+        // IndexOutOfBoundsException, whose stack trace is most of the time and allocation
+        To_be_renamedBudget.of("stream of 120, 3 pages").maxMicros(50).maxBytes(10_000).check(() -> {
+            final DataStream<To_be_renamedPOJO> stream = builder.createDataStream();
+            int read = 0;
+            while (stream.hasNext()) {
+                read += stream.getNext(50).size();
+            }
+            return read;
+        });
+    }
+}
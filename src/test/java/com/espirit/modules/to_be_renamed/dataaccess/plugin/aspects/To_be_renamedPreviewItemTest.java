@@ -0,0 +1,99 @@
+package com.espirit.modules.to_be_renamed.dataaccess.plugin.aspects;
+
+import com.espirit.modules.to_be_renamed.To_be_renamedPOJO;
+import com.espirit.modules.to_be_renamed.connector.To_be_renamedEdit;
+import com.espirit.modules.to_be_renamed.connector.To_be_renamedWriteBehindQueue;
+import com.espirit.modules.to_be_renamed.fake.To_be_renamedBudget;
+import com.espirit.modules.to_be_renamed.fake.To_be_renamedFakeContext;
+import com.espirit.modules.to_be_renamed.project.To_be_renamedProjectConfig;
+import com.espirit.modules.to_be_renamed.service.To_be_renamedService;
+import de.espirit.firstspirit.client.plugin.report.ReportContext;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/*
+
+The label of the preview item shows the state of an edit in the write-behind queue of the service. It is asked for
+every row of a report, so the common case of an object without an edit has a tight budget
+
+*/
+
+public class To_be_renamedPreviewItemTest {
+
+    private static final long PROJECT_ID = 2201;
+
+    @ClassRule
+    public static final TemporaryFolder DATA_DIR = new TemporaryFolder();
+
+    private static To_be_renamedWriteBehindQueue queue;
+    private static To_be_renamedFakeContext fake;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        // the queue of the service, with a sink that fails like the template connector, which does not write edits
+        queue = new To_be_renamedWriteBehindQueue(DATA_DIR.getRoot().toPath().resolve(To_be_renamedWriteBehindQueue.JOURNAL_FILE), edits -> {
+            throw new UnsupportedOperationException("not implemented");
+        }, To_be_renamedWriteBehindQueue.DEFAULT_FLUSH_INTERVAL_MILLIS, To_be_renamedWriteBehindQueue.DEFAULT_MAX_BATCH_SIZE,
+                To_be_renamedWriteBehindQueue.DEFAULT_MAX_ATTEMPTS, "writeBehind." + PROJECT_ID + ".pending");
+        final To_be_renamedService service = To_be_renamedFakeContext.fake(To_be_renamedService.class, (method, args) -> {
+            if ("getEditOutcome".equals(method.getName())) {
+                return queue.getOutcome((String) args[1]);
+            }
+            return To_be_renamedFakeContext.unsupported(method);
+        });
+        fake = new To_be_renamedFakeContext(PROJECT_ID).languages(Locale.ENGLISH).config(To_be_renamedProjectConfig.VAR_1, "demo").service(service);
+    }
+
+    @AfterClass
+    public static void closeQueue() {
+        queue.close();
+    }
+
+    @Test
+    public void testLabelOfAnEditThatIsNotWritten() throws Exception {
+        final To_be_renamedPreviewItem item = new To_be_renamedPreviewItem();
+        final ReportContext<To_be_renamedPOJO> context = fake.buildReportContext(new To_be_renamedPOJO("edited"));
+        Assert.assertNull(item.getLabel(context));
+
+        // the template connector does not write edits, so the first attempt fails and the edit is retried
+        final CompletableFuture<To_be_renamedWriteBehindQueue.Outcome> outcome = queue
+                .submit(new To_be_renamedEdit("edited", Collections.singletonMap("text", "new text")));
+        try {
+            outcome.get(1500, TimeUnit.MILLISECONDS);
+            Assert.fail("An edit the connector cannot write must not complete");
+        } catch (TimeoutException expected) {
+            // still queued
+        }
+        Assert.assertEquals(To_be_renamedWriteBehindQueue.Status.PENDING, queue.getOutcome("edited").getStatus());
+        Assert.assertEquals("Edit is being saved ...", item.getLabel(context));
+    }
+
+    @Test
+    public void testLabelOfAPendingEdit() throws Exception {
+        final To_be_renamedPreviewItem item = new To_be_renamedPreviewItem();
+        final ReportContext<To_be_renamedPOJO> context = fake.buildReportContext(new To_be_renamedPOJO("pending"));
+
+        // the queue writes every 500ms, so the edit is still queued right after submitting it
+        queue.submit(new To_be_renamedEdit("pending", Collections.singletonMap("text", "new text")));
+        Assert.assertEquals("Edit is being saved ...", item.getLabel(context));
+    }
+
+    @Test
+    public void testLabelBudget() throws Exception {
+        final To_be_renamedPreviewItem item = new To_be_renamedPreviewItem();
+        final ReportContext<To_be_renamedPOJO> context = fake.buildReportContext(new To_be_renamedPOJO("unedited"));
+
+        // the label asks the service; most of the allocations are the arguments of the calls of the fakes
+        To_be_renamedBudget.of("label without edit").maxMicros(2).maxBytes(300).check(() -> item.getLabel(context));
+    }
+}
@@ -0,0 +1,105 @@
+package com.espirit.modules.to_be_renamed.dataaccess.session;
+
+import com.espirit.modules.to_be_renamed.To_be_renamedPOJO;
+import com.espirit.modules.to_be_renamed.fake.To_be_renamedBudget;
+import com.espirit.modules.to_be_renamed.fake.To_be_renamedFakeContext;
+import com.espirit.modules.to_be_renamed.project.To_be_renamedProjectConfig;
+import com.espirit.modules.to_be_renamed.service.To_be_renamedService;
+import de.espirit.firstspirit.access.BaseContext;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+
+Correctness, latency and allocation budgets of the data access session, with the service's shared cache and with the
+connector as fallback
+
+*/
+
+public class To_be_renamedDataAccessSessionTest {
+
+    private static final Map<String, To_be_renamedPOJO> OBJECTS = new HashMap<>();
+    private static final AtomicInteger serviceCalls = new AtomicInteger();
+
+    private static BaseContext withService;
+    private static BaseContext withoutService;
+
+    @BeforeClass
+    public static void setUp() {
+        for (int i = 0; i < 1000; i++) {
+            OBJECTS.put("object-" + i, new To_be_renamedPOJO("object-" + i));
+        }
+        final To_be_renamedService service = To_be_renamedFakeContext.fake(To_be_renamedService.class, (method, args) -> {
+            if ("getData".equals(method.getName())) {
+                serviceCalls.incrementAndGet();
+                final List<To_be_renamedPOJO> result = new ArrayList<>();
+                for (Object identifier : (Collection<?>) args[1]) {
+                    final To_be_renamedPOJO object = OBJECTS.get(identifier);
+                    if (object != null) {
+                        result.add(object);
+                    }
+                }
+                return result;
+            }
+            return To_be_renamedFakeContext.unsupported(method);
+        });
+        withService = new To_be_renamedFakeContext(2001).service(service).build();
+        withoutService = new To_be_renamedFakeContext(2002).config(To_be_renamedProjectConfig.VAR_1, "demo").build();
+    }
+
+    @Test
+    public void testGetDataUsesTheService() {
+        final To_be_renamedDataAccessSession session = new To_be_renamedDataAccessSession(withService);
+        serviceCalls.set(0);
+
+        final List<To_be_renamedPOJO> objects = session.getData(Arrays.asList("object-3", "unknown", "object-1"));
+        Assert.assertEquals(2, objects.size());
+        Assert.assertEquals("object-3", objects.get(0).getVar());
+        Assert.assertEquals("object-1", objects.get(1).getVar());
+        Assert.assertEquals("object-7", session.getData("object-7").getVar());
+        Assert.assertNull(session.getData("unknown"));
+        Assert.assertEquals(3, serviceCalls.get());
+        Assert.assertEquals("object-7", session.getIdentifier(OBJECTS.get("object-7")));
+    }
+
+    @Test
+    public void testGetDataFallsBackToTheConnector() {
+        final To_be_renamedDataAccessSession session = new To_be_renamedDataAccessSession(withoutService);
+
+        // the demo connector returns one object named after var1
+        final List<To_be_renamedPOJO> objects = session.getData(Collections.singletonList("any"));
+        Assert.assertEquals(1, objects.size());
+        Assert.assertEquals("demo", objects.get(0).getVar());
+    }
+
+    @Test
+    public void testSessionBudget() throws Exception {
+        // created for every report and every input component of a form
+        To_be_renamedBudget.of("new session").maxMicros(2).maxBytes(300)
+                .check(() -> new To_be_renamedDataAccessSession(withService));
+    }
+
+    @Test
+    public void testGetDataBudget() throws Exception {
+        final To_be_renamedDataAccessSession session = new To_be_renamedDataAccessSession(withService);
+        final List<String> identifiers = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            identifiers.add("object-" + i * 7);
+        }
+        // the session adds little to the service call, which allocates the result list here
+        To_be_renamedBudget.of("getData(20)").maxMicros(10).maxBytes(1_000)
+                .check(() -> session.getData(identifiers));
+        To_be_renamedBudget.of("getData(1)").maxMicros(5).maxBytes(700)
+                .check(() -> session.getData("object-1"));
+    }
+}
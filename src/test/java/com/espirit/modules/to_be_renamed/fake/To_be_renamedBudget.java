@@ -0,0 +1,162 @@
+package com.espirit.modules.to_be_renamed.fake;
+
+import org.junit.Assert;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+/**
+ * Latency and allocation budget of an operation, checked in plain unit tests.
+ * <p>
+ * The operation is warmed up, then run in several rounds on the current thread; the time and the bytes allocated by
+ * the thread ({@code com.sun.management.ThreadMXBean#getThreadAllocatedBytes}) of the best round are compared with
+ * the budget. Taking the best round keeps GC pauses and noisy neighbours out of the result, so budgets can be set with
+ * moderate headroom, e.g. twice the measured value, and still catch regressions like an accidental copy of a list or a
+ * call that is no longer cached.
+ * <p>
+ * Allocations are deterministic and always checked. Durations depend on the machine and its load, so latency budgets are
+ * only checked with {@code -Dbudget.latency=true}, e.g. on a dedicated build agent.
+ */
+public final class To_be_renamedBudget {
+
+    private static final int ROUNDS = 5;
+
+    public static final String LATENCY_PROPERTY = "budget.latency";
+
+    private final String name;
+    private int warmups = 2_000;
+    private int iterations = 1_000;
+    private long maxNanos = Long.MAX_VALUE;
+    private long maxBytes = Long.MAX_VALUE;
+
+    // consumes the results, so the JIT cannot remove the operation
+    private static volatile int sink;
+
+    private To_be_renamedBudget(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @param name the name of the operation, used in failure messages
+     * @return a budget without limits
+     */
+    public static To_be_renamedBudget of(String name) {
+        return new To_be_renamedBudget(name);
+    }
+
+    public To_be_renamedBudget warmups(int warmups) {
+        this.warmups = warmups;
+        return this;
+    }
+
+    /**
+     * @param iterations the runs of the operation per round
+     * @return this budget
+     */
+    public To_be_renamedBudget iterations(int iterations) {
+        this.iterations = iterations;
+        return this;
+    }
+
+    /**
+     * @param maxMicros the maximum average duration of the operation in microseconds, checked with {@link #LATENCY_PROPERTY}
+     * @return this budget
+     */
+    public To_be_renamedBudget maxMicros(double maxMicros) {
+        this.maxNanos = (long) (maxMicros * 1000);
+        return this;
+    }
+
+    /**
+     * @param maxBytes the maximum average allocation of the operation in bytes
+     * @return this budget
+     */
+    public To_be_renamedBudget maxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+        return this;
+    }
+
+    /**
+     * Measures the operation and fails if it exceeds the allocation budget, or the latency budget if it is checked.
+     *
+     * @param operation the operation
+     * @return the measurement
+     * @throws Exception if the operation fails
+     */
+    public Measurement check(Operation operation) throws Exception {
+        for (int i = 0; i < this.warmups; i++) {
+            consume(operation.run());
+        }
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long thread = Thread.currentThread().getId();
+        final boolean allocations = threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled();
+        long bestNanos = Long.MAX_VALUE;
+        long bestBytes = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            final long bytesBefore = allocations ? threads.getThreadAllocatedBytes(thread) : 0;
+            final long start = System.nanoTime();
+            for (int i = 0; i < this.iterations; i++) {
+                consume(operation.run());
+            }
+            final long nanos = System.nanoTime() - start;
+            final long bytes = allocations ? threads.getThreadAllocatedBytes(thread) - bytesBefore : 0;
+            bestNanos = Math.min(bestNanos, nanos);
+            bestBytes = Math.min(bestBytes, bytes);
+        }
+        final Measurement measurement = new Measurement(this.name, (double) bestNanos / this.iterations, allocations ? (double) bestBytes / this.iterations : -1);
+        if (Boolean.getBoolean(LATENCY_PROPERTY)) {
+            Assert.assertTrue(measurement + " exceeds the latency budget of " + this.maxNanos / 1000.0 + "us",
+                    measurement.getNanos() <= this.maxNanos);
+        }
+        if (allocations) {
+            Assert.assertTrue(measurement + " exceeds the allocation budget of " + this.maxBytes + " bytes",
+                    measurement.getBytes() <= this.maxBytes);
+        }
+        return measurement;
+    }
+
+    private static void consume(Object result) {
+        sink += result != null ? System.identityHashCode(result) : 1;
+    }
+
+    /**
+     * An operation under test; its result is consumed.
+     */
+    @FunctionalInterface
+    public interface Operation {
+
+        Object run() throws Exception;
+    }
+
+    /**
+     * The average duration and allocation of an operation in its best round.
+     */
+    public static final class Measurement {
+
+        private final String name;
+        private final double nanos;
+        private final double bytes;
+
+        private Measurement(String name, double nanos, double bytes) {
+            this.name = name;
+            this.nanos = nanos;
+            this.bytes = bytes;
+        }
+
+        public double getNanos() {
+            return this.nanos;
+        }
+
+        /**
+         * @return the allocated bytes, -1 if the JVM does not measure allocations
+         */
+        public double getBytes() {
+            return this.bytes;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%s: %.2fus, %.0f bytes per operation", this.name, this.nanos / 1000, this.bytes);
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package com.espirit.modules.to_be_renamed.fake;
+
+import com.espirit.modules.to_be_renamed.project.To_be_renamedProjectSettings;
+import com.espirit.modules.to_be_renamed.service.To_be_renamedService;
+import com.espirit.ps.psci.genericconfiguration.Values;
+import de.espirit.firstspirit.access.BaseContext;
+import de.espirit.firstspirit.access.Language;
+import de.espirit.firstspirit.agency.Image;
+import de.espirit.firstspirit.agency.ImageAgent;
+import de.espirit.firstspirit.agency.LanguageAgent;
+import de.espirit.firstspirit.agency.ProjectAgent;
+import de.espirit.firstspirit.agency.ServicesAgent;
+import de.espirit.firstspirit.agency.SpecialistType;
+import de.espirit.firstspirit.agency.SpecialistsBroker;
+import de.espirit.firstspirit.agency.TransferAgent;
+import de.espirit.firstspirit.agency.TransferType;
+import de.espirit.firstspirit.client.plugin.report.ReportContext;
+import de.espirit.firstspirit.client.search.SegmentProvider;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Test doubles of the FirstSpirit context of a project, so the module's components run without a FirstSpirit server.
+ * <p>
+ * A fake context is a {@link BaseContext} and thereby a {@link SpecialistsBroker} with these specialists:
+ * <ul>
+ * <li>{@link ProjectAgent} with the id and name of the project</li>
+ * <li>{@link LanguageAgent} with the configured languages, the first one is the master language</li>
+ * <li>{@link TransferAgent}, whose transfer types are equal per class, see {@link #getTransferClass(TransferType)}</li>
+ * <li>{@link ImageAgent}, whose images remember their source, see {@link #getImageSource(Image)}</li>
+ * <li>{@link ServicesAgent} if a service is set with {@link #service(To_be_renamedService)}</li>
+ * </ul>
+ * Further specialists can be added with {@link #specialist(SpecialistType, Object)}. The generic config values of
+ * the project app are set with {@link #config(String, String)} and become the project's
+ * {@link To_be_renamedProjectSettings} when the context is built; use a different project id per test class, the
+ * settings are shared per project.
+ * <p>
+ * Like {@code To_be_renamedFakeModel}, the fakes are dynamic proxies that throw an {@link UnsupportedOperationException}
+ * for methods they do not support, which makes it obvious when a component starts using more of the API. Messages
+ * logged through the context are collected, see {@link #getLogged()}.
+ */
+public final class To_be_renamedFakeContext {
+
+    private final long projectId;
+    private final Map<String, String> config = new HashMap<>();
+    private final Map<SpecialistType<?>, Object> specialists = new HashMap<>();
+    private final List<String> logged = new CopyOnWriteArrayList<>();
+    private final Map<Class<?>, TransferType<?>> transferTypes = new ConcurrentHashMap<>();
+    private final Map<Image<?>, Object> imageSources = Collections.synchronizedMap(new HashMap<>());
+    private List<Language> languages = Collections.singletonList(language(Locale.ENGLISH, true));
+    private BaseContext.Env env;
+
+    /**
+     * @param projectId the id of the fake project
+     */
+    public To_be_renamedFakeContext(long projectId) {
+        this.projectId = projectId;
+    }
+
+    /**
+     * @param master the locale of the master language
+     * @param others the locales of the other languages
+     * @return this fake
+     */
+    public To_be_renamedFakeContext languages(Locale master, Locale... others) {
+        final List<Language> languages = new ArrayList<>();
+        languages.add(language(master, true));
+        for (Locale other : others) {
+            languages.add(language(other, false));
+        }
+        this.languages = Collections.unmodifiableList(languages);
+        return this;
+    }
+
+    /**
+     * @param env the environment {@link BaseContext#is(BaseContext.Env)} answers with {@code true}, none by default
+     * @return this fake
+     */
+    public To_be_renamedFakeContext env(BaseContext.Env env) {
+        this.env = env;
+        return this;
+    }
+
+    /**
+     * Sets a generic config value of the project app, e.g. {@code To_be_renamedProjectConfig.VAR_1}.
+     *
+     * @param key   the key
+     * @param value the value
+     * @return this fake
+     */
+    public To_be_renamedFakeContext config(String key, String value) {
+        this.config.put(key, value);
+        return this;
+    }
+
+    /**
+     * Makes the service available through a {@link ServicesAgent}, as if it was running.
+     *
+     * @param service the service
+     * @return this fake
+     */
+    public To_be_renamedFakeContext service(To_be_renamedService service) {
+        return specialist(ServicesAgent.TYPE, fake(ServicesAgent.class, (method, args) -> {
+            switch (method.getName()) {
+                case "isRunning":
+                    return args[0] == To_be_renamedService.class;
+                case "getServiceInterface":
+                    return args[0] == To_be_renamedService.class ? service : null;
+                default:
+                    return unsupported(method);
+            }
+        }));
+    }
+
+    /**
+     * Adds or replaces a specialist.
+     *
+     * @param type       the type of the specialist
+     * @param specialist the specialist
+     * @param <S>        the specialist
+     * @return this fake
+     */
+    public <S> To_be_renamedFakeContext specialist(SpecialistType<S> type, S specialist) {
+        this.specialists.put(type, specialist);
+        return this;
+    }
+
+    /**
+     * Builds the context and sets the project settings from the config values.
+     *
+     * @return the context
+     */
+    public BaseContext build() {
+        return build(BaseContext.class, null);
+    }
+
+    /**
+     * Builds the context of a report item and sets the project settings from the config values.
+     *
+     * @param object the object of the report entry
+     * @param <T>    the type of the object
+     * @return the context
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ReportContext<T> buildReportContext(T object) {
+        return build(ReportContext.class, object);
+    }
+
+    private <C extends BaseContext> C build(Class<C> type, Object object) {
+        To_be_renamedProjectSettings.set(this.projectId, values());
+        final Map<SpecialistType<?>, Object> specialists = new HashMap<>(defaultSpecialists());
+        specialists.putAll(this.specialists);
+        return fake(type, (method, args) -> {
+            switch (method.getName()) {
+                case "requestSpecialist":
+                    return specialists.get(args[0]);
+                case "requireSpecialist":
+                    final Object specialist = specialists.get(args[0]);
+                    if (specialist == null) {
+                        throw new IllegalStateException("No fake of specialist " + args[0]);
+                    }
+                    return specialist;
+                case "is":
+                    return args[0] == this.env;
+                case "getObject":
+                    return object;
+                case "logError":
+                case "logWarning":
+                case "logInfo":
+                case "logDebug":
+                    this.logged.add(method.getName().substring(3).toUpperCase(Locale.ROOT) + ": " + args[0]);
+                    return null;
+                default:
+                    return unsupported(method);
+            }
+        });
+    }
+
+    private Map<SpecialistType<?>, Object> defaultSpecialists() {
+        final Map<SpecialistType<?>, Object> specialists = new HashMap<>();
+        specialists.put(ProjectAgent.TYPE, fake(ProjectAgent.class, (method, args) -> {
+            switch (method.getName()) {
+                case "getId":
+                    return this.projectId;
+                case "getName":
+                    return "project-" + this.projectId;
+                default:
+                    return unsupported(method);
+            }
+        }));
+        specialists.put(LanguageAgent.TYPE, fake(LanguageAgent.class, (method, args) -> {
+            switch (method.getName()) {
+                case "getMasterLanguage":
+                    return this.languages.get(0);
+                case "getLanguages":
+                    return this.languages;
+                default:
+                    return unsupported(method);
+            }
+        }));
+        specialists.put(TransferAgent.TYPE, fake(TransferAgent.class, (method, args) -> {
+            switch (method.getName()) {
+                case "getRawValueType":
+                    return transferType((Class<?>) args[0]);
+                case "getPlainTextType":
+                    return transferType(String.class);
+                case "getQuerySegmentType":
+                    return transferType(SegmentProvider.class);
+                default:
+                    return unsupported(method);
+            }
+        }));
+        specialists.put(ImageAgent.TYPE, fake(ImageAgent.class, (method, args) -> {
+            switch (method.getName()) {
+                case "getImageFromUrl":
+                case "getImageFromIcon":
+                    final Image<?> image = fake(Image.class, (imageMethod, imageArgs) -> unsupported(imageMethod));
+                    this.imageSources.put(image, args[0]);
+                    return image;
+                default:
+                    return unsupported(method);
+            }
+        }));
+        return specialists;
+    }
+
+    private TransferType<?> transferType(Class<?> type) {
+        return this.transferTypes.computeIfAbsent(type, key -> fake(TransferType.class, (method, args) -> unsupported(method)));
+    }
+
+    /**
+     * @return the generic config values of the project app, {@code null} for keys without a value
+     */
+    public Values values() {
+        return fake(Values.class, (method, args) -> {
+            final String value = args != null && args.length == 1 && args[0] instanceof String ? this.config.get(args[0]) : null;
+            switch (method.getName()) {
+                case "getString":
+                    return value;
+                case "getBoolean":
+                    return Boolean.parseBoolean(value);
+                case "getInteger":
+                    return value != null ? Integer.valueOf(value) : 0;
+                case "getLong":
+                    return value != null ? Long.valueOf(value) : 0L;
+                default:
+                    return unsupported(method);
+            }
+        });
+    }
+
+    public long getProjectId() {
+        return this.projectId;
+    }
+
+    public Language getMasterLanguage() {
+        return this.languages.get(0);
+    }
+
+    public List<Language> getLanguages() {
+        return this.languages;
+    }
+
+    /**
+     * @return the messages logged through the built contexts, e.g. {@code "ERROR: message"}
+     */
+    public List<String> getLogged() {
+        return this.logged;
+    }
+
+    /**
+     * @param transferType a transfer type of the fake {@link TransferAgent}
+     * @return the class it was requested for, {@code String} for the plain text type and {@code SegmentProvider}
+     * for the query segment type
+     */
+    public Class<?> getTransferClass(TransferType<?> transferType) {
+        for (Map.Entry<Class<?>, TransferType<?>> entry : this.transferTypes.entrySet()) {
+            if (entry.getValue() == transferType) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param image an image of the fake {@link ImageAgent}
+     * @return the URL or icon it was created from
+     */
+    public Object getImageSource(Image<?> image) {
+        return this.imageSources.get(image);
+    }
+
+    /**
+     * Creates a fake language.
+     *
+     * @param locale the locale
+     * @param master whether it is the master language
+     * @return the language
+     */
+    public static Language language(Locale locale, boolean master) {
+        return fake(Language.class, (method, args) -> {
+            switch (method.getName()) {
+                case "getAbbreviation":
+                    return locale.getLanguage().toUpperCase(Locale.ROOT);
+                case "getLocale":
+                    return locale;
+                case "getName":
+                    return locale.getDisplayLanguage(Locale.ENGLISH);
+                case "isMasterLanguage":
+                    return master;
+                default:
+                    return unsupported(method);
+            }
+        });
+    }
+
+    /**
+     * Handler of a fake; {@code equals}, {@code hashCode} and {@code toString} are implemented by {@link #fake}.
+     */
+    @FunctionalInterface
+    public interface Handler {
+
+        Object invoke(Method method, Object[] args) throws Throwable;
+    }
+
+    /**
+     * Creates a fake of an interface.
+     *
+     * @param type    the interface
+     * @param handler the handler of its methods
+     * @param <T>     the interface
+     * @return the fake
+     */
+    public static <T> T fake(Class<T> type, Handler handler) {
+        final InvocationHandler invocationHandler = (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "equals":
+                    return args != null && args.length == 1 && proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Fake" + type.getSimpleName() + '@' + Integer.toHexString(System.identityHashCode(proxy));
+                default:
+                    return handler.invoke(method, args);
+            }
+        };
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, invocationHandler));
+    }
+
+    /**
+     * @param method the method a fake does not support
+     * @return never
+     * @throws UnsupportedOperationException always
+     */
+    public static Object unsupported(Method method) {
+        throw new UnsupportedOperationException(method.getDeclaringClass().getSimpleName() + '.' + method.getName());
+    }
+}
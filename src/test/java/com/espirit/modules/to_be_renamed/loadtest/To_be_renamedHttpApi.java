@@ -0,0 +1,165 @@
+package com.espirit.modules.to_be_renamed.loadtest;
+
+import com.espirit.modules.to_be_renamed.To_be_renamedPOJO;
+import com.espirit.modules.to_be_renamed.connector.To_be_renamedApi;
+import com.espirit.modules.to_be_renamed.util.JsonUtil;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client of the reference REST API of {@link To_be_renamedStubApi}, set as the API of the connectors of a project by
+ * the {@link To_be_renamedLoadDriver}: {@code GET <baseUrl>/objects?<query>&offset=&limit=} answered with
+ * {@code {"total":123,"items":[{"var":"..."}]}}. Throttled calls (429) and unavailable responses (503) are retried
+ * after the {@code Retry-After} delay as long as the timeout allows it.
+ */
+public class To_be_renamedHttpApi implements To_be_renamedApi {
+
+    // objects per request, the API may return fewer
+    private static final int PAGE_SIZE = 500;
+    // identifiers per request, to keep the URL short
+    private static final int IDS_PER_REQUEST = 100;
+    private static final int ATTEMPTS = 3;
+
+    private final URI baseUrl;
+    private final String token;
+    private final long timeoutMillis;
+    // keeps the connections to the API open between calls
+    private final HttpClient httpClient;
+
+    /**
+     * @param baseUrl       the base URL of the API, see {@link To_be_renamedStubApi#getUrl()}
+     * @param token         the bearer token, may be {@code null}
+     * @param timeoutMillis the timeout of a call including retries
+     */
+    public To_be_renamedHttpApi(String baseUrl, String token, long timeoutMillis) {
+        this.baseUrl = URI.create(baseUrl.endsWith("/") ? baseUrl : baseUrl + "/");
+        this.token = token;
+        this.timeoutMillis = timeoutMillis;
+        this.httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(timeoutMillis)).build();
+    }
+
+    @Override
+    public List<To_be_renamedPOJO> getSomeData(String filter) {
+        return all("filter=" + encode(filter));
+    }
+
+    @Override
+    public List<To_be_renamedPOJO> getSomeData(Collection<String> identifiers) {
+        final List<To_be_renamedPOJO> objects = new ArrayList<>(identifiers.size());
+        final List<String> chunk = new ArrayList<>(IDS_PER_REQUEST);
+        for (String identifier : identifiers) {
+            chunk.add(identifier);
+            if (chunk.size() == IDS_PER_REQUEST) {
+                objects.addAll(all("ids=" + encode(String.join(",", chunk))));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            objects.addAll(all("ids=" + encode(String.join(",", chunk))));
+        }
+        return objects;
+    }
+
+    @Override
+    public List<To_be_renamedPOJO> getSomeData(String filter, int offset, int limit) {
+        // the API may return fewer objects per request, the page must only be short at the end
+        final List<To_be_renamedPOJO> objects = new ArrayList<>(limit);
+        while (objects.size() < limit) {
+            final Page page = page("filter=" + encode(filter), offset + objects.size(), limit - objects.size());
+            if (page.items.isEmpty()) {
+                break;
+            }
+            objects.addAll(page.items);
+        }
+        return objects;
+    }
+
+    @Override
+    public List<To_be_renamedPOJO> getChangedData(long changedSince) {
+        return all("changedSince=" + changedSince);
+    }
+
+    private List<To_be_renamedPOJO> all(String query) {
+        final List<To_be_renamedPOJO> result = new ArrayList<>();
+        while (true) {
+            final Page page = page(query, result.size(), PAGE_SIZE);
+            result.addAll(page.items);
+            if (page.items.isEmpty() || result.size() >= page.total) {
+                return result;
+            }
+        }
+    }
+
+    private Page page(String query, int offset, int limit) {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.timeoutMillis);
+        final HttpRequest.Builder request = HttpRequest.newBuilder(this.baseUrl.resolve("objects?" + query + "&offset=" + offset + "&limit=" + limit))
+                .timeout(Duration.ofMillis(this.timeoutMillis))
+                .header("Accept", "application/json");
+        if (this.token != null && !this.token.isEmpty()) {
+            request.header("Authorization", "Bearer " + this.token);
+        }
+        try {
+            for (int attempt = 1; ; attempt++) {
+                final HttpResponse<String> response = this.httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+                if (response.statusCode() == 200) {
+                    return Page.parse(response.body());
+                }
+                final long retryAfterMillis = TimeUnit.SECONDS.toMillis(response.headers().firstValueAsLong("Retry-After").orElse(1));
+                final boolean retryable = response.statusCode() == 429 || response.statusCode() == 503;
+                if (!retryable || attempt >= ATTEMPTS || System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(retryAfterMillis) > deadline) {
+                    throw new UncheckedIOException(new IOException("Third party API returned " + response.statusCode() + " for " + query));
+                }
+                Thread.sleep(retryAfterMillis);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException("Interrupted while calling the third party API"));
+        }
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value != null ? value : "", StandardCharsets.UTF_8);
+    }
+
+    private static final class Page {
+
+        private final long total;
+        private final List<To_be_renamedPOJO> items;
+
+        private Page(long total, List<To_be_renamedPOJO> items) {
+            this.total = total;
+            this.items = items;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Page parse(String json) throws IOException {
+            try {
+                final Map<String, Object> page = (Map<String, Object>) JsonUtil.parse(json);
+                final List<Object> items = (List<Object>) page.get("items");
+                final List<To_be_renamedPOJO> objects = new ArrayList<>(items.size());
+                for (Object item : items) {
+                    objects.add(new To_be_renamedPOJO((String) ((Map<String, Object>) item).get("var")));
+                }
+                return new Page(((Number) page.get("total")).longValue(), objects);
+            } catch (IllegalArgumentException | ClassCastException | NullPointerException e) {
+                throw new IOException("Unexpected response of the third party API: " + e.getMessage(), e);
+            }
+        }
+    }
+}
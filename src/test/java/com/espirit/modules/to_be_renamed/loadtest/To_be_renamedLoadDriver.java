@@ -0,0 +1,338 @@
+package com.espirit.modules.to_be_renamed.loadtest;
+
+import com.espirit.modules.to_be_renamed.To_be_renamedPOJO;
+import com.espirit.modules.to_be_renamed.connector.To_be_renamedApi;
+import com.espirit.modules.to_be_renamed.connector.To_be_renamedConnector;
+import com.espirit.modules.to_be_renamed.connector.To_be_renamedConnectors;
+import com.espirit.modules.to_be_renamed.dataaccess.session.To_be_renamedDataAccessSession;
+import de.espirit.firstspirit.access.BaseContext;
+import de.espirit.firstspirit.agency.ProjectAgent;
+import de.espirit.firstspirit.client.plugin.dataaccess.DataStream;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * Drives the connector stack with concurrent virtual editors and reports throughput and latency percentiles per
+ * operation.
+ * <p>
+ * Every editor repeats what an editor in the ContentCreator causes: it opens a report
+ * ({@link To_be_renamedDataAccessSession#createDataStreamBuilder()} and the first pages of the
+ * {@code To_be_renamedDataStream}), resolves the references of a page ({@link To_be_renamedDataAccessSession#getData}),
+ * and, less often, reads a page like the import does ({@link To_be_renamedConnector#getSomeData(String, int, int)}),
+ * with a think time in between. The connectors of the context's project call the API set with {@link #api}, e.g. a
+ * {@link To_be_renamedHttpApi} of a {@link To_be_renamedStubApi}, while the driver runs.
+ */
+public class To_be_renamedLoadDriver {
+
+    static final String OPEN_REPORT = "report.open";
+    static final String NEXT_PAGE = "report.getNext";
+    static final String GET_DATA = "session.getData";
+    static final String GET_PAGE = "connector.getSomeData.page";
+
+    private final BaseContext context;
+    private IntFunction<To_be_renamedApi> api;
+    private int editors = 50;
+    private long durationMillis = 3_000;
+    private long minThinkMillis = 0;
+    private long maxThinkMillis = 20;
+    private int objects = 1000;
+    private int identifiersPerLookup = 20;
+    private int reportPages = 2;
+    private int reportPageSize = 50;
+
+    /**
+     * @param context the context the editors' sessions are created with
+     */
+    public To_be_renamedLoadDriver(BaseContext context) {
+        this.context = context;
+    }
+
+    /**
+     * @param api creates the API the connectors of the context's project call while the driver runs, with the connector
+     *            timeout of the project's settings, see {@link To_be_renamedConnectors#install}
+     * @return this driver
+     */
+    public To_be_renamedLoadDriver api(IntFunction<To_be_renamedApi> api) {
+        this.api = api;
+        return this;
+    }
+
+    public To_be_renamedLoadDriver editors(int editors) {
+        this.editors = editors;
+        return this;
+    }
+
+    public To_be_renamedLoadDriver duration(long duration, TimeUnit unit) {
+        this.durationMillis = unit.toMillis(duration);
+        return this;
+    }
+
+    public To_be_renamedLoadDriver thinkTime(long minMillis, long maxMillis) {
+        this.minThinkMillis = minMillis;
+        this.maxThinkMillis = maxMillis;
+        return this;
+    }
+
+    /**
+     * @param objects the number of objects of the API, the editors look up random ones of them
+     * @return this driver
+     */
+    public To_be_renamedLoadDriver objects(int objects) {
+        this.objects = objects;
+        return this;
+    }
+
+    public To_be_renamedLoadDriver identifiersPerLookup(int identifiersPerLookup) {
+        this.identifiersPerLookup = identifiersPerLookup;
+        return this;
+    }
+
+    public To_be_renamedLoadDriver reportPages(int pages, int pageSize) {
+        this.reportPages = pages;
+        this.reportPageSize = pageSize;
+        return this;
+    }
+
+    /**
+     * Runs all editors for the configured duration.
+     *
+     * @return the report
+     * @throws InterruptedException if interrupted while waiting for the editors
+     */
+    public Report run() throws InterruptedException {
+        final long projectId = this.context.requireSpecialist(ProjectAgent.TYPE).getId();
+        To_be_renamedConnectors.install(this.context, this.api);
+        try {
+            return runEditors();
+        } finally {
+            To_be_renamedConnectors.uninstall(projectId);
+        }
+    }
+
+    private Report runEditors() throws InterruptedException {
+        final ExecutorService executor = Executors.newFixedThreadPool(this.editors);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Editor> editors = new ArrayList<>(this.editors);
+        for (int i = 0; i < this.editors; i++) {
+            final Editor editor = new Editor();
+            editors.add(editor);
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    editor.run(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.durationMillis));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        final long started = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        if (!executor.awaitTermination(this.durationMillis + TimeUnit.MINUTES.toMillis(1), TimeUnit.MILLISECONDS)) {
+            executor.shutdownNow();
+        }
+        final long elapsed = System.nanoTime() - started;
+
+        final Map<String, Samples> merged = new LinkedHashMap<>();
+        for (String operation : new String[]{OPEN_REPORT, NEXT_PAGE, GET_DATA, GET_PAGE}) {
+            merged.put(operation, new Samples());
+        }
+        for (Editor editor : editors) {
+            for (Map.Entry<String, Samples> samples : editor.samples.entrySet()) {
+                merged.get(samples.getKey()).addAll(samples.getValue());
+            }
+        }
+        return new Report(this.editors, elapsed, merged);
+    }
+
+    private final class Editor {
+
+        private final Map<String, Samples> samples = new LinkedHashMap<>();
+
+        private void run(long deadline) throws InterruptedException {
+            final ThreadLocalRandom random = ThreadLocalRandom.current();
+            // every editor has its own session, like every ContentCreator tab
+            final To_be_renamedDataAccessSession session = new To_be_renamedDataAccessSession(context);
+            int round = 0;
+            while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+                openReport(session);
+                think(random);
+
+                final List<String> identifiers = new ArrayList<>(identifiersPerLookup);
+                for (int i = 0; i < identifiersPerLookup; i++) {
+                    identifiers.add("object-" + random.nextInt(objects));
+                }
+                time(GET_DATA, () -> session.getData(identifiers));
+                think(random);
+
+                if (round++ % 5 == 0) {
+                    final int offset = random.nextInt(Math.max(1, objects - 100));
+                    time(GET_PAGE, () -> To_be_renamedConnector.getInstance(context).getSomeData("", offset, 100));
+                    think(random);
+                }
+            }
+        }
+
+        private void openReport(To_be_renamedDataAccessSession session) {
+            final DataStream<To_be_renamedPOJO>[] stream = new DataStream[1];
+            if (!time(OPEN_REPORT, () -> stream[0] = session.createDataStreamBuilder().createDataStream())) {
+                return;
+            }
+            try {
+                for (int page = 0; page < reportPages && stream[0].hasNext(); page++) {
+                    time(NEXT_PAGE, () -> stream[0].getNext(reportPageSize));
+                }
+            } finally {
+                stream[0].close();
+            }
+        }
+
+        private boolean time(String operation, Call call) {
+            final Samples samples = this.samples.computeIfAbsent(operation, key -> new Samples());
+            final long start = System.nanoTime();
+            try {
+                call.run();
+                samples.add(System.nanoTime() - start);
+                return true;
+            } catch (Exception e) {
+                samples.failed();
+                return false;
+            }
+        }
+
+        private void think(ThreadLocalRandom random) throws InterruptedException {
+            if (maxThinkMillis > 0) {
+                Thread.sleep(random.nextLong(minThinkMillis, maxThinkMillis + 1));
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Call {
+
+        void run() throws Exception;
+    }
+
+    /**
+     * The durations of the successful calls of one operation and the number of failed ones.
+     */
+    static final class Samples {
+
+        private long[] durations = new long[256];
+        private int count;
+        private long errors;
+
+        void add(long nanos) {
+            if (this.count == this.durations.length) {
+                this.durations = Arrays.copyOf(this.durations, this.count * 2);
+            }
+            this.durations[this.count++] = nanos;
+        }
+
+        void failed() {
+            this.errors++;
+        }
+
+        void addAll(Samples other) {
+            for (int i = 0; i < other.count; i++) {
+                add(other.durations[i]);
+            }
+            this.errors += other.errors;
+        }
+
+        long getCount() {
+            return this.count;
+        }
+
+        long getErrors() {
+            return this.errors;
+        }
+
+        // exact, the samples are sorted once by the report
+        double percentileMillis(double quantile) {
+            if (this.count == 0) {
+                return 0;
+            }
+            return this.durations[Math.min(this.count - 1, (int) Math.ceil(quantile * this.count) - 1)] / 1e6;
+        }
+
+        private void sort() {
+            Arrays.sort(this.durations, 0, this.count);
+        }
+    }
+
+    /**
+     * Throughput and latency per operation of a run.
+     */
+    public static final class Report {
+
+        private final int editors;
+        private final long elapsedNanos;
+        private final Map<String, Samples> operations;
+
+        private Report(int editors, long elapsedNanos, Map<String, Samples> operations) {
+            this.editors = editors;
+            this.elapsedNanos = elapsedNanos;
+            this.operations = operations;
+            for (Samples samples : operations.values()) {
+                samples.sort();
+            }
+        }
+
+        public long getCalls(String operation) {
+            return this.operations.get(operation).getCount();
+        }
+
+        public long getErrors(String operation) {
+            return this.operations.get(operation).getErrors();
+        }
+
+        public long getTotalCalls() {
+            long calls = 0;
+            for (Samples samples : this.operations.values()) {
+                calls += samples.getCount();
+            }
+            return calls;
+        }
+
+        public long getTotalErrors() {
+            long errors = 0;
+            for (Samples samples : this.operations.values()) {
+                errors += samples.getErrors();
+            }
+            return errors;
+        }
+
+        public double getThroughput(String operation) {
+            return this.operations.get(operation).getCount() * 1e9 / this.elapsedNanos;
+        }
+
+        public double getPercentileMillis(String operation, double quantile) {
+            return this.operations.get(operation).percentileMillis(quantile);
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder report = new StringBuilder();
+            report.append(String.format(Locale.ROOT, "%d editors, %.1fs%n", this.editors, this.elapsedNanos / 1e9));
+            report.append(String.format(Locale.ROOT, "%-28s %9s %7s %9s %9s %9s%n", "operation", "calls", "errors", "ops/s", "p50 ms", "p99 ms"));
+            for (Map.Entry<String, Samples> operation : this.operations.entrySet()) {
+                final Samples samples = operation.getValue();
+                report.append(String.format(Locale.ROOT, "%-28s %9d %7d %9.1f %9.2f %9.2f%n", operation.getKey(), samples.getCount(),
+                        samples.getErrors(), getThroughput(operation.getKey()), samples.percentileMillis(0.5), samples.percentileMillis(0.99)));
+            }
+            return report.toString();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.espirit.modules.to_be_renamed.loadtest;
+
+import com.espirit.modules.to_be_renamed.fake.To_be_renamedFakeContext;
+import com.espirit.modules.to_be_renamed.project.To_be_renamedProjectConfig;
+import de.espirit.firstspirit.access.BaseContext;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+
+Load tests of the connector stack against an in-process stub of the third party API. They run briefly by default, to
+check the stack under concurrency; scale them with -Dloadtest.editors=500 -Dloadtest.seconds=50, e.g.
+
+    gradle test --tests '*To_be_renamedLoadTest' -Dloadtest.editors=500 -Dloadtest.seconds=50 -i
+
+A failed assertion reports the calls, errors and latencies per operation of its run.
+
+*/
+
+public class To_be_renamedLoadTest {
+
+    private static final long PROJECT_ID = 4711;
+    private static final int OBJECTS = 2000;
+    private static final int EDITORS = Integer.getInteger("loadtest.editors", 50);
+    private static final int SECONDS = Integer.getInteger("loadtest.seconds", 3);
+
+    private static To_be_renamedStubApi api;
+    private static BaseContext context;
+
+    @BeforeClass
+    public static void startApi() throws Exception {
+        api = new To_be_renamedStubApi(OBJECTS, 64);
+        // without a running service, so all calls go through the connector
+        context = new To_be_renamedFakeContext(PROJECT_ID)
+                .config(To_be_renamedProjectConfig.CONNECTOR_TIMEOUT, "10")
+                .build();
+    }
+
+    @AfterClass
+    public static void stopApi() {
+        api.close();
+    }
+
+    @Before
+    public void resetApi() {
+        api.latency(To_be_renamedStubApi.Latency.fixed(0)).errorRate(0).pageSize(Integer.MAX_VALUE).rateLimit(0);
+    }
+
+    @Test
+    public void testSteadyLoad() throws Exception {
+        api.latency(To_be_renamedStubApi.Latency.logNormal(5, 40)).pageSize(250);
+
+        final To_be_renamedLoadDriver.Report report = driver().run();
+        final String message = "Steady load, log-normal latency (p50 5ms, p99 40ms), 250 objects per response\n" + report;
+
+        Assert.assertEquals(message, 0, report.getTotalErrors());
+        Assert.assertTrue(message, report.getCalls(To_be_renamedLoadDriver.GET_DATA) > 0);
+        Assert.assertTrue(message, report.getCalls(To_be_renamedLoadDriver.OPEN_REPORT) > 0);
+        Assert.assertTrue(message, report.getCalls(To_be_renamedLoadDriver.NEXT_PAGE) > 0);
+        Assert.assertTrue(message, report.getCalls(To_be_renamedLoadDriver.GET_PAGE) > 0);
+        // a report reads all 2000 objects in pages of 250
+        Assert.assertTrue(message, report.getPercentileMillis(To_be_renamedLoadDriver.OPEN_REPORT, 0.5) >= 8 * 5 * 0.5);
+    }
+
+    @Test
+    public void testErrorsAndSpikes() throws Exception {
+        api.latency(To_be_renamedStubApi.Latency.withSpikes(To_be_renamedStubApi.Latency.uniform(1, 5), 0.02, 200)).errorRate(0.05);
+
+        final To_be_renamedLoadDriver.Report report = driver().run();
+        final String message = "5% errors, 2% responses after 200ms\n" + report;
+
+        // failed calls are counted, the editors go on working
+        Assert.assertTrue(message, api.getErrors() > 0);
+        Assert.assertTrue(message, report.getTotalErrors() > 0);
+        Assert.assertTrue(message, report.getTotalCalls() > report.getTotalErrors());
+        Assert.assertTrue(message, report.getPercentileMillis(To_be_renamedLoadDriver.GET_DATA, 0.99) >= 100);
+    }
+
+    @Test
+    public void testRateLimit() throws Exception {
+        api.latency(To_be_renamedStubApi.Latency.fixed(1)).pageSize(1000).rateLimit(100);
+
+        final To_be_renamedLoadDriver.Report report = driver().run();
+        final String message = "Rate limit of 100 requests per second\n" + report;
+
+        // throttled calls are retried after Retry-After, so the API sees more requests than it serves
+        Assert.assertTrue(message, api.getThrottled() > 0);
+        Assert.assertTrue(message, report.getTotalCalls() > 0);
+        Assert.assertTrue(message, report.getPercentileMillis(To_be_renamedLoadDriver.GET_DATA, 0.99) >= 1000 || report.getErrors(To_be_renamedLoadDriver.GET_DATA) > 0);
+    }
+
+    private static To_be_renamedLoadDriver driver() {
+        return new To_be_renamedLoadDriver(context).api(timeoutMillis -> new To_be_renamedHttpApi(api.getUrl(), "token", timeoutMillis)).editors(EDITORS).duration(SECONDS, TimeUnit.SECONDS).objects(OBJECTS);
+    }
+}
@@ -0,0 +1,292 @@
+package com.espirit.modules.to_be_renamed.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An in-process stand-in for the third party API, serving the reference API the connector calls if its base URL is
+ * configured as var1: {@code GET /objects?filter=&ids=&changedSince=&offset=&limit=} returns
+ * {@code {"total":123,"items":[{"var":"object-0"}]}}.
+ * <p>
+ * Latency, error rate, the maximum page size and a rate limit are configurable, so the connector stack can be load
+ * tested without the real vendor, see {@link To_be_renamedLoadDriver}. Throttled requests get 429 with
+ * {@code Retry-After}, injected errors 500.
+ */
+public class To_be_renamedStubApi implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final int objects;
+
+    private volatile Latency latency = Latency.fixed(0);
+    private volatile double errorRate;
+    private volatile int pageSize = Integer.MAX_VALUE;
+    private volatile int requestsPerSecond;
+
+    // token bucket of the rate limit, in requests times 1000 to allow fractions
+    private final AtomicLong tokens = new AtomicLong();
+    private final AtomicLong refilled = new AtomicLong(System.nanoTime());
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+
+    /**
+     * Starts a stub on a free local port.
+     *
+     * @param objects the number of objects, named {@code object-0} to {@code object-<objects - 1>}
+     * @param threads the number of requests served concurrently
+     * @throws IOException if the server could not be started
+     */
+    public To_be_renamedStubApi(int objects, int threads) throws IOException {
+        this.objects = objects;
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        this.server.createContext("/objects", this::handle);
+        this.server.setExecutor(this.executor);
+        this.server.start();
+    }
+
+    /**
+     * @param latency the latency of every successful or failing response
+     * @return this stub
+     */
+    public To_be_renamedStubApi latency(Latency latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    /**
+     * @param errorRate the share of requests answered with 500, between 0 and 1
+     * @return this stub
+     */
+    public To_be_renamedStubApi errorRate(double errorRate) {
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    /**
+     * @param pageSize the maximum number of objects per response, regardless of the requested limit
+     * @return this stub
+     */
+    public To_be_renamedStubApi pageSize(int pageSize) {
+        this.pageSize = pageSize;
+        return this;
+    }
+
+    /**
+     * @param requestsPerSecond the requests allowed per second, with a burst of one second; 0 for no limit
+     * @return this stub
+     */
+    public To_be_renamedStubApi rateLimit(int requestsPerSecond) {
+        this.requestsPerSecond = requestsPerSecond;
+        this.tokens.set(requestsPerSecond * 1000L);
+        this.refilled.set(System.nanoTime());
+        return this;
+    }
+
+    /**
+     * @return the base URL to configure as var1 of the connector
+     */
+    public String getUrl() {
+        return "http://" + this.server.getAddress().getHostString() + ":" + this.server.getAddress().getPort() + "/";
+    }
+
+    public long getRequests() {
+        return this.requests.sum();
+    }
+
+    public long getErrors() {
+        return this.errors.sum();
+    }
+
+    public long getThrottled() {
+        return this.throttled.sum();
+    }
+
+    @Override
+    public void close() {
+        this.server.stop(0);
+        this.executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            this.requests.increment();
+            if (!acquire()) {
+                this.throttled.increment();
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                send(exchange, 429, "{\"error\":\"rate limit exceeded\"}");
+                return;
+            }
+            sleep(this.latency.sampleMillis());
+            if (this.errorRate > 0 && ThreadLocalRandom.current().nextDouble() < this.errorRate) {
+                this.errors.increment();
+                send(exchange, 500, "{\"error\":\"injected error\"}");
+                return;
+            }
+            send(exchange, 200, page(parse(exchange.getRequestURI().getRawQuery())));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private boolean acquire() {
+        final int limit = this.requestsPerSecond;
+        if (limit <= 0) {
+            return true;
+        }
+        final long now = System.nanoTime();
+        final long last = this.refilled.get();
+        final long refill = (now - last) * limit / 1_000_000L;
+        if (refill > 0 && this.refilled.compareAndSet(last, now)) {
+            this.tokens.accumulateAndGet(refill, (current, added) -> Math.min(limit * 1000L, current + added));
+        }
+        while (true) {
+            final long current = this.tokens.get();
+            if (current < 1000) {
+                return false;
+            }
+            if (this.tokens.compareAndSet(current, current - 1000)) {
+                return true;
+            }
+        }
+    }
+
+    private String page(Map<String, String> query) {
+        final List<Integer> matches = new ArrayList<>();
+        if (query.containsKey("ids")) {
+            for (String identifier : query.get("ids").split(",")) {
+                final int index = index(identifier);
+                if (index >= 0) {
+                    matches.add(index);
+                }
+            }
+        } else {
+            // a filter matches the objects whose number contains it, changedSince is not simulated
+            final String filter = query.getOrDefault("filter", "");
+            for (int i = 0; i < this.objects; i++) {
+                if (filter.isEmpty() || "all".equals(filter) || Integer.toString(i).contains(filter)) {
+                    matches.add(i);
+                }
+            }
+        }
+        final int offset = Math.min(matches.size(), Integer.parseInt(query.getOrDefault("offset", "0")));
+        final int limit = Math.min(this.pageSize, Integer.parseInt(query.getOrDefault("limit", Integer.toString(Integer.MAX_VALUE))));
+        final int end = (int) Math.min(matches.size(), (long) offset + limit);
+
+        final StringBuilder json = new StringBuilder(64 + (end - offset) * 24);
+        json.append("{\"total\":").append(matches.size()).append(",\"items\":[");
+        for (int i = offset; i < end; i++) {
+            if (i > offset) {
+                json.append(',');
+            }
+            json.append("{\"var\":\"object-").append(matches.get(i)).append("\"}");
+        }
+        return json.append("]}").toString();
+    }
+
+    private int index(String identifier) {
+        if (!identifier.startsWith("object-")) {
+            return -1;
+        }
+        try {
+            final int index = Integer.parseInt(identifier.substring(7));
+            return index >= 0 && index < this.objects ? index : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static Map<String, String> parse(String rawQuery) {
+        final Map<String, String> query = new HashMap<>();
+        if (rawQuery != null) {
+            for (String parameter : rawQuery.split("&")) {
+                final int equals = parameter.indexOf('=');
+                if (equals > 0) {
+                    query.put(parameter.substring(0, equals), URLDecoder.decode(parameter.substring(equals + 1), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return query;
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * A latency distribution of the stub's responses.
+     */
+    @FunctionalInterface
+    public interface Latency {
+
+        long sampleMillis();
+
+        static Latency fixed(long millis) {
+            return () -> millis;
+        }
+
+        static Latency uniform(long minMillis, long maxMillis) {
+            return () -> ThreadLocalRandom.current().nextLong(minMillis, maxMillis + 1);
+        }
+
+        /**
+         * A long tailed distribution, as typical for remote APIs.
+         *
+         * @param medianMillis the median
+         * @param p99Millis    the 99th percentile, at least the median
+         * @return the distribution
+         */
+        static Latency logNormal(double medianMillis, double p99Millis) {
+            // the 99th percentile of a standard normal distribution is 2.326
+            final double sigma = Math.log(p99Millis / medianMillis) / 2.326;
+            final double mu = Math.log(medianMillis);
+            return () -> Math.round(Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian()));
+        }
+
+        /**
+         * Mostly {@code base}, but a share of the responses takes {@code slowMillis}, e.g. a cold cache of the vendor.
+         *
+         * @param base       the usual latency
+         * @param slowShare  the share of slow responses, between 0 and 1
+         * @param slowMillis the latency of slow responses
+         * @return the distribution
+         */
+        static Latency withSpikes(Latency base, double slowShare, long slowMillis) {
+            return () -> ThreadLocalRandom.current().nextDouble() < slowShare ? slowMillis : base.sampleMillis();
+        }
+    }
+}
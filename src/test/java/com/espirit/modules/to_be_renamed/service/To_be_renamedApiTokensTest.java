@@ -0,0 +1,61 @@
+package com.espirit.modules.to_be_renamed.service;
+
+import com.espirit.modules.to_be_renamed.util.DataDirUtil;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/*
+
+API tokens are random, kept per project in the data directory and only accepted until they are regenerated
+
+*/
+
+public class To_be_renamedApiTokensTest {
+
+    @Rule
+    public final TemporaryFolder dataDir = new TemporaryFolder();
+
+    @Before
+    public void setUp() {
+        System.setProperty(DataDirUtil.DATA_DIR_PROPERTY, this.dataDir.getRoot().getPath());
+    }
+
+    @After
+    public void tearDown() {
+        System.clearProperty(DataDirUtil.DATA_DIR_PROPERTY);
+    }
+
+    @Test
+    public void testTokensArePerProjectAndKept() throws Exception {
+        final To_be_renamedApiTokens tokens = new To_be_renamedApiTokens();
+        // no token is generated by a check
+        Assert.assertFalse(tokens.matches(1, "anything"));
+
+        final String first = tokens.get(1);
+        Assert.assertEquals(43, first.length());
+        Assert.assertEquals(first, tokens.get(1));
+        Assert.assertNotEquals(first, tokens.get(2));
+        Assert.assertTrue(tokens.matches(1, first));
+        Assert.assertFalse(tokens.matches(2, first));
+
+        // read again from the data directory, e.g. after a restart
+        Assert.assertTrue(new To_be_renamedApiTokens().matches(1, first));
+        Assert.assertEquals(first, new To_be_renamedApiTokens().get(1));
+    }
+
+    @Test
+    public void testRegenerate() throws Exception {
+        final To_be_renamedApiTokens tokens = new To_be_renamedApiTokens();
+        final String old = tokens.get(1);
+        final String current = tokens.regenerate(1);
+
+        Assert.assertNotEquals(old, current);
+        Assert.assertFalse(tokens.matches(1, old));
+        Assert.assertTrue(tokens.matches(1, current));
+        Assert.assertTrue(new To_be_renamedApiTokens().matches(1, current));
+    }
+}
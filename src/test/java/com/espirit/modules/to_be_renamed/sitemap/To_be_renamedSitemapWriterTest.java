@@ -0,0 +1,107 @@
+package com.espirit.modules.to_be_renamed.sitemap;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.w3c.dom.Document;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+
+/*
+
+Sitemap files written with small limits: a new file is started at the URL and byte limits, the index references all
+files, and locations are percent-encoded
+
+*/
+
+public class To_be_renamedSitemapWriterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testUrlLimit() throws Exception {
+        final Path directory = this.folder.getRoot().toPath();
+        try (To_be_renamedSitemapWriter writer = new To_be_renamedSitemapWriter(directory, "sitemap", "https://www.example.com/maps", false, 2, Long.MAX_VALUE)) {
+            for (int i = 0; i < 5; i++) {
+                writer.add("https://www.example.com/page-" + i + ".html");
+            }
+            Assert.assertEquals(Arrays.asList("sitemap-1.xml", "sitemap-2.xml", "sitemap-3.xml"), writer.getFiles());
+            Assert.assertEquals(5, writer.getTotalUrls());
+        }
+        Assert.assertEquals(Arrays.asList("https://www.example.com/page-0.html", "https://www.example.com/page-1.html"),
+                locations(directory.resolve("sitemap-1.xml"), false));
+        Assert.assertEquals(Arrays.asList("https://www.example.com/page-4.html"), locations(directory.resolve("sitemap-3.xml"), false));
+        Assert.assertEquals(Arrays.asList("https://www.example.com/maps/sitemap-1.xml", "https://www.example.com/maps/sitemap-2.xml",
+                "https://www.example.com/maps/sitemap-3.xml"), locations(directory.resolve("sitemap.xml"), false));
+    }
+
+    @Test
+    public void testByteLimit() throws Exception {
+        final Path directory = this.folder.getRoot().toPath();
+        final long maxBytes = 1024;
+        final To_be_renamedSitemapWriter writer = new To_be_renamedSitemapWriter(directory, "sitemap", "https://www.example.com", false, 1000, maxBytes);
+        for (int i = 0; i < 50; i++) {
+            writer.add("https://www.example.com/products/page-" + i + ".html");
+        }
+        writer.close();
+        Assert.assertTrue(writer.getFiles().size() > 1);
+        int urls = 0;
+        for (String file : writer.getFiles()) {
+            final Path path = directory.resolve(file);
+            Assert.assertTrue(file, Files.size(path) <= maxBytes);
+            urls += locations(path, false).size();
+        }
+        Assert.assertEquals(50, urls);
+    }
+
+    @Test
+    public void testGzip() throws Exception {
+        final Path directory = this.folder.getRoot().toPath();
+        try (To_be_renamedSitemapWriter writer = new To_be_renamedSitemapWriter(directory, "sitemap", "https://www.example.com/", true)) {
+            writer.add("https://www.example.com/index.html");
+        }
+        Assert.assertEquals(Arrays.asList("https://www.example.com/index.html"), locations(directory.resolve("sitemap-1.xml.gz"), true));
+        Assert.assertEquals(Arrays.asList("https://www.example.com/sitemap-1.xml.gz"), locations(directory.resolve("sitemap.xml.gz"), true));
+    }
+
+    @Test
+    public void testEncoding() throws Exception {
+        Assert.assertEquals("https://www.example.com/de/%C3%BCber%20uns.html?a=1&b=2",
+                To_be_renamedSitemapWriter.encode("https://www.example.com/de/über uns.html?a=1&b=2"));
+        Assert.assertEquals("/a%20b/100%25/%F0%9F%98%80", To_be_renamedSitemapWriter.encode("/a%20b/100%/😀"));
+        final String plain = "https://www.example.com/index.html";
+        Assert.assertSame(plain, To_be_renamedSitemapWriter.encode(plain));
+
+        final Path directory = this.folder.getRoot().toPath();
+        try (To_be_renamedSitemapWriter writer = new To_be_renamedSitemapWriter(directory, "sitemap", "https://www.example.com", false)) {
+            writer.add("https://www.example.com/über uns.html?a=1&b=2");
+        }
+        final String xml = new String(Files.readAllBytes(directory.resolve("sitemap-1.xml")), "UTF-8");
+        Assert.assertTrue(xml, xml.contains("<loc>https://www.example.com/%C3%BCber%20uns.html?a=1&amp;b=2</loc>"));
+    }
+
+    private static List<String> locations(Path file, boolean gzip) throws Exception {
+        try (InputStream in = gzip ? new GZIPInputStream(Files.newInputStream(file)) : Files.newInputStream(file)) {
+            final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setNamespaceAware(true);
+            final Document document = factory.newDocumentBuilder().parse(in);
+            final NodeList nodes = document.getElementsByTagNameNS("http://www.sitemaps.org/schemas/sitemap/0.9", "loc");
+            final List<String> locations = new ArrayList<>(nodes.getLength());
+            for (int i = 0; i < nodes.getLength(); i++) {
+                locations.add(nodes.item(i).getTextContent());
+            }
+            return locations;
+        }
+    }
+}
@@ -0,0 +1,515 @@
+package com.espirit.modules.to_be_renamed.urlfactory;
+
+import de.espirit.firstspirit.access.Language;
+import de.espirit.firstspirit.access.Listable;
+import de.espirit.firstspirit.access.project.Project;
+import de.espirit.firstspirit.access.project.Resolution;
+import de.espirit.firstspirit.access.project.TemplateSet;
+import de.espirit.firstspirit.access.store.IDProvider;
+import de.espirit.firstspirit.access.store.LanguageInfo;
+import de.espirit.firstspirit.access.store.PageParams;
+import de.espirit.firstspirit.access.store.Store;
+import de.espirit.firstspirit.access.store.mediastore.File;
+import de.espirit.firstspirit.access.store.mediastore.Media;
+import de.espirit.firstspirit.access.store.mediastore.MediaFolder;
+import de.espirit.firstspirit.access.store.mediastore.MediaMetaData;
+import de.espirit.firstspirit.access.store.mediastore.Picture;
+import de.espirit.firstspirit.access.store.sitestore.Content2Params;
+import de.espirit.firstspirit.access.store.sitestore.ContentMultiPageParams.ContentPageParams;
+import de.espirit.firstspirit.access.store.sitestore.PageRef;
+import de.espirit.firstspirit.access.store.sitestore.SiteStoreFolder;
+import de.espirit.firstspirit.generate.PathLookup;
+import de.espirit.or.schema.Entity;
+import de.espirit.or.schema.EntityType;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+
+/**
+ * Lightweight fake of the parts of the FirstSpirit store model used by the {@link To_be_renamedUrlFactory}, built with
+ * dynamic proxies so no FirstSpirit server is needed. Unsupported methods throw an
+ * {@link UnsupportedOperationException}, which makes it obvious when the url factory starts using more of the API.
+ *
+ * Site trees are generated in two shapes: {@link Shape#DEEP} (a binary tree of folders, every folder containing
+ * pages) and {@link Shape#WIDE} (few levels with many folders and pages each).
+ */
+public final class To_be_renamedFakeModel {
+
+  public enum Shape {DEEP, WIDE}
+
+  private final Project _project;
+  private final Language _german;
+  private final Language _english;
+  private final List<TemplateSet> _templateSets;
+  private final List<PageRef> _pageRefs = new ArrayList<>();
+  private final List<PageRef> _contentProjections = new ArrayList<>();
+  private final List<Media> _media = new ArrayList<>();
+  private final Resolution _thumbnail;
+  private final FakeNode _siteRoot;
+  private final Store _store;
+  private final Set<Long> _neverReleased = new HashSet<>();
+  private boolean _release;
+  private long _nextId = 1;
+
+
+  /**
+   * Build a site tree of roughly {@code nodes} nodes in the provided shape, plus a media tree of
+   * {@code nodes / 10} media.
+   */
+  public To_be_renamedFakeModel(final Shape shape, final int nodes) {
+    _german = language("DE", Locale.GERMAN, true);
+    _english = language("EN", Locale.ENGLISH, false);
+    _templateSets = Arrays.asList(templateSet("xml", "xml"), templateSet("html", "html"), templateSet("mobile", "html"));
+    _project = proxy(Project.class, (method, args) -> {
+      switch (method.getName()) {
+        case "getId":
+          return 4711L;
+        case "getName":
+          return "benchmark";
+        case "getTemplateSets":
+          return _templateSets;
+        case "getMasterLanguage":
+          return _german;
+        case "getLanguages":
+          return Arrays.asList(_german, _english);
+        default:
+          return unsupported(method);
+      }
+    });
+    _thumbnail = proxy(Resolution.class, (method, args) -> {
+      switch (method.getName()) {
+        case "getUid":
+          return "THUMBNAIL";
+        case "isOriginal":
+          return false;
+        default:
+          return unsupported(method);
+      }
+    });
+
+    _store = proxy(Store.class, (method, args) -> {
+      if ("isRelease".equals(method.getName())) {
+        return _release;
+      }
+      return unsupported(method);
+    });
+
+    final FakeNode siteRoot = new FakeNode(NodeKind.FOLDER, "root", null);
+    _siteRoot = siteRoot;
+    if (shape == Shape.DEEP) {
+      // binary tree of folders with two pages per folder: 4 nodes per level-node
+      final int folders = Math.max(1, nodes / 3);
+      buildDeep(siteRoot, folders);
+    } else {
+      final int folders = Math.max(1, (int) Math.sqrt(nodes));
+      for (int f = 0; f < folders; f++) {
+        final FakeNode folder = new FakeNode(NodeKind.FOLDER, "Folder " + f, siteRoot);
+        for (int p = 0; p < nodes / folders; p++) {
+          new FakeNode(p % 10 == 9 ? NodeKind.CONTENT_PROJECTION : NodeKind.PAGE, "Page: " + f + '/' + p + " & More", folder);
+        }
+      }
+    }
+
+    final FakeNode mediaRoot = new FakeNode(NodeKind.MEDIA_FOLDER, "media", null);
+    final int mediaFolders = Math.max(1, (int) Math.sqrt(nodes / 10.0));
+    for (int f = 0; f < mediaFolders; f++) {
+      final FakeNode folder = new FakeNode(NodeKind.MEDIA_FOLDER, "Images " + f, mediaRoot);
+      for (int m = 0; m < nodes / 10 / mediaFolders; m++) {
+        new FakeNode(m % 2 == 0 ? NodeKind.PICTURE : NodeKind.FILE, "Media " + f + '-' + m, folder);
+      }
+    }
+  }
+
+
+  private void buildDeep(final FakeNode root, final int folders) {
+    final List<FakeNode> level = new ArrayList<>(Collections.singletonList(root));
+    int created = 0;
+    while (created < folders) {
+      final List<FakeNode> next = new ArrayList<>(level.size() * 2);
+      for (final FakeNode parent : level) {
+        for (int i = 0; i < 2 && created < folders; i++, created++) {
+          final FakeNode folder = new FakeNode(NodeKind.FOLDER, "Level " + parent._uid + '-' + i, parent);
+          new FakeNode(NodeKind.PAGE, "Start Page " + created, folder);
+          new FakeNode(created % 10 == 9 ? NodeKind.CONTENT_PROJECTION : NodeKind.PAGE, "Page (" + created + ')', folder);
+          next.add(folder);
+        }
+      }
+      level.clear();
+      level.addAll(next);
+    }
+  }
+
+
+  public Project getProject() {
+    return _project;
+  }
+
+
+  public Language getMasterLanguage() {
+    return _german;
+  }
+
+
+  public Language getLanguage() {
+    return _english;
+  }
+
+
+  public TemplateSet getHtmlTemplateSet() {
+    return _templateSets.get(1);
+  }
+
+
+  public Resolution getThumbnail() {
+    return _thumbnail;
+  }
+
+
+  public List<PageRef> getPageRefs() {
+    return _pageRefs;
+  }
+
+
+  public List<PageRef> getContentProjections() {
+    return _contentProjections;
+  }
+
+
+  public List<Media> getMedia() {
+    return _media;
+  }
+
+
+  /**
+   * Add a folder below the site root with a page for each of the provided display names, in that order, so the first
+   * page gets the lowest id. The pages are not added to {@link #getPageRefs()}.
+   *
+   * @return The pages.
+   */
+  public List<PageRef> addSiblings(final String... displayNames) {
+    final FakeNode folder = new FakeNode(NodeKind.FOLDER, "Siblings " + _nextId, _siteRoot);
+    final List<PageRef> pages = new ArrayList<>(displayNames.length);
+    for (final String displayName : displayNames) {
+      pages.add((PageRef) new FakeNode(NodeKind.SIBLING, displayName, folder)._proxy);
+    }
+    return pages;
+  }
+
+
+  /**
+   * Serve the nodes from the release store, as in a generation of the release state, or from the current store, the
+   * default.
+   */
+  public void setRelease(final boolean release) {
+    _release = release;
+  }
+
+
+  /**
+   * Mark a node as never released, so it is not part of a generation of the release state.
+   */
+  public void setNeverReleased(final IDProvider node) {
+    _neverReleased.add(node.getId());
+  }
+
+
+  /**
+   * @return A path lookup without user defined paths, only the store roots map to "/".
+   */
+  public PathLookup getPathLookup() {
+    return (node, language, templateSet) -> node.getParent() == null ? "/" : null;
+  }
+
+
+  /**
+   * @return Page params of the first page of a page reference without content projection.
+   */
+  public static PageParams firstPage() {
+    return proxy(PageParams.class, (method, args) -> {
+      switch (method.getName()) {
+        case "getIndex":
+          return 0;
+        case "getSize":
+          return 1;
+        case "getPageSuffix":
+          return "";
+        default:
+          return unsupported(method);
+      }
+    });
+  }
+
+
+  /**
+   * @return Page params of a content projection page displaying a single dataset with the provided name.
+   */
+  public static ContentPageParams datasetPage(final int index, final String name) {
+    final EntityType entityType = proxy(EntityType.class, (method, args) -> {
+      switch (method.getName()) {
+        case "getAttribute":
+          return "name".equals(args[0]) ? "name" : null;
+        case "getName":
+          return "products";
+        default:
+          return unsupported(method);
+      }
+    });
+    final Entity entity = proxy(Entity.class, (method, args) -> {
+      switch (method.getName()) {
+        case "getValue":
+          return "name".equals(args[0]) ? name : null;
+        case "getEntityType":
+          return entityType;
+        default:
+          return unsupported(method);
+      }
+    });
+    final List<Entity> data = Collections.singletonList(entity);
+    return proxy(ContentPageParams.class, (method, args) -> {
+      switch (method.getName()) {
+        case "getIndex":
+          return index;
+        case "getSize":
+          return 1;
+        case "getPageSuffix":
+          return String.valueOf(index);
+        case "getData":
+          return data;
+        default:
+          return unsupported(method);
+      }
+    });
+  }
+
+
+  private static Language language(final String abbreviation, final Locale locale, final boolean master) {
+    return proxy(Language.class, (method, args) -> {
+      switch (method.getName()) {
+        case "getAbbreviation":
+          return abbreviation;
+        case "getLocale":
+          return locale;
+        case "getName":
+          return locale.getDisplayLanguage(Locale.ENGLISH);
+        case "isMasterLanguage":
+          return master;
+        default:
+          return unsupported(method);
+      }
+    });
+  }
+
+
+  static TemplateSet templateSet(final String uid, final String extension) {
+    return proxy(TemplateSet.class, (method, args) -> {
+      switch (method.getName()) {
+        case "getUid":
+          return uid;
+        case "getExtension":
+          return extension;
+        default:
+          return unsupported(method);
+      }
+    });
+  }
+
+
+  private enum NodeKind {FOLDER, PAGE, SIBLING, CONTENT_PROJECTION, MEDIA_FOLDER, PICTURE, FILE}
+
+
+  /**
+   * Backing data of a single fake store node.
+   */
+  private final class FakeNode {
+
+    private final NodeKind _kind;
+    private final long _id;
+    private final String _uid;
+    private final String _displayName;
+    private final IDProvider _parent;
+    private final IDProvider _proxy;
+    private final LanguageInfo _languageInfo;
+    private final List<IDProvider> _children = new ArrayList<>();
+    private IDProvider _firstChild;
+
+
+    FakeNode(final NodeKind kind, final String displayName, final FakeNode parent) {
+      _kind = kind;
+      _id = _nextId++;
+      _uid = kind.name().toLowerCase(Locale.ENGLISH) + '_' + _id;
+      _displayName = displayName;
+      _parent = parent != null ? parent._proxy : null;
+      _languageInfo = proxy(LanguageInfo.class, (method, args) -> {
+        if ("getDisplayName".equals(method.getName())) {
+          return _displayName;
+        }
+        return unsupported(method);
+      });
+      _proxy = createProxy();
+      if (parent != null && parent._firstChild == null) {
+        parent._firstChild = _proxy;
+      }
+      if (parent != null) {
+        parent._children.add(_proxy);
+      }
+      switch (kind) {
+        case PAGE:
+          _pageRefs.add((PageRef) _proxy);
+          break;
+        case CONTENT_PROJECTION:
+          _contentProjections.add((PageRef) _proxy);
+          break;
+        case PICTURE:
+        case FILE:
+          _media.add((Media) _proxy);
+          break;
+        default:
+          break;
+      }
+    }
+
+
+    private IDProvider createProxy() {
+      switch (_kind) {
+        case FOLDER:
+          return proxy(SiteStoreFolder.class, this::invoke);
+        case PAGE:
+        case SIBLING:
+        case CONTENT_PROJECTION:
+          return proxy(PageRef.class, this::invoke);
+        case MEDIA_FOLDER:
+          return proxy(MediaFolder.class, this::invoke);
+        default:
+          return proxy(Media.class, this::invoke);
+      }
+    }
+
+
+    private Object invoke(final Method method, final Object[] args) {
+      switch (method.getName()) {
+        case "getId":
+          return _id;
+        case "getUid":
+          return _uid;
+        case "getParent":
+          return _parent;
+        case "getProject":
+          return _project;
+        case "getStore":
+          return _store;
+        case "getReleaseStatus":
+          return _neverReleased.contains(_id) ? IDProvider.NEVER_RELEASED : IDProvider.RELEASED;
+        case "getElementType":
+          return _kind == NodeKind.FOLDER ? "PageRefFolder" : _kind == NodeKind.MEDIA_FOLDER ? "MediaFolder" : _kind == NodeKind.PICTURE || _kind == NodeKind.FILE ? "Media" : "PageRef";
+        case "getLanguageInfo":
+          return _languageInfo;
+        case "getStartNode":
+          return _firstChild;
+        case "getChildren":
+          return listable(_children);
+        case "getExtension":
+          return ((TemplateSet) args[0]).getExtension();
+        case "getContent2Params":
+          return _kind == NodeKind.CONTENT_PROJECTION ? CONTENT2_PARAMS : null;
+        case "getType":
+          return _kind == NodeKind.PICTURE ? Media.PICTURE : Media.FILE;
+        case "isLanguageDependent":
+          return false;
+        case "getFile":
+          return FILE;
+        case "getPicture":
+          return PICTURE;
+        default:
+          return unsupported(method);
+      }
+    }
+  }
+
+
+  private static final Content2Params CONTENT2_PARAMS = proxy(Content2Params.class, (method, args) -> {
+    if ("getSitemapVariableName".equals(method.getName())) {
+      return "name";
+    }
+    return unsupported(method);
+  });
+
+  private static final File FILE = proxy(File.class, (method, args) -> {
+    if ("getExtension".equals(method.getName())) {
+      return "pdf";
+    }
+    return unsupported(method);
+  });
+
+  private static final MediaMetaData JPG = proxy(MediaMetaData.class, (method, args) -> {
+    if ("getExtension".equals(method.getName())) {
+      return "jpg";
+    }
+    return unsupported(method);
+  });
+
+  private static final Picture PICTURE = proxy(Picture.class, (method, args) -> {
+    if ("getPictureMetaData".equals(method.getName())) {
+      return JPG;
+    }
+    return unsupported(method);
+  });
+
+
+  /**
+   * Handler of a fake; {@code equals}, {@code hashCode} and {@code toString} are implemented by {@link #proxy}.
+   */
+  interface Handler {
+
+    Object invoke(Method method, Object[] args) throws Throwable;
+  }
+
+
+  static <T> T proxy(final Class<T> type, final Handler handler) {
+    final InvocationHandler invocationHandler = (proxy, method, args) -> {
+      switch (method.getName()) {
+        case "equals":
+          return proxy == args[0];
+        case "hashCode":
+          return System.identityHashCode(proxy);
+        case "toString":
+          return "Fake" + type.getSimpleName() + '@' + Integer.toHexString(System.identityHashCode(proxy));
+        default:
+          return handler.invoke(method, args);
+      }
+    };
+    return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, invocationHandler));
+  }
+
+
+  /**
+   * @return The children of a fake node, only the non recursive listing of all children is supported.
+   */
+  private static Listable<?> listable(final List<IDProvider> children) {
+    return proxy(Listable.class, (method, args) -> {
+      switch (method.getName()) {
+        case "iterator":
+          return children.iterator();
+        case "toList":
+          return new ArrayList<>(children);
+        case "getFirst":
+          return children.isEmpty() ? null : children.get(0);
+        default:
+          return unsupported(method);
+      }
+    });
+  }
+
+
+  private static Object unsupported(final Method method) {
+    throw new UnsupportedOperationException(method.getDeclaringClass().getSimpleName() + '.' + method.getName());
+  }
+}
@@ -0,0 +1,192 @@
+package com.espirit.modules.to_be_renamed.urlfactory;
+
+import com.espirit.modules.to_be_renamed.fake.To_be_renamedBudget;
+import com.espirit.modules.to_be_renamed.urlfactory.To_be_renamedFakeModel.Shape;
+import de.espirit.firstspirit.access.store.PageParams;
+import de.espirit.firstspirit.access.store.mediastore.Media;
+import de.espirit.firstspirit.access.store.sitestore.PageRef;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+
+/*
+
+URLs of the url factory over a synthetic site tree: unique, stable across calls and within the latency and allocation
+budget per URL, which is paid for every page and medium of a generation
+
+*/
+
+public class To_be_renamedUrlFactoryTest {
+
+  private static final int NODES = 2_000;
+
+
+  @Test
+  public void testPageUrls() {
+    for (final Shape shape : Shape.values()) {
+      final To_be_renamedFakeModel model = new To_be_renamedFakeModel(shape, NODES);
+      final To_be_renamedUrlFactory factory = factory(model, false);
+      final PageParams firstPage = To_be_renamedFakeModel.firstPage();
+      final Set<String> urls = new HashSet<>();
+      for (final PageRef pageRef : model.getPageRefs()) {
+        final String url = factory.getUrl(pageRef, model.getHtmlTemplateSet(), model.getLanguage(), firstPage);
+        Assert.assertTrue(url, url.startsWith("/"));
+        Assert.assertTrue(url, url.endsWith(".html"));
+        Assert.assertTrue("Duplicate " + url, urls.add(url));
+        Assert.assertEquals(url, factory.getUrl(pageRef, model.getHtmlTemplateSet(), model.getLanguage(), firstPage));
+      }
+    }
+  }
+
+
+  @Test
+  public void testContentProjectionUrls() {
+    final To_be_renamedFakeModel model = new To_be_renamedFakeModel(Shape.WIDE, NODES);
+    final To_be_renamedUrlFactory factory = factory(model, false);
+    final PageRef pageRef = model.getContentProjections().get(0);
+    final Set<String> urls = new HashSet<>();
+    for (int i = 0; i < 100; i++) {
+      // the datasets share a name, their URLs are still unique
+      final String url = factory.getUrl(pageRef, model.getHtmlTemplateSet(), model.getLanguage(), To_be_renamedFakeModel.datasetPage(i, "Product"));
+      Assert.assertTrue(url, url.endsWith(".html"));
+      Assert.assertTrue("Duplicate " + url, urls.add(url));
+    }
+  }
+
+
+  @Test
+  public void testCollidingSiblings() {
+    final To_be_renamedFakeModel model = new To_be_renamedFakeModel(Shape.WIDE, 100);
+    // the names only differ by characters removed from URLs
+    final List<PageRef> siblings = model.addSiblings("Other", "Press & News", "Press/News", "Press: News");
+    final PageParams firstPage = To_be_renamedFakeModel.firstPage();
+    final List<String> forward = new ArrayList<>();
+    final To_be_renamedUrlFactory forwardFactory = factory(model, false);
+    for (final PageRef pageRef : siblings) {
+      forward.add(forwardFactory.getUrl(pageRef, model.getHtmlTemplateSet(), model.getLanguage(), firstPage));
+    }
+    final List<String> backward = new ArrayList<>();
+    final To_be_renamedUrlFactory backwardFactory = factory(model, false);
+    for (int i = siblings.size() - 1; i >= 0; i--) {
+      backward.add(0, backwardFactory.getUrl(siblings.get(i), model.getHtmlTemplateSet(), model.getLanguage(), firstPage));
+    }
+
+    // the sibling with the lowest id keeps the URL, whatever the order of the generation
+    Assert.assertEquals(forward, backward);
+    Assert.assertEquals(4, new HashSet<>(forward).size());
+    final String url = forward.get(1);
+    for (int i = 2; i < siblings.size(); i++) {
+      Assert.assertEquals(To_be_renamedUrlRegistry.insertSuffix(url, String.valueOf(siblings.get(i).getId())), forward.get(i));
+    }
+    Assert.assertEquals(2, backwardFactory.getUrlRegistry().getCollisions().size());
+    Assert.assertSame(backwardFactory.getUrlRegistry(), To_be_renamedUrlRegistry.getLatest(model.getProject().getId()));
+  }
+
+
+  @Test
+  public void testReusedFactory() {
+    final To_be_renamedFakeModel model = new To_be_renamedFakeModel(Shape.WIDE, 100);
+    // the first page is the start page of the folder and named by the welcome file
+    final List<PageRef> siblings = model.addSiblings("Other", "Press & News", "Press/News");
+    final PageParams firstPage = To_be_renamedFakeModel.firstPage();
+    final To_be_renamedUrlFactory factory = factory(model, false);
+    final String url = factory.getUrl(siblings.get(1), model.getHtmlTemplateSet(), model.getLanguage(), firstPage);
+    Assert.assertNotEquals(url, factory.getUrl(siblings.get(2), model.getHtmlTemplateSet(), model.getLanguage(), firstPage));
+    final To_be_renamedUrlRegistry first = factory.getUrlRegistry();
+
+    // the next generation of the release state, in which the second page is not generated: the third one takes the
+    // URL, neither the registry nor the reservation of the first generation are used again
+    model.setRelease(true);
+    model.setNeverReleased(siblings.get(1));
+    factory.init(new HashMap<>(), model.getPathLookup());
+    Assert.assertNotSame(first, factory.getUrlRegistry());
+    Assert.assertEquals(url, factory.getUrl(siblings.get(2), model.getHtmlTemplateSet(), model.getLanguage(), firstPage));
+    Assert.assertTrue(factory.getUrlRegistry().getCollisions().isEmpty());
+    Assert.assertEquals(1, first.getCollisions().size());
+  }
+
+
+  @Test
+  public void testStandalone() {
+    final To_be_renamedFakeModel model = new To_be_renamedFakeModel(Shape.WIDE, 100);
+    final PageRef pageRef = model.addSiblings("Standalone").get(0);
+    final Map<String, String> settings = new HashMap<>();
+    settings.put(To_be_renamedUrlFactory.STANDALONE, "true");
+    final To_be_renamedUrlFactory factory = new To_be_renamedUrlFactory();
+    factory.init(settings, model.getPathLookup());
+    final String url = factory.getUrl(pageRef, model.getHtmlTemplateSet(), model.getLanguage(), To_be_renamedFakeModel.firstPage());
+
+    // neither the index nor the collision report of the generations see the URLs of a standalone factory
+    Assert.assertNull(To_be_renamedUrlIndex.getInstance().lookup(model.getProject().getId(), url));
+    Assert.assertNotSame(factory.getUrlRegistry(), To_be_renamedUrlRegistry.getLatest(model.getProject().getId()));
+    Assert.assertEquals(1, factory.getUrlRegistry().size());
+  }
+
+
+  @Test
+  public void testLowerCase() {
+    final To_be_renamedFakeModel model = new To_be_renamedFakeModel(Shape.WIDE, NODES);
+    final To_be_renamedUrlFactory factory = factory(model, true);
+    final PageParams firstPage = To_be_renamedFakeModel.firstPage();
+    for (final PageRef pageRef : model.getPageRefs()) {
+      final String url = factory.getUrl(pageRef, model.getHtmlTemplateSet(), model.getLanguage(), firstPage);
+      Assert.assertEquals(url.toLowerCase(Locale.ENGLISH), url);
+    }
+    for (final Media media : model.getMedia()) {
+      final String url = factory.getUrl(media, model.getLanguage(), model.getThumbnail());
+      Assert.assertEquals(url.toLowerCase(Locale.ENGLISH), url);
+    }
+  }
+
+
+  @Test
+  public void testMediaUrls() {
+    final To_be_renamedFakeModel model = new To_be_renamedFakeModel(Shape.WIDE, NODES);
+    final To_be_renamedUrlFactory factory = factory(model, true);
+    final Set<String> urls = new HashSet<>();
+    for (final Media media : model.getMedia()) {
+      final String url = factory.getUrl(media, model.getLanguage(), model.getThumbnail());
+      if (media.getType() == Media.PICTURE) {
+        Assert.assertTrue(url, url.endsWith("_thumbnail.jpg"));
+      } else {
+        Assert.assertTrue(url, url.endsWith(".pdf"));
+      }
+      Assert.assertTrue("Duplicate " + url, urls.add(url));
+      Assert.assertEquals(url, factory.getUrl(media, model.getLanguage(), model.getThumbnail()));
+    }
+  }
+
+
+  @Test
+  public void testUrlBudget() throws Exception {
+    final To_be_renamedFakeModel model = new To_be_renamedFakeModel(Shape.DEEP, NODES);
+    final To_be_renamedUrlFactory factory = factory(model, true);
+    final PageParams firstPage = To_be_renamedFakeModel.firstPage();
+    final List<PageRef> pageRefs = model.getPageRefs();
+    final List<Media> media = model.getMedia();
+    final int[] next = new int[2];
+    // the URLs are known after the warmup, so this is the cost of a generation of an unchanged project; most of it is
+    // the cleanup of the names of the ten folder levels with regular expressions
+    To_be_renamedBudget.of("page url").maxMicros(150).maxBytes(15_000)
+        .check(() -> factory.getUrl(pageRefs.get(next[0]++ % pageRefs.size()), model.getHtmlTemplateSet(), model.getLanguage(), firstPage));
+    To_be_renamedBudget.of("media url").maxMicros(30).maxBytes(4_000)
+        .check(() -> factory.getUrl(media.get(next[1]++ % media.size()), model.getLanguage(), model.getThumbnail()));
+  }
+
+
+  private static To_be_renamedUrlFactory factory(final To_be_renamedFakeModel model, final boolean lowerCase) {
+    final Map<String, String> settings = new HashMap<>();
+    settings.put(To_be_renamedUrlFactory.USELOWERCASE, String.valueOf(lowerCase));
+    final To_be_renamedUrlFactory factory = new To_be_renamedUrlFactory();
+    factory.init(settings, model.getPathLookup());
+    return factory;
+  }
+}
@@ -0,0 +1,87 @@
+package com.espirit.modules.to_be_renamed.urlfactory;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+
+/*
+
+The reverse URL index: a URL that moved to a different node resolves to the new one, a reset drops the URLs of a
+project, and the index only counts as saved once the file was written
+
+*/
+
+public class To_be_renamedUrlIndexTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+
+  @Test
+  public void testMovedUrlGetsTheNewOwner() {
+    final To_be_renamedUrlIndex index = new To_be_renamedUrlIndex();
+    index.put(1L, "/news/press.html", page(11L));
+    index.put(1L, "/news/press.html", page(12L));
+    Assert.assertEquals(12L, index.lookup(1L, "/news/press.html?page=2").getNodeId());
+    Assert.assertEquals(1, index.size());
+  }
+
+
+  @Test
+  public void testClearProject() {
+    final To_be_renamedUrlIndex index = new To_be_renamedUrlIndex();
+    index.put(1L, "/news/press.html", page(11L));
+    index.put(2L, "/news/press.html", page(11L));
+    index.clear(1L);
+    Assert.assertNull(index.lookup(1L, "/news/press.html"));
+    Assert.assertNotNull(index.lookup(2L, "/news/press.html"));
+    Assert.assertTrue(index.isDirty());
+  }
+
+
+  @Test
+  public void testSaveAndLoad() throws Exception {
+    final To_be_renamedUrlIndex index = new To_be_renamedUrlIndex();
+    index.put(1L, "/news/press.html", page(11L));
+    index.put(1L, "/news/press-12.html", page(12L));
+    final Path file = folder.getRoot().toPath().resolve("index").resolve("urls.bin");
+    index.save(file);
+    Assert.assertFalse(index.isDirty());
+    // an unchanged owner does not change the index
+    index.put(1L, "/news/press.html", page(11L));
+    Assert.assertFalse(index.isDirty());
+
+    final To_be_renamedUrlIndex loaded = new To_be_renamedUrlIndex();
+    loaded.load(file);
+    Assert.assertEquals(2, loaded.size());
+    Assert.assertEquals(page(12L), loaded.lookup(1L, "/news/press-12.html"));
+    Assert.assertFalse(loaded.isDirty());
+  }
+
+
+  @Test
+  public void testFailedSaveKeepsTheIndexDirty() throws Exception {
+    final To_be_renamedUrlIndex index = new To_be_renamedUrlIndex();
+    index.put(1L, "/news/press.html", page(11L));
+    final Path notADirectory = folder.newFile().toPath();
+    try {
+      index.save(notADirectory.resolve("urls.bin"));
+      Assert.fail("Saved below a file");
+    } catch (final Exception expected) {
+      Assert.assertTrue(index.isDirty());
+    }
+    index.save(folder.getRoot().toPath().resolve("urls.bin"));
+    Assert.assertFalse(index.isDirty());
+    Assert.assertTrue(Files.isRegularFile(folder.getRoot().toPath().resolve("urls.bin")));
+  }
+
+
+  private static To_be_renamedUrlIndexEntry page(final long nodeId) {
+    return new To_be_renamedUrlIndexEntry("PageRef", nodeId, "EN", "html", null, 0, null);
+  }
+}
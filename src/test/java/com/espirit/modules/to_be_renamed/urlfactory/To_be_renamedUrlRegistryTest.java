@@ -0,0 +1,91 @@
+package com.espirit.modules.to_be_renamed.urlfactory;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+
+/*
+
+URLs claimed by several owners: the preferred owner keeps the URL whatever the order of the claims, the others get a
+suffix that only depends on the owner, and the collisions are reported by the registry of the latest generation
+
+*/
+
+public class To_be_renamedUrlRegistryTest {
+
+  private static final String FIRST = "PageRef:11:EN:html:0:";
+  private static final String SECOND = "PageRef:12:EN:html:0:";
+
+
+  @Test
+  public void testPreferredOwnerKeepsTheUrl() {
+    for (final boolean firstClaimsFirst : new boolean[]{true, false}) {
+      final To_be_renamedUrlRegistry registry = new To_be_renamedUrlRegistry();
+      final String first;
+      final String second;
+      if (firstClaimsFirst) {
+        first = registry.claim("/news/press.html", FIRST, FIRST);
+        second = registry.claim("/news/press.html", SECOND, FIRST);
+      } else {
+        second = registry.claim("/news/press.html", SECOND, FIRST);
+        first = registry.claim("/news/press.html", FIRST, FIRST);
+      }
+      Assert.assertEquals("/news/press.html", first);
+      Assert.assertEquals("/news/press-12.html", second);
+      Assert.assertEquals(1, registry.getCollisions().size());
+      Assert.assertEquals(SECOND, registry.getCollisions().get(0).getOwnerKey());
+    }
+  }
+
+
+  @Test
+  public void testSameOwnerGetsTheSameUrl() {
+    final To_be_renamedUrlRegistry registry = new To_be_renamedUrlRegistry();
+    registry.claim("/news/press.html", FIRST);
+    final String url = registry.claim("/news/press.html", SECOND);
+    Assert.assertEquals(url, registry.claim("/news/press.html", SECOND));
+    Assert.assertEquals(2, registry.size());
+    Assert.assertEquals(1, registry.getCollisions().size());
+  }
+
+
+  @Test
+  public void testDigestIfTheNodeIdIsTaken() {
+    final To_be_renamedUrlRegistry registry = new To_be_renamedUrlRegistry();
+    registry.claim("/news/press.html", FIRST);
+    // a page actually named "press-12" already has the suffixed URL
+    registry.claim("/news/press-12.html", "PageRef:13:EN:html:0:");
+    final String url = registry.claim("/news/press.html", SECOND);
+    Assert.assertEquals("/news/press-12-" + To_be_renamedUrlRegistry.digest(SECOND) + ".html", url);
+    Assert.assertEquals(8, To_be_renamedUrlRegistry.digest(SECOND).length());
+  }
+
+
+  @Test
+  public void testInsertSuffix() {
+    Assert.assertEquals("/a/b-1.html", To_be_renamedUrlRegistry.insertSuffix("/a/b.html", "1"));
+    Assert.assertEquals("/a.b/c-1", To_be_renamedUrlRegistry.insertSuffix("/a.b/c", "1"));
+    Assert.assertEquals("12", To_be_renamedUrlRegistry.getNodeId(SECOND));
+  }
+
+
+  @Test
+  public void testLatestRegistryOfAProject() {
+    final To_be_renamedUrlRegistry previous = new To_be_renamedUrlRegistry();
+    previous.bind(815L);
+    final To_be_renamedUrlRegistry registry = new To_be_renamedUrlRegistry();
+    registry.bind(815L);
+    Assert.assertSame(registry, To_be_renamedUrlRegistry.getLatest(815L));
+    Assert.assertNull(To_be_renamedUrlRegistry.getLatest(816L));
+
+    registry.claim("/news/press.html", FIRST);
+    registry.claim("/news/press.html", SECOND);
+    final List<To_be_renamedUrlRegistry.Collision> collisions = registry.reportCollisions();
+    Assert.assertEquals(1, collisions.size());
+    Assert.assertEquals("/news/press.html", collisions.get(0).getUrl());
+    Assert.assertEquals(FIRST, collisions.get(0).getFirstOwnerKey());
+    Assert.assertEquals("/news/press-12.html", collisions.get(0).getResolvedUrl());
+  }
+}
@@ -0,0 +1,64 @@
+package com.espirit.modules.to_be_renamed.util;
+
+import com.espirit.modules.to_be_renamed.fake.To_be_renamedFakeContext;
+import com.espirit.modules.to_be_renamed.project.To_be_renamedProjectConfig;
+import de.espirit.firstspirit.access.BaseContext;
+import de.espirit.firstspirit.agency.FormsAgent;
+import de.espirit.firstspirit.forms.Form;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+
+The parsed form is cached per project: a context is created per click, so a cache per context would parse the form
+again on every click
+
+*/
+
+public class FormUtilTest {
+
+    private final List<String> parsed = new ArrayList<>();
+
+    @Test
+    public void testFormIsReusedAcrossContextsOfAProject() {
+        final To_be_renamedFakeContext fake = fake(2601, "dom");
+        final BaseContext first = fake.build();
+        final BaseContext second = fake.build();
+        Assert.assertNotSame(first, second);
+
+        final Form form = FormUtil.getCachedTo_be_renamedForm(first);
+        Assert.assertSame(form, FormUtil.getCachedTo_be_renamedForm(second));
+        Assert.assertEquals(1, this.parsed.size());
+
+        // another project has its own form
+        Assert.assertNotSame(form, FormUtil.getCachedTo_be_renamedForm(fake(2602, "dom").build()));
+        Assert.assertEquals(2, this.parsed.size());
+    }
+
+    @Test
+    public void testFormIsRebuiltWhenItsComponentsChange() {
+        final Form form = FormUtil.getCachedTo_be_renamedForm(fake(2603, "dom").build());
+        final Form changed = FormUtil.getCachedTo_be_renamedForm(fake(2603, "otherDom").build());
+
+        Assert.assertNotSame(form, changed);
+        Assert.assertEquals(2, this.parsed.size());
+        Assert.assertTrue(this.parsed.get(1).contains("name=\"otherDom\""));
+    }
+
+    private To_be_renamedFakeContext fake(long projectId, String domComponent) {
+        final FormsAgent formsAgent = To_be_renamedFakeContext.fake(FormsAgent.class, (method, args) -> {
+            if (!method.getName().equals("getForm")) {
+                return To_be_renamedFakeContext.unsupported(method);
+            }
+            this.parsed.add((String) args[0]);
+            return To_be_renamedFakeContext.fake(Form.class, (formMethod, formArgs) -> To_be_renamedFakeContext.unsupported(formMethod));
+        });
+        return new To_be_renamedFakeContext(projectId)
+                .config(To_be_renamedProjectConfig.DOM_COMPONENT, domComponent)
+                .config(To_be_renamedProjectConfig.TEXT_COMPONENT, "text")
+                .specialist(FormsAgent.TYPE, formsAgent);
+    }
+}
@@ -0,0 +1,116 @@
+package com.espirit.modules.to_be_renamed.web;
+
+import com.espirit.modules.to_be_renamed.metrics.To_be_renamedMetrics;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+/*
+
+Runs the metrics servlet in an embedded Jetty, the same way it is mapped in web.xml, with the token "scrape"
+
+*/
+
+public class To_be_renamedMetricsServletTest {
+
+    private static Server server;
+    private static String baseUrl;
+
+    @BeforeClass
+    public static void startServer() throws Exception {
+        final To_be_renamedMetrics metrics = To_be_renamedMetrics.getInstance();
+        metrics.counter("test.requests").add(3);
+        metrics.gauge("test.queue.depth", () -> 7);
+        for (int i = 1; i <= 100; i++) {
+            metrics.histogram("test.latency").record(i * 1_000_000L);
+        }
+
+        server = new Server(0);
+        final ServletContextHandler context = new ServletContextHandler();
+        context.setContextPath("/to_be_renamed");
+        final ServletHolder holder = context.addServlet(To_be_renamedMetricsServlet.class, "/metrics");
+        holder.setInitParameter("token", "scrape");
+        server.setHandler(context);
+        server.start();
+        baseUrl = "http://localhost:" + ((ServerConnector) server.getConnectors()[0]).getLocalPort() + "/to_be_renamed/metrics";
+    }
+
+    @AfterClass
+    public static void stopServer() throws Exception {
+        server.stop();
+    }
+
+    @Test
+    public void testPrometheus() throws IOException {
+        final HttpURLConnection connection = open(baseUrl);
+        Assert.assertEquals(200, connection.getResponseCode());
+        Assert.assertTrue(connection.getContentType().startsWith("text/plain"));
+
+        final String body = read(connection);
+        Assert.assertTrue(body.contains("# TYPE to_be_renamed_test_requests_total counter\nto_be_renamed_test_requests_total 3\n"));
+        Assert.assertTrue(body.contains("to_be_renamed_test_queue_depth 7\n"));
+        Assert.assertTrue(body.contains("# TYPE to_be_renamed_test_latency_seconds summary\n"));
+        Assert.assertTrue(body.contains("to_be_renamed_test_latency_seconds_count 100\n"));
+        Assert.assertTrue(body.contains("to_be_renamed_test_latency_seconds{quantile=\"0.99\"} "));
+    }
+
+    @Test
+    public void testJson() throws IOException {
+        final HttpURLConnection connection = open(baseUrl + "?format=json");
+        Assert.assertEquals(200, connection.getResponseCode());
+        Assert.assertTrue(connection.getContentType().startsWith("application/json"));
+
+        final String body = read(connection);
+        Assert.assertTrue(body.startsWith("{\"counters\":{"));
+        Assert.assertTrue(body.contains("\"test.requests\":3"));
+        Assert.assertTrue(body.contains("\"test.queue.depth\":7.0"));
+        Assert.assertTrue(body.contains("\"test.latency\":{\"count\":100,"));
+    }
+
+    @Test
+    public void testAcceptHeader() throws IOException {
+        final HttpURLConnection connection = open(baseUrl);
+        connection.setRequestProperty("Accept", "application/json");
+        Assert.assertEquals(200, connection.getResponseCode());
+        Assert.assertTrue(connection.getContentType().startsWith("application/json"));
+        Assert.assertEquals("no-store", connection.getHeaderField("Cache-Control"));
+    }
+
+    @Test
+    public void testToken() throws IOException {
+        Assert.assertEquals(401, ((HttpURLConnection) new URL(baseUrl).openConnection()).getResponseCode());
+        final HttpURLConnection wrong = (HttpURLConnection) new URL(baseUrl).openConnection();
+        wrong.setRequestProperty("Authorization", "Bearer other");
+        Assert.assertEquals(401, wrong.getResponseCode());
+    }
+
+    private static HttpURLConnection open(String url) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestProperty("Authorization", "Bearer scrape");
+        return connection;
+    }
+
+    private static String read(HttpURLConnection connection) throws IOException {
+        try (InputStream in = connection.getInputStream()) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
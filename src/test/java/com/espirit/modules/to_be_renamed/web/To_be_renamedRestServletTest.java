@@ -0,0 +1,239 @@
+package com.espirit.modules.to_be_renamed.web;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+/*
+
+Drives the REST servlet in an embedded Jetty against a fake service with 2500 objects, each call of which takes
+50ms and is counted; the access token of project n is token-n
+
+*/
+
+public class To_be_renamedRestServletTest {
+
+    private static final AtomicInteger finds = new AtomicInteger();
+    private static final AtomicInteger gets = new AtomicInteger();
+
+    private static Server server;
+    private static String baseUrl;
+
+    @BeforeClass
+    public static void startServer() throws Exception {
+        final ServletHolder holder = new ServletHolder(new To_be_renamedRestServlet(new FakeSource()));
+        holder.setInitParameter("maxAgeSeconds", "1");
+
+        server = new Server(0);
+        final ServletContextHandler context = new ServletContextHandler();
+        context.setContextPath("/to_be_renamed");
+        context.addServlet(holder, "/api/*");
+        server.setHandler(context);
+        server.start();
+        baseUrl = "http://localhost:" + ((ServerConnector) server.getConnectors()[0]).getLocalPort() + "/to_be_renamed/api/projects/";
+    }
+
+    @AfterClass
+    public static void stopServer() throws Exception {
+        server.stop();
+    }
+
+    @Before
+    public void reset() throws InterruptedException {
+        // let cached responses of other tests expire
+        Thread.sleep(1_100);
+        finds.set(0);
+        gets.set(0);
+    }
+
+    @Test
+    public void testPaging() throws Exception {
+        final Result first = get("1/objects?limit=2", null, null);
+        Assert.assertEquals(200, first.status);
+        Assert.assertEquals("{\"offset\":0,\"limit\":2,\"total\":2500,\"items\":[{\"var\":\"object-0\",\"name\":\"Object 0\"},"
+                + "{\"var\":\"object-1\",\"name\":\"Object 1\"}]}", first.body);
+
+        final Result last = get("1/objects?offset=2499&limit=10&fields=name", null, null);
+        Assert.assertEquals("{\"offset\":2499,\"limit\":10,\"total\":2500,\"items\":[{\"name\":\"Object 2499\"}]}", last.body);
+
+        // all pages of a filter share one call of the service
+        Assert.assertEquals(1, finds.get());
+    }
+
+    @Test
+    public void testSingleObject() throws Exception {
+        final Result found = get("1/objects/object-7?fields=var", null, null);
+        Assert.assertEquals(200, found.status);
+        Assert.assertEquals("{\"var\":\"object-7\"}", found.body);
+        Assert.assertEquals(404, get("1/objects/unknown", null, null).status);
+    }
+
+    @Test
+    public void testNotModified() throws Exception {
+        final Result first = get("1/objects?filter=a", null, null);
+        Assert.assertNotNull(first.etag);
+        final Result second = get("1/objects?filter=a", null, first.etag);
+        Assert.assertEquals(304, second.status);
+        Assert.assertEquals("", second.body);
+    }
+
+    @Test
+    public void testGzip() throws Exception {
+        final Result plain = get("1/objects?limit=500", null, null);
+        final Result gzipped = get("1/objects?limit=500", "gzip", null);
+        Assert.assertEquals("gzip", gzipped.encoding);
+        Assert.assertEquals(plain.body, gzipped.body);
+        Assert.assertNotEquals(plain.etag, gzipped.etag);
+        // either representation's ETag validates the other
+        Assert.assertEquals(304, get("1/objects?limit=500", "gzip", plain.etag).status);
+    }
+
+    @Test
+    public void testConcurrentRequestsAreCoalesced() throws Exception {
+        final ExecutorService clients = Executors.newFixedThreadPool(32);
+        final List<Future<Result>> results = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            final int page = i % 5;
+            results.add(clients.submit(() -> get("2/objects?offset=" + page * 100 + "&limit=100", null, null)));
+        }
+        for (Future<Result> result : results) {
+            Assert.assertEquals(200, result.get().status);
+        }
+        clients.shutdown();
+        Assert.assertTrue(clients.awaitTermination(10, TimeUnit.SECONDS));
+        Assert.assertEquals(1, finds.get());
+    }
+
+    @Test
+    public void testInvalidRequests() throws Exception {
+        Assert.assertEquals(400, get("x/objects", null, null).status);
+        Assert.assertEquals(400, get("1/objects?limit=0", null, null).status);
+        Assert.assertEquals(400, get("1/objects?limit=100000", null, null).status);
+        Assert.assertEquals(400, get("1/objects?offset=-1", null, null).status);
+        Assert.assertEquals(404, get("1/other", null, null).status);
+    }
+
+    @Test
+    public void testAuthorization() throws Exception {
+        Assert.assertEquals(401, get("1/objects", null, null, null).status);
+        Assert.assertEquals(401, get("1/objects", null, null, "Basic dXNlcjpwYXNz").status);
+        // the token of another project
+        Assert.assertEquals(403, get("1/objects", null, null, "Bearer token-2").status);
+        Assert.assertEquals(403, get("1/objects/object-7", null, null, "Bearer token-2").status);
+        Assert.assertEquals(0, finds.get() + gets.get());
+
+        // a response cached for an authorized request is not served without the token
+        Assert.assertEquals(200, get("1/objects?limit=1", null, null).status);
+        Assert.assertEquals(401, get("1/objects?limit=1", null, null, null).status);
+    }
+
+    @Test
+    public void testUnavailableService() throws Exception {
+        final Result result = get("99/objects", null, null);
+        Assert.assertEquals(503, result.status);
+        Assert.assertEquals("5", result.retryAfter);
+    }
+
+    // with the token of the path's project
+    private static Result get(String path, String acceptEncoding, String ifNoneMatch) throws IOException {
+        return get(path, acceptEncoding, ifNoneMatch, "Bearer token-" + path.substring(0, path.indexOf('/')));
+    }
+
+    private static Result get(String path, String acceptEncoding, String ifNoneMatch, String authorization) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        connection.setRequestProperty("Accept-Encoding", acceptEncoding != null ? acceptEncoding : "identity");
+        if (authorization != null) {
+            connection.setRequestProperty("Authorization", authorization);
+        }
+        if (ifNoneMatch != null) {
+            connection.setRequestProperty("If-None-Match", ifNoneMatch);
+        }
+        final Result result = new Result();
+        result.status = connection.getResponseCode();
+        result.etag = connection.getHeaderField("ETag");
+        result.encoding = connection.getHeaderField("Content-Encoding");
+        result.retryAfter = connection.getHeaderField("Retry-After");
+        final InputStream stream = result.status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        if (stream != null) {
+            try (InputStream in = "gzip".equals(result.encoding) ? new GZIPInputStream(stream) : stream) {
+                in.transferTo(body);
+            }
+        }
+        result.body = new String(body.toByteArray(), StandardCharsets.UTF_8);
+        connection.disconnect();
+        return result;
+    }
+
+    private static final class Result {
+
+        private int status;
+        private String body;
+        private String etag;
+        private String encoding;
+        private String retryAfter;
+    }
+
+    private static final class FakeSource implements To_be_renamedRestServlet.Source {
+
+        @Override
+        public List<Map<String, String>> find(long projectId, String apiToken, String filter) throws Exception {
+            Assert.assertTrue(isAuthorized(projectId, apiToken));
+            finds.incrementAndGet();
+            Thread.sleep(50);
+            if (projectId == 99) {
+                throw new IOException("Service is not running");
+            }
+            final List<Map<String, String>> objects = new ArrayList<>();
+            for (int i = 0; i < 2500; i++) {
+                objects.add(object(i));
+            }
+            return objects;
+        }
+
+        @Override
+        public List<Map<String, String>> get(long projectId, String apiToken, List<String> identifiers) throws Exception {
+            Assert.assertTrue(isAuthorized(projectId, apiToken));
+            gets.incrementAndGet();
+            Thread.sleep(50);
+            final String identifier = identifiers.get(0);
+            return identifier.startsWith("object-") ? Collections.singletonList(object(Integer.parseInt(identifier.substring(7)))) : Collections.emptyList();
+        }
+
+        @Override
+        public boolean isAuthorized(long projectId, String accessToken) {
+            return ("token-" + projectId).equals(accessToken);
+        }
+
+        private static Map<String, String> object(int i) {
+            final Map<String, String> object = new LinkedHashMap<>();
+            object.put("var", "object-" + i);
+            object.put("name", "Object " + i);
+            return object;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.espirit.modules.to_be_renamed.web;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/*
+
+Drives the webhook servlet in an embedded Jetty, the way the third party system would, and records what reaches
+the service
+
+*/
+
+public class To_be_renamedWebhookServletTest {
+
+    private static final String SECRET = "s3cret";
+    private static final List<Call> calls = new ArrayList<>();
+
+    private static Server server;
+    private static String baseUrl;
+
+    @BeforeClass
+    public static void startServer() throws Exception {
+        final ServletHolder holder = new ServletHolder(new To_be_renamedWebhookServlet(To_be_renamedWebhookServletTest::record));
+        holder.setInitParameter("secret", SECRET);
+        holder.setInitParameter("windowMillis", "50");
+        holder.setInitOrder(1);
+
+        final ServletHolder disabled = new ServletHolder(new To_be_renamedWebhookServlet(To_be_renamedWebhookServletTest::record));
+        disabled.setInitParameter("secret", "");
+
+        server = new Server(0);
+        final ServletContextHandler context = new ServletContextHandler();
+        context.setContextPath("/to_be_renamed");
+        context.addServlet(holder, "/webhook");
+        context.addServlet(disabled, "/disabled");
+        server.setHandler(context);
+        server.start();
+        baseUrl = "http://localhost:" + ((ServerConnector) server.getConnectors()[0]).getLocalPort() + "/to_be_renamed/webhook";
+    }
+
+    @AfterClass
+    public static void stopServer() throws Exception {
+        server.stop();
+    }
+
+    @Before
+    public void reset() throws InterruptedException {
+        Thread.sleep(200);
+        synchronized (calls) {
+            calls.clear();
+        }
+    }
+
+    @Test
+    public void testSingleNotification() throws Exception {
+        Assert.assertEquals(202, post("{\"projectId\": 42, \"ids\": [\"a\", \"b\", 7]}", SECRET));
+        final Set<String> identifiers = awaitIdentifiers(42, 3);
+        Assert.assertEquals(Set.of("a", "b", "7"), identifiers);
+    }
+
+    @Test
+    public void testBurstIsCoalesced() throws Exception {
+        // 10k notifications for 100 objects from 8 concurrent senders
+        final ExecutorService senders = Executors.newFixedThreadPool(8);
+        final List<Future<Integer>> responses = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            final StringBuilder body = new StringBuilder("[");
+            for (int j = 0; j < 100; j++) {
+                body.append(j == 0 ? "" : ",").append("{\"projectId\":1,\"id\":\"object-").append(j).append("\"}");
+            }
+            body.append(']');
+            responses.add(senders.submit(() -> post(body.toString(), SECRET)));
+        }
+        for (Future<Integer> response : responses) {
+            Assert.assertEquals(Integer.valueOf(202), response.get());
+        }
+        senders.shutdown();
+        Assert.assertTrue(senders.awaitTermination(10, TimeUnit.SECONDS));
+
+        final Set<String> identifiers = awaitIdentifiers(1, 100);
+        Assert.assertEquals(100, identifiers.size());
+        synchronized (calls) {
+            int total = 0;
+            for (Call call : calls) {
+                total += call.identifiers.size();
+            }
+            // every object reaches the service about once per window, not once per notification
+            Assert.assertTrue("too many invalidations: " + total, total < 2_000);
+        }
+    }
+
+    @Test
+    public void testProjectIdParameter() throws Exception {
+        Assert.assertEquals(202, postTo(baseUrl + "?projectId=5", "{\"id\": \"x\"}", SECRET));
+        Assert.assertEquals(Set.of("x"), awaitIdentifiers(5, 1));
+    }
+
+    @Test
+    public void testRejectsWrongSecret() throws Exception {
+        Assert.assertEquals(401, post("{\"projectId\": 1, \"id\": \"a\"}", "wrong"));
+        Assert.assertEquals(401, post("{\"projectId\": 1, \"id\": \"a\"}", null));
+    }
+
+    @Test
+    public void testDisabledWithoutSecret() throws Exception {
+        final String url = baseUrl.replace("/webhook", "/disabled");
+        Assert.assertEquals(503, postTo(url, "{\"projectId\": 1, \"id\": \"a\"}", null));
+        Assert.assertEquals(503, postTo(url, "{\"projectId\": 1, \"id\": \"a\"}", ""));
+        synchronized (calls) {
+            Assert.assertTrue(calls.isEmpty());
+        }
+    }
+
+    @Test
+    public void testRejectsInvalidBody() throws Exception {
+        Assert.assertEquals(400, post("{\"projectId\": 1, \"ids\": [", SECRET));
+        Assert.assertEquals(400, post("{\"ids\": [\"a\"]}", SECRET));
+        Assert.assertEquals(400, post("[1, 2]", SECRET));
+    }
+
+    private static void record(long projectId, Collection<String> identifiers) {
+        synchronized (calls) {
+            calls.add(new Call(projectId, new ArrayList<>(identifiers)));
+            calls.notifyAll();
+        }
+    }
+
+    private static Set<String> awaitIdentifiers(long projectId, int expected) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5_000;
+        synchronized (calls) {
+            while (true) {
+                final Set<String> identifiers = new HashSet<>();
+                for (Call call : calls) {
+                    if (call.projectId == projectId) {
+                        identifiers.addAll(call.identifiers);
+                    }
+                }
+                final long remaining = deadline - System.currentTimeMillis();
+                if (identifiers.size() >= expected || remaining <= 0) {
+                    return identifiers;
+                }
+                calls.wait(remaining);
+            }
+        }
+    }
+
+    private static int post(String body, String secret) throws IOException {
+        return postTo(baseUrl, body, secret);
+    }
+
+    private static int postTo(String url, String body, String secret) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", "application/json");
+        if (secret != null) {
+            connection.setRequestProperty(To_be_renamedWebhookServlet.SECRET_HEADER, secret);
+        }
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        final int status = connection.getResponseCode();
+        connection.disconnect();
+        return status;
+    }
+
+    private static final class Call {
+
+        private final long projectId;
+        private final List<String> identifiers;
+
+        Call(long projectId, List<String> identifiers) {
+            this.projectId = projectId;
+            this.identifiers = identifiers;
+        }
+    }
+}